@@ -0,0 +1,114 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * テストモード（{@link HttpServerJetty9#startLocal()}）での
+ * {@link HttpServerJetty9#handle(HttpRequest, ExecutionContext)}のベンチマーク。
+ *
+ * リクエストボディとレスポンスボディのサイズを変えて、1リクエストあたりの処理時間を計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HandleBenchmark {
+
+    /** リクエストボディおよびレスポンスボディのサイズ（バイト） */
+    @Param({"256", "1048576"})
+    public int bodySize;
+
+    /** HTTPパーサを経由せずにリクエストを処理するか否か */
+    @Param({"false", "true"})
+    public boolean directDispatch;
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /** WARのベースディレクトリ */
+    private File warBase;
+
+    /** 送信するPOSTパラメータの値 */
+    private String paramValue;
+
+    /**
+     * サーバを起動する。
+     *
+     * @throws Exception 起動に失敗した場合
+     */
+    @Setup
+    public void setUp() throws Exception {
+        warBase = File.createTempFile("handle-benchmark", "");
+        warBase.delete();
+        warBase.mkdirs();
+
+        char[] body = new char[bodySize];
+        Arrays.fill(body, 'a');
+        final String responseBody = new String(body);
+        paramValue = responseBody;
+
+        server = new HttpServerJetty9();
+        server.setWarBasePath("file://" + warBase.getAbsolutePath())
+              .addHandler("/benchmark", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).write(responseBody);
+                  }
+              });
+        server.setDirectDispatchEnabled(directDispatch)
+              .startLocal();
+    }
+
+    /**
+     * サーバを停止し、一時ディレクトリを削除する。
+     */
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        warBase.delete();
+    }
+
+    /**
+     * ボディを伴うPOSTリクエストを処理する。
+     *
+     * @return レスポンス
+     */
+    @Benchmark
+    public HttpResponse post() {
+        MockHttpRequest req = new MockHttpRequest("POST /benchmark HTTP/1.1");
+        req.setParam("body", paramValue);
+        return server.handle(req, new ExecutionContext());
+    }
+
+    /**
+     * ボディを伴わないGETリクエストを処理する。
+     *
+     * @return レスポンス
+     */
+    @Benchmark
+    public HttpResponse get() {
+        return server.handle(new MockHttpRequest("GET /benchmark HTTP/1.1"), new ExecutionContext());
+    }
+}
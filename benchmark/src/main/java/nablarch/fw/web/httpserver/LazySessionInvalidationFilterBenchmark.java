@@ -0,0 +1,123 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * {@link LazySessionInvalidationFilter#doFilter(ServletRequest, ServletResponse, FilterChain)}のベンチマーク。
+ *
+ * 後続処理でセッションにアクセスする場合としない場合で、ラップによるオーバヘッドを計測する。
+ * サーブレットコンテナを経由しないよう、リクエスト・セッションは動的プロキシによるスタブを使用する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LazySessionInvalidationFilterBenchmark {
+
+    /** 後続処理でセッションにアクセスするか否か */
+    @Param({"false", "true"})
+    public boolean sessionAccess;
+
+    /** テスト対象のフィルタ */
+    private final LazySessionInvalidationFilter filter = new LazySessionInvalidationFilter();
+
+    /** リクエストのスタブ */
+    private HttpServletRequest request;
+
+    /** レスポンスのスタブ */
+    private HttpServletResponse response;
+
+    /**
+     * スタブを準備する。
+     */
+    @Setup
+    public void setUp() {
+        final HttpSession session = stub(HttpSession.class, null);
+        request = stub(HttpServletRequest.class, session);
+        response = stub(HttpServletResponse.class, null);
+    }
+
+    /**
+     * フィルタを通してリクエストを処理する。
+     *
+     * @param bh ブラックホール
+     * @throws Exception 処理に失敗した場合
+     */
+    @Benchmark
+    public void doFilter(final Blackhole bh) throws Exception {
+        filter.doFilter(request, response, new FilterChain() {
+            public void doFilter(ServletRequest req, ServletResponse res) throws IOException, ServletException {
+                if (sessionAccess) {
+                    HttpSession session = ((HttpServletRequest) req).getSession();
+                    bh.consume(session.getAttribute("user"));
+                    session.setAttribute("user", "benchmark");
+                } else {
+                    bh.consume(((HttpServletRequest) req).getRequestURI());
+                }
+            }
+        });
+    }
+
+    /**
+     * 何もしないスタブを生成する。
+     *
+     * @param type スタブの型
+     * @param session {@code getSession}で返却するセッション
+     * @param <T> スタブの型
+     * @return スタブ
+     */
+    private static <T> T stub(Class<T> type, final HttpSession session) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type}, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                String name = method.getName();
+                if (name.equals("getSession")) {
+                    return session;
+                }
+                if (name.equals("getAttributeNames")) {
+                    return Collections.enumeration(Collections.<String>emptyList());
+                }
+                if (name.equals("getRequestURI")) {
+                    return "/benchmark";
+                }
+                if (method.getReturnType() == boolean.class) {
+                    return false;
+                }
+                if (method.getReturnType() == int.class) {
+                    return 0;
+                }
+                if (method.getReturnType() == long.class) {
+                    return 0L;
+                }
+                return null;
+            }
+        }));
+    }
+}
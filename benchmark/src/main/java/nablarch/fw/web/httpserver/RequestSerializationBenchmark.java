@@ -0,0 +1,84 @@
+package nablarch.fw.web.httpserver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * HTTPリクエストの電文変換のベンチマーク。
+ *
+ * 従来の{@code toString().getBytes()}と{@link ByteBuffer#wrap(byte[])}による変換と、
+ * {@link RequestSerializer}によるプールされたバッファへの変換を比較する。
+ * アロケーション量は{@code -prof gc}オプションで計測すること。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestSerializationBenchmark {
+
+    /** POSTパラメータの個数 */
+    @Param({"10", "1000"})
+    public int paramCount;
+
+    /** 変換対象のリクエスト */
+    private MockHttpRequest request;
+
+    /** プールされたバッファへの変換 */
+    private RequestSerializer serializer;
+
+    /**
+     * リクエストを準備する。
+     */
+    @Setup
+    public void setUp() {
+        request = new MockHttpRequest("POST /action/register HTTP/1.1");
+        request.setHost("127.0.0.1");
+        for (int i = 0; i < paramCount; i++) {
+            request.setParam("form.item" + i, "値" + i + "_abcdefghijklmnopqrstuvwxyz");
+        }
+        serializer = new RequestSerializer(Charset.forName("UTF-8"), new ArrayByteBufferPool());
+    }
+
+    /**
+     * 従来の変換。
+     *
+     * @return 電文
+     */
+    @Benchmark
+    public ByteBuffer wrapBytes() {
+        return ByteBuffer.wrap(request.toString().getBytes());
+    }
+
+    /**
+     * プールされたバッファへの変換。
+     *
+     * @return 電文の長さ
+     */
+    @Benchmark
+    public int pooledBuffer() {
+        ByteBuffer buffer = serializer.serialize(request);
+        int length = buffer.remaining();
+        // サーバが読み込んだ状態にしてから返却する（読み残しのあるバッファはプールに返却されない）
+        buffer.position(buffer.limit());
+        serializer.release(buffer);
+        return length;
+    }
+}
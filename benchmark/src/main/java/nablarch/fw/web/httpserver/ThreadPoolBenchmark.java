@@ -0,0 +1,149 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.net.ServerSocket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.httpserver.load.SocketLoadTarget;
+
+/**
+ * {@link HttpServerJetty9#start()}で起動したサーバのスレッドプールごとのスループットのベンチマーク。
+ *
+ * 負荷モード（{@link SocketLoadTarget}）と同様に、リクエストごとにTCP接続を確立して送信する。
+ * ハンドラはI/O待ちを模して一定時間スリープするため、スレッド数の上限が処理量に影響する。
+ * <ul>
+ * <li>default: Jettyのデフォルト設定の{@link org.eclipse.jetty.util.thread.QueuedThreadPool}</li>
+ * <li>small: 最大スレッド数を16に制限した{@link org.eclipse.jetty.util.thread.QueuedThreadPool}</li>
+ * <li>executor: {@link Executors#newCachedThreadPool()}</li>
+ * <li>virtual: 仮想スレッド（JDK 21未満ではdefaultと同じ）</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ThreadPoolBenchmark {
+
+    /** スレッドプールの種類 */
+    @Param({"default", "small", "executor", "virtual"})
+    public String pool;
+
+    /** ハンドラでのスリープ時間（ミリ秒） */
+    @Param({"0", "5"})
+    public long sleepMillis;
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /** {@code executor}で使用する{@link ExecutorService} */
+    private ExecutorService executor;
+
+    /** WARのベースディレクトリ */
+    private File warBase;
+
+    /** 負荷の送信先 */
+    private SocketLoadTarget target;
+
+    /**
+     * サーバを起動する。
+     *
+     * @throws Exception 起動に失敗した場合
+     */
+    @Setup
+    public void setUp() throws Exception {
+        warBase = File.createTempFile("thread-pool-benchmark", "");
+        warBase.delete();
+        warBase.mkdirs();
+
+        int port = findFreePort();
+        server = new HttpServerJetty9();
+        server.setWarBasePath("file://" + warBase.getAbsolutePath())
+              .setPort(port)
+              .addHandler("/benchmark", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      if (sleepMillis > 0) {
+                          try {
+                              Thread.sleep(sleepMillis);
+                          } catch (InterruptedException e) {
+                              Thread.currentThread().interrupt();
+                          }
+                      }
+                      return new HttpResponse(200).write("ok");
+                  }
+              });
+        if (pool.equals("small")) {
+            server.setMaxThreads(16);
+        } else if (pool.equals("executor")) {
+            executor = Executors.newCachedThreadPool();
+            server.setExecutor(executor);
+        } else if (pool.equals("virtual")) {
+            server.setVirtualThreadsEnabled(true);
+        }
+        server.start();
+        target = new SocketLoadTarget("127.0.0.1", port);
+    }
+
+    /**
+     * サーバを停止し、{@link ExecutorService}と一時ディレクトリを破棄する。
+     *
+     * {@link ExecutorService}はサーバが使用しているため、サーバの停止後に破棄する。
+     */
+    @TearDown
+    public void tearDown() {
+        server.stop();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        warBase.delete();
+    }
+
+    /**
+     * リクエストを送信する。
+     *
+     * @return ステータスコード
+     * @throws Exception 送信に失敗した場合
+     */
+    @Benchmark
+    public int send() throws Exception {
+        return target.send(new MockHttpRequest("GET /benchmark HTTP/1.1"));
+    }
+
+    /**
+     * 空いているポート番号を取得する。
+     *
+     * @return ポート番号
+     * @throws Exception 取得に失敗した場合
+     */
+    private static int findFreePort() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package nablarch.test.core.http.dump;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link RequestDumpAgent#createDumpedBook(String, Map)}のベンチマーク。
+ *
+ * パラメータ数を変えて、ダンプ用のブックの生成にかかる時間を計測する。
+ * Excel 97-2003形式の列数の上限が256であるため、パラメータ数は256以下とする。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RequestDumpAgentBenchmark {
+
+    /** パラメータ数 */
+    @Param({"10", "100", "256"})
+    public int paramCount;
+
+    /** テスト対象 */
+    private final RequestDumpAgent agent = new RequestDumpAgent();
+
+    /** ダンプするパラメータ */
+    private Map<String, String[]> params;
+
+    /**
+     * パラメータを準備する。
+     * <pre>
+     * エスケープ処理を経由するよう、複数値のパラメータや区切り文字を含む値も含める。
+     * </pre>
+     */
+    @Setup
+    public void setUp() {
+        params = new HashMap<String, String[]>();
+        for (int i = 0; i < paramCount; i++) {
+            if (i % 5 == 0) {
+                params.put("form.items" + i, new String[] {"値" + i + "-1", "値" + i + ",2", "C:\\work\\" + i});
+            } else {
+                params.put("form.item" + i, new String[] {"値" + i});
+            }
+        }
+    }
+
+    /**
+     * ダンプ用のブックを生成する。
+     *
+     * @return ブック
+     * @throws Exception 生成に失敗した場合
+     */
+    @Benchmark
+    public HSSFWorkbook createDumpedBook() throws Exception {
+        return agent.createDumpedBook("/action/benchmark", params);
+    }
+}
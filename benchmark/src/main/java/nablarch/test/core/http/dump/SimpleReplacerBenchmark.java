@@ -0,0 +1,85 @@
+package nablarch.test.core.http.dump;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link SimpleReplacer#replace(java.io.Reader, java.io.Writer)}のベンチマーク。
+ *
+ * {@link HtmlReplacerForRequestUnitTesting}と同じ置換パターンで、大きなHTMLの置換にかかる時間を計測する。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SimpleReplacerBenchmark {
+
+    /** 置換パターン */
+    private static final Pattern PATTERN = Pattern.compile("(\"*action\"*:\\s*\")([^\"]*\")");
+
+    /** 置換文字列 */
+    private static final String REPLACEMENT = "$1http://localhost:" + RequestDumpServer.PORT_NUM + "/$2";
+
+    /** HTMLの行数 */
+    @Param({"1000", "100000"})
+    public int lineCount;
+
+    /** テスト対象 */
+    private SimpleReplacer replacer;
+
+    /** 置換対象のHTML */
+    private String html;
+
+    /**
+     * 置換対象のHTMLを準備する。
+     * <pre>
+     * 10行に1行の割合で、置換対象のサブミット情報を含める。
+     * </pre>
+     */
+    @Setup
+    public void setUp() {
+        replacer = new SimpleReplacer(PATTERN, REPLACEMENT, "UTF-8", "\n");
+        StringBuilder sb = new StringBuilder("<html><body>\n");
+        for (int i = 0; i < lineCount; i++) {
+            if (i % 10 == 0) {
+                sb.append("  button").append(i)
+                  .append(": { \"action\": \"action/SampleAction/RW")
+                  .append(i)
+                  .append("\", \"allowDoubleSubmission\": true, \"params\": {} },\n");
+            } else {
+                sb.append("  <div class=\"row\"><span>項目").append(i).append("</span>")
+                  .append("<input type=\"text\" name=\"form.item").append(i).append("\" value=\"\"></div>\n");
+            }
+        }
+        html = sb.append("</body></html>\n").toString();
+    }
+
+    /**
+     * HTMLを置換する。
+     *
+     * @return 置換後のHTMLの長さ
+     * @throws Exception 置換に失敗した場合
+     */
+    @Benchmark
+    public int replace() throws Exception {
+        StringWriter writer = new StringWriter(html.length() + html.length() / 10);
+        replacer.replace(new StringReader(html), writer);
+        return writer.getBuffer().length();
+    }
+}
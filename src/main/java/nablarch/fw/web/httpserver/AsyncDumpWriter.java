@@ -0,0 +1,302 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * HTTPダンプの出力を、専用のライタスレッドで非同期に実行するクラス。
+ *
+ * 出力処理は上限付きのキューに登録され、ライタスレッドが登録順に実行する。
+ * キューが満杯の場合、登録したスレッドは空きができるまで待機する。
+ * 出力処理で発生した例外は保持され、{@link #flush()}の呼び出し時に送出される。
+ *
+ * ライタスレッドは出力処理の登録時に起動し、一定時間出力処理がなければ終了する。
+ * JVM終了時に未出力のダンプを出力するフックはJVMで1つだけ登録し、出力処理が残っているライタのみを対象とする。
+ * このため、{@link #close()}が呼び出されずに破棄されたライタも、スレッドやフックを残さない。
+ */
+class AsyncDumpWriter {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(AsyncDumpWriter.class);
+
+    /** スレッド名の連番 */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** ライタスレッドが終了するまでの待機時間（ミリ秒） */
+    private static final long IDLE_TIMEOUT_MILLIS = 1000L;
+
+    /** ライタスレッドが稼働中のライタ */
+    private static final Set<AsyncDumpWriter> ACTIVE_WRITERS = new HashSet<AsyncDumpWriter>();
+
+    /** JVM終了時に未出力のダンプを出力するフックを登録済みか否か */
+    private static boolean shutdownHookRegistered = false;
+
+    /** 出力処理のキュー */
+    private final BlockingQueue<Runnable> queue;
+
+    /** ライタスレッド（停止中はnull） */
+    private Thread writer;
+
+    /** 登録された出力処理の件数 */
+    private long submittedCount = 0;
+
+    /** 完了した出力処理の件数 */
+    private long completedCount = 0;
+
+    /** キューに滞留した出力処理の最大件数 */
+    private int maxQueueDepth = 0;
+
+    /** 出力処理の合計時間（ナノ秒） */
+    private long totalWriteNanos = 0;
+
+    /** 出力処理の最大時間（ナノ秒） */
+    private long maxWriteNanos = 0;
+
+    /** 未送出の出力処理の例外 */
+    private RuntimeException failure;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param capacity キューの容量
+     */
+    AsyncDumpWriter(int capacity) {
+        queue = new ArrayBlockingQueue<Runnable>(capacity);
+    }
+
+    /**
+     * 出力処理を登録する。
+     * <pre>
+     * キューが満杯の場合は、空きができるまで待機する。
+     * </pre>
+     *
+     * @param task 出力処理
+     */
+    void submit(Runnable task) {
+        synchronized (this) {
+            submittedCount++;
+            startWriter();
+        }
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            synchronized (this) {
+                submittedCount--;
+                notifyAll();
+            }
+            throw new IllegalStateException("interrupted while waiting for the http dump queue.", e);
+        }
+        synchronized (this) {
+            maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        }
+    }
+
+    /**
+     * 登録済みの出力処理がすべて完了するまで待機する。
+     *
+     * @throws RuntimeException 出力処理で例外が発生していた場合
+     */
+    void flush() {
+        awaitCompletion();
+        RuntimeException e;
+        synchronized (this) {
+            e = failure;
+            failure = null;
+        }
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * 登録済みの出力処理をすべて出力し、ライタスレッドを停止する。
+     * <pre>
+     * 割り込み等により出力の完了を待機できなかった場合は、ライタスレッドに割り込まず、
+     * 残りの出力処理を出力させてからアイドルタイムアウトで終了させる。
+     * </pre>
+     */
+    void close() {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                if (writer != null && queue.isEmpty() && completedCount == submittedCount) {
+                    writer.interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * 統計情報を取得する。
+     *
+     * @return 統計情報
+     */
+    synchronized HttpDumpStatistics getStatistics() {
+        return new HttpDumpStatistics(queue.size(), maxQueueDepth, completedCount,
+                completedCount == 0 ? 0 : totalWriteNanos / completedCount, maxWriteNanos);
+    }
+
+    /**
+     * 登録済みの出力処理がすべて完了するまで待機する。
+     */
+    private synchronized void awaitCompletion() {
+        while (completedCount < submittedCount && writer != null) {
+            try {
+                wait(1000L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * ライタスレッドが停止中の場合は起動する。
+     * <pre>
+     * このオブジェクトのロックを取得して呼び出すこと。
+     * </pre>
+     */
+    private void startWriter() {
+        if (writer != null) {
+            return;
+        }
+        writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    drain();
+                } finally {
+                    stopped();
+                }
+            }
+        }, "nablarch-http-dump-writer-" + THREAD_COUNT.incrementAndGet());
+        writer.setDaemon(true);
+        activate(this);
+        writer.start();
+    }
+
+    /**
+     * ライタスレッドの終了を記録する。
+     * <pre>
+     * 既に新たなライタスレッドが起動している場合は、そのスレッドの記録を残す。
+     * </pre>
+     */
+    private void stopped() {
+        synchronized (this) {
+            if (writer == Thread.currentThread()) {
+                writer = null;
+                deactivate(this);
+            }
+            notifyAll();
+        }
+    }
+
+    /**
+     * キューから出力処理を取り出して実行する。
+     * <pre>
+     * 登録済みの出力処理がすべて完了し、一定時間新たな出力処理が登録されなければ終了する。
+     * </pre>
+     */
+    private void drain() {
+        while (true) {
+            Runnable task;
+            try {
+                task = queue.poll(IDLE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == null) {
+                synchronized (this) {
+                    // 登録中（キューへの追加前）の出力処理がある場合は終了しない
+                    if (completedCount == submittedCount) {
+                        // 終了を決めたロックの中で停止を記録し、以降の登録で新たなライタスレッドを起動させる
+                        writer = null;
+                        deactivate(this);
+                        notifyAll();
+                        return;
+                    }
+                }
+                continue;
+            }
+            long start = System.nanoTime();
+            RuntimeException error = null;
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOGGER.logWarn("failed to write http dump.", e);
+                error = e;
+            }
+            long elapsed = System.nanoTime() - start;
+            synchronized (this) {
+                completedCount++;
+                totalWriteNanos += elapsed;
+                maxWriteNanos = Math.max(maxWriteNanos, elapsed);
+                if (error != null && failure == null) {
+                    failure = error;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * ライタスレッドが稼働中のライタとして登録する。
+     * <pre>
+     * 初回の登録時に、JVM終了時に未出力のダンプを出力するフックを登録する。
+     * </pre>
+     *
+     * @param writer ライタ
+     */
+    private static void activate(AsyncDumpWriter writer) {
+        synchronized (ACTIVE_WRITERS) {
+            ACTIVE_WRITERS.add(writer);
+            if (shutdownHookRegistered) {
+                return;
+            }
+            shutdownHookRegistered = true;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                List<AsyncDumpWriter> writers;
+                synchronized (ACTIVE_WRITERS) {
+                    writers = new ArrayList<AsyncDumpWriter>(ACTIVE_WRITERS);
+                }
+                for (AsyncDumpWriter w : writers) {
+                    w.awaitCompletion();
+                }
+            }
+        }, "nablarch-http-dump-shutdown"));
+    }
+
+    /**
+     * ライタスレッドが稼働中のライタから登録を解除する。
+     *
+     * @param writer ライタ
+     */
+    private static void deactivate(AsyncDumpWriter writer) {
+        synchronized (ACTIVE_WRITERS) {
+            ACTIVE_WRITERS.remove(writer);
+        }
+    }
+
+    /**
+     * ライタスレッドが稼働中か否かを判定する。
+     *
+     * @return 稼働中の場合、真
+     */
+    synchronized boolean isWriterAlive() {
+        return writer != null;
+    }
+}
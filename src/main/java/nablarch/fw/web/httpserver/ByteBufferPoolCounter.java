@@ -0,0 +1,51 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link CountingByteBufferPool}の取得・確保・返却回数のカウンタ。
+ */
+class ByteBufferPoolCounter {
+
+    /** 取得回数 */
+    private final AtomicLong acquireCount = new AtomicLong();
+
+    /** 確保回数 */
+    private final AtomicLong allocationCount = new AtomicLong();
+
+    /** 返却回数 */
+    private final AtomicLong releaseCount = new AtomicLong();
+
+    /**
+     * 取得回数を加算する。
+     */
+    void acquired() {
+        acquireCount.incrementAndGet();
+    }
+
+    /**
+     * 確保回数を加算する。
+     */
+    void allocated() {
+        allocationCount.incrementAndGet();
+    }
+
+    /**
+     * 返却回数を加算する。
+     */
+    void released() {
+        releaseCount.incrementAndGet();
+    }
+
+    /**
+     * 統計情報を生成する。
+     *
+     * @param heapMemory プールに保持されているヒープバッファの容量（バイト）
+     * @param directMemory プールに保持されているダイレクトバッファの容量（バイト）
+     * @return 統計情報
+     */
+    ByteBufferPoolStatistics toStatistics(long heapMemory, long directMemory) {
+        return new ByteBufferPoolStatistics(acquireCount.get(), allocationCount.get(), releaseCount.get(),
+                heapMemory, directMemory);
+    }
+}
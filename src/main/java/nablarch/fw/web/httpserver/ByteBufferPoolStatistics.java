@@ -0,0 +1,117 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.Locale;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 組み込みサーバの{@link org.eclipse.jetty.io.ByteBufferPool}の統計情報。
+ *
+ * @see HttpServerJetty9#getByteBufferPoolStatistics()
+ */
+@Published(tag = "architect")
+public class ByteBufferPoolStatistics {
+
+    /** バッファの取得回数 */
+    private final long acquireCount;
+
+    /** プールにバッファが無く、新たに確保した回数 */
+    private final long allocationCount;
+
+    /** バッファの返却回数 */
+    private final long releaseCount;
+
+    /** プールに保持されているヒープバッファの容量（バイト） */
+    private final long retainedHeapMemory;
+
+    /** プールに保持されているダイレクトバッファの容量（バイト） */
+    private final long retainedDirectMemory;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param acquireCount バッファの取得回数
+     * @param allocationCount プールにバッファが無く、新たに確保した回数
+     * @param releaseCount バッファの返却回数
+     * @param retainedHeapMemory プールに保持されているヒープバッファの容量（バイト）
+     * @param retainedDirectMemory プールに保持されているダイレクトバッファの容量（バイト）
+     */
+    ByteBufferPoolStatistics(long acquireCount, long allocationCount, long releaseCount,
+            long retainedHeapMemory, long retainedDirectMemory) {
+        this.acquireCount = acquireCount;
+        this.allocationCount = allocationCount;
+        this.releaseCount = releaseCount;
+        this.retainedHeapMemory = retainedHeapMemory;
+        this.retainedDirectMemory = retainedDirectMemory;
+    }
+
+    /**
+     * バッファの取得回数を取得する。
+     *
+     * @return 取得回数
+     */
+    public long getAcquireCount() {
+        return acquireCount;
+    }
+
+    /**
+     * プールにバッファが無く、新たに確保した回数を取得する。
+     *
+     * @return 確保した回数
+     */
+    public long getAllocationCount() {
+        return allocationCount;
+    }
+
+    /**
+     * バッファの返却回数を取得する。
+     *
+     * @return 返却回数
+     */
+    public long getReleaseCount() {
+        return releaseCount;
+    }
+
+    /**
+     * プールのヒット率を取得する。
+     * <pre>
+     * 取得したバッファのうち、プールに保持されていたバッファを再利用できた割合を返却する。
+     * </pre>
+     *
+     * @return ヒット率（0.0〜1.0、取得していない場合は0.0）
+     */
+    public double getHitRate() {
+        if (acquireCount == 0) {
+            return 0.0;
+        }
+        return (double) Math.max(0L, acquireCount - allocationCount) / acquireCount;
+    }
+
+    /**
+     * プールに保持されているヒープバッファの容量を取得する。
+     *
+     * @return 容量（バイト）
+     */
+    public long getRetainedHeapMemory() {
+        return retainedHeapMemory;
+    }
+
+    /**
+     * プールに保持されているダイレクトバッファの容量を取得する。
+     *
+     * @return 容量（バイト）
+     */
+    public long getRetainedDirectMemory() {
+        return retainedDirectMemory;
+    }
+
+    @Override
+    public String toString() {
+        return "byte buffer pool statistics. acquired = [" + acquireCount
+                + "] allocated = [" + allocationCount
+                + "] released = [" + releaseCount
+                + "] hit rate = [" + String.format(Locale.ENGLISH, "%.3f", getHitRate())
+                + "] retained heap = [" + retainedHeapMemory
+                + "] retained direct = [" + retainedDirectMemory + "]";
+    }
+}
@@ -0,0 +1,218 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+
+/**
+ * クラスパスの内容から、クラスやリソースの変更を検知するためのハッシュ値（フィンガープリント）を算出するクラス。
+ *
+ * Surefireのようにマニフェストのみを含むJARでクラスパスを指定している場合は、
+ * マニフェストのClass-Pathを展開したエントリを使用する。
+ * ハッシュ値は、JARの場合はパス・サイズ・最終更新日時、ディレクトリの場合は配下の全ファイルの
+ * パス・サイズ・最終更新日時から算出するため、クラスやリソースが変更されると値が変わる。
+ *
+ * ディレクトリ配下の走査はコストが高いため、算出したハッシュ値はJVMごとにキャッシュする。
+ * キャッシュは、エントリのパスと最終更新日時（ディレクトリの場合はディレクトリ自体の最終更新日時）が
+ * 一致する間のみ使用する。
+ */
+final class ClasspathFingerprint {
+
+    /** パスの文字コード */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** キャッシュを排他制御するためのロック */
+    private static final Object CACHE_LOCK = new Object();
+
+    /** キャッシュしたハッシュ値のキー（未算出の場合はnull） */
+    private static String cachedKey;
+
+    /** キャッシュしたハッシュ値 */
+    private static String cachedFingerprint;
+
+    /** インスタンス化しない。 */
+    private ClasspathFingerprint() {
+    }
+
+    /**
+     * 現在のJVMのクラスパスのエントリを取得する。
+     * <pre>
+     * マニフェストにClass-Pathを持つJARは、Class-Pathのエントリに展開する。
+     * </pre>
+     *
+     * @return クラスパスのエントリ（絶対パス）
+     */
+    static List<File> currentEntries() {
+        List<File> entries = new ArrayList<File>();
+        for (String path : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (path.isEmpty()) {
+                continue;
+            }
+            File entry = new File(path).getAbsoluteFile();
+            List<File> manifestEntries = readManifestClassPath(entry);
+            if (manifestEntries.isEmpty()) {
+                entries.add(entry);
+            } else {
+                entries.addAll(manifestEntries);
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 現在のJVMのクラスパスのハッシュ値を取得する。
+     *
+     * @return ハッシュ値（16進数表記）
+     */
+    static String current() {
+        return of(currentEntries());
+    }
+
+    /**
+     * クラスパスのエントリのハッシュ値を取得する。
+     * <pre>
+     * エントリのパスと最終更新日時が前回の算出時と一致する場合は、キャッシュした値を返却する。
+     * </pre>
+     *
+     * @param entries クラスパスのエントリ
+     * @return ハッシュ値（16進数表記）
+     */
+    static String of(List<File> entries) {
+        String key = cacheKey(entries);
+        synchronized (CACHE_LOCK) {
+            if (key.equals(cachedKey)) {
+                return cachedFingerprint;
+            }
+        }
+        MessageDigest digest = newDigest();
+        for (File entry : entries) {
+            update(digest, entry);
+        }
+        String fingerprint = toHex(digest.digest());
+        synchronized (CACHE_LOCK) {
+            cachedKey = key;
+            cachedFingerprint = fingerprint;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * キャッシュのキーを生成する。
+     * <pre>
+     * エントリごとのパスと最終更新日時（JARの場合はサイズを含む）から生成する。
+     * ディレクトリ配下は走査しない。
+     * </pre>
+     *
+     * @param entries クラスパスのエントリ
+     * @return キャッシュのキー
+     */
+    private static String cacheKey(List<File> entries) {
+        StringBuilder sb = new StringBuilder();
+        for (File entry : entries) {
+            sb.append(entry.getPath()).append('=');
+            if (entry.isFile()) {
+                sb.append(entry.length()).append(':');
+            }
+            sb.append(entry.lastModified()).append(File.pathSeparatorChar);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * JARのマニフェストに記載されたClass-Pathを取得する。
+     *
+     * @param entry クラスパスのエントリ
+     * @return Class-Pathのエントリ（JARでない場合、Class-Pathが存在しない場合は空のリスト）
+     */
+    private static List<File> readManifestClassPath(File entry) {
+        List<File> result = new ArrayList<File>();
+        if (!entry.isFile() || !entry.getName().endsWith(".jar")) {
+            return result;
+        }
+        try {
+            JarFile jar = new JarFile(entry);
+            try {
+                Manifest manifest = jar.getManifest();
+                String classPath = manifest == null ? null
+                        : manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+                if (classPath == null) {
+                    return result;
+                }
+                URI base = entry.getParentFile().toURI();
+                for (String element : classPath.trim().split("\\s+")) {
+                    if (!element.isEmpty()) {
+                        result.add(new File(base.resolve(element)));
+                    }
+                }
+            } finally {
+                jar.close();
+            }
+        } catch (IOException e) {
+            // 読み込めないJARは、そのままクラスパスとして使用する
+            result.clear();
+        } catch (IllegalArgumentException e) {
+            // URIとして解釈できないClass-Pathは、そのままクラスパスとして使用する
+            result.clear();
+        }
+        return result;
+    }
+
+    /**
+     * ファイルまたはディレクトリのパス・サイズ・最終更新日時をハッシュ値に加える。
+     *
+     * @param digest ハッシュ値
+     * @param file ファイルまたはディレクトリ
+     */
+    private static void update(MessageDigest digest, File file) {
+        digest.update(file.getPath().getBytes(UTF_8));
+        if (file.isDirectory()) {
+            File[] children = file.listFiles();
+            if (children == null) {
+                return;
+            }
+            Arrays.sort(children);
+            for (File child : children) {
+                update(digest, child);
+            }
+            return;
+        }
+        digest.update((file.length() + ":" + file.lastModified()).getBytes(UTF_8));
+    }
+
+    /**
+     * SHA-256の{@link MessageDigest}を生成する。
+     *
+     * @return {@link MessageDigest}
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * バイト配列を16進文字列に変換する。
+     *
+     * @param bytes バイト配列
+     * @return 16進文字列
+     */
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,38 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * リクエストの完了を待機するためのラッチ。
+ *
+ * カウントダウンされた時刻を記録し、ハンドラキューの処理時間の計測に使用する。
+ */
+class CompletionLatch extends CountDownLatch {
+
+    /** カウントダウンされた時刻（{@link System#nanoTime()}、未カウントダウンの場合は0） */
+    private volatile long countedDownAt = 0;
+
+    /**
+     * コンストラクタ。
+     */
+    CompletionLatch() {
+        super(1);
+    }
+
+    @Override
+    public void countDown() {
+        if (countedDownAt == 0) {
+            countedDownAt = System.nanoTime();
+        }
+        super.countDown();
+    }
+
+    /**
+     * カウントダウンされた時刻を取得する。
+     *
+     * @return カウントダウンされた時刻（{@link System#nanoTime()}、未カウントダウンの場合は0）
+     */
+    long getCountedDownAt() {
+        return countedDownAt;
+    }
+}
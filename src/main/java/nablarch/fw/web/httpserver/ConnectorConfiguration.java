@@ -0,0 +1,653 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.zip.Deflater;
+
+import org.eclipse.jetty.server.AbstractConnector;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.gzip.GzipHandler;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * {@link HttpServerJetty9}のスレッドプール・コネクタ・バッファプール・圧縮の設定を保持し、
+ * 設定を反映したJettyのコンポーネントを生成するクラス。
+ *
+ * 各設定の意味とデフォルト値は、{@link HttpServerJetty9}の対応するsetterを参照。
+ */
+final class ConnectorConfiguration {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(ConnectorConfiguration.class);
+
+    /** スレッドプールの最小スレッド数（nullの場合はJettyのデフォルト） */
+    private Integer minThreads;
+
+    /** スレッドプールの最大スレッド数（nullの場合はJettyのデフォルト） */
+    private Integer maxThreads;
+
+    /** スレッドプールのアイドルスレッドを破棄するまでの時間（ミリ秒、nullの場合はJettyのデフォルト） */
+    private Integer threadIdleTimeout;
+
+    /** スレッドプールの予約スレッド数（nullの場合はJettyのデフォルト） */
+    private Integer reservedThreads;
+
+    /** リクエストの処理に使用する{@link Executor}（nullの場合は{@link QueuedThreadPool}を使用する） */
+    private Executor executor;
+
+    /** リクエストを仮想スレッドで処理するか否か */
+    private boolean virtualThreadsEnabled = false;
+
+    /** レスポンスの出力バッファサイズ（バイト、nullの場合はJettyのデフォルト） */
+    private Integer outputBufferSize;
+
+    /** リクエストヘッダの最大サイズ（バイト、nullの場合はJettyのデフォルト） */
+    private Integer requestHeaderSize;
+
+    /** レスポンスヘッダの最大サイズ（バイト、nullの場合はJettyのデフォルト） */
+    private Integer responseHeaderSize;
+
+    /** コネクタのアイドルタイムアウト（ミリ秒、nullの場合はJettyのデフォルト） */
+    private Long idleTimeout;
+
+    /** {@link ServerConnector}のアクセプタスレッド数（-1の場合はJettyが算出する） */
+    private int acceptors = -1;
+
+    /** {@link ServerConnector}のセレクタ数（-1の場合はJettyが算出する） */
+    private int selectors = -1;
+
+    /** コネクタが使用する{@link org.eclipse.jetty.io.ByteBufferPool}の種類（"array"または"mapped"） */
+    private String byteBufferPoolType = "array";
+
+    /** プールするバッファの最大容量（バイト、-1の場合はJettyのデフォルト） */
+    private int byteBufferPoolMaxCapacity = -1;
+
+    /** バケットごとにプールするバッファの最大数（-1の場合は無制限） */
+    private int byteBufferPoolMaxQueueLength = -1;
+
+    /** プールに保持するヒープバッファの最大容量（バイト、-1の場合は無制限） */
+    private long byteBufferPoolMaxHeapMemory = -1L;
+
+    /** プールに保持するダイレクトバッファの最大容量（バイト、-1の場合は無制限） */
+    private long byteBufferPoolMaxDirectMemory = -1L;
+
+    /** テストモードで送信するリクエストの電文にダイレクトバッファを使用するか否か */
+    private boolean directBuffersEnabled = false;
+
+    /** HTTP/2 cleartext（h2c）を有効にするか否か */
+    private boolean http2CleartextEnabled = false;
+
+    /** HTTP/2の1接続あたりの最大同時ストリーム数（-1の場合はJettyのデフォルト） */
+    private int http2MaxConcurrentStreams = -1;
+
+    /** HTTP/2のストリームのフロー制御ウィンドウの初期サイズ（バイト、-1の場合はJettyのデフォルト） */
+    private int http2InitialStreamRecvWindow = -1;
+
+    /** HTTP/2のセッションのフロー制御ウィンドウの初期サイズ（バイト、-1の場合はJettyのデフォルト） */
+    private int http2InitialSessionRecvWindow = -1;
+
+    /** レスポンスをgzip圧縮するか否か */
+    private boolean gzipEnabled = false;
+
+    /** gzip圧縮するレスポンスの最小サイズ（バイト、-1の場合はJettyのデフォルト） */
+    private int gzipMinSize = -1;
+
+    /** gzip圧縮するMIMEタイプ（nullの場合はJettyのデフォルト） */
+    private String[] gzipMimeTypes;
+
+    /** gzip圧縮の圧縮レベル */
+    private int gzipCompressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+    /** 待ち受けるUNIXドメインソケットのパス（nullの場合は待ち受けない） */
+    private String unixSocketPath;
+
+    /**
+     * スレッドプールの最小スレッド数を設定する。
+     *
+     * @param minThreads 最小スレッド数
+     */
+    void setMinThreads(int minThreads) {
+        if (minThreads < 1) {
+            throw new IllegalArgumentException("minThreads must be greater than 0. value = [" + minThreads + "]");
+        }
+        this.minThreads = minThreads;
+    }
+
+    /**
+     * スレッドプールの最大スレッド数を設定する。
+     *
+     * @param maxThreads 最大スレッド数
+     */
+    void setMaxThreads(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads must be greater than 0. value = [" + maxThreads + "]");
+        }
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * スレッドプールのアイドルスレッドを破棄するまでの時間を設定する。
+     *
+     * @param threadIdleTimeout アイドルスレッドを破棄するまでの時間（ミリ秒）
+     */
+    void setThreadIdleTimeout(int threadIdleTimeout) {
+        if (threadIdleTimeout < 0) {
+            throw new IllegalArgumentException(
+                    "threadIdleTimeout must not be negative. value = [" + threadIdleTimeout + "]");
+        }
+        this.threadIdleTimeout = threadIdleTimeout;
+    }
+
+    /**
+     * スレッドプールの予約スレッド数を設定する。
+     *
+     * @param reservedThreads 予約スレッド数
+     */
+    void setReservedThreads(int reservedThreads) {
+        if (reservedThreads < 0) {
+            throw new IllegalArgumentException(
+                    "reservedThreads must not be negative. value = [" + reservedThreads + "]");
+        }
+        this.reservedThreads = reservedThreads;
+    }
+
+    /**
+     * リクエストの処理に使用する{@link Executor}を設定する。
+     *
+     * @param executor リクエストの処理に使用する{@link Executor}
+     */
+    void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * リクエストを仮想スレッドで処理するか否かを設定する。
+     *
+     * @param virtualThreadsEnabled 仮想スレッドで処理する場合、真
+     */
+    void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * リクエストを仮想スレッドで処理するか否かを取得する。
+     *
+     * @return 仮想スレッドで処理する場合、真
+     */
+    boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    /**
+     * レスポンスの出力バッファサイズを設定する。
+     *
+     * @param outputBufferSize 出力バッファサイズ（バイト）
+     */
+    void setOutputBufferSize(int outputBufferSize) {
+        if (outputBufferSize < 1) {
+            throw new IllegalArgumentException(
+                    "outputBufferSize must be greater than 0. value = [" + outputBufferSize + "]");
+        }
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    /**
+     * リクエストヘッダの最大サイズを設定する。
+     *
+     * @param requestHeaderSize リクエストヘッダの最大サイズ（バイト）
+     */
+    void setRequestHeaderSize(int requestHeaderSize) {
+        if (requestHeaderSize < 1) {
+            throw new IllegalArgumentException(
+                    "requestHeaderSize must be greater than 0. value = [" + requestHeaderSize + "]");
+        }
+        this.requestHeaderSize = requestHeaderSize;
+    }
+
+    /**
+     * レスポンスヘッダの最大サイズを設定する。
+     *
+     * @param responseHeaderSize レスポンスヘッダの最大サイズ（バイト）
+     */
+    void setResponseHeaderSize(int responseHeaderSize) {
+        if (responseHeaderSize < 1) {
+            throw new IllegalArgumentException(
+                    "responseHeaderSize must be greater than 0. value = [" + responseHeaderSize + "]");
+        }
+        this.responseHeaderSize = responseHeaderSize;
+    }
+
+    /**
+     * コネクタのアイドルタイムアウトを設定する。
+     *
+     * @param idleTimeout アイドルタイムアウト（ミリ秒）
+     */
+    void setIdleTimeout(long idleTimeout) {
+        if (idleTimeout < 0) {
+            throw new IllegalArgumentException("idleTimeout must not be negative. value = [" + idleTimeout + "]");
+        }
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * {@link ServerConnector}のアクセプタスレッド数を設定する。
+     *
+     * @param acceptors アクセプタスレッド数
+     */
+    void setAcceptors(int acceptors) {
+        if (acceptors < -1) {
+            throw new IllegalArgumentException("acceptors must be -1 or greater. value = [" + acceptors + "]");
+        }
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * {@link ServerConnector}のセレクタ数を設定する。
+     *
+     * @param selectors セレクタ数
+     */
+    void setSelectors(int selectors) {
+        if (selectors < -1 || selectors == 0) {
+            throw new IllegalArgumentException("selectors must be -1 or greater than 0. value = [" + selectors + "]");
+        }
+        this.selectors = selectors;
+    }
+
+    /**
+     * コネクタが使用するバッファプールの種類を設定する。
+     *
+     * @param byteBufferPoolType バッファプールの種類（"array"または"mapped"）
+     */
+    void setByteBufferPoolType(String byteBufferPoolType) {
+        if (!"array".equals(byteBufferPoolType) && !"mapped".equals(byteBufferPoolType)) {
+            throw new IllegalArgumentException(
+                    "byteBufferPoolType must be 'array' or 'mapped'. value = [" + byteBufferPoolType + "]");
+        }
+        this.byteBufferPoolType = byteBufferPoolType;
+    }
+
+    /**
+     * バッファプールがプールするバッファの最大容量を設定する。
+     *
+     * @param byteBufferPoolMaxCapacity プールするバッファの最大容量（バイト）
+     */
+    void setByteBufferPoolMaxCapacity(int byteBufferPoolMaxCapacity) {
+        this.byteBufferPoolMaxCapacity = byteBufferPoolMaxCapacity;
+    }
+
+    /**
+     * バッファプールがバケットごとにプールするバッファの最大数を設定する。
+     *
+     * @param byteBufferPoolMaxQueueLength バケットごとにプールするバッファの最大数
+     */
+    void setByteBufferPoolMaxQueueLength(int byteBufferPoolMaxQueueLength) {
+        this.byteBufferPoolMaxQueueLength = byteBufferPoolMaxQueueLength;
+    }
+
+    /**
+     * バッファプールに保持するヒープバッファの最大容量を設定する。
+     *
+     * @param byteBufferPoolMaxHeapMemory ヒープバッファの最大容量（バイト）
+     */
+    void setByteBufferPoolMaxHeapMemory(long byteBufferPoolMaxHeapMemory) {
+        this.byteBufferPoolMaxHeapMemory = byteBufferPoolMaxHeapMemory;
+    }
+
+    /**
+     * バッファプールに保持するダイレクトバッファの最大容量を設定する。
+     *
+     * @param byteBufferPoolMaxDirectMemory ダイレクトバッファの最大容量（バイト）
+     */
+    void setByteBufferPoolMaxDirectMemory(long byteBufferPoolMaxDirectMemory) {
+        this.byteBufferPoolMaxDirectMemory = byteBufferPoolMaxDirectMemory;
+    }
+
+    /**
+     * テストモードで送信するリクエストの電文にダイレクトバッファを使用するか否かを設定する。
+     *
+     * @param directBuffersEnabled ダイレクトバッファを使用する場合、真
+     */
+    void setDirectBuffersEnabled(boolean directBuffersEnabled) {
+        this.directBuffersEnabled = directBuffersEnabled;
+    }
+
+    /**
+     * テストモードで送信するリクエストの電文にダイレクトバッファを使用するか否かを取得する。
+     *
+     * @return ダイレクトバッファを使用する場合、真
+     */
+    boolean isDirectBuffersEnabled() {
+        return directBuffersEnabled;
+    }
+
+    /**
+     * HTTP/2 cleartext（h2c）を有効にするか否かを設定する。
+     *
+     * @param http2CleartextEnabled h2cを有効にする場合、真
+     */
+    void setHttp2CleartextEnabled(boolean http2CleartextEnabled) {
+        this.http2CleartextEnabled = http2CleartextEnabled;
+    }
+
+    /**
+     * HTTP/2 cleartext（h2c）を有効にするか否かを取得する。
+     *
+     * @return h2cを有効にする場合、真
+     */
+    boolean isHttp2CleartextEnabled() {
+        return http2CleartextEnabled;
+    }
+
+    /**
+     * HTTP/2の1接続あたりの最大同時ストリーム数を設定する。
+     *
+     * @param http2MaxConcurrentStreams 最大同時ストリーム数
+     */
+    void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        if (http2MaxConcurrentStreams < 1) {
+            throw new IllegalArgumentException(
+                    "http2MaxConcurrentStreams must be greater than 0. value = [" + http2MaxConcurrentStreams + "]");
+        }
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    /**
+     * HTTP/2のストリームのフロー制御ウィンドウの初期サイズを設定する。
+     *
+     * @param http2InitialStreamRecvWindow ウィンドウの初期サイズ（バイト）
+     */
+    void setHttp2InitialStreamRecvWindow(int http2InitialStreamRecvWindow) {
+        if (http2InitialStreamRecvWindow < 1) {
+            throw new IllegalArgumentException("http2InitialStreamRecvWindow must be greater than 0. value = ["
+                    + http2InitialStreamRecvWindow + "]");
+        }
+        this.http2InitialStreamRecvWindow = http2InitialStreamRecvWindow;
+    }
+
+    /**
+     * HTTP/2のセッションのフロー制御ウィンドウの初期サイズを設定する。
+     *
+     * @param http2InitialSessionRecvWindow ウィンドウの初期サイズ（バイト）
+     */
+    void setHttp2InitialSessionRecvWindow(int http2InitialSessionRecvWindow) {
+        if (http2InitialSessionRecvWindow < 1) {
+            throw new IllegalArgumentException("http2InitialSessionRecvWindow must be greater than 0. value = ["
+                    + http2InitialSessionRecvWindow + "]");
+        }
+        this.http2InitialSessionRecvWindow = http2InitialSessionRecvWindow;
+    }
+
+    /**
+     * レスポンスをgzip圧縮するか否かを設定する。
+     *
+     * @param gzipEnabled gzip圧縮する場合、真
+     */
+    void setGzipEnabled(boolean gzipEnabled) {
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    /**
+     * レスポンスをgzip圧縮するか否かを取得する。
+     *
+     * @return gzip圧縮する場合、真
+     */
+    boolean isGzipEnabled() {
+        return gzipEnabled;
+    }
+
+    /**
+     * gzip圧縮するレスポンスの最小サイズを設定する。
+     *
+     * @param gzipMinSize 最小サイズ（バイト）
+     */
+    void setGzipMinSize(int gzipMinSize) {
+        if (gzipMinSize < 0) {
+            throw new IllegalArgumentException("gzipMinSize must not be negative. value = [" + gzipMinSize + "]");
+        }
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    /**
+     * gzip圧縮するMIMEタイプを設定する。
+     *
+     * @param gzipMimeTypes MIMEタイプ（カンマ区切り）
+     */
+    void setGzipMimeTypes(String gzipMimeTypes) {
+        List<String> mimeTypes = new ArrayList<String>();
+        for (String mimeType : gzipMimeTypes.split(",")) {
+            if (mimeType.trim().length() > 0) {
+                mimeTypes.add(mimeType.trim());
+            }
+        }
+        this.gzipMimeTypes = mimeTypes.toArray(new String[mimeTypes.size()]);
+    }
+
+    /**
+     * gzip圧縮の圧縮レベルを設定する。
+     *
+     * @param gzipCompressionLevel 圧縮レベル
+     */
+    void setGzipCompressionLevel(int gzipCompressionLevel) {
+        if (gzipCompressionLevel < Deflater.DEFAULT_COMPRESSION || gzipCompressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException(
+                    "gzipCompressionLevel must be between -1 and 9. value = [" + gzipCompressionLevel + "]");
+        }
+        this.gzipCompressionLevel = gzipCompressionLevel;
+    }
+
+    /**
+     * 待ち受けるUNIXドメインソケットのパスを設定する。
+     *
+     * @param unixSocketPath ソケットファイルのパス
+     */
+    void setUnixSocketPath(String unixSocketPath) {
+        this.unixSocketPath = unixSocketPath;
+    }
+
+    /**
+     * 待ち受けるUNIXドメインソケットのパスを取得する。
+     *
+     * @return ソケットファイルのパス（待ち受けない場合はnull）
+     */
+    String getUnixSocketPath() {
+        return unixSocketPath;
+    }
+
+    /**
+     * リクエストの処理に使用するスレッドプールを生成する。
+     * <pre>
+     * 以下の優先順位で生成する。
+     *
+     *   1. 設定された{@link Executor}に委譲するスレッドプール
+     *   2. 仮想スレッドが有効かつ実行中のJDKがサポートする場合、仮想スレッドでタスクを実行するスレッドプール
+     *   3. スレッド数等の設定を反映した{@link QueuedThreadPool}
+     * </pre>
+     *
+     * @return スレッドプール
+     */
+    ThreadPool createThreadPool() {
+        if (executor != null) {
+            return new ExecutorBackedThreadPool(executor);
+        }
+        if (virtualThreadsEnabled) {
+            ThreadPool virtual = ExecutorBackedThreadPool.forVirtualThreads();
+            if (virtual != null) {
+                return virtual;
+            }
+            LOGGER.logWarn("virtual threads are not supported on this JDK. "
+                    + "use QueuedThreadPool instead. java.version = [" + System.getProperty("java.version") + "]");
+        }
+        QueuedThreadPool pool = new QueuedThreadPool();
+        if (maxThreads != null) {
+            pool.setMaxThreads(maxThreads);
+        }
+        if (minThreads != null) {
+            pool.setMinThreads(minThreads);
+        }
+        if (threadIdleTimeout != null) {
+            pool.setIdleTimeout(threadIdleTimeout);
+        }
+        if (reservedThreads != null) {
+            pool.setReservedThreads(reservedThreads);
+        }
+        return pool;
+    }
+
+    /**
+     * コネクタが使用する{@link org.eclipse.jetty.io.ByteBufferPool}を生成する。
+     * <pre>
+     * 統計情報を取得できるよう、取得・確保・返却回数を計数するプールを生成する。
+     * </pre>
+     *
+     * @return バッファプール
+     */
+    CountingByteBufferPool createByteBufferPool() {
+        if (byteBufferPoolType.equals("mapped")) {
+            return new CountingMappedByteBufferPool(byteBufferPoolMaxQueueLength,
+                    byteBufferPoolMaxHeapMemory, byteBufferPoolMaxDirectMemory);
+        }
+        return new CountingArrayByteBufferPool(byteBufferPoolMaxCapacity, byteBufferPoolMaxQueueLength,
+                byteBufferPoolMaxHeapMemory, byteBufferPoolMaxDirectMemory);
+    }
+
+    /**
+     * {@link HttpServerJetty9#start()}で待ち受ける{@link ServerConnector}を生成する。
+     * <pre>
+     * HTTP/1.1に加え、h2cが有効な場合はHTTP/2 cleartextのコネクションファクトリを設定する。
+     * </pre>
+     *
+     * @param server サーバ
+     * @param config HTTPの設定
+     * @param port ポート番号
+     * @return コネクタ
+     */
+    ServerConnector createServerConnector(Server server, HttpConfiguration config, int port) {
+        List<ConnectionFactory> factories = new ArrayList<ConnectionFactory>();
+        factories.add(new HttpConnectionFactory(config));
+        if (http2CleartextEnabled) {
+            factories.add(Http2CleartextSupport.create(config, http2MaxConcurrentStreams,
+                    http2InitialStreamRecvWindow, http2InitialSessionRecvWindow));
+        }
+        ServerConnector conn = new ServerConnector(server, null, null, createByteBufferPool(),
+                acceptors, selectors, factories.toArray(new ConnectionFactory[factories.size()]));
+        conn.setPort(port);
+        configureIdleTimeout(conn);
+        return conn;
+    }
+
+    /**
+     * UNIXドメインソケットで待ち受けるコネクタを生成する。
+     *
+     * @param server サーバ
+     * @param config HTTPの設定
+     * @return コネクタ（ソケットのパスが設定されていない場合はnull）
+     */
+    Connector createUnixSocketConnector(Server server, HttpConfiguration config) {
+        if (unixSocketPath == null) {
+            return null;
+        }
+        Connector unixConnector = UnixSocketSupport.create(server, createByteBufferPool(), unixSocketPath,
+                new HttpConnectionFactory(config));
+        configureIdleTimeout((AbstractConnector) unixConnector);
+        return unixConnector;
+    }
+
+    /**
+     * テストモードで使用する{@link LocalConnector}を生成する。
+     *
+     * @param server サーバ
+     * @return コネクタ
+     */
+    LocalConnector createLocalConnector(Server server) {
+        LocalConnector connector = new LocalConnector(server, null, null, createByteBufferPool(), -1,
+                new HttpConnectionFactory(createHttpConfiguration()));
+        configureIdleTimeout(connector);
+        return connector;
+    }
+
+    /**
+     * Webアプリケーションのレスポンスをgzip圧縮する{@link GzipHandler}を生成する。
+     *
+     * @param context 圧縮対象のWebアプリケーションコンテキストを保持するハンドラ
+     * @return {@link GzipHandler}
+     */
+    GzipHandler createGzipHandler(Handler context) {
+        GzipHandler gzipHandler = new GzipHandler();
+        if (gzipMinSize >= 0) {
+            gzipHandler.setMinGzipSize(gzipMinSize);
+        }
+        if (gzipMimeTypes != null) {
+            gzipHandler.setIncludedMimeTypes(gzipMimeTypes);
+        }
+        gzipHandler.setCompressionLevel(gzipCompressionLevel);
+        gzipHandler.setHandler(context);
+        return gzipHandler;
+    }
+
+    /**
+     * コネクションファクトリに設定する{@link HttpConfiguration}を生成する。
+     * <pre>
+     * 出力バッファサイズ、リクエスト・レスポンスヘッダの最大サイズが設定されている場合は反映する。
+     * </pre>
+     *
+     * @return HTTPの設定
+     */
+    HttpConfiguration createHttpConfiguration() {
+        HttpConfiguration config = new HttpConfiguration();
+        if (outputBufferSize != null) {
+            config.setOutputBufferSize(outputBufferSize);
+        }
+        if (requestHeaderSize != null) {
+            config.setRequestHeaderSize(requestHeaderSize);
+        }
+        if (responseHeaderSize != null) {
+            config.setResponseHeaderSize(responseHeaderSize);
+        }
+        return config;
+    }
+
+    /**
+     * サーバプールで借り受けるサーバが一致すべき、スレッドプールとコネクタの設定を表す文字列を生成する。
+     * <pre>
+     * {@link HttpServerJetty9#startLocal()}で参照する設定（スレッドプール、HTTPの設定、バッファプール）を含める。
+     * {@link Executor}はインスタンスごとに区別する。
+     * </pre>
+     *
+     * @return 設定を表す文字列
+     */
+    String describe() {
+        return "threads=" + minThreads + "/" + maxThreads + "/" + threadIdleTimeout + "/" + reservedThreads
+                + " executor=" + (executor == null ? null
+                        : executor.getClass().getName() + "@" + System.identityHashCode(executor))
+                + " virtualThreads=" + virtualThreadsEnabled
+                + " http=" + outputBufferSize + "/" + requestHeaderSize + "/" + responseHeaderSize + "/" + idleTimeout
+                + " byteBufferPool=" + byteBufferPoolType + "/" + byteBufferPoolMaxCapacity + "/"
+                + byteBufferPoolMaxQueueLength + "/" + byteBufferPoolMaxHeapMemory + "/" + byteBufferPoolMaxDirectMemory;
+    }
+
+    /**
+     * コネクタにアイドルタイムアウトを設定する。
+     * <pre>
+     * アイドルタイムアウトが設定されていない場合は何もしない。
+     * </pre>
+     *
+     * @param connector コネクタ
+     */
+    private void configureIdleTimeout(AbstractConnector connector) {
+        if (idleTimeout != null) {
+            connector.setIdleTimeout(idleTimeout);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package nablarch.fw.web.httpserver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 連続するリクエスト間でクッキーを引き継ぐクラス。
+ *
+ * レスポンスの"Set-Cookie"ヘッダで設定されたクッキーを保持し、後続のリクエストの"Cookie"ヘッダに付与する。
+ * 有効期限やパスは考慮せず、"Max-Age=0"が指定された場合のみクッキーを削除する。
+ */
+class CookieJar {
+
+    /** ヘッダ部の文字コード */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /** 改行 */
+    private static final String CRLF = "\r\n";
+
+    /** 保持しているクッキー */
+    private final Map<String, String> cookies = new LinkedHashMap<String, String>();
+
+    /**
+     * "Cookie"ヘッダの値に、保持しているクッキーを付与する。
+     * <pre>
+     * 同じ名前のクッキーがヘッダの値に含まれる場合は、ヘッダの値を優先する。
+     * </pre>
+     *
+     * @param header "Cookie"ヘッダの値（ヘッダが存在しない場合はnull）
+     * @return クッキーを付与したヘッダの値（ヘッダが存在せず、保持しているクッキーもない場合はnull）
+     */
+    String applyTo(String header) {
+        StringBuilder sb = new StringBuilder();
+        if (header != null) {
+            sb.append(header);
+        }
+        for (Map.Entry<String, String> cookie : cookies.entrySet()) {
+            if (header == null || !containsCookie(header, cookie.getKey())) {
+                sb.append(sb.length() == 0 ? "" : "; ").append(cookie.getKey()).append('=').append(cookie.getValue());
+            }
+        }
+        return header == null && sb.length() == 0 ? null : sb.toString();
+    }
+
+    /**
+     * レスポンスの電文から"Set-Cookie"ヘッダを読み取り、保持しているクッキーを更新する。
+     *
+     * @param response レスポンスの電文（読み出しモード、位置は変更しない）
+     */
+    void update(ByteBuffer response) {
+        ByteBuffer buffer = response.duplicate();
+        int end = buffer.position();
+        int limit = buffer.limit();
+        while (end + 3 < limit && !(buffer.get(end) == '\r' && buffer.get(end + 1) == '\n'
+                && buffer.get(end + 2) == '\r' && buffer.get(end + 3) == '\n')) {
+            end++;
+        }
+        buffer.limit(Math.min(limit, end));
+        String head = ISO_8859_1.decode(buffer).toString();
+        for (String line : head.split(CRLF)) {
+            if (isHeader(line, "set-cookie")) {
+                updateFrom(line.substring(line.indexOf(':') + 1));
+            }
+        }
+    }
+
+    /**
+     * "Set-Cookie"ヘッダの値から、保持しているクッキーを更新する。
+     *
+     * @param header "Set-Cookie"ヘッダの値
+     */
+    void updateFrom(String header) {
+        String[] attributes = header.split(";");
+        int eq = attributes[0].indexOf('=');
+        if (eq <= 0) {
+            return;
+        }
+        String name = attributes[0].substring(0, eq).trim();
+        String value = attributes[0].substring(eq + 1).trim();
+        boolean expired = false;
+        for (int i = 1; i < attributes.length; i++) {
+            if (attributes[i].trim().equalsIgnoreCase("Max-Age=0")) {
+                expired = true;
+            }
+        }
+        if (expired) {
+            cookies.remove(name);
+        } else {
+            cookies.put(name, value);
+        }
+    }
+
+    /**
+     * 保持しているクッキーを取得する。
+     *
+     * @return クッキー名と値のマップ
+     */
+    Map<String, String> getCookies() {
+        return cookies;
+    }
+
+    /**
+     * ヘッダ行が指定された名前のヘッダであるか否かを判定する。
+     *
+     * @param line ヘッダ行
+     * @param name ヘッダ名（小文字）
+     * @return 指定された名前のヘッダである場合、真
+     */
+    private static boolean isHeader(String line, String name) {
+        int colon = line.indexOf(':');
+        return colon > 0 && line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH).equals(name);
+    }
+
+    /**
+     * "Cookie"ヘッダの値に、指定された名前のクッキーが含まれるか否かを判定する。
+     *
+     * @param header "Cookie"ヘッダの値
+     * @param name クッキー名
+     * @return 含まれる場合、真
+     */
+    private static boolean containsCookie(String header, String name) {
+        for (String pair : header.split(";")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).trim().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,51 @@
+package nablarch.fw.web.httpserver;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+
+/**
+ * 取得・確保・返却回数を計数する{@link ArrayByteBufferPool}。
+ */
+class CountingArrayByteBufferPool extends ArrayByteBufferPool implements CountingByteBufferPool {
+
+    /** カウンタ */
+    private final ByteBufferPoolCounter counter = new ByteBufferPoolCounter();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxCapacity プールするバッファの最大容量（バイト、0以下の場合はJettyのデフォルト）
+     * @param maxQueueLength バケットごとにプールするバッファの最大数（0以下の場合は無制限）
+     * @param maxHeapMemory プールに保持するヒープバッファの最大容量（バイト、0以下の場合は無制限）
+     * @param maxDirectMemory プールに保持するダイレクトバッファの最大容量（バイト、0以下の場合は無制限）
+     */
+    CountingArrayByteBufferPool(int maxCapacity, int maxQueueLength, long maxHeapMemory, long maxDirectMemory) {
+        super(-1, -1, maxCapacity, maxQueueLength, maxHeapMemory, maxDirectMemory);
+    }
+
+    @Override
+    public ByteBuffer acquire(int size, boolean direct) {
+        counter.acquired();
+        return super.acquire(size, direct);
+    }
+
+    @Override
+    public ByteBuffer newByteBuffer(int capacity, boolean direct) {
+        counter.allocated();
+        return super.newByteBuffer(capacity, direct);
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        if (buffer != null) {
+            counter.released();
+        }
+        super.release(buffer);
+    }
+
+    @Override
+    public ByteBufferPoolStatistics getStatistics() {
+        return counter.toStatistics(getHeapMemory(), getDirectMemory());
+    }
+}
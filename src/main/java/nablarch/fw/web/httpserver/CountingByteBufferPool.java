@@ -0,0 +1,22 @@
+package nablarch.fw.web.httpserver;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+
+/**
+ * バッファの取得・確保・返却回数を計数する{@link ByteBufferPool}。
+ *
+ * Jettyのプール実装ごとに実装クラスを用意し、プールにバッファが無い場合に呼び出される
+ * {@link ByteBufferPool#newByteBuffer(int, boolean)}の呼び出し回数を確保回数として計数する。
+ *
+ * @see CountingArrayByteBufferPool
+ * @see CountingMappedByteBufferPool
+ */
+interface CountingByteBufferPool extends ByteBufferPool {
+
+    /**
+     * 統計情報を取得する。
+     *
+     * @return 統計情報
+     */
+    ByteBufferPoolStatistics getStatistics();
+}
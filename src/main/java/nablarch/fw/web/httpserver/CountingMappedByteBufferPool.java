@@ -0,0 +1,50 @@
+package nablarch.fw.web.httpserver;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.io.MappedByteBufferPool;
+
+/**
+ * 取得・確保・返却回数を計数する{@link MappedByteBufferPool}。
+ */
+class CountingMappedByteBufferPool extends MappedByteBufferPool implements CountingByteBufferPool {
+
+    /** カウンタ */
+    private final ByteBufferPoolCounter counter = new ByteBufferPoolCounter();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param maxQueueLength バケットごとにプールするバッファの最大数（0以下の場合は無制限）
+     * @param maxHeapMemory プールに保持するヒープバッファの最大容量（バイト、0以下の場合は無制限）
+     * @param maxDirectMemory プールに保持するダイレクトバッファの最大容量（バイト、0以下の場合は無制限）
+     */
+    CountingMappedByteBufferPool(int maxQueueLength, long maxHeapMemory, long maxDirectMemory) {
+        super(-1, maxQueueLength, null, maxHeapMemory, maxDirectMemory);
+    }
+
+    @Override
+    public ByteBuffer acquire(int size, boolean direct) {
+        counter.acquired();
+        return super.acquire(size, direct);
+    }
+
+    @Override
+    public ByteBuffer newByteBuffer(int capacity, boolean direct) {
+        counter.allocated();
+        return super.newByteBuffer(capacity, direct);
+    }
+
+    @Override
+    public void release(ByteBuffer buffer) {
+        if (buffer != null) {
+            counter.released();
+        }
+        super.release(buffer);
+    }
+
+    @Override
+    public ByteBufferPoolStatistics getStatistics() {
+        return counter.toStatistics(getHeapMemory(), getDirectMemory());
+    }
+}
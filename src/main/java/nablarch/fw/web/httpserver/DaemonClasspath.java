@@ -0,0 +1,58 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * {@link ServerDaemon}を起動するクラスパスと、その内容のハッシュ値を求めるクラス。
+ *
+ * クラスパスのエントリの解決とハッシュ値の算出は{@link ClasspathFingerprint}に委譲する。
+ */
+final class DaemonClasspath {
+
+    /** クラスパスのエントリ */
+    private final List<File> entries;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param entries クラスパスのエントリ
+     */
+    private DaemonClasspath(List<File> entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * 現在のJVMのクラスパスを取得する。
+     *
+     * @return クラスパス
+     */
+    static DaemonClasspath current() {
+        return new DaemonClasspath(ClasspathFingerprint.currentEntries());
+    }
+
+    /**
+     * クラスパスを、-cpオプションに指定する文字列として取得する。
+     *
+     * @return クラスパス
+     */
+    String toClassPathString() {
+        StringBuilder sb = new StringBuilder();
+        for (File entry : entries) {
+            if (sb.length() > 0) {
+                sb.append(File.pathSeparatorChar);
+            }
+            sb.append(entry.getPath());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * クラスパスの内容のハッシュ値を算出する。
+     *
+     * @return ハッシュ値（16進数表記）
+     */
+    String hash() {
+        return ClasspathFingerprint.of(entries);
+    }
+}
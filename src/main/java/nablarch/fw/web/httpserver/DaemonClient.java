@@ -0,0 +1,353 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileLock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.fw.ExecutionContext;
+
+/**
+ * {@link ServerDaemon}に接続し、リクエストの処理を依頼するクラス。
+ *
+ * 1つの接続を使いまわすため、リクエストの処理は直列化される。
+ */
+class DaemonClient {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(DaemonClient.class);
+
+    /** 接続のタイムアウト（ミリ秒） */
+    private static final int CONNECT_TIMEOUT = 3000;
+
+    /** デーモンの起動を確認する間隔（ミリ秒） */
+    private static final long POLL_INTERVAL = 200L;
+
+    /** デーモンに引き継がないシステムプロパティの接頭辞（JVMやOSが設定するもの） */
+    private static final String[] JVM_PROPERTY_PREFIXES = {
+            "java.", "javax.", "jdk.", "sun.", "os.", "user.", "file.", "path.", "line.", "awt.", "surefire."
+    };
+
+    /** 同一JVM内でのデーモンの起動を排他制御するためのロック */
+    private static final Object START_LOCK = new Object();
+
+    /** 接続 */
+    private final Socket socket;
+
+    /** 入力元 */
+    private final DataInputStream in;
+
+    /** 出力先 */
+    private final DataOutputStream out;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param socket 接続
+     * @param token 接続用のトークン
+     * @throws IOException 接続に失敗した場合
+     */
+    private DaemonClient(Socket socket, String token) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        out.writeUTF(token);
+        out.flush();
+    }
+
+    /**
+     * 接続情報に従ってデーモンに接続し、応答があることを確認する。
+     *
+     * @param state 接続情報
+     * @return クライアント
+     * @throws IOException 接続に失敗した場合
+     */
+    static DaemonClient open(Properties state) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(),
+                    Integer.parseInt(state.getProperty(ServerDaemon.PORT))), CONNECT_TIMEOUT);
+            DaemonClient client = new DaemonClient(socket, state.getProperty(ServerDaemon.TOKEN));
+            client.ping();
+            return client;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        } catch (NumberFormatException e) {
+            socket.close();
+            throw new IOException("invalid daemon state. state = " + state, e);
+        }
+    }
+
+    /**
+     * デーモンに接続する。
+     * <pre>
+     * クラスパスのハッシュ値とサーバを構成するクラスが一致するデーモンが起動している場合は、そのデーモンに接続する。
+     * 一致しないデーモンが起動している場合は停止し、新たにデーモンを起動してから接続する。
+     * 複数のJVMから同時に呼び出された場合も、状態ディレクトリのファイルロックにより、起動は1回だけ行う。
+     * 状態ディレクトリは、所有者のみがアクセスできるパーミッションで作成する。
+     * </pre>
+     *
+     * @param provider {@link DaemonServerProvider}の実装クラス名
+     * @param stateDirectory 状態ディレクトリ
+     * @param startTimeout デーモンの起動を待機する時間（ミリ秒）
+     * @param idleTimeout デーモンがリクエストを受信しない場合に終了するまでの時間（ミリ秒）
+     * @return クライアント
+     */
+    static DaemonClient connect(String provider, File stateDirectory, long startTimeout, long idleTimeout) {
+        DaemonClasspath classpath = DaemonClasspath.current();
+        String hash = classpath.hash();
+        synchronized (START_LOCK) {
+            try {
+                ServerDaemon.createStateDirectory(stateDirectory);
+                RandomAccessFile lockFile = new RandomAccessFile(
+                        ServerDaemon.createOwnerOnlyFile(new File(stateDirectory, ServerDaemon.LOCK_FILE)), "rw");
+                try {
+                    FileLock lock = lockFile.getChannel().lock();
+                    try {
+                        DaemonClient client = connectExisting(provider, stateDirectory, hash);
+                        if (client != null) {
+                            return client;
+                        }
+                        launch(provider, stateDirectory, classpath, hash, idleTimeout);
+                        return awaitStarted(provider, stateDirectory, hash, startTimeout);
+                    } finally {
+                        lock.release();
+                    }
+                } finally {
+                    lockFile.close();
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("failed to connect to the server daemon. state directory = ["
+                        + stateDirectory + "]", e);
+            }
+        }
+    }
+
+    /**
+     * 起動済みのデーモンに接続する。
+     * <pre>
+     * クラスパスのハッシュ値またはサーバを構成するクラスが一致しないデーモンは停止する。
+     * </pre>
+     *
+     * @param provider {@link DaemonServerProvider}の実装クラス名
+     * @param stateDirectory 状態ディレクトリ
+     * @param hash クラスパスのハッシュ値
+     * @return クライアント（接続できるデーモンが存在しない場合はnull）
+     */
+    private static DaemonClient connectExisting(String provider, File stateDirectory, String hash) {
+        Properties state = ServerDaemon.readState(stateDirectory);
+        if (state == null) {
+            return null;
+        }
+        DaemonClient client;
+        try {
+            client = open(state);
+        } catch (IOException e) {
+            return null;
+        }
+        if (hash.equals(state.getProperty(ServerDaemon.CLASSPATH_HASH))
+                && provider.equals(state.getProperty(ServerDaemon.PROVIDER))) {
+            return client;
+        }
+        LOGGER.logInfo("classpath or provider of the server daemon has changed. restarting the daemon.");
+        try {
+            client.shutdown();
+        } catch (IOException e) {
+            // 既に停止している
+        } finally {
+            client.close();
+        }
+        return null;
+    }
+
+    /**
+     * デーモンを別のJVMで起動する。
+     * <pre>
+     * デーモンは、現在のJVMと同じJavaランタイム、同じクラスパスで起動する。
+     * 現在のJVMの起動オプション（エージェント、ヒープサイズ等）と、JVMやOSが設定するもの以外のシステムプロパティを引き継ぐ。
+     * デバッガの接続オプションは、ポートが競合するため引き継がない。
+     * 標準出力・標準エラー出力は、状態ディレクトリのログファイルに追記する。
+     * </pre>
+     *
+     * @param provider {@link DaemonServerProvider}の実装クラス名
+     * @param stateDirectory 状態ディレクトリ
+     * @param classpath クラスパス
+     * @param hash クラスパスのハッシュ値
+     * @param idleTimeout デーモンがリクエストを受信しない場合に終了するまでの時間（ミリ秒）
+     * @throws IOException 起動に失敗した場合
+     */
+    private static void launch(String provider, File stateDirectory, DaemonClasspath classpath, String hash,
+            long idleTimeout) throws IOException {
+        new File(stateDirectory, ServerDaemon.STATE_FILE).delete();
+        List<String> command = new ArrayList<String>();
+        command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+        command.addAll(jvmArguments());
+        command.add("-cp");
+        command.add(classpath.toClassPathString());
+        command.add(ServerDaemon.class.getName());
+        command.add(provider);
+        command.add(stateDirectory.getAbsolutePath());
+        command.add(hash);
+        command.add(String.valueOf(idleTimeout));
+        ProcessBuilder builder = new ProcessBuilder(command);
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.appendTo(
+                ServerDaemon.createOwnerOnlyFile(new File(stateDirectory, ServerDaemon.LOG_FILE))));
+        builder.start();
+        LOGGER.logInfo("launched the server daemon. provider = [" + provider + "]");
+    }
+
+    /**
+     * デーモンに引き継ぐJVMの起動オプションを取得する。
+     * <pre>
+     * システムプロパティは、起動オプションではなく現在の値から"-D"オプションを生成する。
+     * （起動後に設定されたシステムプロパティも引き継ぐため。）
+     * </pre>
+     *
+     * @return 起動オプション
+     */
+    static List<String> jvmArguments() {
+        List<String> arguments = new ArrayList<String>();
+        for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+            if (argument.startsWith("-D")
+                    || argument.startsWith("-agentlib:jdwp") || argument.startsWith("-Xrunjdwp")
+                    || argument.equals("-Xdebug")) {
+                continue;
+            }
+            arguments.add(argument);
+        }
+        Properties properties = System.getProperties();
+        for (String name : properties.stringPropertyNames()) {
+            String value = properties.getProperty(name);
+            if (value != null && !isJvmProperty(name)) {
+                arguments.add("-D" + name + '=' + value);
+            }
+        }
+        return arguments;
+    }
+
+    /**
+     * JVMやOSが設定するシステムプロパティか否かを判定する。
+     *
+     * @param name システムプロパティ名
+     * @return JVMやOSが設定するシステムプロパティの場合、真
+     */
+    private static boolean isJvmProperty(String name) {
+        for (String prefix : JVM_PROPERTY_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 起動したデーモンが接続情報を出力するまで待機し、接続する。
+     *
+     * @param provider {@link DaemonServerProvider}の実装クラス名
+     * @param stateDirectory 状態ディレクトリ
+     * @param hash クラスパスのハッシュ値
+     * @param startTimeout デーモンの起動を待機する時間（ミリ秒）
+     * @return クライアント
+     */
+    private static DaemonClient awaitStarted(String provider, File stateDirectory, String hash, long startTimeout) {
+        long deadline = System.currentTimeMillis() + startTimeout;
+        while (System.currentTimeMillis() < deadline) {
+            DaemonClient client = connectExisting(provider, stateDirectory, hash);
+            if (client != null) {
+                return client;
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new IllegalStateException("server daemon did not start within the timeout. timeout = ["
+                + startTimeout + "ms] log = [" + new File(stateDirectory, ServerDaemon.LOG_FILE) + "]");
+    }
+
+    /**
+     * デーモンにリクエストの処理を依頼する。
+     * <pre>
+     * 実行コンテキストのリクエストスコープ・セッションスコープの値を送信し、
+     * デーモンでの処理後の値を実行コンテキストに設定する。
+     * </pre>
+     *
+     * @param rawRequest HTTPリクエストの電文
+     * @param requestLine ログ出力に使用するリクエストライン
+     * @param context 実行コンテキスト
+     * @return 応答電文（読み出しモード）
+     * @throws IOException 通信に失敗した場合
+     */
+    synchronized ByteBuffer dispatch(byte[] rawRequest, String requestLine, ExecutionContext context)
+            throws IOException {
+        out.writeByte(DaemonProtocol.HANDLE);
+        DaemonProtocol.writeBytes(out, rawRequest);
+        out.writeUTF(requestLine);
+        DaemonProtocol.writeContext(out, context);
+        out.flush();
+        if (in.readByte() != DaemonProtocol.OK) {
+            throw new IllegalStateException("server daemon failed to handle the request. request line = ["
+                    + requestLine + "]\n" + new String(DaemonProtocol.readBytes(in), ServerDaemon.UTF_8));
+        }
+        ByteBuffer response = ByteBuffer.wrap(DaemonProtocol.readBytes(in));
+        DaemonProtocol.readContext(in, context);
+        return response;
+    }
+
+    /**
+     * デーモンの応答を確認する。
+     *
+     * @throws IOException 応答がない場合
+     */
+    synchronized void ping() throws IOException {
+        out.writeByte(DaemonProtocol.PING);
+        out.flush();
+        if (in.readByte() != DaemonProtocol.OK) {
+            throw new IOException("unexpected response from the server daemon.");
+        }
+    }
+
+    /**
+     * デーモンを停止する。
+     *
+     * @throws IOException 通信に失敗した場合
+     */
+    synchronized void shutdown() throws IOException {
+        out.writeByte(DaemonProtocol.SHUTDOWN);
+        out.flush();
+        in.readByte();
+    }
+
+    /**
+     * 接続を切断する。
+     * <pre>
+     * デーモンは停止しない。
+     * </pre>
+     */
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 切断済み
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.ByteBufferPool;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+
+/**
+ * {@link HttpServerJetty9}がテストモードのサーバを{@link ServerDaemon}で起動する場合の、
+ * デーモンの設定と接続を保持するクラス。
+ *
+ * 各設定の意味とデフォルト値は、{@link HttpServerJetty9}の対応するsetterを参照。
+ */
+final class DaemonConnection {
+
+    /** {@link ServerDaemon}で起動するサーバを構成する{@link DaemonServerProvider}の実装クラス名 */
+    private String serverProvider = null;
+
+    /** {@link ServerDaemon}の接続情報を出力する状態ディレクトリ */
+    private File stateDirectory = new File(System.getProperty("user.home"), ".nablarch/server-daemon");
+
+    /** {@link ServerDaemon}の起動を待機する時間（ミリ秒） */
+    private long startTimeout = 60000L;
+
+    /** {@link ServerDaemon}がリクエストを受信しない場合に終了するまでの時間（ミリ秒） */
+    private long idleTimeout = 1800000L;
+
+    /** {@link ServerDaemon}に送信する電文の書き込みに使用するバッファの取得元 */
+    private final ByteBufferPool bufferPool = new ArrayByteBufferPool();
+
+    /** {@link ServerDaemon}への接続（接続していない場合はnull） */
+    private DaemonClient client;
+
+    /**
+     * サーバを構成する{@link DaemonServerProvider}の実装クラス名を設定する。
+     *
+     * @param serverProvider {@link DaemonServerProvider}の実装クラス名
+     */
+    void setServerProvider(String serverProvider) {
+        this.serverProvider = serverProvider;
+    }
+
+    /**
+     * サーバを構成する{@link DaemonServerProvider}の実装クラス名を取得する。
+     *
+     * @return {@link DaemonServerProvider}の実装クラス名（デーモンを使用しない場合はnull）
+     */
+    String getServerProvider() {
+        return serverProvider;
+    }
+
+    /**
+     * 状態ディレクトリを設定する。
+     *
+     * @param stateDirectory 状態ディレクトリ
+     */
+    void setStateDirectory(File stateDirectory) {
+        this.stateDirectory = stateDirectory;
+    }
+
+    /**
+     * 状態ディレクトリを取得する。
+     *
+     * @return 状態ディレクトリ
+     */
+    File getStateDirectory() {
+        return stateDirectory;
+    }
+
+    /**
+     * デーモンの起動を待機する時間を設定する。
+     *
+     * @param startTimeout 待機時間（ミリ秒）
+     */
+    void setStartTimeout(long startTimeout) {
+        if (startTimeout <= 0) {
+            throw new IllegalArgumentException(
+                    "daemonStartTimeout must be positive. value = [" + startTimeout + "]");
+        }
+        this.startTimeout = startTimeout;
+    }
+
+    /**
+     * デーモンがリクエストを受信しない場合に終了するまでの時間を設定する。
+     *
+     * @param idleTimeout 待機時間（ミリ秒）
+     */
+    void setIdleTimeout(long idleTimeout) {
+        if (idleTimeout <= 0) {
+            throw new IllegalArgumentException(
+                    "daemonIdleTimeout must be positive. value = [" + idleTimeout + "]");
+        }
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * デーモンを使用するか否かを判定する。
+     *
+     * @return {@link DaemonServerProvider}の実装クラスが設定されている場合、真
+     */
+    boolean isEnabled() {
+        return serverProvider != null;
+    }
+
+    /**
+     * デーモンに接続する（起動していない場合は起動する）。
+     */
+    void connect() {
+        client = DaemonClient.connect(serverProvider, stateDirectory, startTimeout, idleTimeout);
+    }
+
+    /**
+     * デーモンに接続しているか否かを判定する。
+     *
+     * @return 接続している場合、真
+     */
+    boolean isConnected() {
+        return client != null;
+    }
+
+    /**
+     * デーモンにリクエストを送信する電文を生成する。
+     *
+     * @param req HTTPリクエスト
+     * @param charset 電文の文字コード
+     * @param cookieJar リクエストに付与するクッキー（付与しない場合はnull）
+     * @return HTTPリクエストの電文
+     */
+    byte[] serialize(HttpRequest req, Charset charset, CookieJar cookieJar) {
+        RequestSerializer serializer = new RequestSerializer(charset, bufferPool);
+        ByteBuffer buffer = serializer.serialize(req, cookieJar);
+        try {
+            byte[] rawReq = new byte[buffer.remaining()];
+            buffer.get(rawReq);
+            return rawReq;
+        } finally {
+            serializer.release(buffer);
+        }
+    }
+
+    /**
+     * デーモンにリクエストの処理を依頼する。
+     *
+     * @param rawRequest HTTPリクエストの電文
+     * @param requestLine ログ出力に使用するリクエストライン
+     * @param context 実行コンテキスト
+     * @return 応答電文（読み出しモード）
+     * @throws IOException 通信に失敗した場合
+     */
+    ByteBuffer dispatch(byte[] rawRequest, String requestLine, ExecutionContext context) throws IOException {
+        return client.dispatch(rawRequest, requestLine, context);
+    }
+
+    /**
+     * デーモンとの接続を切断する。
+     * <pre>
+     * デーモンは停止しない。接続していない場合は何もしない。
+     * </pre>
+     */
+    void close() {
+        if (client != null) {
+            client.close();
+            client = null;
+        }
+    }
+}
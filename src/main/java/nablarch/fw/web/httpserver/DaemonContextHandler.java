@@ -0,0 +1,184 @@
+package nablarch.fw.web.httpserver;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+
+/**
+ * {@link ServerDaemon}のハンドラキューで、テストJVMから受信した実行コンテキストとサーバ側の実行コンテキストを橋渡しするハンドラ。
+ *
+ * テストJVMの実行コンテキストはJVMをまたいで参照できないため、{@link HttpRequestTestSupportHandler}の代わりに使用する。
+ * デーモンは受信した実行コンテキストを登録し、そのIDをリクエストヘッダに付与してローカルコネクタに送信する。
+ * このハンドラは、IDに対応する実行コンテキストの値をサーバ側の実行コンテキストにコピーして後続のハンドラを呼び出し、
+ * 処理後のリクエストスコープ・セッションスコープの値を、削除された値も含めて受信した実行コンテキストに反映する。
+ * 反映後、受信した実行コンテキストに設定された完了待機用のラッチをカウントダウンする。
+ */
+class DaemonContextHandler implements HttpRequestHandler {
+
+    /** 実行コンテキストのIDを送信するリクエストヘッダ名 */
+    static final String CONTEXT_ID_HEADER = "X-Nablarch-Daemon-Context";
+
+    /** ヘッダ部の文字コード */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /** 処理中の実行コンテキスト（キーはID） */
+    private final ConcurrentMap<String, ExecutionContext> contexts = new ConcurrentHashMap<String, ExecutionContext>();
+
+    /**
+     * 受信した実行コンテキストを登録する。
+     * <pre>
+     * 処理が終わった実行コンテキストは{@link #unregister(String)}で登録を解除すること。
+     * </pre>
+     *
+     * @param sourceContext 受信した実行コンテキスト
+     * @return 実行コンテキストのID
+     */
+    String register(ExecutionContext sourceContext) {
+        String id = UUID.randomUUID().toString();
+        contexts.put(id, sourceContext);
+        return id;
+    }
+
+    /**
+     * 実行コンテキストの登録を解除する。
+     *
+     * @param id 実行コンテキストのID
+     */
+    void unregister(String id) {
+        contexts.remove(id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <pre>
+     * IDが付与されていないリクエストは、実行コンテキストをコピーせずに後続のハンドラを呼び出す。
+     * </pre>
+     */
+    @Override
+    public HttpResponse handle(HttpRequest request, ExecutionContext context) {
+        String id = request.getHeader(CONTEXT_ID_HEADER);
+        ExecutionContext sourceContext = id == null ? null : contexts.get(id);
+        if (sourceContext == null) {
+            return context.handleNext(request);
+        }
+        copyTo(sourceContext, context);
+        try {
+            return context.handleNext(request);
+        } finally {
+            try {
+                copyBack(context, sourceContext);
+            } finally {
+                Object latch = sourceContext.getRequestScopedVar(
+                        HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH);
+                if (latch instanceof CountDownLatch) {
+                    ((CountDownLatch) latch).countDown();
+                }
+            }
+        }
+    }
+
+    /**
+     * 受信した実行コンテキストの値をサーバ側の実行コンテキストにコピーする。
+     * <pre>
+     * セッションスコープの値がない場合は、セッションを生成しない。
+     * </pre>
+     *
+     * @param sourceContext 受信した実行コンテキスト
+     * @param context サーバ側の実行コンテキスト
+     */
+    private static void copyTo(ExecutionContext sourceContext, ExecutionContext context) {
+        for (Map.Entry<String, Object> entry : sourceContext.getRequestScopeMap().entrySet()) {
+            if (!HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH.equals(entry.getKey())) {
+                context.setRequestScopedVar(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, Object> entry : sourceContext.getSessionScopeMap().entrySet()) {
+            context.setSessionScopedVar(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * サーバ側の実行コンテキストの値を、受信した実行コンテキストに反映する。
+     * <pre>
+     * サーバ側で削除された値は、受信した実行コンテキストからも削除する。
+     * セッションが破棄されている場合は、セッションスコープの値をすべて削除する。
+     * </pre>
+     *
+     * @param context サーバ側の実行コンテキスト
+     * @param sourceContext 受信した実行コンテキスト
+     */
+    private static void copyBack(ExecutionContext context, ExecutionContext sourceContext) {
+        mirror(context.getRequestScopeMap(), sourceContext.getRequestScopeMap());
+        Map<String, Object> sessionScope;
+        try {
+            sessionScope = new HashMap<String, Object>(context.getSessionScopeMap());
+        } catch (IllegalStateException e) {
+            // 破棄済みのセッション
+            sessionScope = Collections.emptyMap();
+        }
+        mirror(sessionScope, sourceContext.getSessionScopeMap());
+    }
+
+    /**
+     * スコープの値を反映する。
+     * <pre>
+     * 完了待機用のラッチは、反映先の値を保持する。
+     * </pre>
+     *
+     * @param from 反映元のスコープ
+     * @param to 反映先のスコープ
+     */
+    private static void mirror(Map<String, Object> from, Map<String, Object> to) {
+        for (String name : new ArrayList<String>(to.keySet())) {
+            if (!from.containsKey(name)
+                    && !HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH.equals(name)) {
+                to.remove(name);
+            }
+        }
+        for (Map.Entry<String, Object> entry : from.entrySet()) {
+            if (!HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH.equals(entry.getKey())) {
+                to.put(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * HTTPリクエストの電文に、実行コンテキストのIDを送信するヘッダを付与する。
+     *
+     * @param rawRequest HTTPリクエストの電文
+     * @param id 実行コンテキストのID
+     * @return ヘッダを付与したHTTPリクエストの電文（読み出しモード）
+     */
+    static ByteBuffer withContextId(byte[] rawRequest, String id) {
+        int lineEnd = -1;
+        for (int i = 0; i < rawRequest.length - 1; i++) {
+            if (rawRequest[i] == '\r' && rawRequest[i + 1] == '\n') {
+                lineEnd = i + 2;
+                break;
+            }
+        }
+        if (lineEnd < 0) {
+            throw new IllegalArgumentException("request line is not terminated.");
+        }
+        byte[] header = (CONTEXT_ID_HEADER + ": " + id + "\r\n").getBytes(ISO_8859_1);
+        ByteBuffer buffer = ByteBuffer.allocate(rawRequest.length + header.length);
+        buffer.put(rawRequest, 0, lineEnd);
+        buffer.put(header);
+        buffer.put(rawRequest, lineEnd, rawRequest.length - lineEnd);
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,351 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.fw.ExecutionContext;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+
+/**
+ * {@link ServerDaemon}と{@link DaemonClient}の間の通信で使用する電文の読み書きを行うクラス。
+ *
+ * 電文は、操作種別（1バイト）に続けて、操作ごとの項目を長さ付きのバイト列として送信する。
+ * 実行コンテキストは、リクエストスコープ・セッションスコープの値のうち
+ * 直列化できるものを、値ごとにJavaの直列化形式で送信する。
+ * 受信側は、送信されなかった値を削除された値として扱う。
+ *
+ * 受信した値は、許可されたクラスのみ復元する。
+ * 許可するクラスは、{@link #DEFAULT_ALLOWED_CLASSES}と、システムプロパティ{@value #ALLOWED_CLASSES_PROPERTY}に
+ * カンマ区切りで指定したクラスである。
+ * 完全修飾クラス名を指定した場合はそのクラスのみ、末尾を"."とした場合はそのパッケージ配下のクラスを許可する。
+ * デーモンはテストJVMのシステムプロパティを引き継いで起動するため、テストJVMで指定すればデーモンにも適用される。
+ */
+final class DaemonProtocol {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(DaemonProtocol.class);
+
+    /** 操作種別：リクエストの処理 */
+    static final byte HANDLE = 1;
+
+    /** 操作種別：死活確認 */
+    static final byte PING = 2;
+
+    /** 操作種別：デーモンの停止 */
+    static final byte SHUTDOWN = 3;
+
+    /** 応答種別：正常 */
+    static final byte OK = 0;
+
+    /** 応答種別：異常 */
+    static final byte ERROR = 1;
+
+    /** 復元を許可するクラスを追加するシステムプロパティ名 */
+    static final String ALLOWED_CLASSES_PROPERTY = "nablarch.serverDaemon.allowedClasses";
+
+    /** デフォルトで復元を許可するクラス（パッケージの場合は末尾が"."） */
+    static final String[] DEFAULT_ALLOWED_CLASSES = {
+            "java.lang.", "java.util.", "java.math.", "java.time.", "java.sql.", "nablarch."
+    };
+
+    /** 電文1項目の最大長（バイト） */
+    private static final int MAX_FIELD_LENGTH = Integer.MAX_VALUE - 8;
+
+    /**
+     * 隠蔽コンストラクタ。
+     */
+    private DaemonProtocol() {
+    }
+
+    /**
+     * 長さ付きのバイト列を書き込む。
+     *
+     * @param out 出力先
+     * @param bytes バイト列
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * 長さ付きのバイト列を読み込む。
+     *
+     * @param in 入力元
+     * @return バイト列
+     * @throws IOException 読み込みに失敗した場合
+     */
+    static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FIELD_LENGTH) {
+            throw new IOException("invalid field length. length = [" + length + "]");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    /**
+     * 実行コンテキストのリクエストスコープ・セッションスコープの値を書き込む。
+     *
+     * @param out 出力先
+     * @param context 実行コンテキスト
+     * @throws IOException 書き込みに失敗した場合
+     */
+    static void writeContext(DataOutputStream out, ExecutionContext context) throws IOException {
+        writeScope(out, context.getRequestScopeMap());
+        writeScope(out, context.getSessionScopeMap());
+    }
+
+    /**
+     * 実行コンテキストのリクエストスコープ・セッションスコープの値を読み込み、実行コンテキストに反映する。
+     * <pre>
+     * 送信元で削除された値は、実行コンテキストからも削除する。
+     * </pre>
+     *
+     * @param in 入力元
+     * @param context 反映先の実行コンテキスト
+     * @throws IOException 読み込みに失敗した場合
+     */
+    static void readContext(DataInputStream in, ExecutionContext context) throws IOException {
+        readScope(in, context.getRequestScopeMap());
+        readScope(in, context.getSessionScopeMap());
+    }
+
+    /**
+     * スコープの値を書き込む。
+     * <pre>
+     * 直列化できない値は送信せず、DEBUGレベルでログ出力する。
+     * 完了待機用のラッチは、JVMごとに生成するため送信しない。
+     * </pre>
+     *
+     * @param out 出力先
+     * @param scope スコープ
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void writeScope(DataOutputStream out, Map<String, Object> scope) throws IOException {
+        Map<String, byte[]> serialized = new LinkedHashMap<String, byte[]>();
+        for (Map.Entry<String, Object> entry : scope.entrySet()) {
+            if (HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH.equals(entry.getKey())) {
+                continue;
+            }
+            try {
+                serialized.put(entry.getKey(), serialize(entry.getValue()));
+            } catch (IOException e) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.logDebug("skipped a value that can not be serialized. name = [" + entry.getKey() + "]");
+                }
+            }
+        }
+        out.writeInt(serialized.size());
+        for (Map.Entry<String, byte[]> entry : serialized.entrySet()) {
+            out.writeUTF(entry.getKey());
+            writeBytes(out, entry.getValue());
+        }
+    }
+
+    /**
+     * スコープの値を読み込み、スコープに反映する。
+     * <pre>
+     * 復元できない値は設定せず、DEBUGレベルでログ出力する。
+     * 復元を許可されていないクラスの値は設定せず、WARNレベルでログ出力する。
+     * 受信しなかった値は送信元で削除されたものとしてスコープから削除する。
+     * ただし、直列化できない値（送信していない値）と完了待機用のラッチは保持する。
+     * </pre>
+     *
+     * @param in 入力元
+     * @param scope 反映先のスコープ
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static void readScope(DataInputStream in, Map<String, Object> scope) throws IOException {
+        int size = in.readInt();
+        Set<String> received = new HashSet<String>();
+        for (int i = 0; i < size; i++) {
+            String name = in.readUTF();
+            byte[] bytes = readBytes(in);
+            received.add(name);
+            try {
+                scope.put(name, deserialize(bytes));
+            } catch (InvalidClassException e) {
+                LOGGER.logWarn("skipped a value of a class that is not allowed to be deserialized. name = [" + name
+                        + "] class = [" + e.classname + "] system property = [" + ALLOWED_CLASSES_PROPERTY + "]");
+            } catch (ClassNotFoundException e) {
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.logDebug("skipped a value that can not be deserialized. name = [" + name + "]");
+                }
+            }
+        }
+        for (String name : new ArrayList<String>(scope.keySet())) {
+            if (!received.contains(name)
+                    && !HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH.equals(name)
+                    && isSerializable(scope.get(name))) {
+                scope.remove(name);
+            }
+        }
+    }
+
+    /**
+     * 値が直列化できるか否かを判定する。
+     *
+     * @param value 値
+     * @return 直列化できる場合、真
+     */
+    private static boolean isSerializable(Object value) {
+        try {
+            serialize(value);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 値を直列化する。
+     *
+     * @param value 値
+     * @return 直列化した値
+     * @throws IOException 直列化できない場合
+     */
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        try {
+            out.writeObject(value);
+        } finally {
+            out.close();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * 値を復元する。
+     * <pre>
+     * クラスはスレッドコンテキストクラスローダからロードする。
+     * </pre>
+     *
+     * @param bytes 直列化した値
+     * @return 値
+     * @throws InvalidClassException 復元を許可されていないクラスが含まれる場合
+     * @throws IOException 復元に失敗した場合
+     * @throws ClassNotFoundException 値のクラスが存在しない場合
+     */
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        ObjectInputStream in = new ContextClassLoaderObjectInputStream(new ByteArrayInputStream(bytes));
+        try {
+            return in.readObject();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * クラスの復元が許可されているか否かを判定する。
+     * <pre>
+     * 配列の場合は要素のクラスで判定し、プリミティブ型の配列は常に許可する。
+     * </pre>
+     *
+     * @param className クラス名（{@link Class#getName()}の形式）
+     * @return 許可されている場合、真
+     */
+    static boolean isAllowed(String className) {
+        String name = className;
+        while (name.startsWith("[")) {
+            name = name.substring(1);
+        }
+        if (name.length() != className.length()) {
+            if (!name.startsWith("L")) {
+                return true;
+            }
+            name = name.substring(1, name.length() - 1);
+        }
+        for (String allowed : DEFAULT_ALLOWED_CLASSES) {
+            if (matches(name, allowed)) {
+                return true;
+            }
+        }
+        String additional = System.getProperty(ALLOWED_CLASSES_PROPERTY);
+        if (additional != null) {
+            for (String allowed : additional.split(",")) {
+                if (matches(name, allowed.trim())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * クラス名が、許可するクラスの指定に一致するか否かを判定する。
+     *
+     * @param name クラス名
+     * @param allowed 許可するクラス（パッケージの場合は末尾が"."）
+     * @return 一致する場合、真
+     */
+    private static boolean matches(String name, String allowed) {
+        if (allowed.isEmpty()) {
+            return false;
+        }
+        return allowed.endsWith(".") ? name.startsWith(allowed) : name.equals(allowed);
+    }
+
+    /**
+     * スレッドコンテキストクラスローダからクラスをロードする{@link ObjectInputStream}。
+     * <pre>
+     * 復元を許可されていないクラスは、ロードする前に{@link InvalidClassException}を送出する。
+     * </pre>
+     */
+    private static class ContextClassLoaderObjectInputStream extends ObjectInputStream {
+
+        /**
+         * コンストラクタ。
+         *
+         * @param in 入力元
+         * @throws IOException ストリームヘッダの読み込みに失敗した場合
+         */
+        ContextClassLoaderObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "class is not allowed to be deserialized.");
+            }
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader == null) {
+                return super.resolveClass(desc);
+            }
+            try {
+                return Class.forName(desc.getName(), false, loader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(desc);
+            }
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(String[] interfaces) throws IOException, ClassNotFoundException {
+            for (String name : interfaces) {
+                if (!isAllowed(name)) {
+                    throw new InvalidClassException(name, "class is not allowed to be deserialized.");
+                }
+            }
+            return super.resolveProxyClass(interfaces);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package nablarch.fw.web.httpserver;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link ServerDaemon}で起動するサーバを構成するインタフェース。
+ *
+ * デーモンは、テストを実行するJVMとは別のJVMでサーバを起動するため、
+ * テスト側で構成したハンドラキュー等は引き継がれない。
+ * 実装クラスは、デーモンのJVM内でテスト側と同じ構成のサーバを生成すること。
+ * 実装クラスには、引数なしのpublicコンストラクタが必要である。
+ *
+ * @see HttpServerJetty9#setDaemonServerProvider(String)
+ */
+@Published(tag = "architect")
+public interface DaemonServerProvider {
+
+    /**
+     * デーモンで起動するサーバを生成する。
+     * <pre>
+     * 起動はデーモンが{@link HttpServerJetty9#startLocal()}で行うため、ここでは起動しないこと。
+     * </pre>
+     *
+     * @return サーバ
+     */
+    HttpServerJetty9 createServer();
+}
@@ -0,0 +1,79 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+/**
+ * 処理を委譲先の{@link Filter}に委譲する{@link Filter}実装クラス。
+ *
+ * プールされた内蔵サーバでは、デプロイ済みの{@link org.eclipse.jetty.webapp.WebAppContext}を
+ * 再利用したまま、貸し出し先ごとにWebフロントコントローラを差し替える必要がある。
+ * 本クラスをWebフロントコントローラの代わりにデプロイしておき、貸し出し時に委譲先を切り替える。
+ */
+class DelegatingFilter implements Filter {
+
+    /** 本フィルタの初期化時に渡された{@link FilterConfig} */
+    private volatile FilterConfig filterConfig;
+
+    /** 委譲先の{@link Filter} */
+    private volatile Filter delegate;
+
+    @Override
+    public synchronized void init(FilterConfig config) throws ServletException {
+        filterConfig = config;
+        if (delegate != null) {
+            delegate.init(config);
+        }
+    }
+
+    /**
+     * 委譲先の{@link Filter}を設定する。
+     *
+     * 本フィルタが初期化済みの場合、委譲先の{@link Filter#init(FilterConfig)}を起動し、
+     * 差し替えられた委譲先の{@link Filter#destroy()}を起動する。
+     *
+     * @param filter 委譲先の{@link Filter}
+     */
+    synchronized void setDelegate(Filter filter) {
+        if (filter == delegate) {
+            return;
+        }
+        Filter replaced = delegate;
+        if (filterConfig != null) {
+            try {
+                filter.init(filterConfig);
+            } catch (ServletException e) {
+                throw new IllegalStateException("failed to initialize the filter. filter = [" + filter + "]", e);
+            }
+        }
+        delegate = filter;
+        if (filterConfig != null && replaced != null) {
+            replaced.destroy();
+        }
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        Filter current = delegate;
+        if (current == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        current.doFilter(request, response, chain);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (filterConfig != null && delegate != null) {
+            delegate.destroy();
+        }
+        filterConfig = null;
+    }
+}
@@ -0,0 +1,96 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import nablarch.fw.web.ResourceLocator;
+
+/**
+ * 内蔵サーバのデプロイ内容を識別するキー。
+ *
+ * コンテキストパス、WARベースパス、一時ディレクトリ、Webフロントコントローラの型、
+ * サーバの設定（スレッドプール、コネクタ等）がすべて一致する場合、同一のデプロイ内容とみなす。
+ */
+final class DeploymentKey {
+
+    /** サーブレットコンテキストパス */
+    private final String contextPath;
+
+    /** WARベースパス（実パス） */
+    private final List<String> warBasePaths;
+
+    /** 一時ディレクトリのパス */
+    private final String tempDirectory;
+
+    /** WebフロントコントローラのFQCN */
+    private final String frontControllerClassName;
+
+    /** サーバの設定を表す文字列 */
+    private final String serverSettings;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param contextPath サーブレットコンテキストパス
+     * @param warBasePaths WARベースパス
+     * @param tempDirectory 一時ディレクトリ（未設定の場合はnull）
+     * @param frontControllerClass Webフロントコントローラの型
+     * @param serverSettings サーバの設定を表す文字列
+     */
+    DeploymentKey(String contextPath, List<ResourceLocator> warBasePaths,
+                  File tempDirectory, Class<?> frontControllerClass, String serverSettings) {
+        this.contextPath = contextPath;
+        List<String> realPaths = new ArrayList<String>(warBasePaths.size());
+        for (ResourceLocator path : warBasePaths) {
+            realPaths.add(path.getRealPath());
+        }
+        this.warBasePaths = Collections.unmodifiableList(realPaths);
+        this.tempDirectory = tempDirectory == null ? "" : tempDirectory.getAbsolutePath();
+        this.frontControllerClassName = frontControllerClass.getName();
+        this.serverSettings = serverSettings;
+    }
+
+    /**
+     * WARベースパス（実パス）を取得する。
+     *
+     * @return WARベースパス
+     */
+    List<String> getWarBasePaths() {
+        return warBasePaths;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DeploymentKey)) {
+            return false;
+        }
+        DeploymentKey other = (DeploymentKey) o;
+        return contextPath.equals(other.contextPath)
+                && warBasePaths.equals(other.warBasePaths)
+                && tempDirectory.equals(other.tempDirectory)
+                && frontControllerClassName.equals(other.frontControllerClassName)
+                && serverSettings.equals(other.serverSettings);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = contextPath.hashCode();
+        result = 31 * result + warBasePaths.hashCode();
+        result = 31 * result + tempDirectory.hashCode();
+        result = 31 * result + frontControllerClassName.hashCode();
+        result = 31 * result + serverSettings.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "contextPath=[" + contextPath + "] warBasePaths=" + warBasePaths
+                + " tempDirectory=[" + tempDirectory + "] frontController=[" + frontControllerClassName + "]"
+                + " serverSettings=[" + serverSettings + "]";
+    }
+}
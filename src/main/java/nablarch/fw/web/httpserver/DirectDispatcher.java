@@ -0,0 +1,391 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.io.ByteArrayEndPoint;
+import org.eclipse.jetty.server.HttpChannel;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.HttpInput;
+import org.eclipse.jetty.server.HttpTransport;
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+/**
+ * HTTPパーサを経由せずに、{@link HttpChannel}へ直接リクエストを投入するクラス。
+ *
+ * {@link HttpRequest}のメソッド、URI、ヘッダ、パラメータからリクエストのメタデータとボディを組み立てて
+ * 呼び出し元スレッドでハンドラチェインを実行し、コミットされたレスポンスのメタデータとボディから
+ * {@link HttpResponse}を直接組み立てる。
+ * HTTPメッセージのエンコード・デコード（チャンク形式への変換を含む）と、コネクタのスレッド切り替えが発生しない。
+ * ボディが{@link ResponseParser}の閾値を超える場合は、ローカルコネクタ経由の場合と同様に一時ファイルへ書き出す。
+ */
+class DirectDispatcher {
+
+    /** ヘッダ部の文字コード */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /** フォームのContent-Type */
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    /** リクエストを受け付けるコネクタ */
+    private final LocalConnector connector;
+
+    /** パラメータのエンコードに使用する文字コード */
+    private final Charset charset;
+
+    /** 閾値を超えるレスポンスボディを一時ファイルに書き出すパーサ */
+    private final ResponseParser responseParser;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param connector リクエストを受け付けるコネクタ
+     * @param charset パラメータのエンコードに使用する文字コード
+     * @param responseParser 閾値を超えるレスポンスボディを一時ファイルに書き出すパーサ
+     */
+    DirectDispatcher(LocalConnector connector, Charset charset, ResponseParser responseParser) {
+        this.connector = connector;
+        this.charset = charset;
+        this.responseParser = responseParser;
+    }
+
+    /**
+     * リクエストを処理する。
+     *
+     * @param req HTTPリクエスト
+     * @param timeout レスポンスの完了を待機する時間（ミリ秒）
+     * @return HTTPレスポンス
+     * @throws Exception リクエストの処理に失敗した場合
+     */
+    HttpResponse dispatch(HttpRequest req, long timeout) throws Exception {
+        return dispatch(req, null, timeout);
+    }
+
+    /**
+     * 連続するリクエスト間でクッキーを引き継いで、リクエストを処理する。
+     *
+     * @param req HTTPリクエスト
+     * @param cookieJar リクエストに付与し、レスポンスで更新するクッキー（引き継がない場合はnull）
+     * @param timeout レスポンスの完了を待機する時間（ミリ秒）
+     * @return HTTPレスポンス
+     * @throws Exception リクエストの処理に失敗した場合
+     */
+    HttpResponse dispatch(HttpRequest req, CookieJar cookieJar, long timeout) throws Exception {
+        // パラメータは、GET・HEADの場合はクエリ文字列、それ以外の場合はフォーム形式のボディとして送信する
+        String method = req.getMethod();
+        String uri = req.getRequestUri();
+        String params = encodeParams(req.getParamMap());
+        boolean paramsInBody = !params.isEmpty() && !"GET".equals(method) && !"HEAD".equals(method);
+        if (!params.isEmpty()) {
+            int query = uri.indexOf('?');
+            uri = query < 0 ? uri : uri.substring(0, query);
+            if (!paramsInBody) {
+                uri = uri + '?' + params;
+            }
+        }
+        byte[] content = paramsInBody ? params.getBytes(charset) : new byte[0];
+
+        HttpFields fields = new HttpFields();
+        for (Map.Entry<String, String> header : req.getHeaderMap().entrySet()) {
+            if (!HttpHeader.CONTENT_LENGTH.is(header.getKey())) {
+                fields.put(header.getKey(), header.getValue());
+            }
+        }
+        Map<String, String> cookie = req.getCookie();
+        if (cookie != null) {
+            for (Map.Entry<String, String> entry : cookie.entrySet()) {
+                fields.add(HttpHeader.COOKIE, entry.getKey() + '=' + entry.getValue());
+            }
+        }
+        if (cookieJar != null) {
+            // 複数の"Cookie"ヘッダは1つにまとめてから置き換える
+            List<String> cookieValues = fields.getValuesList(HttpHeader.COOKIE);
+            String explicit = cookieValues.isEmpty() ? null : join(cookieValues, "; ");
+            String applied = cookieJar.applyTo(explicit);
+            if (applied != null) {
+                fields.put(HttpHeader.COOKIE, applied);
+            }
+        }
+        if (paramsInBody && !fields.containsKey(HttpHeader.CONTENT_TYPE.asString())) {
+            fields.put(HttpHeader.CONTENT_TYPE, FORM_CONTENT_TYPE);
+        }
+        HttpVersion version = req.getHttpVersion() == null ? null : HttpVersion.fromString(req.getHttpVersion());
+        MetaData.Request metaData = new MetaData.Request(method, new HttpURI(uri),
+                version == null ? HttpVersion.HTTP_1_1 : version, fields, content.length);
+
+        CapturingTransport transport = new CapturingTransport(responseParser);
+        HttpConfiguration configuration = connector.getConnectionFactory(HttpConnectionFactory.class)
+                                                   .getHttpConfiguration();
+        HttpChannel channel = new HttpChannel(connector, configuration, new ByteArrayEndPoint(), transport);
+        channel.onRequest(metaData);
+        if (content.length > 0) {
+            channel.onContent(new HttpInput.Content(ByteBuffer.wrap(content)));
+        }
+        channel.onRequestComplete();
+        channel.handle();
+        return transport.awaitResponse(timeout, cookieJar);
+    }
+
+    /**
+     * 文字列を区切り文字で連結する。
+     *
+     * @param values 文字列
+     * @param separator 区切り文字
+     * @return 連結した文字列
+     */
+    private static String join(List<String> values, String separator) {
+        StringBuilder sb = new StringBuilder();
+        for (String value : values) {
+            if (sb.length() > 0) {
+                sb.append(separator);
+            }
+            sb.append(value);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * パラメータをURLエンコードした文字列に変換する。
+     *
+     * @param paramMap パラメータ
+     * @return "名前=値"を"&amp;"で連結した文字列
+     * @throws UnsupportedEncodingException 文字コードがサポートされていない場合
+     */
+    private String encodeParams(Map<String, String[]> paramMap) throws UnsupportedEncodingException {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String[]> param : paramMap.entrySet()) {
+            String name = URLEncoder.encode(param.getKey(), charset.name());
+            String[] values = param.getValue();
+            if (values == null || values.length == 0) {
+                values = new String[] {""};
+            }
+            for (String value : values) {
+                if (sb.length() > 0) {
+                    sb.append('&');
+                }
+                sb.append(name).append('=').append(URLEncoder.encode(value == null ? "" : value, charset.name()));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * コミットされたレスポンスから{@link HttpResponse}を組み立てる{@link HttpTransport}実装クラス。
+     */
+    static class CapturingTransport implements HttpTransport {
+
+        /** レスポンスの完了 */
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        /** 閾値を超えるレスポンスボディを一時ファイルに書き出すパーサ */
+        private final ResponseParser responseParser;
+
+        /** 一時ファイルに書き出していないボディ */
+        private final List<byte[]> chunks = new ArrayList<byte[]>();
+
+        /** 受信したボディの長さ */
+        private long bodyLength = 0;
+
+        /** ボディを書き出した一時ファイル（書き出していない場合はnull） */
+        private File spillFile;
+
+        /** レスポンスのメタデータ */
+        private MetaData.Response info;
+
+        /** 組み立て中のレスポンス（コミット前はnull） */
+        private HttpResponse response;
+
+        /** レスポンスの中断理由 */
+        private volatile Throwable failure;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param responseParser 閾値を超えるレスポンスボディを一時ファイルに書き出すパーサ
+         */
+        CapturingTransport(ResponseParser responseParser) {
+            this.responseParser = responseParser;
+        }
+
+        @Override
+        public synchronized void send(MetaData.Response info, boolean head, ByteBuffer content, boolean lastContent,
+                Callback callback) {
+            if (info != null) {
+                this.info = info;
+                response = createResponse(info);
+            }
+            if (!head && response != null && content != null && content.hasRemaining()) {
+                try {
+                    appendBody(BufferUtil.toArray(content));
+                } catch (IOException e) {
+                    callback.failed(e);
+                    return;
+                }
+            }
+            callback.succeeded();
+        }
+
+        /**
+         * 受信したボディを保持する。
+         * <pre>
+         * ボディの長さが閾値を超えた時点で、それまでに受信したボディを一時ファイルに書き出し、
+         * 以降に受信したボディは一時ファイルに追記する。
+         * </pre>
+         *
+         * @param bytes 受信したボディ
+         * @throws IOException 一時ファイルへの書き出しに失敗した場合
+         */
+        private void appendBody(byte[] bytes) throws IOException {
+            bodyLength += bytes.length;
+            if (spillFile == null && bodyLength <= responseParser.getSpillThreshold()) {
+                chunks.add(bytes);
+                return;
+            }
+            if (spillFile == null) {
+                spillFile = responseParser.createSpillFile();
+            }
+            FileOutputStream out = new FileOutputStream(spillFile, true);
+            try {
+                for (byte[] chunk : chunks) {
+                    out.write(chunk);
+                }
+                chunks.clear();
+                out.write(bytes);
+            } finally {
+                out.close();
+            }
+        }
+
+        /**
+         * 一時ファイルに書き出したボディを破棄する。
+         */
+        private synchronized void discardSpillFile() {
+            if (spillFile != null) {
+                spillFile.delete();
+                spillFile = null;
+            }
+        }
+
+        /**
+         * レスポンスのメタデータから、ボディが空の{@link HttpResponse}を生成する。
+         * <pre>
+         * 同名のヘッダが複数存在する場合（"Set-Cookie"等）もHTTPパーサを経由した場合と同じ結果となるよう、
+         * ヘッダ部を電文に変換して{@link HttpResponse#parse(byte[])}で解析する。
+         * </pre>
+         *
+         * @param info レスポンスのメタデータ
+         * @return HTTPレスポンス
+         */
+        private static HttpResponse createResponse(MetaData.Response info) {
+            StringBuilder header = new StringBuilder();
+            header.append("HTTP/1.1 ").append(info.getStatus()).append(' ')
+                  .append(info.getReason() != null ? info.getReason() : HttpStatus.getMessage(info.getStatus()))
+                  .append("\r\n");
+            String contentLength = null;
+            for (HttpField field : info.getFields()) {
+                if (field.getHeader() == HttpHeader.TRANSFER_ENCODING) {
+                    continue;
+                }
+                if (field.getHeader() == HttpHeader.CONTENT_LENGTH) {
+                    contentLength = field.getValue();
+                    continue;
+                }
+                header.append(field.getName()).append(": ").append(field.getValue()).append("\r\n");
+            }
+            header.append("Content-Length: 0\r\n\r\n");
+            HttpResponse response = HttpResponse.parse(header.toString().getBytes(ISO_8859_1));
+            if (contentLength != null) {
+                response.setHeader("Content-Length", contentLength);
+            }
+            return response;
+        }
+
+        @Override
+        public boolean isPushSupported() {
+            return false;
+        }
+
+        @Override
+        public void push(MetaData.Request request) {
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.countDown();
+        }
+
+        @Override
+        public void abort(Throwable failure) {
+            this.failure = failure;
+            completed.countDown();
+        }
+
+        @Override
+        public boolean isOptimizedForDirectBuffers() {
+            return false;
+        }
+
+        /**
+         * レスポンスの完了を待機し、組み立てたレスポンスを返却する。
+         *
+         * @param timeout 待機する時間（ミリ秒）
+         * @param cookieJar レスポンスで更新するクッキー（更新しない場合はnull）
+         * @return HTTPレスポンス
+         * @throws Exception レスポンスが完了しなかった場合
+         */
+        HttpResponse awaitResponse(long timeout, CookieJar cookieJar) throws Exception {
+            if (!completed.await(timeout, TimeUnit.MILLISECONDS)) {
+                discardSpillFile();
+                throw new IllegalStateException("response did not complete within the timeout. timeout = [" + timeout + "ms]");
+            }
+            if (failure != null) {
+                discardSpillFile();
+                throw new IllegalStateException("response was aborted.", failure);
+            }
+            synchronized (this) {
+                if (response == null) {
+                    throw new IllegalStateException("response was completed without being committed.");
+                }
+                if (cookieJar != null) {
+                    for (HttpField field : info.getFields()) {
+                        if (field.getHeader() == HttpHeader.SET_COOKIE) {
+                            cookieJar.updateFrom(field.getValue());
+                        }
+                    }
+                }
+                if (spillFile != null) {
+                    response.setHeader("Content-Length", String.valueOf(bodyLength));
+                    response.setBodyStream(new SpilledBodyInputStream(spillFile));
+                } else {
+                    for (byte[] chunk : chunks) {
+                        response.write(chunk);
+                    }
+                }
+                return response;
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package nablarch.fw.web.httpserver;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.ThreadPool;
+
+/**
+ * 任意の{@link Executor}に処理を委譲する{@link ThreadPool}実装クラス。
+ *
+ * Jettyの{@link org.eclipse.jetty.util.thread.QueuedThreadPool}に代えて、
+ * 利用者が用意した{@link Executor}や仮想スレッドでリクエストを処理するために使用する。
+ * スレッド数の上限は{@link Executor}側で管理されるため、{@link #isLowOnThreads()}は常に偽を返す。
+ */
+class ExecutorBackedThreadPool extends AbstractLifeCycle implements ThreadPool {
+
+    /** 仮想スレッドのExecutorを生成するファクトリメソッド名 */
+    private static final String VIRTUAL_THREAD_FACTORY = "newVirtualThreadPerTaskExecutor";
+
+    /** 委譲先の{@link Executor}（起動ごとに生成する場合、起動前はnull） */
+    private volatile Executor executor;
+
+    /** 起動ごとに委譲先の{@link ExecutorService}を生成するファクトリメソッド（利用者が用意した{@link Executor}を使用する場合はnull） */
+    private final Method executorFactory;
+
+    /** 実行中のタスク数 */
+    private final AtomicInteger activeCount = new AtomicInteger();
+
+    /** 停止を通知するラッチ */
+    private volatile CountDownLatch stopped = new CountDownLatch(1);
+
+    /**
+     * コンストラクタ。
+     * <pre>
+     * 指定された{@link Executor}のライフサイクルは呼び出し元で管理するため、停止時にシャットダウンしない。
+     * </pre>
+     *
+     * @param executor 委譲先の{@link Executor}
+     */
+    ExecutorBackedThreadPool(Executor executor) {
+        this.executor = executor;
+        this.executorFactory = null;
+    }
+
+    /**
+     * コンストラクタ。
+     * <pre>
+     * 委譲先の{@link ExecutorService}は起動のたびにファクトリメソッドで生成し、停止時にシャットダウンする。
+     * これにより、停止したサーバを再起動した場合も、新たな{@link ExecutorService}でタスクを実行できる。
+     * </pre>
+     *
+     * @param executorFactory {@link ExecutorService}を生成するstaticファクトリメソッド
+     */
+    private ExecutorBackedThreadPool(Method executorFactory) {
+        this.executorFactory = executorFactory;
+    }
+
+    /**
+     * 仮想スレッドでタスクを実行するスレッドプールを生成する。
+     * <pre>
+     * 仮想スレッドはJDK 21以降でのみ使用できるため、リフレクションで{@link Executors}のファクトリメソッドを呼び出す。
+     * </pre>
+     *
+     * @return スレッドプール（実行中のJDKが仮想スレッドをサポートしない場合はnull）
+     */
+    static ExecutorBackedThreadPool forVirtualThreads() {
+        try {
+            return new ExecutorBackedThreadPool(Executors.class.getMethod(VIRTUAL_THREAD_FACTORY));
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception {
+        if (stopped.getCount() == 0) {
+            // 再起動の場合は、停止済みのラッチを使いまわさない
+            stopped = new CountDownLatch(1);
+        }
+        if (executorFactory != null) {
+            try {
+                executor = (Executor) executorFactory.invoke(null);
+            } catch (Exception e) {
+                throw new IllegalStateException("failed to create virtual thread executor.", e);
+            }
+        }
+        super.doStart();
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        activeCount.incrementAndGet();
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        task.run();
+                    } finally {
+                        activeCount.decrementAndGet();
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            activeCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception {
+        if (executorFactory != null && executor instanceof ExecutorService) {
+            ExecutorService service = (ExecutorService) executor;
+            service.shutdown();
+            if (!service.awaitTermination(10, TimeUnit.SECONDS)) {
+                service.shutdownNow();
+            }
+        }
+        stopped.countDown();
+        super.doStop();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * このスレッドプールが停止するまで待機する。
+     */
+    @Override
+    public void join() throws InterruptedException {
+        stopped.await();
+    }
+
+    @Override
+    public int getThreads() {
+        return activeCount.get();
+    }
+
+    @Override
+    public int getIdleThreads() {
+        return 0;
+    }
+
+    @Override
+    public boolean isLowOnThreads() {
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + executor + "]";
+    }
+}
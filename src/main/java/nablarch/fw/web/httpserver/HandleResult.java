@@ -0,0 +1,79 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+/**
+ * {@link HttpServerJetty9#handleAll(java.util.List, nablarch.fw.ExecutionContext)}による
+ * 1件のリクエストの処理結果。
+ */
+@Published(tag = "architect")
+public class HandleResult {
+
+    /** HTTPリクエスト */
+    private final HttpRequest request;
+
+    /** HTTPレスポンス */
+    private final HttpResponse response;
+
+    /** 処理時間（ナノ秒） */
+    private final long elapsedNanos;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param request HTTPリクエスト
+     * @param response HTTPレスポンス
+     * @param elapsedNanos 処理時間（ナノ秒）
+     */
+    HandleResult(HttpRequest request, HttpResponse response, long elapsedNanos) {
+        this.request = request;
+        this.response = response;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * HTTPリクエストを取得する。
+     *
+     * @return HTTPリクエスト
+     */
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * HTTPレスポンスを取得する。
+     *
+     * @return HTTPレスポンス
+     */
+    public HttpResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * 処理時間を取得する。
+     *
+     * @return 処理時間（ナノ秒）
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * 処理時間を取得する。
+     *
+     * @return 処理時間（ミリ秒）
+     */
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    @Override
+    public String toString() {
+        return request.getMethod() + " " + request.getRequestUri()
+                + " -> " + response.getStatusCode() + " (" + getElapsedMillis() + "ms)";
+    }
+}
@@ -0,0 +1,140 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.HttpRequest;
+
+/**
+ * {@link HttpServerJetty9#handle(HttpRequest, nablarch.fw.ExecutionContext)}による
+ * 1件のリクエストの処理時間を、処理フェーズごとに保持するクラス。
+ *
+ * @see HandleTimingListener
+ */
+@Published(tag = "architect")
+public class HandleTiming {
+
+    /**
+     * 処理フェーズ。
+     */
+    @Published(tag = "architect")
+    public enum Phase {
+        /** HTTPリクエストの電文への変換 */
+        SERIALIZE,
+        /** ハンドラキューが処理の完了を通知してから、レスポンスの受信まで */
+        DISPATCH,
+        /** コネクタへの送信から、ハンドラキューが処理の完了を通知するまで */
+        APPLICATION,
+        /** レスポンスの受信後、ハンドラキューが処理の完了を通知するまで待機した時間 */
+        AWAIT,
+        /** レスポンスの電文の解析 */
+        PARSE,
+        /** HTTPダンプの出力（非同期出力の場合はキューへの登録） */
+        DUMP
+    }
+
+    /** HTTPメソッド */
+    private final String method;
+
+    /** リクエストパス（クエリ文字列を除く） */
+    private final String path;
+
+    /** フェーズごとの処理時間（ナノ秒） */
+    private final Map<Phase, Long> nanos = new EnumMap<Phase, Long>(Phase.class);
+
+    /** ステータスコード */
+    private int statusCode;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param req HTTPリクエスト
+     */
+    HandleTiming(HttpRequest req) {
+        this.method = req.getMethod();
+        String uri = req.getRequestUri();
+        int query = uri == null ? -1 : uri.indexOf('?');
+        this.path = query < 0 ? uri : uri.substring(0, query);
+        for (Phase phase : Phase.values()) {
+            nanos.put(phase, 0L);
+        }
+    }
+
+    /**
+     * フェーズの処理時間を記録する。
+     *
+     * @param phase フェーズ
+     * @param elapsed 処理時間（ナノ秒）
+     */
+    void record(Phase phase, long elapsed) {
+        nanos.put(phase, Math.max(0L, elapsed));
+    }
+
+    /**
+     * ステータスコードを設定する。
+     *
+     * @param statusCode ステータスコード
+     */
+    void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    /**
+     * HTTPメソッドを取得する。
+     *
+     * @return HTTPメソッド
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * リクエストパスを取得する。
+     *
+     * @return リクエストパス（クエリ文字列を除く）
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * ステータスコードを取得する。
+     *
+     * @return ステータスコード
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * フェーズの処理時間を取得する。
+     *
+     * @param phase フェーズ
+     * @return 処理時間（ナノ秒、そのフェーズを経由しなかった場合は0）
+     */
+    public long getNanos(Phase phase) {
+        return nanos.get(phase);
+    }
+
+    /**
+     * リクエスト全体の処理時間を取得する。
+     * <pre>
+     * 各フェーズは重ならないため、すべてのフェーズの処理時間を合算する。
+     * </pre>
+     *
+     * @return 処理時間（ナノ秒）
+     */
+    public long getTotalNanos() {
+        long total = 0L;
+        for (long elapsed : nanos.values()) {
+            total += elapsed;
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + path + " " + statusCode + " " + nanos;
+    }
+}
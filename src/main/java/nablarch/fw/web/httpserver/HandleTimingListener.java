@@ -0,0 +1,22 @@
+package nablarch.fw.web.httpserver;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link HttpServerJetty9}が処理したリクエストの、処理フェーズごとの処理時間を受け取るインタフェース。
+ *
+ * {@link HttpServerJetty9#addTimingListener(HandleTimingListener)}で登録する。
+ * 複数のスレッドから並行して呼び出されることがあるため、実装クラスはスレッドセーフとすること。
+ *
+ * @see PathTimingAggregator
+ */
+@Published(tag = "architect")
+public interface HandleTimingListener {
+
+    /**
+     * リクエストの処理が完了した際に呼び出される。
+     *
+     * @param timing 処理時間
+     */
+    void onHandled(HandleTiming timing);
+}
@@ -0,0 +1,96 @@
+package nablarch.fw.web.httpserver;
+
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.HttpConfiguration;
+
+/**
+ * HTTP/2 cleartext（h2c）のコネクションファクトリを生成するクラス。
+ *
+ * HTTP/2のサーバ実装（http2-server）はオプショナルな依存関係のため、
+ * h2cが有効な場合のみ本クラスを経由してロードする。
+ */
+final class Http2CleartextSupport {
+
+    /** h2cのコネクションファクトリのクラス名 */
+    private static final String FACTORY_CLASS_NAME = "org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory";
+
+    /**
+     * プライベートコンストラクタ。
+     */
+    private Http2CleartextSupport() {
+    }
+
+    /**
+     * h2cのコネクションファクトリを生成する。
+     * <pre>
+     * 各設定値に0以下が指定された場合は、Jettyのデフォルト値を使用する。
+     * </pre>
+     *
+     * @param config HTTP/1.1のコネクションファクトリと共有する設定
+     * @param maxConcurrentStreams 1接続あたりの最大同時ストリーム数
+     * @param initialStreamRecvWindow ストリームのフロー制御ウィンドウの初期サイズ（バイト）
+     * @param initialSessionRecvWindow セッションのフロー制御ウィンドウの初期サイズ（バイト）
+     * @return コネクションファクトリ
+     * @throws IllegalStateException http2-serverがクラスパス上に存在しない場合
+     */
+    static ConnectionFactory create(HttpConfiguration config, int maxConcurrentStreams,
+            int initialStreamRecvWindow, int initialSessionRecvWindow) {
+        assertAvailable();
+        return Factory.create(config, maxConcurrentStreams, initialStreamRecvWindow, initialSessionRecvWindow);
+    }
+
+    /**
+     * http2-serverがクラスパス上に存在することを確認する。
+     *
+     * @throws IllegalStateException http2-serverがクラスパス上に存在しない場合
+     */
+    private static void assertAvailable() {
+        try {
+            Class.forName(FACTORY_CLASS_NAME, false, Http2CleartextSupport.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "HTTP/2 cleartext requires org.eclipse.jetty.http2:http2-server in the classpath.", e);
+        }
+    }
+
+    /**
+     * h2cのコネクションファクトリを生成するクラス。
+     * <pre>
+     * http2-serverのクラスへの参照をこのクラスに閉じ込め、
+     * クラスパス上に存在しない場合に{@link Http2CleartextSupport}のロードが失敗しないようにする。
+     * </pre>
+     */
+    private static final class Factory {
+
+        /**
+         * プライベートコンストラクタ。
+         */
+        private Factory() {
+        }
+
+        /**
+         * h2cのコネクションファクトリを生成する。
+         *
+         * @param config HTTP/1.1のコネクションファクトリと共有する設定
+         * @param maxConcurrentStreams 1接続あたりの最大同時ストリーム数
+         * @param initialStreamRecvWindow ストリームのフロー制御ウィンドウの初期サイズ（バイト）
+         * @param initialSessionRecvWindow セッションのフロー制御ウィンドウの初期サイズ（バイト）
+         * @return コネクションファクトリ
+         */
+        static ConnectionFactory create(HttpConfiguration config, int maxConcurrentStreams,
+                int initialStreamRecvWindow, int initialSessionRecvWindow) {
+            HTTP2CServerConnectionFactory factory = new HTTP2CServerConnectionFactory(config);
+            if (maxConcurrentStreams > 0) {
+                factory.setMaxConcurrentStreams(maxConcurrentStreams);
+            }
+            if (initialStreamRecvWindow > 0) {
+                factory.setInitialStreamRecvWindow(initialStreamRecvWindow);
+            }
+            if (initialSessionRecvWindow > 0) {
+                factory.setInitialSessionRecvWindow(initialSessionRecvWindow);
+            }
+            return factory;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+
+/**
+ * {@link HttpServerJetty9}のHTTPダンプを、同期または非同期に出力先へ振り分けるクラス。
+ *
+ * 非同期出力が有効な場合は、リクエストとレスポンスの複製を{@link AsyncDumpWriter}に登録する。
+ * 複製できないレスポンスのダンプと、非同期出力が無効な場合のダンプは、呼び出し元のスレッドで出力する。
+ * ファイルへの出力自体は{@link Sink}に委譲する。
+ */
+final class HttpDumpDispatcher {
+
+    /**
+     * HTTPダンプをファイルに出力するインタフェース。
+     */
+    interface Sink {
+
+        /**
+         * HTTPダンプを出力する。
+         *
+         * @param req HTTPリクエスト
+         * @param res HTTPレスポンス
+         * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+         */
+        void write(HttpRequest req, HttpResponse res, String httpDumpFilePath);
+    }
+
+    /** HTTPダンプの出力先 */
+    private final Sink sink;
+
+    /** HTTPダンプを非同期に出力するか否か */
+    private boolean async = false;
+
+    /** HTTPダンプの非同期出力に使用するキューの容量 */
+    private int queueCapacity = 256;
+
+    /** HTTPダンプを非同期に出力するライタ（未使用の場合はnullを保持する） */
+    private final AtomicReference<AsyncDumpWriter> writer = new AtomicReference<AsyncDumpWriter>();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param sink HTTPダンプの出力先
+     */
+    HttpDumpDispatcher(Sink sink) {
+        this.sink = sink;
+    }
+
+    /**
+     * HTTPダンプを非同期に出力するか否かを設定する。
+     *
+     * @param async 非同期に出力する場合、真
+     */
+    void setAsync(boolean async) {
+        this.async = async;
+    }
+
+    /**
+     * HTTPダンプを非同期に出力するか否かを取得する。
+     *
+     * @return 非同期に出力する場合、真
+     */
+    boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * HTTPダンプの非同期出力に使用するキューの容量を設定する。
+     *
+     * @param queueCapacity キューの容量
+     */
+    void setQueueCapacity(int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException(
+                    "httpDumpQueueCapacity must be greater than 0. value = [" + queueCapacity + "]");
+        }
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * HTTPダンプを出力する。
+     * <pre>
+     * 非同期出力が有効かつレスポンスを複製できる場合は、複製をライタに登録する。
+     * 一時ファイルに書き出されたレスポンスは、出力中にボディがクローズされても一時ファイルを残し、
+     * 出力後にボディを先頭に戻す。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @param res HTTPレスポンス
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     * @param currentHttpDumpFilePath 処理時点でサーバに設定されている出力先
+     * @throws IOException 一時ファイルに書き出したボディを先頭に戻せなかった場合
+     */
+    void dump(HttpRequest req, HttpResponse res, String httpDumpFilePath, String currentHttpDumpFilePath)
+            throws IOException {
+        if (async && HttpMessageSnapshot.isCopyable(res)) {
+            // 呼び出し元がリクエスト・レスポンスを再利用しても影響しないよう、複製を登録する
+            final HttpRequest reqSnapshot = HttpMessageSnapshot.of(req);
+            final HttpResponse resSnapshot = HttpMessageSnapshot.of(res);
+            final String dumpFilePath = httpDumpFilePath != null ? httpDumpFilePath : currentHttpDumpFilePath;
+            getWriter().submit(new Runnable() {
+                @Override
+                public void run() {
+                    sink.write(reqSnapshot, resSnapshot, dumpFilePath);
+                }
+            });
+        } else if (res.getBodyStream() instanceof SpilledBodyInputStream) {
+            // ダンプ出力中にボディがクローズされても一時ファイルを残し、読み進めたボディを先頭に戻す
+            SpilledBodyInputStream body = (SpilledBodyInputStream) res.getBodyStream();
+            body.setDeleteOnClose(false);
+            try {
+                sink.write(req, res, httpDumpFilePath);
+            } finally {
+                body.setDeleteOnClose(true);
+            }
+            body.reset();
+        } else {
+            sink.write(req, res, httpDumpFilePath);
+        }
+    }
+
+    /**
+     * 非同期に出力中のHTTPダンプが、すべて出力されるまで待機する。
+     * <pre>
+     * ライタを一度も使用していない場合は何もしない。
+     * </pre>
+     *
+     * @throws RuntimeException HTTPダンプの出力中に例外が発生していた場合
+     */
+    void flush() {
+        AsyncDumpWriter current = writer.get();
+        if (current != null) {
+            current.flush();
+        }
+    }
+
+    /**
+     * 非同期に出力するHTTPダンプの統計情報を取得する。
+     *
+     * @return 統計情報（非同期出力を一度も行っていない場合は、すべての値が0）
+     */
+    HttpDumpStatistics getStatistics() {
+        AsyncDumpWriter current = writer.get();
+        return current == null ? new HttpDumpStatistics(0, 0, 0, 0, 0) : current.getStatistics();
+    }
+
+    /**
+     * HTTPダンプの非同期出力に使用するライタを停止する。
+     * <pre>
+     * 登録済みの出力処理はすべて出力する。
+     * 以降にHTTPダンプを出力する場合は、新たなライタを生成する。
+     * </pre>
+     */
+    void close() {
+        AsyncDumpWriter current = writer.getAndSet(null);
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    /**
+     * HTTPダンプを非同期に出力するライタを取得する。未生成の場合は生成する。
+     *
+     * @return ライタ
+     */
+    private AsyncDumpWriter getWriter() {
+        AsyncDumpWriter current = writer.get();
+        while (current == null) {
+            // 出力処理を登録するまでライタスレッドは起動しないため、競合に負けたライタは破棄してよい
+            writer.compareAndSet(null, new AsyncDumpWriter(queueCapacity));
+            current = writer.get();
+        }
+        return current;
+    }
+}
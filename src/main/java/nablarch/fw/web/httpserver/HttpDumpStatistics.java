@@ -0,0 +1,101 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 非同期で出力するHTTPダンプの統計情報。
+ *
+ * @see HttpServerJetty9#getHttpDumpStatistics()
+ */
+@Published(tag = "architect")
+public class HttpDumpStatistics {
+
+    /** キューに滞留している出力処理の件数 */
+    private final int queueDepth;
+
+    /** キューに滞留した出力処理の最大件数 */
+    private final int maxQueueDepth;
+
+    /** 出力が完了したダンプの件数 */
+    private final long writtenCount;
+
+    /** 1件あたりの平均出力時間（ナノ秒） */
+    private final long averageWriteNanos;
+
+    /** 1件あたりの最大出力時間（ナノ秒） */
+    private final long maxWriteNanos;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param queueDepth キューに滞留している出力処理の件数
+     * @param maxQueueDepth キューに滞留した出力処理の最大件数
+     * @param writtenCount 出力が完了したダンプの件数
+     * @param averageWriteNanos 1件あたりの平均出力時間（ナノ秒）
+     * @param maxWriteNanos 1件あたりの最大出力時間（ナノ秒）
+     */
+    HttpDumpStatistics(int queueDepth, int maxQueueDepth, long writtenCount, long averageWriteNanos,
+            long maxWriteNanos) {
+        this.queueDepth = queueDepth;
+        this.maxQueueDepth = maxQueueDepth;
+        this.writtenCount = writtenCount;
+        this.averageWriteNanos = averageWriteNanos;
+        this.maxWriteNanos = maxWriteNanos;
+    }
+
+    /**
+     * キューに滞留している出力処理の件数を取得する。
+     *
+     * @return 件数
+     */
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    /**
+     * キューに滞留した出力処理の最大件数を取得する。
+     *
+     * @return 件数
+     */
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /**
+     * 出力が完了したダンプの件数を取得する。
+     *
+     * @return 件数
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    /**
+     * 1件あたりの平均出力時間を取得する。
+     *
+     * @return 平均出力時間（マイクロ秒）
+     */
+    public long getAverageWriteMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(averageWriteNanos);
+    }
+
+    /**
+     * 1件あたりの最大出力時間を取得する。
+     *
+     * @return 最大出力時間（マイクロ秒）
+     */
+    public long getMaxWriteMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxWriteNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "http dump statistics. queue depth = [" + queueDepth
+                + "] max queue depth = [" + maxQueueDepth
+                + "] written = [" + writtenCount
+                + "] average = [" + getAverageWriteMicros()
+                + "us] max = [" + getMaxWriteMicros() + "us]";
+    }
+}
@@ -0,0 +1,113 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import nablarch.fw.web.HttpCookie;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * HTTPダンプを非同期に出力するために、HTTPリクエストとHTTPレスポンスの複製を作成するクラス。
+ *
+ * 呼び出し元のスレッドで複製を作成することで、呼び出し元がリクエストやレスポンスを変更・破棄しても、
+ * ライタスレッドは処理時点の内容を出力できる。
+ */
+final class HttpMessageSnapshot {
+
+    /** インスタンス化しない。 */
+    private HttpMessageSnapshot() {
+    }
+
+    /**
+     * HTTPリクエストを複製する。
+     * <pre>
+     * リクエストライン・ヘッダ・パラメータ・クッキーを、元のリクエストと共有しないマップに複製する。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @return 複製したHTTPリクエスト
+     */
+    static HttpRequest of(HttpRequest req) {
+        MockHttpRequest snapshot = new MockHttpRequest();
+        snapshot.setMethod(req.getMethod());
+        snapshot.setRequestUri(req.getRequestUri());
+        snapshot.setHttpVersion(req.getHttpVersion());
+        snapshot.setHeaderMap(new LinkedHashMap<String, String>(req.getHeaderMap()));
+        Map<String, String[]> params = new LinkedHashMap<String, String[]>();
+        for (Map.Entry<String, String[]> param : req.getParamMap().entrySet()) {
+            params.put(param.getKey(), param.getValue() == null ? null : param.getValue().clone());
+        }
+        snapshot.setParamMap(params);
+        if (req.getCookie() != null) {
+            HttpCookie cookie = new HttpCookie();
+            cookie.putAll(req.getCookie());
+            snapshot.setCookie(cookie);
+        }
+        return snapshot;
+    }
+
+    /**
+     * HTTPレスポンスを、呼び出し元のスレッドで複製できるか否かを判定する。
+     * <pre>
+     * 一時ファイルに書き出したボディは、メモリに読み込まないよう複製の対象外とする。
+     * 読み込んだ位置を戻せないボディも、複製すると元のレスポンスから読めなくなるため対象外とする。
+     * </pre>
+     *
+     * @param res HTTPレスポンス
+     * @return 複製できる場合、真
+     */
+    static boolean isCopyable(HttpResponse res) {
+        InputStream body = res.getBodyStream();
+        return body == null || (!(body instanceof SpilledBodyInputStream) && body.markSupported());
+    }
+
+    /**
+     * HTTPレスポンスを複製する。
+     * <pre>
+     * ボディはバイト列として読み込んで複製し、元のレスポンスのボディのストリームは読み込み前の位置に戻す。
+     * {@link #isCopyable(HttpResponse)}が真を返すレスポンスのみ指定すること。
+     * </pre>
+     *
+     * @param res HTTPレスポンス
+     * @return 複製したHTTPレスポンス
+     */
+    static HttpResponse of(HttpResponse res) {
+        HttpResponse snapshot = new HttpResponse(res.getStatusCode());
+        for (Map.Entry<String, String> header : res.getHeaderMap().entrySet()) {
+            snapshot.setHeader(header.getKey(), header.getValue());
+        }
+        InputStream body = res.getBodyStream();
+        if (body != null) {
+            try {
+                body.mark(Integer.MAX_VALUE);
+                snapshot.write(read(body));
+                body.reset();
+            } catch (IOException e) {
+                throw new RuntimeException("failed to copy the response body for the http dump.", e);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * ストリームの内容をすべて読み込む。
+     *
+     * @param in ストリーム
+     * @return 読み込んだバイト列
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static byte[] read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+            out.write(buffer, 0, length);
+        }
+        return out.toByteArray();
+    }
+}
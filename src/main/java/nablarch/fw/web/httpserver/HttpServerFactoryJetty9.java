@@ -1,5 +1,9 @@
 package nablarch.fw.web.httpserver;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
 import nablarch.fw.web.HttpServer;
 import nablarch.fw.web.HttpServerFactory;
 
@@ -10,8 +14,735 @@ import nablarch.fw.web.HttpServerFactory;
  */
 public class HttpServerFactoryJetty9 implements HttpServerFactory {
 
+    /** {@link JettyServerPool}から起動済みサーバを借り受けるか否か */
+    private boolean serverPoolEnabled = false;
+
+    /** クイックスタートモードで起動するか否か */
+    private boolean quickStartEnabled = false;
+
+    /** クイックスタート用の記述子を格納するディレクトリ */
+    private String quickStartDirectory = null;
+
+    /** テストモードでの起動時にJSPのウォームアップを行うか否か */
+    private boolean jspWarmupEnabled = false;
+
+    /** テストモードで送信するリクエストの文字コード */
+    private String requestCharset = null;
+
+    /** テストモードでリクエストの完了を待機する時間（ミリ秒） */
+    private Long completionTimeout = null;
+
+    /** テストモードでレスポンスボディを一時ファイルに書き出す閾値（バイト） */
+    private Long responseSpillThreshold = null;
+
+    /** テストモードでHTTPパーサを経由せずにリクエストを処理するか否か */
+    private boolean directDispatchEnabled = false;
+
+    /** HTTPダンプを非同期に出力するか否か */
+    private boolean httpDumpAsync = false;
+
+    /** 処理フェーズごとの処理時間を受け取るリスナ */
+    private List<HandleTimingListener> timingListeners = new ArrayList<HandleTimingListener>();
+
+    /** 同じサーバに追加でデプロイするWebアプリケーション */
+    private List<HttpServerJetty9> webApplications = new ArrayList<HttpServerJetty9>();
+
+    /** スレッドプールの最小スレッド数 */
+    private Integer minThreads = null;
+
+    /** スレッドプールの最大スレッド数 */
+    private Integer maxThreads = null;
+
+    /** スレッドプールのアイドルスレッドを破棄するまでの時間（ミリ秒） */
+    private Integer threadIdleTimeout = null;
+
+    /** スレッドプールの予約スレッド数 */
+    private Integer reservedThreads = null;
+
+    /** リクエストの処理に使用する{@link Executor} */
+    private Executor executor = null;
+
+    /** リクエストを仮想スレッドで処理するか否か */
+    private boolean virtualThreadsEnabled = false;
+
+    /** レスポンスの出力バッファサイズ（バイト） */
+    private Integer outputBufferSize = null;
+
+    /** リクエストヘッダの最大サイズ（バイト） */
+    private Integer requestHeaderSize = null;
+
+    /** レスポンスヘッダの最大サイズ（バイト） */
+    private Integer responseHeaderSize = null;
+
+    /** コネクタのアイドルタイムアウト（ミリ秒） */
+    private Long idleTimeout = null;
+
+    /** アクセプタスレッド数 */
+    private Integer acceptors = null;
+
+    /** セレクタ数 */
+    private Integer selectors = null;
+
+    /** コネクタが使用するバッファプールの種類 */
+    private String byteBufferPoolType = null;
+
+    /** プールするバッファの最大容量（バイト） */
+    private Integer byteBufferPoolMaxCapacity = null;
+
+    /** バケットごとにプールするバッファの最大数 */
+    private Integer byteBufferPoolMaxQueueLength = null;
+
+    /** プールに保持するヒープバッファの最大容量（バイト） */
+    private Long byteBufferPoolMaxHeapMemory = null;
+
+    /** プールに保持するダイレクトバッファの最大容量（バイト） */
+    private Long byteBufferPoolMaxDirectMemory = null;
+
+    /** テストモードで送信するリクエストの電文にダイレクトバッファを使用するか否か */
+    private boolean directBuffersEnabled = false;
+
+    /** HTTP/2 cleartext（h2c）を有効にするか否か */
+    private boolean http2CleartextEnabled = false;
+
+    /** レスポンスをgzip圧縮するか否か */
+    private boolean gzipEnabled = false;
+
+    /** gzip圧縮するレスポンスの最小サイズ（バイト） */
+    private Integer gzipMinSize = null;
+
+    /** gzip圧縮するMIMEタイプ（カンマ区切り） */
+    private String gzipMimeTypes = null;
+
+    /** gzip圧縮の圧縮レベル */
+    private Integer gzipCompressionLevel = null;
+
+    /** 圧縮済みの静的ファイルを配信するか否か */
+    private boolean precompressedEnabled = false;
+
+    /** UNIXドメインソケットのパス */
+    private String unixSocketPath = null;
+
+    /** HTTP/2の1接続あたりの最大同時ストリーム数 */
+    private Integer http2MaxConcurrentStreams = null;
+
+    /** HTTP/2のストリームのフロー制御ウィンドウの初期サイズ（バイト） */
+    private Integer http2InitialStreamRecvWindow = null;
+
+    /** HTTP/2のセッションのフロー制御ウィンドウの初期サイズ（バイト） */
+    private Integer http2InitialSessionRecvWindow = null;
+
+    /** サーバの停止時に、処理中のリクエストの完了を待機する時間（ミリ秒） */
+    private Long stopTimeout = null;
+
+    /** WARのベースディレクトリ配下の変更を検知して再デプロイするか否か */
+    private boolean redeployWatchEnabled = false;
+
+    /** 変更が発生しなくなってから再デプロイするまでの時間（ミリ秒） */
+    private Long redeployQuietPeriod = null;
+
+    /** テストモードのサーバを、最初のリクエストの処理時に起動するか否か */
+    private boolean lazyStartEnabled = false;
+
+    /** {@link ServerDaemon}で起動するサーバを構成する{@link DaemonServerProvider}の実装クラス名 */
+    private String daemonServerProvider = null;
+
+    /** {@link ServerDaemon}の接続情報を出力する状態ディレクトリ */
+    private String daemonStateDirectory = null;
+
+    /** {@link ServerDaemon}の起動を待機する時間（ミリ秒） */
+    private Long daemonStartTimeout = null;
+
+    /** {@link ServerDaemon}がリクエストを受信しない場合に終了するまでの時間（ミリ秒） */
+    private Long daemonIdleTimeout = null;
+
     @Override
     public HttpServer create() {
-        return new HttpServerJetty9();
+        HttpServerJetty9 server = new HttpServerJetty9()
+                .setServerPoolEnabled(serverPoolEnabled)
+                .setQuickStartEnabled(quickStartEnabled)
+                .setJspWarmupEnabled(jspWarmupEnabled)
+                .setDirectDispatchEnabled(directDispatchEnabled)
+                .setHttpDumpAsync(httpDumpAsync)
+                .setVirtualThreadsEnabled(virtualThreadsEnabled)
+                .setExecutor(executor)
+                .setDirectBuffersEnabled(directBuffersEnabled)
+                .setHttp2CleartextEnabled(http2CleartextEnabled)
+                .setGzipEnabled(gzipEnabled)
+                .setPrecompressedEnabled(precompressedEnabled)
+                .setRedeployWatchEnabled(redeployWatchEnabled)
+                .setLazyStartEnabled(lazyStartEnabled);
+        if (quickStartDirectory != null) {
+            server.setQuickStartDirectory(quickStartDirectory);
+        }
+        if (requestCharset != null) {
+            server.setRequestCharset(requestCharset);
+        }
+        if (completionTimeout != null) {
+            server.setCompletionTimeout(completionTimeout);
+        }
+        if (responseSpillThreshold != null) {
+            server.setResponseSpillThreshold(responseSpillThreshold);
+        }
+        if (minThreads != null) {
+            server.setMinThreads(minThreads);
+        }
+        if (maxThreads != null) {
+            server.setMaxThreads(maxThreads);
+        }
+        if (threadIdleTimeout != null) {
+            server.setThreadIdleTimeout(threadIdleTimeout);
+        }
+        if (reservedThreads != null) {
+            server.setReservedThreads(reservedThreads);
+        }
+        if (outputBufferSize != null) {
+            server.setOutputBufferSize(outputBufferSize);
+        }
+        if (requestHeaderSize != null) {
+            server.setRequestHeaderSize(requestHeaderSize);
+        }
+        if (responseHeaderSize != null) {
+            server.setResponseHeaderSize(responseHeaderSize);
+        }
+        if (idleTimeout != null) {
+            server.setIdleTimeout(idleTimeout);
+        }
+        if (acceptors != null) {
+            server.setAcceptors(acceptors);
+        }
+        if (selectors != null) {
+            server.setSelectors(selectors);
+        }
+        if (byteBufferPoolType != null) {
+            server.setByteBufferPoolType(byteBufferPoolType);
+        }
+        if (byteBufferPoolMaxCapacity != null) {
+            server.setByteBufferPoolMaxCapacity(byteBufferPoolMaxCapacity);
+        }
+        if (byteBufferPoolMaxQueueLength != null) {
+            server.setByteBufferPoolMaxQueueLength(byteBufferPoolMaxQueueLength);
+        }
+        if (byteBufferPoolMaxHeapMemory != null) {
+            server.setByteBufferPoolMaxHeapMemory(byteBufferPoolMaxHeapMemory);
+        }
+        if (byteBufferPoolMaxDirectMemory != null) {
+            server.setByteBufferPoolMaxDirectMemory(byteBufferPoolMaxDirectMemory);
+        }
+        if (gzipMinSize != null) {
+            server.setGzipMinSize(gzipMinSize);
+        }
+        if (gzipMimeTypes != null) {
+            server.setGzipMimeTypes(gzipMimeTypes);
+        }
+        if (gzipCompressionLevel != null) {
+            server.setGzipCompressionLevel(gzipCompressionLevel);
+        }
+        if (unixSocketPath != null) {
+            server.setUnixSocketPath(unixSocketPath);
+        }
+        if (http2MaxConcurrentStreams != null) {
+            server.setHttp2MaxConcurrentStreams(http2MaxConcurrentStreams);
+        }
+        if (http2InitialStreamRecvWindow != null) {
+            server.setHttp2InitialStreamRecvWindow(http2InitialStreamRecvWindow);
+        }
+        if (http2InitialSessionRecvWindow != null) {
+            server.setHttp2InitialSessionRecvWindow(http2InitialSessionRecvWindow);
+        }
+        if (stopTimeout != null) {
+            server.setStopTimeout(stopTimeout);
+        }
+        if (redeployQuietPeriod != null) {
+            server.setRedeployQuietPeriod(redeployQuietPeriod);
+        }
+        if (daemonServerProvider != null) {
+            server.setDaemonServerProvider(daemonServerProvider);
+        }
+        if (daemonStateDirectory != null) {
+            server.setDaemonStateDirectory(daemonStateDirectory);
+        }
+        if (daemonStartTimeout != null) {
+            server.setDaemonStartTimeout(daemonStartTimeout);
+        }
+        if (daemonIdleTimeout != null) {
+            server.setDaemonIdleTimeout(daemonIdleTimeout);
+        }
+        for (HandleTimingListener listener : timingListeners) {
+            server.addTimingListener(listener);
+        }
+        for (HttpServerJetty9 application : webApplications) {
+            server.addWebApplication(application);
+        }
+        return server;
+    }
+
+    /**
+     * 生成するサーバが{@link JettyServerPool}から起動済みサーバを借り受けるか否かを設定する。
+     *
+     * @param serverPoolEnabled サーバプールを使用する場合、真
+     * @see HttpServerJetty9#setServerPoolEnabled(boolean)
+     */
+    public void setServerPoolEnabled(boolean serverPoolEnabled) {
+        this.serverPoolEnabled = serverPoolEnabled;
+    }
+
+    /**
+     * 生成するサーバをクイックスタートモードで起動するか否かを設定する。
+     *
+     * @param quickStartEnabled クイックスタートモードで起動する場合、真
+     * @see HttpServerJetty9#setQuickStartEnabled(boolean)
+     */
+    public void setQuickStartEnabled(boolean quickStartEnabled) {
+        this.quickStartEnabled = quickStartEnabled;
+    }
+
+    /**
+     * クイックスタート用の記述子を格納するディレクトリを設定する。
+     *
+     * @param quickStartDirectory 記述子を格納するディレクトリのパス
+     * @see HttpServerJetty9#setQuickStartDirectory(String)
+     */
+    public void setQuickStartDirectory(String quickStartDirectory) {
+        this.quickStartDirectory = quickStartDirectory;
+    }
+
+    /**
+     * 生成するサーバがテストモードでの起動時にJSPのウォームアップを行うか否かを設定する。
+     *
+     * @param jspWarmupEnabled ウォームアップを行う場合、真
+     * @see HttpServerJetty9#setJspWarmupEnabled(boolean)
+     */
+    public void setJspWarmupEnabled(boolean jspWarmupEnabled) {
+        this.jspWarmupEnabled = jspWarmupEnabled;
+    }
+
+    /**
+     * 生成するサーバがテストモードで送信するリクエストの文字コードを設定する。
+     *
+     * @param requestCharset 文字コード名
+     * @see HttpServerJetty9#setRequestCharset(String)
+     */
+    public void setRequestCharset(String requestCharset) {
+        this.requestCharset = requestCharset;
+    }
+
+    /**
+     * 生成するサーバがテストモードでリクエストの完了を待機する時間を設定する。
+     *
+     * @param completionTimeout 待機時間（ミリ秒）
+     * @see HttpServerJetty9#setCompletionTimeout(long)
+     */
+    public void setCompletionTimeout(long completionTimeout) {
+        this.completionTimeout = completionTimeout;
+    }
+
+    /**
+     * 生成するサーバがテストモードでレスポンスボディを一時ファイルに書き出す閾値を設定する。
+     *
+     * @param responseSpillThreshold 閾値（バイト）
+     * @see HttpServerJetty9#setResponseSpillThreshold(long)
+     */
+    public void setResponseSpillThreshold(long responseSpillThreshold) {
+        this.responseSpillThreshold = responseSpillThreshold;
+    }
+
+    /**
+     * 生成するサーバがテストモードでHTTPパーサを経由せずにリクエストを処理するか否かを設定する。
+     *
+     * @param directDispatchEnabled HTTPパーサを経由せずに処理する場合、真
+     * @see HttpServerJetty9#setDirectDispatchEnabled(boolean)
+     */
+    public void setDirectDispatchEnabled(boolean directDispatchEnabled) {
+        this.directDispatchEnabled = directDispatchEnabled;
+    }
+
+    /**
+     * 生成するサーバがHTTPダンプを非同期に出力するか否かを設定する。
+     *
+     * @param httpDumpAsync 非同期に出力する場合、真
+     * @see HttpServerJetty9#setHttpDumpAsync(boolean)
+     */
+    public void setHttpDumpAsync(boolean httpDumpAsync) {
+        this.httpDumpAsync = httpDumpAsync;
+    }
+
+    /**
+     * 生成するサーバに登録する、処理フェーズごとの処理時間を受け取るリスナを設定する。
+     *
+     * @param timingListeners リスナ
+     * @see HttpServerJetty9#addTimingListener(HandleTimingListener)
+     */
+    public void setTimingListeners(List<HandleTimingListener> timingListeners) {
+        this.timingListeners = timingListeners;
+    }
+
+    /**
+     * 生成するサーバのスレッドプールの最小スレッド数を設定する。
+     *
+     * @param minThreads 最小スレッド数
+     * @see HttpServerJetty9#setMinThreads(int)
+     */
+    public void setMinThreads(int minThreads) {
+        this.minThreads = minThreads;
+    }
+
+    /**
+     * 生成するサーバのスレッドプールの最大スレッド数を設定する。
+     *
+     * @param maxThreads 最大スレッド数
+     * @see HttpServerJetty9#setMaxThreads(int)
+     */
+    public void setMaxThreads(int maxThreads) {
+        this.maxThreads = maxThreads;
+    }
+
+    /**
+     * 生成するサーバのスレッドプールのアイドルスレッドを破棄するまでの時間を設定する。
+     *
+     * @param threadIdleTimeout アイドルスレッドを破棄するまでの時間（ミリ秒）
+     * @see HttpServerJetty9#setThreadIdleTimeout(int)
+     */
+    public void setThreadIdleTimeout(int threadIdleTimeout) {
+        this.threadIdleTimeout = threadIdleTimeout;
+    }
+
+    /**
+     * 生成するサーバのスレッドプールの予約スレッド数を設定する。
+     *
+     * @param reservedThreads 予約スレッド数
+     * @see HttpServerJetty9#setReservedThreads(int)
+     */
+    public void setReservedThreads(int reservedThreads) {
+        this.reservedThreads = reservedThreads;
+    }
+
+    /**
+     * 生成するサーバがリクエストの処理に使用する{@link Executor}を設定する。
+     *
+     * @param executor リクエストの処理に使用する{@link Executor}
+     * @see HttpServerJetty9#setExecutor(Executor)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * 生成するサーバがリクエストを仮想スレッドで処理するか否かを設定する。
+     *
+     * @param virtualThreadsEnabled 仮想スレッドで処理する場合、真
+     * @see HttpServerJetty9#setVirtualThreadsEnabled(boolean)
+     */
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    /**
+     * 生成するサーバのレスポンスの出力バッファサイズを設定する。
+     *
+     * @param outputBufferSize 出力バッファサイズ（バイト）
+     * @see HttpServerJetty9#setOutputBufferSize(int)
+     */
+    public void setOutputBufferSize(int outputBufferSize) {
+        this.outputBufferSize = outputBufferSize;
+    }
+
+    /**
+     * 生成するサーバのリクエストヘッダの最大サイズを設定する。
+     *
+     * @param requestHeaderSize リクエストヘッダの最大サイズ（バイト）
+     * @see HttpServerJetty9#setRequestHeaderSize(int)
+     */
+    public void setRequestHeaderSize(int requestHeaderSize) {
+        this.requestHeaderSize = requestHeaderSize;
+    }
+
+    /**
+     * 生成するサーバのレスポンスヘッダの最大サイズを設定する。
+     *
+     * @param responseHeaderSize レスポンスヘッダの最大サイズ（バイト）
+     * @see HttpServerJetty9#setResponseHeaderSize(int)
+     */
+    public void setResponseHeaderSize(int responseHeaderSize) {
+        this.responseHeaderSize = responseHeaderSize;
+    }
+
+    /**
+     * 生成するサーバのコネクタのアイドルタイムアウトを設定する。
+     *
+     * @param idleTimeout アイドルタイムアウト（ミリ秒）
+     * @see HttpServerJetty9#setIdleTimeout(long)
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    /**
+     * 生成するサーバのアクセプタスレッド数を設定する。
+     *
+     * @param acceptors アクセプタスレッド数
+     * @see HttpServerJetty9#setAcceptors(int)
+     */
+    public void setAcceptors(int acceptors) {
+        this.acceptors = acceptors;
+    }
+
+    /**
+     * 生成するサーバのセレクタ数を設定する。
+     *
+     * @param selectors セレクタ数
+     * @see HttpServerJetty9#setSelectors(int)
+     */
+    public void setSelectors(int selectors) {
+        this.selectors = selectors;
+    }
+
+    /**
+     * 生成するサーバのコネクタが使用するバッファプールの種類を設定する。
+     *
+     * @param byteBufferPoolType バッファプールの種類（"array"または"mapped"）
+     * @see HttpServerJetty9#setByteBufferPoolType(String)
+     */
+    public void setByteBufferPoolType(String byteBufferPoolType) {
+        this.byteBufferPoolType = byteBufferPoolType;
+    }
+
+    /**
+     * 生成するサーバのバッファプールがプールするバッファの最大容量を設定する。
+     *
+     * @param byteBufferPoolMaxCapacity プールするバッファの最大容量（バイト）
+     * @see HttpServerJetty9#setByteBufferPoolMaxCapacity(int)
+     */
+    public void setByteBufferPoolMaxCapacity(int byteBufferPoolMaxCapacity) {
+        this.byteBufferPoolMaxCapacity = byteBufferPoolMaxCapacity;
+    }
+
+    /**
+     * 生成するサーバのバッファプールがバケットごとにプールするバッファの最大数を設定する。
+     *
+     * @param byteBufferPoolMaxQueueLength バケットごとにプールするバッファの最大数
+     * @see HttpServerJetty9#setByteBufferPoolMaxQueueLength(int)
+     */
+    public void setByteBufferPoolMaxQueueLength(int byteBufferPoolMaxQueueLength) {
+        this.byteBufferPoolMaxQueueLength = byteBufferPoolMaxQueueLength;
+    }
+
+    /**
+     * 生成するサーバのバッファプールに保持するヒープバッファの最大容量を設定する。
+     *
+     * @param byteBufferPoolMaxHeapMemory ヒープバッファの最大容量（バイト）
+     * @see HttpServerJetty9#setByteBufferPoolMaxHeapMemory(long)
+     */
+    public void setByteBufferPoolMaxHeapMemory(long byteBufferPoolMaxHeapMemory) {
+        this.byteBufferPoolMaxHeapMemory = byteBufferPoolMaxHeapMemory;
+    }
+
+    /**
+     * 生成するサーバのバッファプールに保持するダイレクトバッファの最大容量を設定する。
+     *
+     * @param byteBufferPoolMaxDirectMemory ダイレクトバッファの最大容量（バイト）
+     * @see HttpServerJetty9#setByteBufferPoolMaxDirectMemory(long)
+     */
+    public void setByteBufferPoolMaxDirectMemory(long byteBufferPoolMaxDirectMemory) {
+        this.byteBufferPoolMaxDirectMemory = byteBufferPoolMaxDirectMemory;
+    }
+
+    /**
+     * 生成するサーバがテストモードで送信するリクエストの電文にダイレクトバッファを使用するか否かを設定する。
+     *
+     * @param directBuffersEnabled ダイレクトバッファを使用する場合、真
+     * @see HttpServerJetty9#setDirectBuffersEnabled(boolean)
+     */
+    public void setDirectBuffersEnabled(boolean directBuffersEnabled) {
+        this.directBuffersEnabled = directBuffersEnabled;
+    }
+
+    /**
+     * 生成するサーバでHTTP/2 cleartext（h2c）を有効にするか否かを設定する。
+     *
+     * @param http2CleartextEnabled h2cを有効にする場合、真
+     * @see HttpServerJetty9#setHttp2CleartextEnabled(boolean)
+     */
+    public void setHttp2CleartextEnabled(boolean http2CleartextEnabled) {
+        this.http2CleartextEnabled = http2CleartextEnabled;
+    }
+
+    /**
+     * 生成するサーバのHTTP/2の1接続あたりの最大同時ストリーム数を設定する。
+     *
+     * @param http2MaxConcurrentStreams 最大同時ストリーム数
+     * @see HttpServerJetty9#setHttp2MaxConcurrentStreams(int)
+     */
+    public void setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        this.http2MaxConcurrentStreams = http2MaxConcurrentStreams;
+    }
+
+    /**
+     * 生成するサーバのHTTP/2のストリームのフロー制御ウィンドウの初期サイズを設定する。
+     *
+     * @param http2InitialStreamRecvWindow ウィンドウの初期サイズ（バイト）
+     * @see HttpServerJetty9#setHttp2InitialStreamRecvWindow(int)
+     */
+    public void setHttp2InitialStreamRecvWindow(int http2InitialStreamRecvWindow) {
+        this.http2InitialStreamRecvWindow = http2InitialStreamRecvWindow;
+    }
+
+    /**
+     * 生成するサーバのHTTP/2のセッションのフロー制御ウィンドウの初期サイズを設定する。
+     *
+     * @param http2InitialSessionRecvWindow ウィンドウの初期サイズ（バイト）
+     * @see HttpServerJetty9#setHttp2InitialSessionRecvWindow(int)
+     */
+    public void setHttp2InitialSessionRecvWindow(int http2InitialSessionRecvWindow) {
+        this.http2InitialSessionRecvWindow = http2InitialSessionRecvWindow;
+    }
+
+    /**
+     * 生成するサーバが待ち受けるUNIXドメインソケットのパスを設定する。
+     *
+     * @param unixSocketPath ソケットファイルのパス
+     * @see HttpServerJetty9#setUnixSocketPath(String)
+     */
+    public void setUnixSocketPath(String unixSocketPath) {
+        this.unixSocketPath = unixSocketPath;
+    }
+
+    /**
+     * 生成するサーバがレスポンスをgzip圧縮するか否かを設定する。
+     *
+     * @param gzipEnabled gzip圧縮する場合、真
+     * @see HttpServerJetty9#setGzipEnabled(boolean)
+     */
+    public void setGzipEnabled(boolean gzipEnabled) {
+        this.gzipEnabled = gzipEnabled;
+    }
+
+    /**
+     * 生成するサーバがgzip圧縮するレスポンスの最小サイズを設定する。
+     *
+     * @param gzipMinSize 最小サイズ（バイト）
+     * @see HttpServerJetty9#setGzipMinSize(int)
+     */
+    public void setGzipMinSize(int gzipMinSize) {
+        this.gzipMinSize = gzipMinSize;
+    }
+
+    /**
+     * 生成するサーバがgzip圧縮するMIMEタイプを設定する。
+     *
+     * @param gzipMimeTypes MIMEタイプ（カンマ区切り）
+     * @see HttpServerJetty9#setGzipMimeTypes(String)
+     */
+    public void setGzipMimeTypes(String gzipMimeTypes) {
+        this.gzipMimeTypes = gzipMimeTypes;
+    }
+
+    /**
+     * 生成するサーバのgzip圧縮の圧縮レベルを設定する。
+     *
+     * @param gzipCompressionLevel 圧縮レベル
+     * @see HttpServerJetty9#setGzipCompressionLevel(int)
+     */
+    public void setGzipCompressionLevel(int gzipCompressionLevel) {
+        this.gzipCompressionLevel = gzipCompressionLevel;
+    }
+
+    /**
+     * 生成するサーバが圧縮済みの静的ファイルを配信するか否かを設定する。
+     *
+     * @param precompressedEnabled 圧縮済みの静的ファイルを配信する場合、真
+     * @see HttpServerJetty9#setPrecompressedEnabled(boolean)
+     */
+    public void setPrecompressedEnabled(boolean precompressedEnabled) {
+        this.precompressedEnabled = precompressedEnabled;
+    }
+
+    /**
+     * 生成するサーバの停止時に、処理中のリクエストの完了を待機する時間を設定する。
+     *
+     * @param stopTimeout 待機時間（ミリ秒）
+     * @see HttpServerJetty9#setStopTimeout(long)
+     */
+    public void setStopTimeout(long stopTimeout) {
+        this.stopTimeout = stopTimeout;
+    }
+
+    /**
+     * 生成するサーバが、WARのベースディレクトリ配下の変更を検知して再デプロイするか否かを設定する。
+     *
+     * @param redeployWatchEnabled 変更を検知して再デプロイする場合、真
+     * @see HttpServerJetty9#setRedeployWatchEnabled(boolean)
+     */
+    public void setRedeployWatchEnabled(boolean redeployWatchEnabled) {
+        this.redeployWatchEnabled = redeployWatchEnabled;
+    }
+
+    /**
+     * 生成するサーバが、変更が発生しなくなってから再デプロイするまでの時間を設定する。
+     *
+     * @param redeployQuietPeriod 待機時間（ミリ秒）
+     * @see HttpServerJetty9#setRedeployQuietPeriod(long)
+     */
+    public void setRedeployQuietPeriod(long redeployQuietPeriod) {
+        this.redeployQuietPeriod = redeployQuietPeriod;
+    }
+
+    /**
+     * 生成するサーバに追加でデプロイするWebアプリケーションを設定する。
+     *
+     * @param webApplications Webアプリケーションの設定
+     * @see HttpServerJetty9#addWebApplication(HttpServerJetty9)
+     */
+    public void setWebApplications(List<HttpServerJetty9> webApplications) {
+        this.webApplications = webApplications;
+    }
+
+    /**
+     * 生成するサーバを、最初のリクエストの処理時に起動するか否かを設定する。
+     *
+     * @param lazyStartEnabled 最初のリクエストの処理時に起動する場合、真
+     * @see HttpServerJetty9#setLazyStartEnabled(boolean)
+     */
+    public void setLazyStartEnabled(boolean lazyStartEnabled) {
+        this.lazyStartEnabled = lazyStartEnabled;
+    }
+
+    /**
+     * 生成するサーバを{@link ServerDaemon}で起動する場合の、サーバを構成するクラスを設定する。
+     *
+     * @param daemonServerProvider {@link DaemonServerProvider}の実装クラス名
+     * @see HttpServerJetty9#setDaemonServerProvider(String)
+     */
+    public void setDaemonServerProvider(String daemonServerProvider) {
+        this.daemonServerProvider = daemonServerProvider;
+    }
+
+    /**
+     * 生成するサーバが使用する{@link ServerDaemon}の状態ディレクトリを設定する。
+     *
+     * @param daemonStateDirectory 状態ディレクトリのパス
+     * @see HttpServerJetty9#setDaemonStateDirectory(String)
+     */
+    public void setDaemonStateDirectory(String daemonStateDirectory) {
+        this.daemonStateDirectory = daemonStateDirectory;
+    }
+
+    /**
+     * 生成するサーバが{@link ServerDaemon}の起動を待機する時間を設定する。
+     *
+     * @param daemonStartTimeout 待機時間（ミリ秒）
+     * @see HttpServerJetty9#setDaemonStartTimeout(long)
+     */
+    public void setDaemonStartTimeout(long daemonStartTimeout) {
+        this.daemonStartTimeout = daemonStartTimeout;
+    }
+
+    /**
+     * 生成するサーバが起動する{@link ServerDaemon}の、リクエストを受信しない場合に終了するまでの時間を設定する。
+     *
+     * @param daemonIdleTimeout 待機時間（ミリ秒）
+     * @see HttpServerJetty9#setDaemonIdleTimeout(long)
+     */
+    public void setDaemonIdleTimeout(long daemonIdleTimeout) {
+        this.daemonIdleTimeout = daemonIdleTimeout;
     }
 }
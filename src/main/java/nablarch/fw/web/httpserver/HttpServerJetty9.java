@@ -2,10 +2,20 @@ package nablarch.fw.web.httpserver;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
-import java.util.concurrent.CountDownLatch;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
 
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
@@ -15,17 +25,23 @@ import org.apache.tomcat.JarScanner;
 import org.apache.tomcat.util.scan.StandardJarScanner;
 import org.eclipse.jetty.annotations.AnnotationConfiguration;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.Server;
-import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.ContextHandlerCollection;
+import org.eclipse.jetty.server.handler.StatisticsHandler;
 import org.eclipse.jetty.server.session.SessionHandler;
 import org.eclipse.jetty.servlet.FilterHolder;
 import org.eclipse.jetty.util.resource.ResourceCollection;
+import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.webapp.Configuration;
 import org.eclipse.jetty.webapp.WebAppContext;
 
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
 import nablarch.core.util.annotation.Published;
 import nablarch.fw.ExecutionContext;
+import nablarch.fw.Handler;
 import nablarch.fw.web.HttpRequest;
 import nablarch.fw.web.HttpResponse;
 import nablarch.fw.web.HttpServer;
@@ -43,55 +59,1761 @@ import org.eclipse.jetty.webapp.WebXmlConfiguration;
 @Published(tag = "architect")
 public class HttpServerJetty9 extends HttpServer {
 
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(HttpServerJetty9.class);
+
+    /** 圧縮済みの静的ファイルの配信を指定する、DefaultServletの初期化パラメータ名 */
+    private static final String PRECOMPRESSED_INIT_PARAM = "org.eclipse.jetty.servlet.Default.precompressed";
+
+    /** 配信する圧縮済みの静的ファイルの形式（エンコーディング=拡張子、優先順） */
+    private static final String PRECOMPRESSED_FORMATS = "br=.br,gzip=.gz";
+
+    /** テストモードで応答を待機する時間（ミリ秒、{@link LocalConnector#getResponse(ByteBuffer)}と同じ） */
+    private static final long RESPONSE_TIMEOUT_MILLIS = 10000L;
 
     /** アプリケーションサーバの実体 */
     private Server jetty;
 
-    /** 自動テスト実行用コネクター */
-    private LocalConnector localConnector;
+    /** 自動テスト実行用コネクター */
+    private LocalConnector localConnector;
+
+    /** デプロイ済みのWebアプリケーションコンテキスト */
+    private WebAppContext webApp;
+
+    /** コンパイル済みJSPクラスのキャッシュ */
+    private JspClassCache jspClassCache;
+
+    /** 実行中のJSPのウォームアップ */
+    private JspWarmup jspWarmup;
+
+    /** {@link JettyServerPool}から起動済みサーバを借り受けるか否か */
+    private boolean serverPoolEnabled = false;
+
+    /** {@link JettyServerPool}から借り受けている起動中のサーバ（借り受けていない場合はnull） */
+    private PooledServer pooledServer;
+
+    /** サーバの停止時に、処理中のリクエストの完了を待機する時間（ミリ秒） */
+    private long stopTimeout = 5000L;
+
+    /** WARのベースディレクトリ配下の変更を検知して再デプロイするか否か */
+    private boolean redeployWatchEnabled = false;
+
+    /** 変更が発生しなくなってから再デプロイするまでの時間（ミリ秒） */
+    private long redeployQuietPeriod = 500L;
+
+    /** WARのベースディレクトリ配下の変更を監視するオブジェクト */
+    private WarChangeWatcher warChangeWatcher;
+
+    /** 再デプロイを直列化するためのロック */
+    private final Object redeployLock = new Object();
+
+    /** 同じサーバに追加でデプロイするWebアプリケーション */
+    private final List<HttpServerJetty9> webApplications = new ArrayList<HttpServerJetty9>();
+
+    /** テストモードのサーバを、最初のリクエストの処理時に起動するか否か */
+    private boolean lazyStartEnabled = false;
+
+    /** 遅延起動を待機中か否か */
+    private volatile boolean lazyStartPending = false;
+
+    /** 遅延起動を1回だけ実行するためのロック */
+    private final Object lazyStartLock = new Object();
+
+    /** テストモードでサーバを起動した回数 */
+    private final AtomicInteger localStartCount = new AtomicInteger();
+
+    /** テストモードのサーバを起動する{@link ServerDaemon}の設定と接続 */
+    private final DaemonConnection daemonConnection = new DaemonConnection();
+
+    /** クイックスタートモードで起動するか否か */
+    private boolean quickStartEnabled = false;
+
+    /** クイックスタート用の記述子を格納するディレクトリ */
+    private File quickStartDirectory = new File(System.getProperty("java.io.tmpdir"), "nablarch-jetty9-quickstart");
+
+    /** コンパイル済みJSPクラスのキャッシュを使用するか否か */
+    private boolean jspClassCacheEnabled = false;
+
+    /** コンパイル済みJSPクラスのキャッシュディレクトリ */
+    private File jspClassCacheDirectory = new File(System.getProperty("java.io.tmpdir"), "nablarch-jetty9-jsp-cache");
+
+    /** テストモードでの起動時にJSPのウォームアップを行うか否か */
+    private boolean jspWarmupEnabled = false;
+
+    /** テストモードで送信するリクエストの文字コード */
+    private Charset requestCharset = Charset.forName("UTF-8");
+
+    /** テストモードでリクエストの完了を待機する時間（ミリ秒） */
+    private long completionTimeout = 10000L;
+
+    /** 完了待機がタイムアウトしたリクエストの件数 */
+    private final AtomicLong completionTimeoutCount = new AtomicLong();
+
+    /** レスポンスボディを一時ファイルに書き出す閾値（バイト） */
+    private long responseSpillThreshold = 16L * 1024 * 1024;
+
+    /** レスポンスボディを書き出した一時ファイル（サーバの停止時に削除する） */
+    private final Set<File> spillFiles = Collections.newSetFromMap(new ConcurrentHashMap<File, Boolean>());
+
+    /** テストモードでHTTPパーサを経由せずにリクエストを処理するか否か */
+    private boolean directDispatchEnabled = false;
+
+    /** HTTPダンプのファイル出力と、出力先の切り替えを直列化するためのロック */
+    private final Object dumpLock = new Object();
+
+    /** HTTPダンプを同期または非同期に出力するディスパッチャ */
+    private final HttpDumpDispatcher dumpDispatcher = new HttpDumpDispatcher(new HttpDumpDispatcher.Sink() {
+        @Override
+        public void write(HttpRequest req, HttpResponse res, String httpDumpFilePath) {
+            writeHttpDump(req, res, httpDumpFilePath);
+        }
+    });
+
+    /** {@link #setHttpDumpFilePath(String)}で設定されたHTTPダンプの出力先 */
+    private volatile String currentHttpDumpFilePath;
+
+    /** 処理フェーズごとの処理時間を受け取るリスナ */
+    private final List<HandleTimingListener> timingListeners = new CopyOnWriteArrayList<HandleTimingListener>();
+
+    /** JSPのウォームアップを行うワーカスレッド数 */
+    private int jspWarmupThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /** 圧縮済みの静的ファイルを配信するか否か */
+    private boolean precompressedEnabled = false;
+
+    /** スレッドプール・コネクタ・バッファプール・圧縮の設定 */
+    private final ConnectorConfiguration connectorConfiguration = new ConnectorConfiguration();
+
+    /**
+     * サーバを起動する。
+     * <pre>
+     * サーバスレッドを生成し、port()メソッドで指定されたポート番号上の
+     * HTTPリクエストに対して処理を行う。
+     * </pre>
+     *
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 start() {
+        localConnector = null;
+        jetty = new Server(connectorConfiguration.createThreadPool());
+        HttpConfiguration config = connectorConfiguration.createHttpConfiguration();
+        initialize(connectorConfiguration.createServerConnector(jetty, config, getPort()));
+        if (connectorConfiguration.isGzipEnabled()) {
+            StatisticsHandler statisticsHandler = getStatisticsHandler();
+            statisticsHandler.setHandler(connectorConfiguration.createGzipHandler(statisticsHandler.getHandler()));
+        }
+        Connector unixConnector = connectorConfiguration.createUnixSocketConnector(jetty, config);
+        if (unixConnector != null) {
+            jetty.addConnector(unixConnector);
+        }
+        startJetty();
+        restoreJspClasses();
+        startWarChangeWatcher();
+        return this;
+    }
+
+
+    /**
+     * このサーバをテストモードで起動する。
+     * <pre>
+     * サーバプールが有効な場合は、デプロイ内容が一致する起動済みサーバを
+     * {@link JettyServerPool}から借り受ける。
+     * ただし、{@link #addWebApplication(HttpServerJetty9)}でWebアプリケーションを追加した場合は、
+     * サーバプールを使用しない。
+     * 遅延起動が有効な場合は、ここではサーバを起動せず、最初のリクエストの処理時に起動する。
+     * </pre>
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 startLocal() {
+        if (lazyStartEnabled) {
+            lazyStartPending = true;
+            return this;
+        }
+        doStartLocal();
+        return this;
+    }
+
+    /**
+     * このサーバをテストモードで起動する。
+     */
+    private void doStartLocal() {
+        localStartCount.incrementAndGet();
+        if (daemonConnection.isEnabled()) {
+            daemonConnection.connect();
+            return;
+        }
+        if (serverPoolEnabled && webApplications.isEmpty()) {
+            leaseFromPool();
+            return;
+        }
+        jetty = new Server(connectorConfiguration.createThreadPool());
+        localConnector = connectorConfiguration.createLocalConnector(jetty);
+        initialize(localConnector);
+        startJetty();
+        restoreJspClasses();
+        startWarmup();
+    }
+
+    /**
+     * 遅延起動を待機中の場合、サーバを起動する。
+     * <pre>
+     * 複数のスレッドから同時に呼び出された場合も、起動は1回だけ行い、
+     * 他のスレッドは起動の完了を待機する。
+     * 起動に要した時間はINFOレベルでログ出力する。
+     * </pre>
+     */
+    private void startLazily() {
+        if (!lazyStartPending) {
+            return;
+        }
+        synchronized (lazyStartLock) {
+            if (!lazyStartPending) {
+                return;
+            }
+            long start = System.nanoTime();
+            doStartLocal();
+            lazyStartPending = false;
+            LOGGER.logInfo("started server lazily on the first request. elapsed = ["
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms]");
+        }
+    }
+
+    /**
+     * テストモードでサーバを起動した回数を取得する。
+     * <pre>
+     * 遅延起動が有効な場合は、実際にサーバを起動した回数を返す。
+     * </pre>
+     *
+     * @return 起動した回数
+     */
+    int getLocalStartCount() {
+        return localStartCount.get();
+    }
+
+    /**
+     * テストモードのサーバを{@link ServerDaemon}で起動する場合の、サーバを構成するクラスを設定する。
+     * <pre>
+     * 設定した場合、{@link #startLocal()}はこのJVMでサーバを起動せず、
+     * 別のJVMで常駐する{@link ServerDaemon}に接続する（起動していない場合は起動する）。
+     * デーモンは複数のテストJVM（Surefireのフォーク等）で共有されるため、サーバの起動・デプロイは
+     * クラスパスの内容が変わらない限り1回だけ行われる。
+     *
+     * デーモンのサーバは、指定した{@link DaemonServerProvider}の実装クラスが構成する。
+     * このオブジェクトに設定したハンドラキュー、WARのベースパス等は使用されない。
+     * {@link #handle(HttpRequest, ExecutionContext)}は、リクエストと実行コンテキストの
+     * リクエストスコープ・セッションスコープの値のうち直列化できるものをデーモンに送信する。
+     * デーモンでは、ハンドラキューの{@link HttpRequestTestSupportHandler}を、受信した値を
+     * サーバ側の実行コンテキストに引き継ぐハンドラに置き換えて処理し、
+     * 処理後の値（削除された値を含む）を実行コンテキストに反映する。
+     * {@link #handleAll(List, ExecutionContext)}は、リクエストを1件ずつデーモンに送信する。
+     * デフォルトはnull（このJVMでサーバを起動する）。
+     * </pre>
+     *
+     * @param daemonServerProvider {@link DaemonServerProvider}の実装クラス名
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setDaemonServerProvider(String daemonServerProvider) {
+        daemonConnection.setServerProvider(daemonServerProvider);
+        return this;
+    }
+
+    /**
+     * テストモードのサーバを{@link ServerDaemon}で起動する場合の、サーバを構成するクラスを取得する。
+     *
+     * @return {@link DaemonServerProvider}の実装クラス名
+     */
+    public String getDaemonServerProvider() {
+        return daemonConnection.getServerProvider();
+    }
+
+    /**
+     * {@link ServerDaemon}の接続情報を出力する状態ディレクトリを設定する。
+     * <pre>
+     * 同じ状態ディレクトリを指定したテストJVMは、同じデーモンを共有する。
+     * デフォルトは、ユーザのホームディレクトリ配下の".nablarch/server-daemon"ディレクトリ。
+     * 状態ディレクトリには接続用のトークンを出力するため、他のユーザと共有するディレクトリは指定しないこと。
+     * </pre>
+     *
+     * @param daemonStateDirectory 状態ディレクトリのパス
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setDaemonStateDirectory(String daemonStateDirectory) {
+        daemonConnection.setStateDirectory(new File(daemonStateDirectory));
+        return this;
+    }
+
+    /**
+     * {@link ServerDaemon}の接続情報を出力する状態ディレクトリを取得する。
+     *
+     * @return 状態ディレクトリ
+     */
+    public File getDaemonStateDirectory() {
+        return daemonConnection.getStateDirectory();
+    }
+
+    /**
+     * {@link ServerDaemon}の起動を待機する時間を設定する。
+     * <pre>
+     * デフォルトは60秒。
+     * </pre>
+     *
+     * @param daemonStartTimeout 待機時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setDaemonStartTimeout(long daemonStartTimeout) {
+        daemonConnection.setStartTimeout(daemonStartTimeout);
+        return this;
+    }
+
+    /**
+     * {@link ServerDaemon}がリクエストを受信しない場合に、自動的に終了するまでの時間を設定する。
+     * <pre>
+     * デーモンの起動時に指定され、起動済みのデーモンには反映されない。
+     * デフォルトは30分。
+     * </pre>
+     *
+     * @param daemonIdleTimeout 待機時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setDaemonIdleTimeout(long daemonIdleTimeout) {
+        daemonConnection.setIdleTimeout(daemonIdleTimeout);
+        return this;
+    }
+
+    /**
+     * テストモードのサーバを、最初のリクエストの処理時に起動するか否かを設定する。
+     * <pre>
+     * 有効にした場合、{@link #startLocal()}は設定を確定するのみでサーバを起動せず、
+     * 最初に{@link #handle(HttpRequest, ExecutionContext)}等が呼び出された時点で起動する。
+     * リクエストを送信しないテストでは、デプロイに要する時間がかからない。
+     * 起動は複数のスレッドから同時にリクエストを処理した場合も1回だけ行う。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param lazyStartEnabled 最初のリクエストの処理時に起動する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setLazyStartEnabled(boolean lazyStartEnabled) {
+        this.lazyStartEnabled = lazyStartEnabled;
+        return this;
+    }
+
+    /**
+     * テストモードのサーバを、最初のリクエストの処理時に起動するか否かを取得する。
+     *
+     * @return 最初のリクエストの処理時に起動する場合、真
+     */
+    public boolean isLazyStartEnabled() {
+        return lazyStartEnabled;
+    }
+
+    /**
+     * サーバを停止する。
+     * <pre>
+     * 新たなリクエストの受け付けを停止し、処理中のリクエストの完了を
+     * {@link #setStopTimeout(long)}で指定した時間まで待機してから、
+     * スレッドプール、コネクタ、Webアプリケーションを停止する。
+     * 非同期に出力中のHTTPダンプは、停止前にすべて出力する。
+     * 登録された{@link PathTimingAggregator}の集計結果は、INFOレベルでログ出力する。
+     *
+     * {@link JettyServerPool}から借り受けたサーバは、他のテストクラスと共有しているため停止せず、
+     * プールに返却するのみとする。
+     * {@link ServerDaemon}に接続している場合は、デーモンを停止せずに切断するのみとする。
+     * 起動していない場合は何もしない。
+     * </pre>
+     *
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 stop() {
+        lazyStartPending = false;
+        if (daemonConnection.isConnected()) {
+            daemonConnection.close();
+            return this;
+        }
+        if (jetty == null) {
+            return this;
+        }
+        stopWarChangeWatcher();
+        // 監視スレッドが実行中の再デプロイと、停止処理が並行しないようにする
+        synchronized (redeployLock) {
+            dumpDispatcher.close();
+            logTimingStatistics();
+            deleteSpillFiles();
+            if (jspClassCache != null) {
+                jspClassCache.harvest();
+            }
+            if (pooledServer != null) {
+                JettyServerPool.getInstance().release(pooledServer);
+                pooledServer = null;
+                jetty = null;
+                localConnector = null;
+                webApp = null;
+                return this;
+            }
+            try {
+                jetty.stop();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * サーバを再起動する。
+     * <pre>
+     * {@link #stop()}でサーバを停止した後、同じサーバ（コネクタ、スレッドプール、Webアプリケーション）を再度起動する。
+     * ポート番号等の設定は、最初の起動時のものが引き継がれる。
+     * </pre>
+     *
+     * @return このオブジェクト自体
+     * @throws IllegalStateException サーバが起動されていない場合、または{@link JettyServerPool}から借り受けている場合
+     */
+    public HttpServerJetty9 restart() {
+        if (jetty == null) {
+            throw new IllegalStateException(
+                    "server is not started. you must call start() or startLocal() beforehand.");
+        }
+        if (pooledServer != null) {
+            throw new IllegalStateException("pooled server can not be restarted.");
+        }
+        stop();
+        startJetty();
+        restoreJspClasses();
+        if (localConnector != null) {
+            startWarmup();
+        }
+        startWarChangeWatcher();
+        return this;
+    }
+
+    /**
+     * Webアプリケーションを再デプロイする。
+     * <pre>
+     * サーバ（コネクタ、スレッドプール）を停止せずに、新たに構成した{@link WebAppContext}を起動して差し替える。
+     * JSP、静的リソース、web.xml等の変更を、サーバを再起動せずに反映する場合に使用する。
+     *
+     * 差し替え後に受け付けたリクエストは新しいWebアプリケーションで処理する。
+     * 差し替え前のWebアプリケーションは、処理中のリクエストの完了を
+     * {@link #setStopTimeout(long)}で指定した時間まで待機してから停止する。
+     * 新しいWebアプリケーションの起動に失敗した場合は、起動途中のWebアプリケーションを停止し、差し替えずに例外を送出する。
+     * </pre>
+     *
+     * @return このオブジェクト自体
+     * @throws IllegalStateException サーバが起動されていない場合、または{@link JettyServerPool}から借り受けている場合
+     */
+    public HttpServerJetty9 redeploy() {
+        synchronized (redeployLock) {
+            if (jetty == null || !jetty.isStarted()) {
+                throw new IllegalStateException(
+                        "server is not started. you must call start() or startLocal() beforehand.");
+            }
+            if (pooledServer != null) {
+                throw new IllegalStateException("pooled server can not be redeployed.");
+            }
+            long start = System.nanoTime();
+            if (jspClassCache != null) {
+                jspClassCache.harvest();
+            }
+            WebAppContext next = createWebAppContext(getWebFrontController());
+            next.setServer(jetty);
+            try {
+                next.start();
+            } catch (Exception e) {
+                // 起動途中のWebアプリケーションのクラスローダや一時ディレクトリを残さない
+                try {
+                    next.stop();
+                } catch (Exception stopFailure) {
+                    LOGGER.logWarn("failed to stop the web application that failed to start.", stopFailure);
+                }
+                if (e instanceof RuntimeException) {
+                    throw (RuntimeException) e;
+                }
+                throw new RuntimeException(e);
+            }
+            webApp = next;
+            boolean drained = getRedeployableHandler().swap(next, stopTimeout);
+            if (!drained) {
+                LOGGER.logWarn("previous context was stopped before in-flight requests completed. "
+                        + "stopTimeout = [" + stopTimeout + "ms]");
+            }
+            restoreJspClasses();
+            if (localConnector != null) {
+                startWarmup();
+            }
+            LOGGER.logInfo("redeployed web application. elapsed = ["
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms]");
+        }
+        return this;
+    }
+
+    /**
+     * 同じサーバにデプロイするWebアプリケーションを追加する。
+     * <pre>
+     * 複数のWebアプリケーションを1つのサーバ（スレッドプール、バッファプール、コネクタ）で動作させる場合に使用する。
+     * 追加するWebアプリケーションは、起動していない{@link HttpServerJetty9}に
+     * コンテキストパス（{@link #setServletContextPath(String)}）、WARのベースパス、ハンドラを設定して指定する。
+     * 追加したWebアプリケーションのポート番号、スレッドプール等のサーバの設定は使用しない。
+     *
+     * リクエストはコンテキストパスで各Webアプリケーションに振り分けられる。
+     * {@link #handle(HttpRequest, ExecutionContext)}で送信するリクエストも同様に振り分けられるため、
+     * 追加したWebアプリケーションへのリクエストは、リクエストURIにコンテキストパスを含めること。
+     * 再デプロイ、JSPのウォームアップ、コンパイル済みJSPクラスのキャッシュは、
+     * このサーバ自体のWebアプリケーションのみが対象となる。
+     * </pre>
+     *
+     * @param application 追加するWebアプリケーションの設定
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 addWebApplication(HttpServerJetty9 application) {
+        if (application == null || application == this) {
+            throw new IllegalArgumentException("application must be another HttpServerJetty9.");
+        }
+        if (jetty != null) {
+            throw new IllegalStateException("web application can not be added after the server is started.");
+        }
+        List<String> contextPaths = new ArrayList<String>();
+        contextPaths.add(getServletContextPath());
+        for (HttpServerJetty9 added : webApplications) {
+            contextPaths.add(added.getServletContextPath());
+        }
+        if (contextPaths.contains(application.getServletContextPath())) {
+            throw new IllegalArgumentException("context path is duplicated. context path = ["
+                    + application.getServletContextPath() + "]");
+        }
+        webApplications.add(application);
+        return this;
+    }
+
+    /**
+     * WARのベースディレクトリ配下の変更を検知して、自動的に再デプロイするか否かを設定する。
+     * <pre>
+     * 有効にした場合、{@link #start()}で起動したサーバは、{@link #setWarBasePath(String)}で指定した
+     * ディレクトリ配下のファイルの変更を監視し、変更を検知すると{@link #redeploy()}を実行する。
+     * 保存時の連続した変更は、{@link #setRedeployQuietPeriod(long)}で指定した時間変更が発生しなくなるまで
+     * まとめてから、1回だけ再デプロイする。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param redeployWatchEnabled 変更を検知して再デプロイする場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setRedeployWatchEnabled(boolean redeployWatchEnabled) {
+        this.redeployWatchEnabled = redeployWatchEnabled;
+        return this;
+    }
+
+    /**
+     * WARのベースディレクトリ配下の変更を検知して、自動的に再デプロイするか否かを取得する。
+     *
+     * @return 変更を検知して再デプロイする場合、真
+     */
+    public boolean isRedeployWatchEnabled() {
+        return redeployWatchEnabled;
+    }
+
+    /**
+     * 変更を検知してから、変更が発生しなくなって再デプロイするまでの時間を設定する。
+     * <pre>
+     * デフォルトは500ミリ秒。
+     * </pre>
+     *
+     * @param redeployQuietPeriod 待機時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setRedeployQuietPeriod(long redeployQuietPeriod) {
+        if (redeployQuietPeriod < 0) {
+            throw new IllegalArgumentException(
+                    "redeployQuietPeriod must not be negative. value = [" + redeployQuietPeriod + "]");
+        }
+        this.redeployQuietPeriod = redeployQuietPeriod;
+        return this;
+    }
+
+    /**
+     * 変更を検知してから、変更が発生しなくなって再デプロイするまでの時間を取得する。
+     *
+     * @return 待機時間（ミリ秒）
+     */
+    public long getRedeployQuietPeriod() {
+        return redeployQuietPeriod;
+    }
+
+    /**
+     * WARのベースディレクトリ配下の変更の監視を開始する。
+     * <pre>
+     * 監視が無効な場合、およびテストモードで起動した場合は何もしない。
+     * </pre>
+     */
+    private void startWarChangeWatcher() {
+        if (!redeployWatchEnabled || localConnector != null) {
+            return;
+        }
+        List<File> directories = new ArrayList<File>();
+        for (ResourceLocator warBasePath : getWarBasePaths()) {
+            directories.add(new File(warBasePath.getRealPath()));
+        }
+        warChangeWatcher = new WarChangeWatcher(directories, redeployQuietPeriod, new Runnable() {
+            @Override
+            public void run() {
+                redeploy();
+            }
+        });
+    }
+
+    /**
+     * WARのベースディレクトリ配下の変更の監視を終了する。
+     */
+    private void stopWarChangeWatcher() {
+        if (warChangeWatcher != null) {
+            warChangeWatcher.close();
+            warChangeWatcher = null;
+        }
+    }
+
+    /**
+     * Webアプリケーションコンテキストを保持する{@link RedeployableHandler}を取得する。
+     *
+     * @return {@link RedeployableHandler}
+     */
+    private RedeployableHandler getRedeployableHandler() {
+        return jetty.getChildHandlerByClass(RedeployableHandler.class);
+    }
+
+    /**
+     * サーバが起動中か否かを判定する。
+     *
+     * @return 起動中の場合、真
+     */
+    public boolean isRunning() {
+        return daemonConnection.isConnected() || (jetty != null && jetty.isStarted());
+    }
+
+    /**
+     * サーバが処理したリクエストの統計情報を取得する。
+     *
+     * @return 統計情報
+     * @throws IllegalStateException サーバが起動されていない場合
+     */
+    public ServerStatistics getServerStatistics() {
+        if (jetty == null) {
+            throw new IllegalStateException(
+                    "server is not started. you must call start() or startLocal() beforehand.");
+        }
+        return new ServerStatistics(getStatisticsHandler());
+    }
+
+    /**
+     * サーバの停止時に、処理中のリクエストの完了を待機する時間を設定する。
+     * <pre>
+     * 待機時間を超えた場合、処理中のリクエストを中断して停止する。
+     * 0を指定した場合は待機しない。
+     * デフォルトは5秒。
+     * </pre>
+     *
+     * @param stopTimeout 待機時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setStopTimeout(long stopTimeout) {
+        if (stopTimeout < 0) {
+            throw new IllegalArgumentException("stopTimeout must not be negative. value = [" + stopTimeout + "]");
+        }
+        this.stopTimeout = stopTimeout;
+        if (jetty != null && pooledServer == null) {
+            jetty.setStopTimeout(stopTimeout);
+        }
+        return this;
+    }
+
+    /**
+     * サーバの停止時に、処理中のリクエストの完了を待機する時間を取得する。
+     *
+     * @return 待機時間（ミリ秒）
+     */
+    public long getStopTimeout() {
+        return stopTimeout;
+    }
+
+    /**
+     * リクエストの統計情報を収集する{@link StatisticsHandler}を取得する。
+     *
+     * @return {@link StatisticsHandler}
+     */
+    private StatisticsHandler getStatisticsHandler() {
+        return jetty.getChildHandlerByClass(StatisticsHandler.class);
+    }
+
+    /**
+     * レスポンスボディを書き出した一時ファイルのうち、削除されていないものを削除する。
+     * <pre>
+     * ボディのストリームがクローズされなかった一時ファイルが残らないよう、サーバの停止時に呼び出す。
+     * 削除に失敗した場合は、WARNレベルでログ出力する。
+     * </pre>
+     */
+    private void deleteSpillFiles() {
+        for (File file : spillFiles) {
+            spillFiles.remove(file);
+            if (file.exists() && !file.delete()) {
+                LOGGER.logWarn("failed to delete the temporary file. file = [" + file + "]");
+            }
+        }
+    }
+
+    /**
+     * {@link JettyServerPool}から起動済みサーバを借り受ける。
+     */
+    private void leaseFromPool() {
+        final Filter webFrontController = getWebFrontController();
+        DeploymentKey key = new DeploymentKey(getServletContextPath(), getWarBasePaths(),
+                getTempDirectory(), webFrontController.getClass(), describeServerSettings());
+        PooledServer pooled = JettyServerPool.getInstance().lease(key, new JettyServerPool.ServerCreator() {
+            @Override
+            public PooledServer create() {
+                jetty = new Server(connectorConfiguration.createThreadPool());
+                localConnector = connectorConfiguration.createLocalConnector(jetty);
+                jetty.addConnector(localConnector);
+                DelegatingFilter frontController = new DelegatingFilter();
+                frontController.setDelegate(webFrontController);
+                deploy(frontController);
+                SessionTracker sessionTracker = new SessionTracker();
+                webApp.getSessionHandler().addEventListener(sessionTracker);
+                startJetty();
+                restoreJspClasses();
+                startWarmup();
+                PooledServer created = new PooledServer(jetty, localConnector, webApp, frontController, sessionTracker);
+                created.setJspClassCache(jspClassCache);
+                created.setJspWarmup(jspWarmup);
+                return created;
+            }
+        });
+        pooled.getFrontController().setDelegate(webFrontController);
+        pooledServer = pooled;
+        jetty = pooled.getServer();
+        localConnector = pooled.getLocalConnector();
+        webApp = pooled.getWebApp();
+        jspClassCache = pooled.getJspClassCache();
+        jspWarmup = pooled.getJspWarmup();
+    }
+
+    /**
+     * サーバプールで借り受けるサーバが一致すべき、サーバの設定を表す文字列を生成する。
+     * <pre>
+     * サーバおよび{@link WebAppContext}の生成時に参照する設定のうち、{@link DeploymentKey}の他の項目に
+     * 含まれないもの（JSPのウォームアップ、コンパイル済みJSPクラスのキャッシュ、クイックスタート、
+     * 圧縮済みの静的ファイルの配信、停止時の待機時間、スレッドプール、コネクタ（HTTPの設定、バッファプール））を含める。
+     * {@link Executor}はインスタンスごとに区別する。
+     * </pre>
+     *
+     * @return サーバの設定を表す文字列
+     */
+    private String describeServerSettings() {
+        return "jspWarmup=" + jspWarmupEnabled + "/" + jspWarmupThreads
+                + " precompressed=" + precompressedEnabled
+                + " stopTimeout=" + stopTimeout
+                + " jspClassCache=" + jspClassCacheEnabled + "/" + jspClassCacheDirectory.getAbsolutePath()
+                + " quickStart=" + quickStartEnabled + "/" + quickStartDirectory.getAbsolutePath()
+                + " " + connectorConfiguration.describe();
+    }
+
+    /**
+     * JSPのウォームアップを開始する。
+     * <pre>
+     * ウォームアップが有効な場合のみ、WARベースパス上のすべてのJSPを
+     * バックグラウンドのワーカスレッドでコンパイルする。
+     * </pre>
+     */
+    private void startWarmup() {
+        if (!jspWarmupEnabled) {
+            jspWarmup = null;
+            return;
+        }
+        jspWarmup = new JspWarmup(localConnector, getServletContextPath(), jspWarmupThreads);
+        jspWarmup.start(JspResources.listJspPaths(webApp.getBaseResource()));
+    }
+
+    /**
+     * JSPのウォームアップの完了を待機する。
+     * <pre>
+     * ウォームアップが完了するまでカレントスレッドをwaitさせ、
+     * JSPごとのコンパイル時間をウォームアップ結果として返却する。
+     * 既に完了している場合は、直ちに結果を返却する。
+     * 遅延起動を待機中の場合は、サーバを起動してから待機する。
+     * </pre>
+     *
+     * @return ウォームアップ結果
+     * @throws IllegalStateException ウォームアップが有効な状態で{@link #startLocal()}が呼び出されていない場合
+     */
+    public JspWarmupReport awaitWarmup() {
+        startLazily();
+        if (jspWarmup == null) {
+            throw new IllegalStateException(
+                    "jsp warmup is not running. "
+                            + "you must enable jsp warmup and call startLocal() method beforehand.");
+        }
+        JspWarmupReport report = jspWarmup.await();
+        if (jspClassCache != null) {
+            jspClassCache.harvest();
+        }
+        return report;
+    }
+
+    /**
+     * キャッシュ済みのJSPクラスを復元する。
+     * <pre>
+     * コンパイル済みJSPクラスのキャッシュが有効な場合のみ、
+     * Jasperのスクラッチディレクトリ（一時ディレクトリ配下の"jsp"ディレクトリ）に復元する。
+     * </pre>
+     */
+    private void restoreJspClasses() {
+        if (!jspClassCacheEnabled) {
+            jspClassCache = null;
+            return;
+        }
+        jspClassCache = new JspClassCache(jspClassCacheDirectory,
+                new File(webApp.getTempDirectory(), "jsp"), webApp.getBaseResource());
+        jspClassCache.restore();
+    }
+
+    /**
+     * Jettyサーバを起動する。
+     */
+    private void startJetty() {
+        try {
+            jetty.start();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * {@link JettyServerPool}から起動済みサーバを借り受けるか否かを設定する。
+     * <pre>
+     * 有効にした場合、{@link #startLocal()}はサーバを都度生成せず、
+     * JVM内で共有される{@link JettyServerPool}から起動済みサーバを借り受ける。
+     * 借り受けたサーバは{@link #stop()}でプールに返却され、返却されるまで他のサーバには貸し出されない。
+     * デプロイ内容に加え、JSPのウォームアップ、コンパイル済みJSPクラスのキャッシュ、クイックスタート、
+     * 圧縮済みの静的ファイルの配信、停止時の待機時間、スレッドプール、コネクタの設定が一致するサーバのみを借り受ける。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param serverPoolEnabled サーバプールを使用する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setServerPoolEnabled(boolean serverPoolEnabled) {
+        this.serverPoolEnabled = serverPoolEnabled;
+        return this;
+    }
+
+    /**
+     * {@link JettyServerPool}から起動済みサーバを借り受けるか否かを取得する。
+     *
+     * @return サーバプールを使用する場合、真
+     */
+    public boolean isServerPoolEnabled() {
+        return serverPoolEnabled;
+    }
+
+    /**
+     * クイックスタートモードで起動するか否かを設定する。
+     * <pre>
+     * 有効にした場合、初回のデプロイ時にアノテーションスキャンの結果
+     * （{@link javax.servlet.ServletContainerInitializer}とその初期化対象クラス）を記述子に保存する。
+     * 2回目以降のデプロイでは、クラスパスをスキャンせずに記述子の内容を使用する。
+     * 記述子は、WARベースパスとクラスパスのハッシュ値ごとに保存される。
+     *
+     * なお、クイックスタートモードでは@WebServlet等のアノテーションが付与された
+     * サーブレットコンポーネントは登録されない。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param quickStartEnabled クイックスタートモードで起動する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setQuickStartEnabled(boolean quickStartEnabled) {
+        this.quickStartEnabled = quickStartEnabled;
+        return this;
+    }
+
+    /**
+     * クイックスタートモードで起動するか否かを取得する。
+     *
+     * @return クイックスタートモードで起動する場合、真
+     */
+    public boolean isQuickStartEnabled() {
+        return quickStartEnabled;
+    }
+
+    /**
+     * クイックスタート用の記述子を格納するディレクトリを設定する。
+     * <pre>
+     * デフォルトはシステムプロパティ"java.io.tmpdir"配下の"nablarch-jetty9-quickstart"ディレクトリ。
+     * </pre>
+     *
+     * @param quickStartDirectory 記述子を格納するディレクトリのパス
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setQuickStartDirectory(String quickStartDirectory) {
+        this.quickStartDirectory = new File(quickStartDirectory);
+        return this;
+    }
+
+    /**
+     * クイックスタート用の記述子を格納するディレクトリを取得する。
+     *
+     * @return 記述子を格納するディレクトリ
+     */
+    public File getQuickStartDirectory() {
+        return quickStartDirectory;
+    }
+
+    /**
+     * コンパイル済みJSPクラスのキャッシュを使用するか否かを設定する。
+     * <pre>
+     * 有効にした場合、JSPのソース、静的インクルード、タグファイルの内容から算出した
+     * ハッシュ値をキーとして、Jasperが生成したクラスをキャッシュディレクトリに保存する。
+     * 次回以降の起動時は、内容が変更されていないJSPのクラスがキャッシュから復元されるため、
+     * 再コンパイルされない。
+     *
+     * キャッシュディレクトリは複数のJVMで共有できる。
+     * 各JVMのJasperが同じディレクトリに書き込まないよう、有効にした場合の一時ディレクトリは
+     * {@link #getTempDirectory()}（未設定の場合はシステムプロパティ"java.io.tmpdir"）配下に
+     * JVMごとに作成し、サーバ停止時に削除する。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param jspClassCacheEnabled キャッシュを使用する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setJspClassCacheEnabled(boolean jspClassCacheEnabled) {
+        this.jspClassCacheEnabled = jspClassCacheEnabled;
+        return this;
+    }
+
+    /**
+     * コンパイル済みJSPクラスのキャッシュを使用するか否かを取得する。
+     *
+     * @return キャッシュを使用する場合、真
+     */
+    public boolean isJspClassCacheEnabled() {
+        return jspClassCacheEnabled;
+    }
+
+    /**
+     * コンパイル済みJSPクラスのキャッシュディレクトリを設定する。
+     * <pre>
+     * デフォルトはシステムプロパティ"java.io.tmpdir"配下の"nablarch-jetty9-jsp-cache"ディレクトリ。
+     * </pre>
+     *
+     * @param jspClassCacheDirectory キャッシュディレクトリのパス
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setJspClassCacheDirectory(String jspClassCacheDirectory) {
+        this.jspClassCacheDirectory = new File(jspClassCacheDirectory);
+        return this;
+    }
+
+    /**
+     * コンパイル済みJSPクラスのキャッシュディレクトリを取得する。
+     *
+     * @return キャッシュディレクトリ
+     */
+    public File getJspClassCacheDirectory() {
+        return jspClassCacheDirectory;
+    }
+
+    /**
+     * 起動時にキャッシュから復元できたJSPの数を取得する。
+     *
+     * @return ヒット数（キャッシュが無効な場合は0）
+     */
+    public long getJspClassCacheHitCount() {
+        return jspClassCache == null ? 0 : jspClassCache.getHitCount();
+    }
+
+    /**
+     * 起動時にキャッシュに存在しなかったJSPの数を取得する。
+     *
+     * @return ミス数（キャッシュが無効な場合は0）
+     */
+    public long getJspClassCacheMissCount() {
+        return jspClassCache == null ? 0 : jspClassCache.getMissCount();
+    }
+
+    /**
+     * テストモードでの起動時にJSPのウォームアップを行うか否かを設定する。
+     * <pre>
+     * 有効にした場合、{@link #startLocal()}はサーバの起動後、WARベースパス上のすべてのJSPを
+     * バックグラウンドのワーカスレッドで並列にコンパイルする。
+     * これにより、各JSPへの最初のリクエストでコンパイル時間が発生しなくなる。
+     * ウォームアップの完了は{@link #awaitWarmup()}で待機できる。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param jspWarmupEnabled ウォームアップを行う場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setJspWarmupEnabled(boolean jspWarmupEnabled) {
+        this.jspWarmupEnabled = jspWarmupEnabled;
+        return this;
+    }
+
+    /**
+     * テストモードでの起動時にJSPのウォームアップを行うか否かを取得する。
+     *
+     * @return ウォームアップを行う場合、真
+     */
+    public boolean isJspWarmupEnabled() {
+        return jspWarmupEnabled;
+    }
+
+    /**
+     * JSPのウォームアップを行うワーカスレッド数を設定する。
+     * <pre>
+     * デフォルトは、利用可能なプロセッサ数と4の小さい方。
+     * </pre>
+     *
+     * @param jspWarmupThreads ワーカスレッド数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setJspWarmupThreads(int jspWarmupThreads) {
+        if (jspWarmupThreads < 1) {
+            throw new IllegalArgumentException("jspWarmupThreads must be greater than 0. value = [" + jspWarmupThreads + "]");
+        }
+        this.jspWarmupThreads = jspWarmupThreads;
+        return this;
+    }
+
+    /**
+     * テストモードで送信するリクエストの文字コードを設定する。
+     * <pre>
+     * {@link #handle(HttpRequest, ExecutionContext)}がHTTPリクエストを電文に変換する際に使用する。
+     * デフォルトはUTF-8。
+     * </pre>
+     *
+     * @param requestCharset 文字コード名
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setRequestCharset(String requestCharset) {
+        this.requestCharset = Charset.forName(requestCharset);
+        return this;
+    }
+
+    /**
+     * テストモードで送信するリクエストの文字コードを取得する。
+     *
+     * @return 文字コード
+     */
+    public Charset getRequestCharset() {
+        return requestCharset;
+    }
+
+    /**
+     * テストモードでリクエストの完了を待機する時間を設定する。
+     * <pre>
+     * ハンドラキューに{@link HttpRequestTestSupportHandler}が含まれる場合、
+     * {@link #handle(HttpRequest, ExecutionContext)}は応答の受信後、
+     * ハンドラが完了を通知するまで最大この時間だけ待機する。
+     * タイムアウトしたリクエストはWARNレベルでログ出力され、
+     * {@link #getCompletionTimeoutCount()}で件数を取得できる。
+     * デフォルトは10秒。
+     * </pre>
+     *
+     * @param completionTimeout 待機時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setCompletionTimeout(long completionTimeout) {
+        if (completionTimeout < 0) {
+            throw new IllegalArgumentException("completionTimeout must not be negative. value = [" + completionTimeout + "]");
+        }
+        this.completionTimeout = completionTimeout;
+        return this;
+    }
+
+    /**
+     * テストモードでリクエストの完了を待機する時間を取得する。
+     *
+     * @return 待機時間（ミリ秒）
+     */
+    public long getCompletionTimeout() {
+        return completionTimeout;
+    }
+
+    /**
+     * 完了待機がタイムアウトしたリクエストの件数を取得する。
+     *
+     * @return タイムアウトしたリクエストの件数
+     */
+    public long getCompletionTimeoutCount() {
+        return completionTimeoutCount.get();
+    }
+
+    /**
+     * テストモードでレスポンスボディを一時ファイルに書き出す閾値を設定する。
+     * <pre>
+     * {@link #handle(HttpRequest, ExecutionContext)}が受信したレスポンスのボディがこのサイズを超える場合、
+     * ボディをヒープ上に複製せずに一時ファイルへ書き出し、{@link HttpResponse#getBodyStream()}は
+     * その一時ファイルを読み込むストリームを返す。
+     * 一時ファイルは{@link #setTempDirectory(String)}で指定したディレクトリ
+     * （未指定の場合はシステムの一時ディレクトリ）に作成され、ストリームのクローズ時に削除される。
+     * ボディを参照し終えたら、{@link HttpResponse#getBodyStream()}をクローズすること。
+     * クローズされなかった一時ファイルは、{@link #stop()}で削除される。
+     * HTTPパーサを経由しない場合（{@link #setDirectDispatchEnabled(boolean)}参照）も同様に書き出す。
+     * デフォルトは16MB。
+     * </pre>
+     *
+     * @param responseSpillThreshold 閾値（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setResponseSpillThreshold(long responseSpillThreshold) {
+        if (responseSpillThreshold < 0) {
+            throw new IllegalArgumentException(
+                    "responseSpillThreshold must not be negative. value = [" + responseSpillThreshold + "]");
+        }
+        this.responseSpillThreshold = responseSpillThreshold;
+        return this;
+    }
+
+    /**
+     * テストモードでレスポンスボディを一時ファイルに書き出す閾値を取得する。
+     *
+     * @return 閾値（バイト）
+     */
+    public long getResponseSpillThreshold() {
+        return responseSpillThreshold;
+    }
+
+    /**
+     * テストモードでHTTPパーサを経由せずにリクエストを処理するか否かを設定する。
+     * <pre>
+     * 有効にした場合、{@link #handle(HttpRequest, ExecutionContext)}はHTTPリクエストを電文に変換して
+     * ローカルコネクタへ送信する代わりに、リクエストのメタデータとボディを直接Jettyに渡し、
+     * 呼び出し元のスレッドでフィルタチェイン（{@link LazySessionInvalidationFilter}とWebフロントコントローラを含む）を実行する。
+     * HTTPのパースと生成、およびコネクタのスレッド切り替えを省略できるため、
+     * 大量のリクエストを送信するテストの実行時間を短縮できる。
+     *
+     * ハンドラキューが呼び出し元のスレッドで実行されるため、
+     * スレッドローカルな情報（{@link nablarch.core.ThreadContext}など）はテストスレッド上で更新される。
+     * レスポンスボディが{@link #setResponseSpillThreshold(long)}の閾値を超える場合は、一時ファイルに書き出す。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param directDispatchEnabled HTTPパーサを経由せずに処理する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setDirectDispatchEnabled(boolean directDispatchEnabled) {
+        this.directDispatchEnabled = directDispatchEnabled;
+        return this;
+    }
+
+    /**
+     * テストモードでHTTPパーサを経由せずにリクエストを処理するか否かを取得する。
+     *
+     * @return HTTPパーサを経由せずに処理する場合、真
+     */
+    public boolean isDirectDispatchEnabled() {
+        return directDispatchEnabled;
+    }
+
+    /**
+     * HTTPダンプを非同期に出力するか否かを設定する。
+     * <pre>
+     * 有効にした場合、HTTPダンプは上限付きのキューに登録され、専用のライタスレッドが出力する。
+     * キューが満杯の場合、{@link #handle(HttpRequest, ExecutionContext)}は空きができるまで待機する。
+     * ダンプファイルを参照する前に{@link #flushHttpDump()}で出力の完了を待機すること。
+     * 一時ファイルに書き出されたレスポンス（{@link #setResponseSpillThreshold(long)}参照）のダンプは、同期的に出力する。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param httpDumpAsync 非同期に出力する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setHttpDumpAsync(boolean httpDumpAsync) {
+        dumpDispatcher.setAsync(httpDumpAsync);
+        return this;
+    }
+
+    /**
+     * HTTPダンプを非同期に出力するか否かを取得する。
+     *
+     * @return 非同期に出力する場合、真
+     */
+    public boolean isHttpDumpAsync() {
+        return dumpDispatcher.isAsync();
+    }
+
+    /**
+     * HTTPダンプの非同期出力に使用するキューの容量を設定する。
+     * <pre>
+     * デフォルトは256。
+     * </pre>
+     *
+     * @param httpDumpQueueCapacity キューの容量
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setHttpDumpQueueCapacity(int httpDumpQueueCapacity) {
+        dumpDispatcher.setQueueCapacity(httpDumpQueueCapacity);
+        return this;
+    }
+
+    /**
+     * スレッドプールの最小スレッド数を設定する。
+     * <pre>
+     * 未設定の場合はJettyのデフォルト値を使用する。
+     * {@link #setExecutor(Executor)}または{@link #setVirtualThreadsEnabled(boolean)}を設定した場合は無視される。
+     * サーバプール（{@link #setServerPoolEnabled(boolean)}参照）を使用する場合、
+     * この設定が一致するサーバのみを借り受ける。
+     * </pre>
+     *
+     * @param minThreads 最小スレッド数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setMinThreads(int minThreads) {
+        connectorConfiguration.setMinThreads(minThreads);
+        return this;
+    }
+
+    /**
+     * スレッドプールの最大スレッド数を設定する。
+     * <pre>
+     * 未設定の場合はJettyのデフォルト値を使用する。
+     * 適用条件は{@link #setMinThreads(int)}と同じ。
+     * </pre>
+     *
+     * @param maxThreads 最大スレッド数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setMaxThreads(int maxThreads) {
+        connectorConfiguration.setMaxThreads(maxThreads);
+        return this;
+    }
+
+    /**
+     * スレッドプールのアイドルスレッドを破棄するまでの時間を設定する。
+     * <pre>
+     * 未設定の場合はJettyのデフォルト値を使用する。
+     * 適用条件は{@link #setMinThreads(int)}と同じ。
+     * </pre>
+     *
+     * @param threadIdleTimeout アイドルスレッドを破棄するまでの時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setThreadIdleTimeout(int threadIdleTimeout) {
+        connectorConfiguration.setThreadIdleTimeout(threadIdleTimeout);
+        return this;
+    }
+
+    /**
+     * スレッドプールの予約スレッド数を設定する。
+     * <pre>
+     * 未設定の場合はJettyのデフォルト値（CPU数と最大スレッド数から算出）を使用する。
+     * 0を指定した場合、スレッドを予約しない。
+     * 適用条件は{@link #setMinThreads(int)}と同じ。
+     * </pre>
+     *
+     * @param reservedThreads 予約スレッド数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setReservedThreads(int reservedThreads) {
+        connectorConfiguration.setReservedThreads(reservedThreads);
+        return this;
+    }
+
+    /**
+     * リクエストの処理に使用する{@link Executor}を設定する。
+     * <pre>
+     * 設定した場合、Jettyのスレッドプールに代えて、設定した{@link Executor}でリクエストを処理する。
+     * {@link Executor}のライフサイクルは呼び出し元で管理すること（サーバの停止時にシャットダウンしない）。
+     * Jettyのセレクタ等、常駐するタスクも実行されるため、スレッド数に上限がある場合は十分な数を確保すること。
+     * </pre>
+     *
+     * @param executor リクエストの処理に使用する{@link Executor}
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setExecutor(Executor executor) {
+        connectorConfiguration.setExecutor(executor);
+        return this;
+    }
+
+    /**
+     * リクエストを仮想スレッドで処理するか否かを設定する。
+     * <pre>
+     * 有効にした場合、タスクごとに仮想スレッドを生成して処理する。
+     * 仮想スレッドはJDK 21以降でのみ使用できる。
+     * 実行中のJDKがサポートしない場合は、WARNレベルでログを出力し、通常のスレッドプールを使用する。
+     * {@link #setExecutor(Executor)}を設定した場合は無視される。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param virtualThreadsEnabled 仮想スレッドで処理する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        connectorConfiguration.setVirtualThreadsEnabled(virtualThreadsEnabled);
+        return this;
+    }
+
+    /**
+     * リクエストを仮想スレッドで処理するか否かを取得する。
+     *
+     * @return 仮想スレッドで処理する場合、真
+     */
+    public boolean isVirtualThreadsEnabled() {
+        return connectorConfiguration.isVirtualThreadsEnabled();
+    }
+
+    /**
+     * レスポンスの出力バッファサイズを設定する。
+     * <pre>
+     * レスポンスボディはこのサイズ単位でコネクタに書き出される。
+     * 大きなレスポンスを返却する画面では、大きくすることで書き出しの回数を削減できる。
+     * 未設定の場合はJettyのデフォルト値（32KB）を使用する。
+     * サーバプール（{@link #setServerPoolEnabled(boolean)}参照）を使用する場合、
+     * この設定が一致するサーバのみを借り受ける。
+     * </pre>
+     *
+     * @param outputBufferSize 出力バッファサイズ（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setOutputBufferSize(int outputBufferSize) {
+        connectorConfiguration.setOutputBufferSize(outputBufferSize);
+        return this;
+    }
+
+    /**
+     * リクエストヘッダの最大サイズを設定する。
+     * <pre>
+     * 超過したリクエストはステータスコード431で拒否される。
+     * 未設定の場合はJettyのデフォルト値（8KB）を使用する。
+     * 適用条件は{@link #setOutputBufferSize(int)}と同じ。
+     * </pre>
+     *
+     * @param requestHeaderSize リクエストヘッダの最大サイズ（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setRequestHeaderSize(int requestHeaderSize) {
+        connectorConfiguration.setRequestHeaderSize(requestHeaderSize);
+        return this;
+    }
+
+    /**
+     * レスポンスヘッダの最大サイズを設定する。
+     * <pre>
+     * 未設定の場合はJettyのデフォルト値（8KB）を使用する。
+     * 適用条件は{@link #setOutputBufferSize(int)}と同じ。
+     * </pre>
+     *
+     * @param responseHeaderSize レスポンスヘッダの最大サイズ（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setResponseHeaderSize(int responseHeaderSize) {
+        connectorConfiguration.setResponseHeaderSize(responseHeaderSize);
+        return this;
+    }
+
+    /**
+     * コネクタのアイドルタイムアウトを設定する。
+     * <pre>
+     * 未設定の場合はJettyのデフォルト値（30秒）を使用する。
+     * 適用条件は{@link #setOutputBufferSize(int)}と同じ。
+     * </pre>
+     *
+     * @param idleTimeout アイドルタイムアウト（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setIdleTimeout(long idleTimeout) {
+        connectorConfiguration.setIdleTimeout(idleTimeout);
+        return this;
+    }
+
+    /**
+     * {@link #start()}で起動するコネクタのアクセプタスレッド数を設定する。
+     * <pre>
+     * -1を指定した場合はCPU数からJettyが算出する（デフォルト）。
+     * {@link #startLocal()}では使用しない。
+     * </pre>
+     *
+     * @param acceptors アクセプタスレッド数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setAcceptors(int acceptors) {
+        connectorConfiguration.setAcceptors(acceptors);
+        return this;
+    }
+
+    /**
+     * {@link #start()}で起動するコネクタのセレクタ数を設定する。
+     * <pre>
+     * -1を指定した場合はCPU数からJettyが算出する（デフォルト）。
+     * {@link #startLocal()}では使用しない。
+     * </pre>
+     *
+     * @param selectors セレクタ数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setSelectors(int selectors) {
+        connectorConfiguration.setSelectors(selectors);
+        return this;
+    }
+
+    /**
+     * コネクタが使用するバッファプールの種類を設定する。
+     * <pre>
+     * 以下のいずれかを指定する。デフォルトは"array"。
+     *
+     *   array : 容量の範囲ごとに配列で管理する{@link org.eclipse.jetty.io.ArrayByteBufferPool}
+     *   mapped: 容量ごとにマップで管理する{@link org.eclipse.jetty.io.MappedByteBufferPool}
+     *
+     * サーバプール（{@link #setServerPoolEnabled(boolean)}参照）を使用する場合、
+     * この設定が一致するサーバのみを借り受ける。
+     * </pre>
+     *
+     * @param byteBufferPoolType バッファプールの種類
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setByteBufferPoolType(String byteBufferPoolType) {
+        connectorConfiguration.setByteBufferPoolType(byteBufferPoolType);
+        return this;
+    }
+
+    /**
+     * バッファプールがプールするバッファの最大容量を設定する。
+     * <pre>
+     * これより大きなバッファは、プールせずに都度確保する。
+     * 種類が"array"の場合のみ有効。未設定の場合はJettyのデフォルト値（64KB）を使用する。
+     * </pre>
+     *
+     * @param byteBufferPoolMaxCapacity プールするバッファの最大容量（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setByteBufferPoolMaxCapacity(int byteBufferPoolMaxCapacity) {
+        connectorConfiguration.setByteBufferPoolMaxCapacity(byteBufferPoolMaxCapacity);
+        return this;
+    }
+
+    /**
+     * バッファプールがバケット（容量の範囲）ごとにプールするバッファの最大数を設定する。
+     * <pre>
+     * 0以下を指定した場合は無制限（デフォルト）。
+     * </pre>
+     *
+     * @param byteBufferPoolMaxQueueLength バケットごとにプールするバッファの最大数
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setByteBufferPoolMaxQueueLength(int byteBufferPoolMaxQueueLength) {
+        connectorConfiguration.setByteBufferPoolMaxQueueLength(byteBufferPoolMaxQueueLength);
+        return this;
+    }
+
+    /**
+     * バッファプールに保持するヒープバッファの最大容量を設定する。
+     * <pre>
+     * 超過した場合、Jettyが古いバッファを破棄する。
+     * 0以下を指定した場合は無制限（デフォルト）。
+     * </pre>
+     *
+     * @param byteBufferPoolMaxHeapMemory ヒープバッファの最大容量（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setByteBufferPoolMaxHeapMemory(long byteBufferPoolMaxHeapMemory) {
+        connectorConfiguration.setByteBufferPoolMaxHeapMemory(byteBufferPoolMaxHeapMemory);
+        return this;
+    }
+
+    /**
+     * バッファプールに保持するダイレクトバッファの最大容量を設定する。
+     * <pre>
+     * 超過した場合、Jettyが古いバッファを破棄する。
+     * 0以下を指定した場合は無制限（デフォルト）。
+     * </pre>
+     *
+     * @param byteBufferPoolMaxDirectMemory ダイレクトバッファの最大容量（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setByteBufferPoolMaxDirectMemory(long byteBufferPoolMaxDirectMemory) {
+        connectorConfiguration.setByteBufferPoolMaxDirectMemory(byteBufferPoolMaxDirectMemory);
+        return this;
+    }
+
+    /**
+     * テストモードで送信するリクエストの電文にダイレクトバッファを使用するか否かを設定する。
+     * <pre>
+     * 電文はバッファプールから取得し、送信完了後に返却する。
+     * デフォルトは無効（ヒープバッファを使用する）。
+     * </pre>
+     *
+     * @param directBuffersEnabled ダイレクトバッファを使用する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setDirectBuffersEnabled(boolean directBuffersEnabled) {
+        connectorConfiguration.setDirectBuffersEnabled(directBuffersEnabled);
+        return this;
+    }
+
+    /**
+     * テストモードで送信するリクエストの電文にダイレクトバッファを使用するか否かを取得する。
+     *
+     * @return ダイレクトバッファを使用する場合、真
+     */
+    public boolean isDirectBuffersEnabled() {
+        return connectorConfiguration.isDirectBuffersEnabled();
+    }
+
+    /**
+     * コネクタが使用するバッファプールの統計情報を取得する。
+     * <pre>
+     * ヒット率が低い場合や保持容量が増え続ける場合は、
+     * {@link #setByteBufferPoolMaxCapacity(int)}等でプールの設定を見直すこと。
+     * </pre>
+     *
+     * @return 統計情報
+     * @throws IllegalStateException サーバが起動していない場合
+     */
+    public ByteBufferPoolStatistics getByteBufferPoolStatistics() {
+        Connector[] connectors = getConnectors();
+        if (connectors == null || connectors.length == 0) {
+            throw new IllegalStateException(
+                    "server is not started. you must call start() or startLocal() beforehand.");
+        }
+        return ((CountingByteBufferPool) connectors[0].getByteBufferPool()).getStatistics();
+    }
+
+    /**
+     * {@link #start()}で起動するコネクタで、HTTP/2 cleartext（h2c）を有効にするか否かを設定する。
+     * <pre>
+     * 有効にした場合、HTTP/1.1に加えて、同じポートでh2c（Upgradeヘッダによるアップグレード、
+     * および事前知識による接続）を受け付ける。
+     * 多数のクライアントから負荷をかける場合、1接続で複数のリクエストを多重化できるため接続のオーバヘッドを削減できる。
+     * 使用するには、org.eclipse.jetty.http2:http2-serverを依存関係に追加すること。
+     * {@link #startLocal()}では使用しない。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param http2CleartextEnabled h2cを有効にする場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setHttp2CleartextEnabled(boolean http2CleartextEnabled) {
+        connectorConfiguration.setHttp2CleartextEnabled(http2CleartextEnabled);
+        return this;
+    }
+
+    /**
+     * HTTP/2 cleartext（h2c）を有効にするか否かを取得する。
+     *
+     * @return h2cを有効にする場合、真
+     */
+    public boolean isHttp2CleartextEnabled() {
+        return connectorConfiguration.isHttp2CleartextEnabled();
+    }
+
+    /**
+     * {@link #start()}で起動したサーバのレスポンスをgzip圧縮するか否かを設定する。
+     * <pre>
+     * 有効にした場合、"Accept-Encoding: gzip"を送信したクライアントへのレスポンスを圧縮する。
+     * 低速な回線越しにブラウザで確認する場合に、HTML/JavaScript/CSSの転送量を削減できる。
+     * {@link #startLocal()}では使用しない。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param gzipEnabled gzip圧縮する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setGzipEnabled(boolean gzipEnabled) {
+        connectorConfiguration.setGzipEnabled(gzipEnabled);
+        return this;
+    }
+
+    /**
+     * {@link #start()}で起動したサーバのレスポンスをgzip圧縮するか否かを取得する。
+     *
+     * @return gzip圧縮する場合、真
+     */
+    public boolean isGzipEnabled() {
+        return connectorConfiguration.isGzipEnabled();
+    }
+
+    /**
+     * gzip圧縮するレスポンスの最小サイズを設定する。
+     * <pre>
+     * これより小さいレスポンスは圧縮しない。
+     * 未設定の場合はJettyのデフォルト値を使用する。
+     * </pre>
+     *
+     * @param gzipMinSize 最小サイズ（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setGzipMinSize(int gzipMinSize) {
+        connectorConfiguration.setGzipMinSize(gzipMinSize);
+        return this;
+    }
+
+    /**
+     * gzip圧縮するMIMEタイプを設定する。
+     * <pre>
+     * カンマ区切りで指定する（例："text/html,text/css,application/javascript"）。
+     * 未設定の場合はJettyのデフォルト（画像や圧縮済みの形式を除くすべてのMIMEタイプ）を使用する。
+     * </pre>
+     *
+     * @param gzipMimeTypes MIMEタイプ（カンマ区切り）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setGzipMimeTypes(String gzipMimeTypes) {
+        connectorConfiguration.setGzipMimeTypes(gzipMimeTypes);
+        return this;
+    }
+
+    /**
+     * gzip圧縮の圧縮レベルを設定する。
+     * <pre>
+     * 1（速度優先）から9（圧縮率優先）、または-1（{@link Deflater#DEFAULT_COMPRESSION}）を指定する。
+     * デフォルトは-1。
+     * </pre>
+     *
+     * @param gzipCompressionLevel 圧縮レベル
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setGzipCompressionLevel(int gzipCompressionLevel) {
+        connectorConfiguration.setGzipCompressionLevel(gzipCompressionLevel);
+        return this;
+    }
+
+    /**
+     * 圧縮済みの静的ファイルを配信するか否かを設定する。
+     * <pre>
+     * 有効にした場合、WARベースパス上の静的ファイルへのリクエストに対して、
+     * 同じディレクトリに圧縮済みのファイル（拡張子".br"または".gz"を付与したファイル）が存在し、
+     * クライアントが対応するエンコーディングを受け付ける場合は、圧縮済みのファイルをそのまま返却する。
+     * 両方が存在する場合は".br"を優先する。
+     * サーバプール（{@link #setServerPoolEnabled(boolean)}参照）を使用する場合、
+     * この設定が一致するサーバのみを借り受ける。
+     * デフォルトは無効。
+     * </pre>
+     *
+     * @param precompressedEnabled 圧縮済みの静的ファイルを配信する場合、真
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setPrecompressedEnabled(boolean precompressedEnabled) {
+        this.precompressedEnabled = precompressedEnabled;
+        return this;
+    }
+
+    /**
+     * 圧縮済みの静的ファイルを配信するか否かを取得する。
+     *
+     * @return 圧縮済みの静的ファイルを配信する場合、真
+     */
+    public boolean isPrecompressedEnabled() {
+        return precompressedEnabled;
+    }
+
+    /**
+     * {@link #start()}で、TCPのポートに加えて待ち受けるUNIXドメインソケットのパスを設定する。
+     * <pre>
+     * 同一ホスト上の負荷ドライバから送信する場合、TCPループバックのオーバヘッドを回避できる。
+     * 負荷ドライバからは{@link nablarch.fw.web.httpserver.load.UnixSocketLoadTarget}で送信する。
+     * 前回の起動時のソケットファイルが残っている場合は、起動時に削除する。
+     * 使用するには、org.eclipse.jetty:jetty-unixsocketを依存関係に追加すること。
+     * {@link #startLocal()}では使用しない。
+     * デフォルトは未設定（待ち受けない）。
+     * </pre>
+     *
+     * @param unixSocketPath ソケットファイルのパス
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setUnixSocketPath(String unixSocketPath) {
+        connectorConfiguration.setUnixSocketPath(unixSocketPath);
+        return this;
+    }
 
     /**
-     * サーバを起動する。
+     * {@link #start()}で待ち受けるUNIXドメインソケットのパスを取得する。
+     *
+     * @return ソケットファイルのパス（待ち受けない場合はnull）
+     */
+    public String getUnixSocketPath() {
+        return connectorConfiguration.getUnixSocketPath();
+    }
+
+    /**
+     * HTTP/2の1接続あたりの最大同時ストリーム数を設定する。
      * <pre>
-     * サーバスレッドを生成し、port()メソッドで指定されたポート番号上の
-     * HTTPリクエストに対して処理を行う。
+     * 未設定の場合はJettyのデフォルト値（128）を使用する。
      * </pre>
      *
+     * @param http2MaxConcurrentStreams 最大同時ストリーム数
      * @return このオブジェクト自体
      */
-    public HttpServerJetty9 start() {
-        jetty = new Server(getPort());
-        Connector conn = new ServerConnector(jetty);
-        initialize(conn);
-        try {
-            jetty.start();
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public HttpServerJetty9 setHttp2MaxConcurrentStreams(int http2MaxConcurrentStreams) {
+        connectorConfiguration.setHttp2MaxConcurrentStreams(http2MaxConcurrentStreams);
         return this;
     }
 
+    /**
+     * HTTP/2のストリームのフロー制御ウィンドウの初期サイズを設定する。
+     * <pre>
+     * 大きなリクエストボディを送信する場合に大きくする。
+     * 未設定の場合はJettyのデフォルト値を使用する。
+     * </pre>
+     *
+     * @param http2InitialStreamRecvWindow ウィンドウの初期サイズ（バイト）
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 setHttp2InitialStreamRecvWindow(int http2InitialStreamRecvWindow) {
+        connectorConfiguration.setHttp2InitialStreamRecvWindow(http2InitialStreamRecvWindow);
+        return this;
+    }
 
     /**
-     * このサーバをテストモードで起動する。
+     * HTTP/2のセッションのフロー制御ウィンドウの初期サイズを設定する。
+     * <pre>
+     * 1接続で多重化するストリームのウィンドウの合計に相当する。
+     * 未設定の場合はJettyのデフォルト値を使用する。
+     * </pre>
+     *
+     * @param http2InitialSessionRecvWindow ウィンドウの初期サイズ（バイト）
      * @return このオブジェクト自体
      */
-    public HttpServerJetty9 startLocal() {
-        jetty = new Server();
-        localConnector = new LocalConnector(jetty);
-        initialize(localConnector);
-        try {
-            jetty.start();
-        } catch (RuntimeException e) {
-            throw e;
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        }
+    public HttpServerJetty9 setHttp2InitialSessionRecvWindow(int http2InitialSessionRecvWindow) {
+        connectorConfiguration.setHttp2InitialSessionRecvWindow(http2InitialSessionRecvWindow);
         return this;
     }
 
+    /**
+     * 起動中のサーバが使用しているスレッドプールを取得する。
+     *
+     * @return スレッドプール（サーバが起動していない場合はnull）
+     */
+    ThreadPool getThreadPool() {
+        return jetty == null ? null : jetty.getThreadPool();
+    }
+
+    /**
+     * 起動中のサーバのコネクタを取得する。
+     *
+     * @return コネクタ（サーバが起動していない場合はnull）
+     */
+    Connector[] getConnectors() {
+        return jetty == null ? null : jetty.getConnectors();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <pre>
+     * HTTPダンプを非同期に出力する場合でも、リクエストの処理時点で設定されていた出力先に出力されるよう、
+     * 設定された出力先を保持する。
+     * </pre>
+     */
+    @Override
+    public HttpServer setHttpDumpFilePath(String path) {
+        synchronized (dumpLock) {
+            currentHttpDumpFilePath = path;
+            return super.setHttpDumpFilePath(path);
+        }
+    }
+
     /**
      * サーバスレッドが終了するまでカレントスレッドをwaitさせる。
      *
@@ -118,33 +1840,340 @@ public class HttpServerJetty9 extends HttpServer {
      * HTTPレスポンスオブジェクトにパースし、この関数の戻り値として返す。
      * また、HTTPダンプ出力が有効である場合、
      * そのレスポンスボディの内容を所定のディレクトリに出力する。
+     *
+     * このメソッドはスレッドセーフであり、{@link #startLocal()}で起動した1つのサーバに対して
+     * 複数のスレッドから並行して呼び出すことができる。
+     * 完了待機用のラッチはリクエストごとに生成され、HTTPダンプの出力は直列化される。
+     * セッションはリクエストのクッキーで識別されるため、スレッドごとに異なるクッキーを送信する限り共有されない。
+     * リクエストごとにダンプの出力先を分ける場合は、{@link #handle(HttpRequest, ExecutionContext, String)}を使用すること。
      * </pre>
      */
     public HttpResponse handle(HttpRequest req, ExecutionContext sourceContext) {
+        return handle(req, sourceContext, null);
+    }
+
+    /**
+     * HTTPダンプの出力先を指定して、HTTPリクエストを処理する。
+     * <pre>
+     * {@link #handle(HttpRequest, ExecutionContext)}と同様にリクエストを処理し、
+     * HTTPダンプを指定されたファイルに出力する。
+     * 複数のスレッドから並行して呼び出す場合に、リクエストごとにダンプの出力先を分けるために使用する。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @param sourceContext 実行コンテキスト
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     * @return HTTPレスポンス
+     */
+    public HttpResponse handle(HttpRequest req, ExecutionContext sourceContext, String httpDumpFilePath) {
+        startLazily();
+        if (daemonConnection.isConnected()) {
+            return handleOnDaemon(req, sourceContext, httpDumpFilePath, null);
+        }
+        assertLocalConnector();
+        prepareHost(req);
+        CompletionLatch latch = prepareLatch(sourceContext);
+        HandleTiming timing = new HandleTiming(req);
+        try {
+            if (directDispatchEnabled) {
+                long dispatchStart = System.nanoTime();
+                HttpResponse res = new DirectDispatcher(localConnector, requestCharset, createResponseParser())
+                        .dispatch(req, RESPONSE_TIMEOUT_MILLIS);
+                return completeDirect(req, latch, res, httpDumpFilePath, timing, dispatchStart);
+            }
+            long serializeStart = System.nanoTime();
+            RequestSerializer serializer = new RequestSerializer(requestCharset, localConnector.getByteBufferPool(),
+                    connectorConfiguration.isDirectBuffersEnabled());
+            ByteBuffer rawReq = serializer.serialize(req);
+            long dispatchStart = System.nanoTime();
+            timing.record(HandleTiming.Phase.SERIALIZE, dispatchStart - serializeStart);
+            ByteBuffer response;
+            try {
+                response = localConnector.getResponse(rawReq);
+            } finally {
+                // 応答がない場合や例外発生時はサーバに読み込まれていない可能性があるため、読み込み済みのバッファのみ返却する
+                serializer.release(rawReq);
+            }
+            return complete(req, latch, response, httpDumpFilePath, timing, dispatchStart);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * 複数のHTTPリクエストを、1つのコネクションで順に処理する。
+     * <pre>
+     * ローカルコネクタへのコネクションをキープアライブで使いまわし、リクエストを先頭から1件ずつ送信する。
+     * レスポンスで設定されたクッキーは、後続のリクエストに自動的に付与される。
+     * サーバがコネクションを切断した場合は、新しいコネクションを確立して処理を継続する。
+     * {@link ServerDaemon}に接続している場合は、リクエストを1件ずつデーモンに送信し、クッキーは同様に引き継ぐ。
+     * 各リクエストの処理内容は{@link #handle(HttpRequest, ExecutionContext)}と同じである。
+     * </pre>
+     *
+     * @param requests HTTPリクエスト
+     * @param sourceContext 実行コンテキスト
+     * @return リクエストごとの処理結果（リクエストと同じ順序）
+     */
+    public List<HandleResult> handleAll(List<? extends HttpRequest> requests, ExecutionContext sourceContext) {
+        startLazily();
+        CookieJar cookieJar = new CookieJar();
+        if (daemonConnection.isConnected()) {
+            return handleAllOnDaemon(requests, sourceContext, cookieJar);
+        }
+        assertLocalConnector();
+        RequestSerializer serializer = new RequestSerializer(requestCharset, localConnector.getByteBufferPool(),
+                connectorConfiguration.isDirectBuffersEnabled());
+        List<HandleResult> results = new ArrayList<HandleResult>(requests.size());
+        LocalConnector.LocalEndPoint endPoint = null;
+        try {
+            for (HttpRequest req : requests) {
+                long start = System.nanoTime();
+                prepareHost(req);
+                CompletionLatch latch = prepareLatch(sourceContext);
+                HandleTiming timing = new HandleTiming(req);
+                HttpResponse res;
+                if (directDispatchEnabled) {
+                    long dispatchStart = System.nanoTime();
+                    res = new DirectDispatcher(localConnector, requestCharset, createResponseParser())
+                            .dispatch(req, cookieJar, RESPONSE_TIMEOUT_MILLIS);
+                    res = completeDirect(req, latch, res, null, timing, dispatchStart);
+                } else {
+                    if (endPoint == null || !endPoint.isOpen()) {
+                        endPoint = localConnector.connect();
+                    }
+                    long serializeStart = System.nanoTime();
+                    ByteBuffer rawReq = serializer.serialize(req, cookieJar);
+                    long dispatchStart = System.nanoTime();
+                    timing.record(HandleTiming.Phase.SERIALIZE, dispatchStart - serializeStart);
+                    ByteBuffer response;
+                    try {
+                        endPoint.addInputAndExecute(rawReq);
+                        response = endPoint.waitForResponse(false, RESPONSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    } finally {
+                        serializer.release(rawReq);
+                    }
+                    if (response == null) {
+                        throw new IllegalStateException("no response was received within the timeout. "
+                                + "request line = [" + req.getMethod() + " " + req.getRequestUri() + "]");
+                    }
+                    cookieJar.update(response);
+                    res = complete(req, latch, response, null, timing, dispatchStart);
+                }
+                if (endPoint != null && "close".equalsIgnoreCase(res.getHeader("Connection"))) {
+                    // サーバがコネクションを切断したため、次のリクエストでは接続しなおす
+                    endPoint.close();
+                    endPoint = null;
+                }
+                results.add(new HandleResult(req, res, System.nanoTime() - start));
+            }
+            return results;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            if (endPoint != null) {
+                endPoint.close();
+            }
+        }
+    }
+
+    /**
+     * 複数のHTTPリクエストを、{@link ServerDaemon}で順に処理する。
+     *
+     * @param requests HTTPリクエスト
+     * @param sourceContext 実行コンテキスト
+     * @param cookieJar リクエスト間で引き継ぐクッキー
+     * @return リクエストごとの処理結果（リクエストと同じ順序）
+     */
+    private List<HandleResult> handleAllOnDaemon(List<? extends HttpRequest> requests,
+            ExecutionContext sourceContext, CookieJar cookieJar) {
+        List<HandleResult> results = new ArrayList<HandleResult>(requests.size());
+        for (HttpRequest req : requests) {
+            long start = System.nanoTime();
+            HttpResponse res = handleOnDaemon(req, sourceContext, null, cookieJar);
+            results.add(new HandleResult(req, res, System.nanoTime() - start));
+        }
+        return results;
+    }
+
+    /**
+     * ローカルコネクタで起動されていることを確認する。
+     *
+     * @throws RuntimeException {@link #startLocal()}が呼び出されていない場合
+     */
+    private void assertLocalConnector() {
         if (localConnector == null) {
             throw new RuntimeException(
                     "this server is not running on a local connector. "
                             + "you must call startLocal() method beforehand."
             );
         }
+    }
 
-        String host = req.getHost();
-        if (host == null || host.isEmpty()) {
-            ((MockHttpRequest) req).setHost("127.0.0.1");
+    /**
+     * HTTPリクエストにHostが設定されていない場合、ローカルホストを設定する。
+     *
+     * @param req HTTPリクエスト
+     */
+    private void prepareHost(HttpRequest req) {
+        synchronized (req) {
+            String host = req.getHost();
+            if (host == null || host.isEmpty()) {
+                ((MockHttpRequest) req).setHost("127.0.0.1");
+            }
         }
+    }
 
-        final CountDownLatch latch = new CountDownLatch(1);
+    /**
+     * リクエストの完了を待機するためのラッチを生成し、実行コンテキストに設定する。
+     *
+     * @param sourceContext 実行コンテキスト
+     * @return ラッチ
+     */
+    private CompletionLatch prepareLatch(ExecutionContext sourceContext) {
+        CompletionLatch latch = new CompletionLatch();
         sourceContext.setRequestScopedVar(HttpRequestTestSupportHandler.NABLARCH_JETTY_CONNECTOR_LATCH, latch);
+        return latch;
+    }
+
+    /**
+     * リクエストの完了を待機し、受信した応答電文をHTTPレスポンスに変換する。
+     * <pre>
+     * HTTPダンプ出力が有効である場合、そのレスポンスボディの内容を出力する。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @param latch リクエストの完了を待機するためのラッチ
+     * @param response 応答電文
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     * @param timing 処理フェーズごとの処理時間
+     * @param dispatchStart コネクタへの送信を開始した時刻（{@link System#nanoTime()}）
+     * @return HTTPレスポンス
+     * @throws Exception 処理に失敗した場合
+     */
+    private HttpResponse complete(HttpRequest req, CompletionLatch latch, ByteBuffer response,
+            String httpDumpFilePath, HandleTiming timing, long dispatchStart) throws Exception {
+        long awaited = awaitResponse(req, latch, timing, dispatchStart);
+        HttpResponse res = createResponseParser().parse(response);
+        timing.record(HandleTiming.Phase.PARSE, System.nanoTime() - awaited);
+        return complete(req, res, httpDumpFilePath, timing);
+    }
+
+    /**
+     * 応答電文を解析する{@link ResponseParser}を生成する。
+     * <pre>
+     * 閾値を超えるレスポンスボディは、一時ディレクトリ（未指定の場合はシステムの一時ディレクトリ）に書き出す。
+     * </pre>
+     *
+     * @return {@link ResponseParser}
+     */
+    private ResponseParser createResponseParser() {
+        File spillDirectory = getTempDirectory() != null
+                ? getTempDirectory() : new File(System.getProperty("java.io.tmpdir"));
+        return new ResponseParser(responseSpillThreshold, spillDirectory, spillFiles);
+    }
+
+    /**
+     * リクエストの完了を待機し、{@link DirectDispatcher}が組み立てたHTTPレスポンスを返却する。
+     * <pre>
+     * 応答電文の解析は行わない。
+     * HTTPダンプ出力が有効である場合、そのレスポンスボディの内容を出力する。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @param latch リクエストの完了を待機するためのラッチ
+     * @param res HTTPレスポンス
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     * @param timing 処理フェーズごとの処理時間
+     * @param dispatchStart ハンドラチェインの実行を開始した時刻（{@link System#nanoTime()}）
+     * @return HTTPレスポンス
+     * @throws Exception 処理に失敗した場合
+     */
+    private HttpResponse completeDirect(HttpRequest req, CompletionLatch latch, HttpResponse res,
+            String httpDumpFilePath, HandleTiming timing, long dispatchStart) throws Exception {
+        awaitResponse(req, latch, timing, dispatchStart);
+        return complete(req, res, httpDumpFilePath, timing);
+    }
+
+    /**
+     * リクエストの完了を待機し、送信から応答・完了までの処理時間を記録する。
+     *
+     * @param req HTTPリクエスト
+     * @param latch リクエストの完了を待機するためのラッチ
+     * @param timing 処理フェーズごとの処理時間
+     * @param dispatchStart コネクタへの送信を開始した時刻（{@link System#nanoTime()}）
+     * @return 待機を終了した時刻（{@link System#nanoTime()}）
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    private long awaitResponse(HttpRequest req, CompletionLatch latch, HandleTiming timing, long dispatchStart)
+            throws InterruptedException {
+        long responded = System.nanoTime();
+        awaitCompletion(req.getMethod() + " " + req.getRequestUri(), latch);
+        long awaited = System.nanoTime();
+        long countedDownAt = latch.getCountedDownAt();
+        long applicationEnd = countedDownAt == 0 ? awaited : countedDownAt;
+        // 各フェーズが重ならないよう、ハンドラキューの完了後の応答と、応答後の待機のみをそれぞれ計上する
+        timing.record(HandleTiming.Phase.APPLICATION, applicationEnd - dispatchStart);
+        timing.record(HandleTiming.Phase.DISPATCH, responded - applicationEnd);
+        timing.record(HandleTiming.Phase.AWAIT, awaited - Math.max(responded, applicationEnd));
+        return awaited;
+    }
+
+    /**
+     * HTTPダンプを出力し、処理時間をリスナに通知する。
+     *
+     * @param req HTTPリクエスト
+     * @param res HTTPレスポンス
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     * @param timing 処理フェーズごとの処理時間
+     * @return HTTPレスポンス
+     * @throws Exception 処理に失敗した場合
+     */
+    private HttpResponse complete(HttpRequest req, HttpResponse res, String httpDumpFilePath,
+            HandleTiming timing) throws Exception {
+        timing.setStatusCode(res.getStatusCode());
+        long dumpStart = System.nanoTime();
+        if (isHttpDumpEnabled()) {
+            dumpDispatcher.dump(req, res, httpDumpFilePath, currentHttpDumpFilePath);
+            timing.record(HandleTiming.Phase.DUMP, System.nanoTime() - dumpStart);
+        }
+        notifyTimingListeners(timing);
+        return res;
+    }
+
+    /**
+     * {@link ServerDaemon}にリクエストの処理を依頼する。
+     * <pre>
+     * 完了の待機はデーモンで行うため、応答電文の受信をもって完了とする。
+     * 応答電文の解析、HTTPダンプの出力、処理時間の通知はこのJVMで行う。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @param sourceContext 実行コンテキスト
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     * @param cookieJar リクエストに付与し、レスポンスで更新するクッキー（引き継がない場合はnull）
+     * @return HTTPレスポンス
+     */
+    private HttpResponse handleOnDaemon(HttpRequest req, ExecutionContext sourceContext, String httpDumpFilePath,
+            CookieJar cookieJar) {
+        prepareHost(req);
+        HandleTiming timing = new HandleTiming(req);
         try {
-            byte[] rawReq = req.toString().getBytes();
-            ByteBuffer response = localConnector.getResponse(ByteBuffer.wrap(rawReq));
-            latch.await(10L, TimeUnit.SECONDS);
-            byte[] rawRes = response.array();
-            HttpResponse res = HttpResponse.parse(rawRes);
-            if (isHttpDumpEnabled()) {
-                dumpHttpMessage(req, res);
+            long serializeStart = System.nanoTime();
+            byte[] rawReq = daemonConnection.serialize(req, requestCharset, cookieJar);
+            long dispatchStart = System.nanoTime();
+            timing.record(HandleTiming.Phase.SERIALIZE, dispatchStart - serializeStart);
+            ByteBuffer response = daemonConnection.dispatch(rawReq, req.getMethod() + " " + req.getRequestUri(),
+                    sourceContext);
+            if (cookieJar != null) {
+                cookieJar.update(response);
             }
-            return res;
+            CompletionLatch latch = new CompletionLatch();
+            latch.countDown();
+            return complete(req, latch, response, httpDumpFilePath, timing, dispatchStart);
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -152,6 +2181,158 @@ public class HttpServerJetty9 extends HttpServer {
         }
     }
 
+    /**
+     * ハンドラキューがリクエストの完了を通知するまで待機する。
+     * <pre>
+     * 完了を通知するハンドラが存在しない場合は、応答の返却をもって完了とする。
+     * 待機時間を超えた場合は、WARNレベルでログ出力する。
+     * </pre>
+     *
+     * @param requestLine ログ出力に使用するリクエストライン
+     * @param latch リクエストの完了を待機するためのラッチ
+     * @throws InterruptedException 待機中に割り込まれた場合
+     */
+    private void awaitCompletion(String requestLine, CompletionLatch latch) throws InterruptedException {
+        if (!awaitsHandlerCompletion()) {
+            latch.countDown();
+        }
+        if (!latch.await(completionTimeout, TimeUnit.MILLISECONDS)) {
+            long count = completionTimeoutCount.incrementAndGet();
+            LOGGER.logWarn("request did not complete within the timeout. "
+                    + "request line = [" + requestLine
+                    + "] timeout = [" + completionTimeout + "ms] timeout count = [" + count + "]");
+        }
+    }
+
+    /**
+     * 電文のままのHTTPリクエストをローカルコネクタに送信し、応答電文を返す。
+     * <pre>
+     * {@link ServerDaemon}が、他のJVMから受信したリクエストの処理に使用する。
+     * ハンドラキューが完了を通知するまで待機するが、応答電文の解析、HTTPダンプの出力は行わない。
+     * </pre>
+     *
+     * @param rawRequest HTTPリクエストの電文（読み出しモード）
+     * @param requestLine ログ出力に使用するリクエストライン
+     * @param sourceContext 実行コンテキスト
+     * @return 応答電文（読み出しモード）
+     * @throws Exception 処理に失敗した場合
+     */
+    ByteBuffer dispatchRaw(ByteBuffer rawRequest, String requestLine, ExecutionContext sourceContext)
+            throws Exception {
+        startLazily();
+        assertLocalConnector();
+        CompletionLatch latch = prepareLatch(sourceContext);
+        ByteBuffer response = localConnector.getResponse(rawRequest);
+        awaitCompletion(requestLine, latch);
+        return response;
+    }
+
+    /**
+     * 登録されたリスナに処理時間を通知する。
+     * <pre>
+     * リスナで発生した例外は、リクエストの処理結果に影響を与えないようWARNレベルでログ出力する。
+     * </pre>
+     *
+     * @param timing 処理フェーズごとの処理時間
+     */
+    private void notifyTimingListeners(HandleTiming timing) {
+        for (HandleTimingListener listener : timingListeners) {
+            try {
+                listener.onHandled(timing);
+            } catch (RuntimeException e) {
+                LOGGER.logWarn("timing listener failed. listener = [" + listener.getClass().getName() + "]", e);
+            }
+        }
+    }
+
+    /**
+     * 登録された{@link PathTimingAggregator}の集計結果をログ出力する。
+     */
+    private void logTimingStatistics() {
+        for (HandleTimingListener listener : timingListeners) {
+            if (listener instanceof PathTimingAggregator) {
+                ((PathTimingAggregator) listener).logStatistics();
+            }
+        }
+    }
+
+    /**
+     * 処理フェーズごとの処理時間を受け取るリスナを登録する。
+     * <pre>
+     * {@link #handle(HttpRequest, ExecutionContext)}および{@link #handleAll(List, ExecutionContext)}で
+     * リクエストの処理が完了するたびに、処理時間が通知される。
+     * リクエストパスごとに集計する場合は{@link PathTimingAggregator}を使用する。
+     * {@link PathTimingAggregator}の集計結果は、{@link #stop()}でログ出力する。
+     * </pre>
+     *
+     * @param listener リスナ
+     * @return このオブジェクト自体
+     */
+    public HttpServerJetty9 addTimingListener(HandleTimingListener listener) {
+        timingListeners.add(listener);
+        return this;
+    }
+
+    /**
+     * HTTPダンプを出力する。
+     *
+     * @param req HTTPリクエスト
+     * @param res HTTPレスポンス
+     * @param httpDumpFilePath HTTPダンプの出力先ファイルのパス（nullの場合はサーバに設定された出力先）
+     */
+    private void writeHttpDump(HttpRequest req, HttpResponse res, String httpDumpFilePath) {
+        synchronized (dumpLock) {
+            if (httpDumpFilePath == null) {
+                dumpHttpMessage(req, res);
+                return;
+            }
+            // リクエスト単位の出力先は出力中のみ適用し、サーバに設定された出力先を書き換えたままにしない
+            super.setHttpDumpFilePath(httpDumpFilePath);
+            try {
+                dumpHttpMessage(req, res);
+            } finally {
+                super.setHttpDumpFilePath(currentHttpDumpFilePath);
+            }
+        }
+    }
+
+    /**
+     * 非同期に出力中のHTTPダンプが、すべて出力されるまで待機する。
+     * <pre>
+     * HTTPダンプの非同期出力が無効な場合は何もしない。
+     * テストの終了時など、ダンプファイルを参照する前に呼び出すこと。
+     * </pre>
+     *
+     * @throws RuntimeException HTTPダンプの出力中に例外が発生していた場合
+     */
+    public void flushHttpDump() {
+        dumpDispatcher.flush();
+    }
+
+    /**
+     * 非同期に出力するHTTPダンプの統計情報を取得する。
+     *
+     * @return 統計情報（非同期出力を一度も行っていない場合は、すべての値が0）
+     */
+    public HttpDumpStatistics getHttpDumpStatistics() {
+        return dumpDispatcher.getStatistics();
+    }
+
+    /**
+     * ハンドラキューに、リクエストの完了を通知する{@link HttpRequestTestSupportHandler}
+     * または{@link DaemonContextHandler}が含まれるか否かを判定する。
+     *
+     * @return 含まれる場合、真
+     */
+    private boolean awaitsHandlerCompletion() {
+        for (Handler<?, ?> handler : getHandlerQueue()) {
+            if (handler instanceof HttpRequestTestSupportHandler || handler instanceof DaemonContextHandler) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Jettyサーバインスタンスの初期化を行う。
      *
@@ -159,7 +2340,7 @@ public class HttpServerJetty9 extends HttpServer {
      */
     private void initialize(Connector conn) {
         jetty.addConnector(conn);
-        deploy();
+        deploy(getWebFrontController());
     }
 
     /**
@@ -167,42 +2348,121 @@ public class HttpServerJetty9 extends HttpServer {
      * <pre>
      * エントリポイントサーブレットと、
      * {@link #setWarBasePath(String)}で指定されたパス上に存在するWARをデプロイする。
+     * {@link #addWebApplication(HttpServerJetty9)}でWebアプリケーションが追加されている場合は、
+     * それらもデプロイし、コンテキストパスでリクエストを振り分ける。
+     * </pre>
+     *
+     * @param webFrontController エントリポイントとなる{@link Filter}
+     * @return デプロイした{@link WebAppContext}
+     */
+    private WebAppContext deploy(Filter webFrontController) {
+        webApp = createWebAppContext(webFrontController);
+        RedeployableHandler redeployableHandler = new RedeployableHandler();
+        redeployableHandler.setHandler(webApp);
+        StatisticsHandler statisticsHandler = new StatisticsHandler();
+        if (webApplications.isEmpty()) {
+            statisticsHandler.setHandler(redeployableHandler);
+        } else {
+            ContextHandlerCollection contexts = new ContextHandlerCollection();
+            contexts.addHandler(redeployableHandler);
+            for (HttpServerJetty9 application : webApplications) {
+                contexts.addHandler(application.createWebAppContext(application.getWebFrontController()));
+            }
+            statisticsHandler.setHandler(contexts);
+        }
+        jetty.setHandler(statisticsHandler);
+        jetty.setStopTimeout(stopTimeout);
+        return webApp;
+    }
+
+    /**
+     * デプロイする{@link WebAppContext}を生成する。
+     * <pre>
+     * エントリポイントとなる{@link Filter}と、
+     * {@link #setWarBasePath(String)}で指定されたパス上に存在するWARを設定する。
+     * JSPのウォームアップ用の{@link JspWarmupFilter}は、テストモード（ローカルコネクタ）の場合のみ設定する。
      * </pre>
+     *
+     * @param webFrontController エントリポイントとなる{@link Filter}
+     * @return 生成した{@link WebAppContext}
      */
-    private void deploy() {
-        WebAppContext webApp = new WebAppContext();
+    private WebAppContext createWebAppContext(Filter webFrontController) {
+        WebAppContext context = new WebAppContext();
         SessionHandler sessionHandler = new SessionHandler();
         sessionHandler.setSessionIdPathParameterName("none");
-        webApp.setSessionHandler(sessionHandler);
-        webApp.setContextPath(getServletContextPath());
-        webApp.setBaseResource(toResourceCollection(getWarBasePaths()));
-        webApp.setClassLoader(Thread.currentThread().getContextClassLoader());
+        context.setSessionHandler(sessionHandler);
+        context.setContextPath(getServletContextPath());
+        context.setBaseResource(toResourceCollection(getWarBasePaths()));
+        context.setClassLoader(Thread.currentThread().getContextClassLoader());
         StandardJarScanner scanner = new StandardJarScanner();
         scanner.setScanManifest(false);
-        webApp.setAttribute(JarScanner.class.getName(), scanner);
-        webApp.setPersistTempDirectory(true);
+        context.setAttribute(JarScanner.class.getName(), scanner);
+        context.setPersistTempDirectory(true);
 
-        webApp.addFilter(LazySessionInvalidationFilter.class, "/*",
+        if (jspWarmupEnabled && localConnector != null) {
+            // ウォームアップ要求はフロントコントローラを経由しないため、TCPで待ち受けるサーバでは受け付けない
+            context.addFilter(new FilterHolder(new JspWarmupFilter()), "/*",
+                    EnumSet.of(DispatcherType.REQUEST));
+        }
+        context.addFilter(LazySessionInvalidationFilter.class, "/*",
                 EnumSet.of(DispatcherType.REQUEST));
-        Filter webFrontController = getWebFrontController();
-        webApp.addFilter(
+        context.addFilter(
                 new FilterHolder(webFrontController)
                 , "/*"
                 , EnumSet.of(DispatcherType.REQUEST)
         );
-        Configuration[] configurations = {
-                new WebInfConfiguration(),
-                new WebXmlConfiguration(),
-                new AnnotationConfiguration()
-        };
-        webApp.setConfigurations(configurations);
+        context.setConfigurations(createConfigurations());
+        if (precompressedEnabled) {
+            context.setInitParameter(PRECOMPRESSED_INIT_PARAM, PRECOMPRESSED_FORMATS);
+        }
 
         File tmpDir = getTempDirectory();
-        if (tmpDir != null) {
-            webApp.setTempDirectory(tmpDir);
+        if (jspClassCacheEnabled) {
+            File parent = tmpDir != null ? tmpDir : new File(System.getProperty("java.io.tmpdir"));
+            context.setTempDirectory(new File(parent, "nablarch-jetty9-" + UUID.randomUUID()));
+            context.setPersistTempDirectory(false);
+        } else if (tmpDir != null) {
+            context.setTempDirectory(tmpDir);
         }
+        return context;
+    }
 
-        jetty.setHandler(webApp);
+    /**
+     * デプロイ時に適用する{@link Configuration}を生成する。
+     * <pre>
+     * クイックスタートモードで記述子が作成済みの場合は、{@link AnnotationConfiguration}の代わりに
+     * 記述子を再生する{@link QuickStartConfiguration}を使用する。
+     * 記述子が未作成の場合は、スキャン後に記述子を生成する{@link QuickStartConfiguration}を追加する。
+     * </pre>
+     *
+     * @return デプロイ時に適用する{@link Configuration}
+     */
+    private Configuration[] createConfigurations() {
+        if (!quickStartEnabled) {
+            return new Configuration[] {
+                    new WebInfConfiguration(),
+                    new WebXmlConfiguration(),
+                    new AnnotationConfiguration()
+            };
+        }
+        List<String> realPaths = new ArrayList<String>();
+        for (ResourceLocator warBasePath : getWarBasePaths()) {
+            realPaths.add(warBasePath.getRealPath());
+        }
+        QuickStartDescriptor descriptor = new QuickStartDescriptor(quickStartDirectory, realPaths);
+        if (descriptor.exists()) {
+            return new Configuration[] {
+                    new WebInfConfiguration(),
+                    new WebXmlConfiguration(),
+                    new QuickStartConfiguration(descriptor, false)
+            };
+        }
+        return new Configuration[] {
+                new WebInfConfiguration(),
+                new WebXmlConfiguration(),
+                new AnnotationConfiguration(),
+                new QuickStartConfiguration(descriptor, true)
+        };
     }
 
     /**
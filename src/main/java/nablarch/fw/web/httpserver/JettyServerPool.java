@@ -0,0 +1,254 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 起動済みの内蔵サーバを、JVM内のテストクラス間で共有するためのプール。
+ *
+ * {@link HttpServerJetty9#setServerPoolEnabled(boolean)}で有効化された場合、
+ * {@link HttpServerJetty9#startLocal()}はデプロイ内容（コンテキストパス、WARベースパス、
+ * 一時ディレクトリ、Webフロントコントローラの型、スレッドプールやコネクタ等のサーバの設定）が
+ * 一致する起動済みサーバを本プールから借り受ける。
+ * 一致するサーバが存在しない場合、または一致するサーバがすべて貸し出し中の場合は、新たにサーバを生成・デプロイする。
+ * 貸し出したサーバは、{@link HttpServerJetty9#stop()}で返却されるまで他の借り受け先に貸し出さない。
+ * サーバの生成・デプロイはプールのロックの外で行うため、異なるデプロイ内容の借り受けは並行して行われる。
+ * 同じデプロイ内容のサーバの生成は、一時ディレクトリ等を共有するため直列化する。
+ *
+ * 返却されたサーバを貸し出す際には、前の貸し出し先で生成されたセッションを破棄したうえで、
+ * {@link #addResetHook(PooledServerResetHook)}で登録されたフックを起動する。
+ */
+@Published(tag = "architect")
+public final class JettyServerPool {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(JettyServerPool.class);
+
+    /** 唯一のインスタンス */
+    private static final JettyServerPool INSTANCE = new JettyServerPool();
+
+    /** デプロイ内容ごとの起動済みサーバ */
+    private final Map<DeploymentKey, List<PooledServer>> servers = new HashMap<DeploymentKey, List<PooledServer>>();
+
+    /** デプロイ内容ごとの、サーバの生成を直列化するためのロック */
+    private final Map<DeploymentKey, Object> creationLocks = new HashMap<DeploymentKey, Object>();
+
+    /** 貸し出し時に起動するリセットフック */
+    private final List<PooledServerResetHook> resetHooks = new CopyOnWriteArrayList<PooledServerResetHook>();
+
+    /** 起動済みサーバを貸し出した回数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** 新たにサーバを生成した回数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /** インスタンス化しない。 */
+    private JettyServerPool() {
+    }
+
+    /**
+     * プールのインスタンスを取得する。
+     *
+     * @return プール
+     */
+    public static JettyServerPool getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * デプロイ内容に一致するサーバを借り受ける。
+     *
+     * 一致するサーバのうち貸し出し中でないものが存在しない場合は、
+     * 引数の{@link ServerCreator}でサーバを生成してプールに登録する。
+     * 借り受けたサーバは、{@link #release(PooledServer)}で返却すること。
+     *
+     * @param key デプロイ内容
+     * @param creator サーバの生成処理
+     * @return 貸し出すサーバ
+     */
+    PooledServer lease(DeploymentKey key, ServerCreator creator) {
+        PooledServer pooled = leaseIdle(key);
+        if (pooled != null) {
+            return pooled;
+        }
+        Object creationLock;
+        synchronized (this) {
+            creationLock = creationLocks.get(key);
+            if (creationLock == null) {
+                creationLock = new Object();
+                creationLocks.put(key, creationLock);
+            }
+        }
+        synchronized (creationLock) {
+            // 同じデプロイ内容のサーバの生成を待機している間に、返却されたサーバがあれば借り受ける
+            pooled = leaseIdle(key);
+            if (pooled != null) {
+                return pooled;
+            }
+            missCount.incrementAndGet();
+            pooled = creator.create();
+            int count;
+            synchronized (this) {
+                pooled.setLeased(true);
+                List<PooledServer> candidates = getCandidates(key);
+                candidates.add(pooled);
+                count = candidates.size();
+            }
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.logDebug("started a new pooled server. " + key + " pooled = [" + count + "]");
+            }
+            return pooled;
+        }
+    }
+
+    /**
+     * デプロイ内容に一致するサーバのうち、貸し出し中でないものを借り受ける。
+     *
+     * @param key デプロイ内容
+     * @return 貸し出すサーバ（存在しない場合はnull）
+     */
+    private synchronized PooledServer leaseIdle(DeploymentKey key) {
+        for (PooledServer pooled : getCandidates(key)) {
+            if (!pooled.isLeased() && pooled.getServer().isStarted()) {
+                hitCount.incrementAndGet();
+                reset(pooled);
+                pooled.setLeased(true);
+                return pooled;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * デプロイ内容に一致するサーバのリストを取得する。未登録の場合は登録する。
+     * <pre>
+     * このオブジェクトのロックを取得して呼び出すこと。
+     * </pre>
+     *
+     * @param key デプロイ内容
+     * @return サーバのリスト
+     */
+    private List<PooledServer> getCandidates(DeploymentKey key) {
+        List<PooledServer> candidates = servers.get(key);
+        if (candidates == null) {
+            candidates = new ArrayList<PooledServer>();
+            servers.put(key, candidates);
+        }
+        return candidates;
+    }
+
+    /**
+     * 借り受けたサーバを返却する。
+     *
+     * @param pooled 返却するサーバ
+     */
+    synchronized void release(PooledServer pooled) {
+        pooled.setLeased(false);
+    }
+
+    /**
+     * 貸し出すサーバの状態をリセットする。
+     *
+     * @param pooled 貸し出すサーバ
+     */
+    private void reset(PooledServer pooled) {
+        pooled.getSessionTracker().invalidateAll();
+        for (PooledServerResetHook hook : resetHooks) {
+            hook.reset(pooled.getWebApp());
+        }
+    }
+
+    /**
+     * 貸し出し時に起動するリセットフックを登録する。
+     *
+     * @param hook リセットフック
+     */
+    public void addResetHook(PooledServerResetHook hook) {
+        resetHooks.add(hook);
+    }
+
+    /**
+     * 登録されたリセットフックを削除する。
+     *
+     * @param hook リセットフック
+     */
+    public void removeResetHook(PooledServerResetHook hook) {
+        resetHooks.remove(hook);
+    }
+
+    /**
+     * 起動済みサーバを貸し出した回数を取得する。
+     *
+     * @return ヒット数
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * 一致するサーバが存在せず、新たにサーバを生成した回数を取得する。
+     *
+     * @return ミス数
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * プールされているサーバの数を取得する。
+     *
+     * @return サーバの数
+     */
+    public synchronized int getPooledServerCount() {
+        int count = 0;
+        for (List<PooledServer> pooled : servers.values()) {
+            count += pooled.size();
+        }
+        return count;
+    }
+
+    /**
+     * プールされているすべてのサーバを停止し、プールを空にする。
+     *
+     * 登録されたリセットフック、サーバの生成に使用したロックも削除する。統計情報はクリアしない。
+     */
+    public void clear() {
+        List<PooledServer> targets = new ArrayList<PooledServer>();
+        synchronized (this) {
+            for (List<PooledServer> pooled : servers.values()) {
+                targets.addAll(pooled);
+            }
+            servers.clear();
+            creationLocks.clear();
+            resetHooks.clear();
+        }
+        for (PooledServer pooled : targets) {
+            try {
+                pooled.getServer().stop();
+            } catch (Exception e) {
+                LOGGER.logWarn("failed to stop the pooled server.", e);
+            }
+        }
+    }
+
+    /**
+     * プールに登録するサーバを生成するインタフェース。
+     */
+    interface ServerCreator {
+
+        /**
+         * 起動済みのサーバを生成する。
+         *
+         * @return 生成したサーバ
+         */
+        PooledServer create();
+    }
+}
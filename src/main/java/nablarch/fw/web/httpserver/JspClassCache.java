@@ -0,0 +1,393 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.eclipse.jetty.util.resource.Resource;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * コンパイル済みJSPクラスのキャッシュ。
+ *
+ * JSPのソース、静的インクルードされたファイル、タグファイルの内容から算出したハッシュ値をキーとして、
+ * Jasperが生成したクラスファイルを保存する。
+ * キーが一致するJSPは、サーバ起動時にキャッシュからスクラッチディレクトリに復元されるため、
+ * 内容が変更されたJSPのみが再コンパイルされる。
+ *
+ * キャッシュへの登録は一時ディレクトリに書き込んだ後にリネームすることで行うため、
+ * 複数のJVM（Surefireのフォーク等）で同じキャッシュディレクトリを共有できる。
+ *
+ * なお、Jasperは依存ファイル（インクルードファイル、タグファイル）の最終更新日時も比較するため、
+ * それらの最終更新日時が変わった場合（別の作業ディレクトリでチェックアウトした場合等）は、
+ * 復元したクラスも再コンパイルされる。
+ */
+class JspClassCache {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(JspClassCache.class);
+
+    /** ハッシュ値算出時の文字コード */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 静的インクルードのパターン */
+    private static final Pattern INCLUDE_DIRECTIVE = Pattern.compile(
+            "(?:<%@\\s*include|<jsp:directive\\.include)\\s+file\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /** タグファイルを格納するディレクトリ */
+    private static final String TAG_DIR = "/WEB-INF/tags/";
+
+    /** キャッシュディレクトリ */
+    private final File cacheDirectory;
+
+    /** Jasperのスクラッチディレクトリ */
+    private final File scratchDirectory;
+
+    /** WARのベースリソース */
+    private final Resource base;
+
+    /** キャッシュに未登録のJSP（JSPのパスとキャッシュキー） */
+    private final Map<String, String> pending = new LinkedHashMap<String, String>();
+
+    /** キャッシュから復元したJSPの数 */
+    private final AtomicLong hitCount = new AtomicLong();
+
+    /** キャッシュに存在しなかったJSPの数 */
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * コンストラクタ。
+     *
+     * @param cacheDirectory キャッシュディレクトリ
+     * @param scratchDirectory Jasperのスクラッチディレクトリ
+     * @param base WARのベースリソース
+     */
+    JspClassCache(File cacheDirectory, File scratchDirectory, Resource base) {
+        this.cacheDirectory = cacheDirectory;
+        this.scratchDirectory = scratchDirectory;
+        this.base = base;
+    }
+
+    /**
+     * キャッシュ済みのクラスをスクラッチディレクトリに復元する。
+     * <pre>
+     * 復元したクラスファイルの最終更新日時は、JSPの最終更新日時に合わせる。
+     * （Jasperは両者が一致しない場合に再コンパイルする。）
+     * </pre>
+     */
+    synchronized void restore() {
+        byte[] tagDigest = digestTagFiles();
+        for (String jspPath : JspResources.listJspPaths(base)) {
+            String key = computeKey(jspPath, tagDigest);
+            File cached = new File(cacheDirectory, key);
+            if (cached.isDirectory() && copyClasses(cached, targetDirectory(jspPath),
+                    JspResources.lastModified(base, jspPath))) {
+                hitCount.incrementAndGet();
+            } else {
+                missCount.incrementAndGet();
+                pending.put(jspPath, key);
+            }
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.logDebug("jsp class cache restored. hit = [" + hitCount.get()
+                    + "] miss = [" + missCount.get() + "] cache = [" + cacheDirectory + "]");
+        }
+    }
+
+    /**
+     * コンパイル済みとなったJSPのクラスをキャッシュに登録する。
+     * <pre>
+     * キャッシュに未登録のJSPのうち、スクラッチディレクトリにクラスファイルが
+     * 生成されているものを登録対象とする。
+     * JSPごとにファイル数とファイルのサイズ・最終更新日時を確認するため、
+     * リクエストごとではなく、サーバの停止時やウォームアップの完了時に呼び出すこと。
+     * </pre>
+     */
+    synchronized void harvest() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> harvested = new ArrayList<String>();
+        for (Map.Entry<String, String> entry : pending.entrySet()) {
+            String jspPath = entry.getKey();
+            File dir = targetDirectory(jspPath);
+            String className = JspResources.className(jspPath);
+            if (!new File(dir, className + ".class").isFile()) {
+                continue;
+            }
+            if (store(entry.getValue(), dir, className)) {
+                harvested.add(jspPath);
+            }
+        }
+        for (String jspPath : harvested) {
+            pending.remove(jspPath);
+        }
+    }
+
+    /**
+     * キャッシュから復元したJSPの数を取得する。
+     *
+     * @return ヒット数
+     */
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * キャッシュに存在しなかったJSPの数を取得する。
+     *
+     * @return ミス数
+     */
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * クラスファイルをキャッシュに登録する。
+     * <pre>
+     * コピーの前後でファイルの構成、サイズ、最終更新日時が変わった場合は、
+     * コンパイル中（書き込み中）のファイルとみなして登録しない。
+     * </pre>
+     *
+     * @param key キャッシュキー
+     * @param dir クラスファイルが格納されたディレクトリ
+     * @param className クラス名
+     * @return 登録した場合（登録済みの場合を含む）、真。次回以降に登録を再試行する場合、偽
+     */
+    private boolean store(String key, File dir, String className) {
+        File target = new File(cacheDirectory, key);
+        if (target.isDirectory()) {
+            return true;
+        }
+        File tmp = new File(cacheDirectory, key + ".tmp-" + UUID.randomUUID());
+        try {
+            if (!tmp.mkdirs()) {
+                throw new IOException("failed to create the directory. path = [" + tmp + "]");
+            }
+            Map<String, String> before = snapshot(dir, className);
+            for (String name : before.keySet()) {
+                Files.copy(new File(dir, name).toPath(), new File(tmp, name).toPath());
+            }
+            if (!before.equals(snapshot(dir, className))) {
+                LOGGER.logDebug("jsp class is being written. retry later. key = [" + key + "]");
+                return false;
+            }
+            QuickStartDescriptor.moveAtomically(tmp, target);
+            return true;
+        } catch (IOException e) {
+            // 他のJVMが先に登録した場合も、ここに到達する。
+            LOGGER.logDebug("could not store the jsp class into the cache. key = [" + key + "]", e);
+            return target.isDirectory();
+        } finally {
+            deleteRecursively(tmp);
+        }
+    }
+
+    /**
+     * JSPのクラスに関するファイルのサイズと最終更新日時を取得する。
+     *
+     * @param dir クラスファイルが格納されたディレクトリ
+     * @param className クラス名
+     * @return ファイル名ごとのサイズと最終更新日時
+     */
+    private static Map<String, String> snapshot(File dir, String className) {
+        Map<String, String> result = new LinkedHashMap<String, String>();
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return result;
+        }
+        Arrays.sort(files);
+        for (File file : files) {
+            if (isClassFile(file.getName(), className)) {
+                result.put(file.getName(), file.length() + ":" + file.lastModified());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * キャッシュ済みのクラスファイルをコピーする。
+     *
+     * @param cached キャッシュ済みのクラスファイルのディレクトリ
+     * @param dir コピー先のディレクトリ
+     * @param lastModified コピーしたファイルに設定する最終更新日時
+     * @return コピーした場合、真
+     */
+    private boolean copyClasses(File cached, File dir, long lastModified) {
+        File[] files = cached.listFiles();
+        if (files == null || files.length == 0 || lastModified < 0) {
+            return false;
+        }
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+                return false;
+            }
+            for (File file : files) {
+                File dest = new File(dir, file.getName());
+                Files.copy(file.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                if (!dest.setLastModified(lastModified)) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.logDebug("could not restore the jsp class from the cache. path = [" + cached + "]", e);
+            return false;
+        }
+    }
+
+    /**
+     * JSPのクラスファイルの出力先ディレクトリを取得する。
+     *
+     * @param jspPath JSPのパス
+     * @return 出力先ディレクトリ
+     */
+    private File targetDirectory(String jspPath) {
+        return new File(scratchDirectory, JspResources.packageDirectory(jspPath));
+    }
+
+    /**
+     * JSPのキャッシュキーを算出する。
+     *
+     * @param jspPath JSPのパス
+     * @param tagDigest タグファイルのハッシュ値
+     * @return キャッシュキー
+     */
+    private String computeKey(String jspPath, byte[] tagDigest) {
+        MessageDigest digest = QuickStartDescriptor.newDigest();
+        digest.update(jspPath.getBytes(UTF_8));
+        digest.update(tagDigest);
+        digestWithIncludes(jspPath, digest, new ArrayList<String>());
+        return QuickStartDescriptor.toHex(digest.digest());
+    }
+
+    /**
+     * JSPとその静的インクルードの内容をハッシュ値に反映する。
+     *
+     * @param path JSPのパス
+     * @param digest ハッシュ値
+     * @param visited 処理済みのパス（循環インクルード対策）
+     */
+    private void digestWithIncludes(String path, MessageDigest digest, List<String> visited) {
+        if (visited.contains(path)) {
+            return;
+        }
+        visited.add(path);
+        byte[] source = JspResources.read(base, path);
+        if (source == null) {
+            return;
+        }
+        digest.update(source);
+        Matcher m = INCLUDE_DIRECTIVE.matcher(new String(source, UTF_8));
+        while (m.find()) {
+            digestWithIncludes(resolve(path, m.group(1)), digest, visited);
+        }
+    }
+
+    /**
+     * すべてのタグファイルの内容からハッシュ値を算出する。
+     *
+     * @return ハッシュ値
+     */
+    private byte[] digestTagFiles() {
+        MessageDigest digest = QuickStartDescriptor.newDigest();
+        digestDirectory(TAG_DIR, digest);
+        return digest.digest();
+    }
+
+    /**
+     * ディレクトリ配下のファイルの内容をハッシュ値に反映する。
+     *
+     * @param dir ディレクトリ
+     * @param digest ハッシュ値
+     */
+    private void digestDirectory(String dir, MessageDigest digest) {
+        try {
+            Resource resource = base.addPath(dir);
+            if (resource == null || !resource.isDirectory()) {
+                return;
+            }
+            String[] names = resource.list();
+            if (names == null) {
+                return;
+            }
+            Arrays.sort(names);
+            for (String name : names) {
+                String path = dir + name;
+                if (name.endsWith("/")) {
+                    digestDirectory(path, digest);
+                } else {
+                    byte[] content = JspResources.read(base, path);
+                    if (content != null) {
+                        digest.update(path.getBytes(UTF_8));
+                        digest.update(content);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to list tag files. path = [" + dir + "]", e);
+        }
+    }
+
+    /**
+     * インクルードファイルのパスを解決する。
+     *
+     * @param from インクルード元のパス
+     * @param file インクルードファイルの指定
+     * @return インクルードファイルのパス
+     */
+    private static String resolve(String from, String file) {
+        if (file.startsWith("/")) {
+            return file;
+        }
+        return from.substring(0, from.lastIndexOf('/') + 1) + file;
+    }
+
+    /**
+     * JSPのクラスに関するファイル（内部クラス、生成されたJavaソースを含む）か否かを判定する。
+     *
+     * @param fileName ファイル名
+     * @param className クラス名
+     * @return JSPのクラスに関するファイルの場合、真
+     */
+    private static boolean isClassFile(String fileName, String className) {
+        return fileName.equals(className + ".class")
+                || fileName.equals(className + ".java")
+                || (fileName.startsWith(className + "$") && fileName.endsWith(".class"));
+    }
+
+    /**
+     * ファイルまたはディレクトリを再帰的に削除する。
+     * <pre>
+     * 削除できなかったファイルは、WARNレベルでログ出力して残す。
+     * （{@link File#deleteOnExit()}はJVMの終了までパスを保持し続けるため使用しない。）
+     * </pre>
+     *
+     * @param file 削除対象
+     */
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        if (file.exists() && !file.delete()) {
+            LOGGER.logWarn("failed to delete the temporary file. path = [" + file + "]");
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.jasper.compiler.JspUtil;
+import org.eclipse.jetty.util.URIUtil;
+import org.eclipse.jetty.util.resource.Resource;
+
+/**
+ * WARベースパス上のJSPに関するユーティリティ。
+ */
+final class JspResources {
+
+    /** JSPのパッケージ名の接頭辞（Jasperのデフォルト） */
+    private static final String JSP_PACKAGE_NAME = "org.apache.jsp";
+
+    /** 静的インクルードのディレクティブ（XML構文を含む） */
+    private static final Pattern INCLUDE_DIRECTIVE = Pattern.compile(
+            "(?:<%@\\s*include|<jsp:directive\\.include)\\s+file\\s*=\\s*[\"']([^\"']+)[\"']");
+
+    /** ディレクティブの読み込みに使用する文字コード（ディレクティブはASCIIのみで構成される） */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /** インスタンス化しない。 */
+    private JspResources() {
+    }
+
+    /**
+     * ベースリソース配下の、単独でコンパイル可能なJSPのパスを取得する。
+     * <pre>
+     * パスはコンテキストルートからの相対パス（"/"始まり）で返却する。
+     * 複数のWARベースパスに同名のJSPが存在する場合は、1つのみ返却する。
+     * /WEB-INF/配下のJSP（フォワード先として使用される画面）も対象とする。
+     * 他のJSPから静的インクルード（include ディレクティブ）されるJSPは、単独ではコンパイルできないため除外する。
+     * </pre>
+     *
+     * @param base ベースリソース
+     * @return JSPのパス
+     */
+    static List<String> listJspPaths(Resource base) {
+        List<String> paths = new ArrayList<String>();
+        collect(base, "/", paths);
+        Set<String> fragments = new HashSet<String>();
+        for (String path : paths) {
+            collectIncludes(base, path, fragments);
+        }
+        paths.removeAll(fragments);
+        return paths;
+    }
+
+    /**
+     * JSPが静的インクルードするファイルのパスを収集する。
+     *
+     * @param base ベースリソース
+     * @param jspPath JSPのパス
+     * @param includes 収集結果（コンテキストルートからの相対パス）
+     */
+    private static void collectIncludes(Resource base, String jspPath, Set<String> includes) {
+        byte[] content = read(base, jspPath);
+        if (content == null) {
+            return;
+        }
+        Matcher matcher = INCLUDE_DIRECTIVE.matcher(new String(content, ISO_8859_1));
+        while (matcher.find()) {
+            String file = matcher.group(1).trim();
+            includes.add(URIUtil.canonicalPath(file.startsWith("/")
+                    ? file
+                    : jspPath.substring(0, jspPath.lastIndexOf('/') + 1) + file));
+        }
+    }
+
+    /**
+     * ディレクトリ配下のJSPを再帰的に収集する。
+     *
+     * @param base ベースリソース
+     * @param dir 収集対象のディレクトリ（"/"始まり、"/"終わり）
+     * @param paths 収集結果
+     */
+    private static void collect(Resource base, String dir, List<String> paths) {
+        String[] names = list(base, dir);
+        for (String name : names) {
+            String path = dir + name;
+            if (name.endsWith("/")) {
+                collect(base, path, paths);
+            } else if (name.endsWith(".jsp") && !paths.contains(path)) {
+                paths.add(path);
+            }
+        }
+    }
+
+    /**
+     * ディレクトリ直下のリソース名を取得する。
+     *
+     * @param base ベースリソース
+     * @param dir ディレクトリ
+     * @return リソース名（ディレクトリは"/"終わり）
+     */
+    private static String[] list(Resource base, String dir) {
+        try {
+            Resource resource = base.addPath(dir);
+            if (resource == null || !resource.isDirectory()) {
+                return new String[0];
+            }
+            String[] names = resource.list();
+            return names == null ? new String[0] : names;
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to list resources. path = [" + dir + "]", e);
+        }
+    }
+
+    /**
+     * リソースの内容を読み込む。
+     *
+     * @param base ベースリソース
+     * @param path リソースのパス
+     * @return リソースの内容（存在しない場合はnull）
+     */
+    static byte[] read(Resource base, String path) {
+        InputStream in = null;
+        try {
+            Resource resource = base.addPath(path);
+            if (resource == null || !resource.exists() || resource.isDirectory()) {
+                return null;
+            }
+            in = resource.getInputStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[8192];
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                out.write(buf, 0, len);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to read the resource. path = [" + path + "]", e);
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException ignored) {  // SUPPRESS CHECKSTYLE
+                    // NOP
+                }
+            }
+        }
+    }
+
+    /**
+     * リソースの最終更新日時を取得する。
+     *
+     * @param base ベースリソース
+     * @param path リソースのパス
+     * @return 最終更新日時（存在しない場合は-1）
+     */
+    static long lastModified(Resource base, String path) {
+        try {
+            Resource resource = base.addPath(path);
+            return resource == null || !resource.exists() ? -1 : resource.lastModified();
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to resolve the resource. path = [" + path + "]", e);
+        }
+    }
+
+    /**
+     * JSPから生成されるサーブレットのパッケージのディレクトリ（"/"区切り）を取得する。
+     *
+     * @param jspPath JSPのパス
+     * @return パッケージのディレクトリ
+     */
+    static String packageDirectory(String jspPath) {
+        int sep = jspPath.lastIndexOf('/');
+        String dir = sep > 0 ? jspPath.substring(1, sep) : "";
+        String packageName = dir.length() == 0
+                ? JSP_PACKAGE_NAME
+                : JSP_PACKAGE_NAME + '.' + JspUtil.makeJavaPackage(dir);
+        return packageName.replace('.', '/');
+    }
+
+    /**
+     * JSPから生成されるサーブレットのクラス名（パッケージを含まない）を取得する。
+     *
+     * @param jspPath JSPのパス
+     * @return クラス名
+     */
+    static String className(String jspPath) {
+        return JspUtil.makeJavaIdentifier(
+                jspPath.substring(jspPath.lastIndexOf('/') + 1));
+    }
+}
@@ -0,0 +1,147 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.server.LocalConnector;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * JSPのウォームアップ（事前コンパイル）を、バックグラウンドのワーカスレッドで並列に実行するクラス。
+ *
+ * JSPのパスを{@link #WARMUP_HEADER}ヘッダに指定したリクエストをローカルコネクタに送信し、
+ * {@link JspWarmupFilter}からのフォワードでJasperにコンパイルさせる。
+ */
+class JspWarmup {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(JspWarmup.class);
+
+    /** ウォームアップ要求であることを示し、コンパイルするJSPのパスを指定するヘッダ */
+    static final String WARMUP_HEADER = "X-Nablarch-Jsp-Warmup";
+
+    /** 自動テスト実行用コネクター */
+    private final LocalConnector connector;
+
+    /** サーブレットコンテキストパス */
+    private final String contextPath;
+
+    /** ワーカスレッド */
+    private final ExecutorService executor;
+
+    /** JSPごとのコンパイル処理 */
+    private final Map<String, Future<Long>> tasks = new LinkedHashMap<String, Future<Long>>();
+
+    /** ウォームアップの開始時刻 */
+    private long startTime;
+
+    /** ウォームアップ結果（未完了の場合はnull） */
+    private JspWarmupReport report;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param connector 自動テスト実行用コネクター
+     * @param contextPath サーブレットコンテキストパス
+     * @param threads ワーカスレッド数
+     */
+    JspWarmup(LocalConnector connector, String contextPath, int threads) {
+        this.connector = connector;
+        this.contextPath = "/".equals(contextPath) ? "" : contextPath;
+        this.executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jsp-warmup-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * ウォームアップを開始する。
+     *
+     * @param jspPaths ウォームアップ対象のJSPのパス
+     */
+    synchronized void start(List<String> jspPaths) {
+        startTime = System.currentTimeMillis();
+        for (final String jspPath : jspPaths) {
+            tasks.put(jspPath, executor.submit(new Callable<Long>() {
+                @Override
+                public Long call() throws Exception {
+                    return compile(jspPath);
+                }
+            }));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * JSPをコンパイルする。
+     *
+     * @param jspPath JSPのパス
+     * @return コンパイル時間（ミリ秒）
+     * @throws Exception コンパイルに失敗した場合
+     */
+    private long compile(String jspPath) throws Exception {
+        long start = System.currentTimeMillis();
+        String response = connector.getResponse(
+                "GET " + contextPath + "/ HTTP/1.1\r\n"
+                        + "Host: 127.0.0.1\r\n"
+                        + WARMUP_HEADER + ": " + jspPath + "\r\n"
+                        + "Connection: close\r\n"
+                        + "\r\n");
+        long elapsed = System.currentTimeMillis() - start;
+        if (response == null || !response.startsWith("HTTP/1.1 200")) {
+            throw new IllegalStateException("failed to compile jsp. path = [" + jspPath + "] response = ["
+                    + (response == null ? null : response.split("\r\n", 2)[0]) + "]");
+        }
+        return elapsed;
+    }
+
+    /**
+     * ウォームアップの完了を待機する。
+     *
+     * @return ウォームアップ結果
+     */
+    synchronized JspWarmupReport await() {
+        if (report != null) {
+            return report;
+        }
+        Map<String, Long> compileTimes = new LinkedHashMap<String, Long>();
+        List<String> failedPaths = new ArrayList<String>();
+        for (Map.Entry<String, Future<Long>> task : tasks.entrySet()) {
+            try {
+                compileTimes.put(task.getKey(), task.getValue().get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while waiting for the jsp warmup.", e);
+            } catch (ExecutionException e) {
+                LOGGER.logWarn("jsp warmup failed. path = [" + task.getKey() + "]", e.getCause());
+                compileTimes.put(task.getKey(), -1L);
+                failedPaths.add(task.getKey());
+            }
+        }
+        try {
+            executor.awaitTermination(1L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        report = new JspWarmupReport(compileTimes, failedPaths, System.currentTimeMillis() - startTime);
+        LOGGER.logInfo(report.toString());
+        return report;
+    }
+}
@@ -0,0 +1,47 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.IOException;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * JSPのウォームアップ要求を、Webフロントコントローラを経由せずにJSPへフォワードする{@link Filter}実装クラス。
+ *
+ * {@link JspWarmup#WARMUP_HEADER}ヘッダが付与されたリクエストのみを対象とし、
+ * ヘッダに指定されたJSPへ"jsp_precompile"パラメータを付与してフォワードすることで、JSPを実行せずにコンパイルのみを行う。
+ * サーバ内部でフォワードするため、クライアントから直接リクエストできない/WEB-INF/配下のJSPもコンパイルできる。
+ * それ以外のリクエストは後続のフィルタに処理を委譲する。
+ */
+class JspWarmupFilter implements Filter {
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest req = (HttpServletRequest) request;
+        if (req.getHeader(JspWarmup.WARMUP_HEADER) == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String path = req.getHeader(JspWarmup.WARMUP_HEADER);
+        if (!path.startsWith("/") || !path.endsWith(".jsp")) {
+            ((HttpServletResponse) response).sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        req.getRequestDispatcher(path + "?jsp_precompile=true").forward(request, response);
+    }
+
+    @Override
+    public void destroy() {
+    }
+}
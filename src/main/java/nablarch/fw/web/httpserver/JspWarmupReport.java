@@ -0,0 +1,96 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * JSPのウォームアップ結果。
+ *
+ * JSPごとのコンパイル時間と、コンパイルに失敗したJSPを保持する。
+ *
+ * @see HttpServerJetty9#awaitWarmup()
+ */
+@Published(tag = "architect")
+public class JspWarmupReport {
+
+    /** JSPごとのコンパイル時間（ミリ秒、降順） */
+    private final Map<String, Long> compileTimes;
+
+    /** コンパイルに失敗したJSP */
+    private final List<String> failedPaths;
+
+    /** ウォームアップ全体の所要時間（ミリ秒） */
+    private final long elapsedMillis;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param compileTimes JSPごとのコンパイル時間（ミリ秒）
+     * @param failedPaths コンパイルに失敗したJSP
+     * @param elapsedMillis ウォームアップ全体の所要時間（ミリ秒）
+     */
+    JspWarmupReport(Map<String, Long> compileTimes, List<String> failedPaths, long elapsedMillis) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<Map.Entry<String, Long>>(compileTimes.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<String, Long>>() {
+            @Override
+            public int compare(Map.Entry<String, Long> o1, Map.Entry<String, Long> o2) {
+                return o2.getValue().compareTo(o1.getValue());
+            }
+        });
+        Map<String, Long> sorted = new LinkedHashMap<String, Long>();
+        for (Map.Entry<String, Long> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        this.compileTimes = Collections.unmodifiableMap(sorted);
+        this.failedPaths = Collections.unmodifiableList(new ArrayList<String>(failedPaths));
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * JSPごとのコンパイル時間を取得する。
+     *
+     * @return JSPのパスとコンパイル時間（ミリ秒）のマップ（コンパイル時間の降順）
+     */
+    public Map<String, Long> getCompileTimes() {
+        return compileTimes;
+    }
+
+    /**
+     * コンパイルに失敗したJSPを取得する。
+     *
+     * @return コンパイルに失敗したJSPのパス
+     */
+    public List<String> getFailedPaths() {
+        return failedPaths;
+    }
+
+    /**
+     * ウォームアップ全体の所要時間を取得する。
+     *
+     * @return 所要時間（ミリ秒）
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("jsp warmup finished. jsp count = [").append(compileTimes.size())
+          .append("] failed = [").append(failedPaths.size())
+          .append("] elapsed = [").append(elapsedMillis).append("ms]");
+        for (Map.Entry<String, Long> entry : compileTimes.entrySet()) {
+            sb.append("\n\t").append(entry.getValue()).append("ms\t").append(entry.getKey());
+            if (failedPaths.contains(entry.getKey())) {
+                sb.append("\t(failed)");
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,117 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.httpserver.HandleTiming.Phase;
+
+/**
+ * 処理フェーズごとの処理時間を、リクエストパスごとに集計する{@link HandleTimingListener}実装クラス。
+ *
+ * 集計結果は{@link #toString()}で取得できるほか、登録先の{@link HttpServerJetty9}の停止時にINFOレベルでログ出力する。
+ */
+@Published(tag = "architect")
+public class PathTimingAggregator implements HandleTimingListener {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(PathTimingAggregator.class);
+
+    /** リクエストパスごとの集計結果 */
+    private final Map<String, PathStatistics> statistics = new TreeMap<String, PathStatistics>();
+
+    /**
+     * 集計結果をINFOレベルでログ出力する。
+     * <pre>
+     * 集計結果は破棄しない。
+     * 1件も集計していない場合は出力しない。
+     * </pre>
+     */
+    public void logStatistics() {
+        String result;
+        synchronized (this) {
+            if (statistics.isEmpty()) {
+                return;
+            }
+            result = toString();
+        }
+        LOGGER.logInfo(result);
+    }
+
+    @Override
+    public synchronized void onHandled(HandleTiming timing) {
+        String key = timing.getMethod() + " " + timing.getPath();
+        PathStatistics stats = statistics.get(key);
+        if (stats == null) {
+            stats = new PathStatistics();
+            statistics.put(key, stats);
+        }
+        stats.add(timing);
+    }
+
+    /**
+     * 集計結果を破棄する。
+     */
+    public synchronized void clear() {
+        statistics.clear();
+    }
+
+    /**
+     * 集計結果を表形式で返す。
+     * <pre>
+     * リクエストパスごとに、件数と各フェーズの平均・最大処理時間（ミリ秒）を出力する。
+     * </pre>
+     *
+     * @return 集計結果
+     */
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("request timing per path (avg/max ms).");
+        sb.append(String.format(Locale.ENGLISH, "%n\t%-40s %8s", "path", "count"));
+        for (Phase phase : Phase.values()) {
+            sb.append(String.format(Locale.ENGLISH, " %17s", phase.name().toLowerCase(Locale.ENGLISH)));
+        }
+        for (Map.Entry<String, PathStatistics> entry : statistics.entrySet()) {
+            PathStatistics stats = entry.getValue();
+            sb.append(String.format(Locale.ENGLISH, "%n\t%-40s %8d", entry.getKey(), stats.count));
+            for (Phase phase : Phase.values()) {
+                sb.append(String.format(Locale.ENGLISH, " %8.3f/%8.3f",
+                        stats.total[phase.ordinal()] / 1000000.0 / stats.count,
+                        stats.max[phase.ordinal()] / 1000000.0));
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * リクエストパスごとの集計結果。
+     */
+    private static class PathStatistics {
+
+        /** 件数 */
+        private long count;
+
+        /** フェーズごとの合計処理時間（ナノ秒） */
+        private final long[] total = new long[Phase.values().length];
+
+        /** フェーズごとの最大処理時間（ナノ秒） */
+        private final long[] max = new long[Phase.values().length];
+
+        /**
+         * 処理時間を加算する。
+         *
+         * @param timing 処理時間
+         */
+        void add(HandleTiming timing) {
+            count++;
+            for (Phase phase : Phase.values()) {
+                long nanos = timing.getNanos(phase);
+                total[phase.ordinal()] += nanos;
+                max[phase.ordinal()] = Math.max(max[phase.ordinal()], nanos);
+            }
+        }
+    }
+}
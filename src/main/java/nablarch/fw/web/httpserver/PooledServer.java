@@ -0,0 +1,152 @@
+package nablarch.fw.web.httpserver;
+
+import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.webapp.WebAppContext;
+
+/**
+ * {@link JettyServerPool}で保持される、起動済みの内蔵サーバ。
+ */
+class PooledServer {
+
+    /** アプリケーションサーバの実体 */
+    private final Server server;
+
+    /** 自動テスト実行用コネクター */
+    private final LocalConnector localConnector;
+
+    /** デプロイ済みのWebアプリケーションコンテキスト */
+    private final WebAppContext webApp;
+
+    /** Webフロントコントローラへの委譲フィルタ */
+    private final DelegatingFilter frontController;
+
+    /** 生存中のセッションの追跡 */
+    private final SessionTracker sessionTracker;
+
+    /** コンパイル済みJSPクラスのキャッシュ（使用しない場合はnull） */
+    private JspClassCache jspClassCache;
+
+    /** JSPのウォームアップ（実行しない場合はnull） */
+    private JspWarmup jspWarmup;
+
+    /** 貸し出し中か否か（{@link JettyServerPool}のロックで保護する） */
+    private boolean leased = false;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param server アプリケーションサーバの実体
+     * @param localConnector 自動テスト実行用コネクター
+     * @param webApp デプロイ済みのWebアプリケーションコンテキスト
+     * @param frontController Webフロントコントローラへの委譲フィルタ
+     * @param sessionTracker 生存中のセッションの追跡
+     */
+    PooledServer(Server server, LocalConnector localConnector, WebAppContext webApp,
+                 DelegatingFilter frontController, SessionTracker sessionTracker) {
+        this.server = server;
+        this.localConnector = localConnector;
+        this.webApp = webApp;
+        this.frontController = frontController;
+        this.sessionTracker = sessionTracker;
+    }
+
+    /**
+     * アプリケーションサーバの実体を取得する。
+     *
+     * @return アプリケーションサーバ
+     */
+    Server getServer() {
+        return server;
+    }
+
+    /**
+     * 自動テスト実行用コネクターを取得する。
+     *
+     * @return 自動テスト実行用コネクター
+     */
+    LocalConnector getLocalConnector() {
+        return localConnector;
+    }
+
+    /**
+     * デプロイ済みのWebアプリケーションコンテキストを取得する。
+     *
+     * @return Webアプリケーションコンテキスト
+     */
+    WebAppContext getWebApp() {
+        return webApp;
+    }
+
+    /**
+     * Webフロントコントローラへの委譲フィルタを取得する。
+     *
+     * @return 委譲フィルタ
+     */
+    DelegatingFilter getFrontController() {
+        return frontController;
+    }
+
+    /**
+     * 生存中のセッションの追跡を取得する。
+     *
+     * @return セッションの追跡
+     */
+    SessionTracker getSessionTracker() {
+        return sessionTracker;
+    }
+
+    /**
+     * コンパイル済みJSPクラスのキャッシュを取得する。
+     *
+     * @return キャッシュ（使用しない場合はnull）
+     */
+    JspClassCache getJspClassCache() {
+        return jspClassCache;
+    }
+
+    /**
+     * コンパイル済みJSPクラスのキャッシュを設定する。
+     *
+     * @param jspClassCache キャッシュ（使用しない場合はnull）
+     */
+    void setJspClassCache(JspClassCache jspClassCache) {
+        this.jspClassCache = jspClassCache;
+    }
+
+    /**
+     * JSPのウォームアップを取得する。
+     *
+     * @return ウォームアップ（実行しない場合はnull）
+     */
+    JspWarmup getJspWarmup() {
+        return jspWarmup;
+    }
+
+    /**
+     * JSPのウォームアップを設定する。
+     *
+     * @param jspWarmup ウォームアップ（実行しない場合はnull）
+     */
+    void setJspWarmup(JspWarmup jspWarmup) {
+        this.jspWarmup = jspWarmup;
+    }
+
+    /**
+     * 貸し出し中か否かを取得する。
+     *
+     * @return 貸し出し中の場合、真
+     */
+    boolean isLeased() {
+        return leased;
+    }
+
+    /**
+     * 貸し出し中か否かを設定する。
+     *
+     * @param leased 貸し出し中の場合、真
+     */
+    void setLeased(boolean leased) {
+        this.leased = leased;
+    }
+}
@@ -0,0 +1,23 @@
+package nablarch.fw.web.httpserver;
+
+import org.eclipse.jetty.webapp.WebAppContext;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * プールされた内蔵サーバを再度貸し出す際に、状態をリセットするためのフック。
+ *
+ * 前の貸し出し先で生成されたセッションは、本フックの起動前に破棄される。
+ * それ以外にリセットが必要な状態（コンテキスト属性等）がある場合に、
+ * 本インタフェースを実装して{@link JettyServerPool#addResetHook(PooledServerResetHook)}で登録する。
+ */
+@Published(tag = "architect")
+public interface PooledServerResetHook {
+
+    /**
+     * 内蔵サーバの状態をリセットする。
+     *
+     * @param webApp 再利用されるWebアプリケーションコンテキスト
+     */
+    void reset(WebAppContext webApp);
+}
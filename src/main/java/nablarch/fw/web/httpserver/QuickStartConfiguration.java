@@ -0,0 +1,84 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.annotations.AnnotationConfiguration;
+import org.eclipse.jetty.annotations.ServletContainerInitializersStarter;
+import org.eclipse.jetty.plus.annotation.ContainerInitializer;
+import org.eclipse.jetty.webapp.AbstractConfiguration;
+import org.eclipse.jetty.webapp.WebAppContext;
+
+/**
+ * {@link QuickStartDescriptor}を使用してデプロイを高速化する{@link org.eclipse.jetty.webapp.Configuration}実装クラス。
+ *
+ * 生成モードでは、{@link AnnotationConfiguration}の後に配置し、
+ * スキャン結果の{@link ContainerInitializer}を記述子に書き出す。
+ * 再生モードでは、{@link AnnotationConfiguration}の代わりに配置し、
+ * クラスパスをスキャンせずに記述子から{@link ContainerInitializer}を復元する。
+ */
+class QuickStartConfiguration extends AbstractConfiguration {
+
+    /** 記述子 */
+    private final QuickStartDescriptor descriptor;
+
+    /** 記述子を生成する場合、真（再生する場合、偽） */
+    private final boolean generate;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param descriptor 記述子
+     * @param generate 記述子を生成する場合、真（再生する場合、偽）
+     */
+    QuickStartConfiguration(QuickStartDescriptor descriptor, boolean generate) {
+        this.descriptor = descriptor;
+        this.generate = generate;
+    }
+
+    @Override
+    public void configure(WebAppContext context) throws Exception {
+        if (generate) {
+            writeDescriptor(context);
+        } else {
+            replayDescriptor(context);
+        }
+    }
+
+    /**
+     * スキャン結果を記述子に書き出す。
+     *
+     * @param context Webアプリケーションコンテキスト
+     */
+    @SuppressWarnings("unchecked")
+    private void writeDescriptor(WebAppContext context) {
+        List<ContainerInitializer> initializers =
+                (List<ContainerInitializer>) context.getAttribute(AnnotationConfiguration.CONTAINER_INITIALIZERS);
+        List<String> lines = new ArrayList<String>();
+        if (initializers != null) {
+            for (ContainerInitializer initializer : initializers) {
+                lines.add(initializer.toString());
+            }
+        }
+        descriptor.write(lines);
+    }
+
+    /**
+     * 記述子から{@link ContainerInitializer}を復元し、コンテキスト開始時に起動されるよう登録する。
+     *
+     * @param context Webアプリケーションコンテキスト
+     */
+    private void replayDescriptor(WebAppContext context) {
+        List<ContainerInitializer> initializers = new ArrayList<ContainerInitializer>();
+        for (String line : descriptor.read()) {
+            initializers.add(new ContainerInitializer(context.getClassLoader(), line));
+        }
+        if (initializers.isEmpty()) {
+            return;
+        }
+        context.setAttribute(AnnotationConfiguration.CONTAINER_INITIALIZERS, initializers);
+        ServletContainerInitializersStarter starter = new ServletContainerInitializersStarter(context);
+        context.setAttribute(AnnotationConfiguration.CONTAINER_INITIALIZER_STARTER, starter);
+        context.addBean(starter, true);
+    }
+}
@@ -0,0 +1,219 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.util.Jetty;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * クイックスタート用の事前計算済みデプロイ記述子。
+ *
+ * アノテーションスキャンによって検出された{@link javax.servlet.ServletContainerInitializer}と、
+ * その初期化対象となるクラスの一覧を保持する。
+ * 記述子のファイルは、WARベースパスとクラスパスのハッシュ値ごとに作成されるため、
+ * いずれかが変更された場合は再度スキャンが行われる。
+ */
+class QuickStartDescriptor {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(QuickStartDescriptor.class);
+
+    /** 記述子のファイル名 */
+    static final String FILE_NAME = "container-initializers.txt";
+
+    /** 記述子の文字コード */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 記述子のファイル */
+    private final File file;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param baseDirectory 記述子を格納するディレクトリ
+     * @param warBasePaths WARベースパス（実パス）
+     */
+    QuickStartDescriptor(File baseDirectory, List<String> warBasePaths) {
+        this.file = new File(new File(baseDirectory, hash(warBasePaths)), FILE_NAME);
+    }
+
+    /**
+     * 記述子が作成済みか否かを判定する。
+     *
+     * @return 作成済みの場合、真
+     */
+    boolean exists() {
+        return file.isFile();
+    }
+
+    /**
+     * 記述子のファイルを取得する。
+     *
+     * @return 記述子のファイル
+     */
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * 記述子を読み込む。
+     *
+     * @return {@link org.eclipse.jetty.plus.annotation.ContainerInitializer}の文字列表現のリスト
+     */
+    List<String> read() {
+        List<String> initializers = new ArrayList<String>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.length() != 0 && !line.startsWith("#")) {
+                    initializers.add(line);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to read the quickstart descriptor. path = [" + file + "]", e);
+        } finally {
+            closeQuietly(reader);
+        }
+        return initializers;
+    }
+
+    /**
+     * 記述子を書き込む。
+     *
+     * 並行して起動された他のJVMと競合しないよう、一時ファイルに書き込んだ後にリネームする。
+     * リネームに失敗した場合、一時ファイルはこのメソッド内で削除する。
+     *
+     * @param initializers {@link org.eclipse.jetty.plus.annotation.ContainerInitializer}の文字列表現のリスト
+     */
+    void write(List<String> initializers) {
+        File dir = file.getParentFile();
+        if (!dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IllegalStateException("failed to create the quickstart directory. path = [" + dir + "]");
+        }
+        File tmp = null;
+        Writer writer = null;
+        try {
+            tmp = File.createTempFile(FILE_NAME, ".tmp", dir);
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), UTF_8));
+            writer.write("# generated by " + HttpServerJetty9.class.getName() + ". jetty = " + Jetty.VERSION + "\n");
+            for (String initializer : initializers) {
+                writer.write(initializer);
+                writer.write('\n');
+            }
+            writer.close();
+            writer = null;
+            moveAtomically(tmp, file);
+        } catch (IOException e) {
+            throw new IllegalStateException("failed to write the quickstart descriptor. path = [" + file + "]", e);
+        } finally {
+            closeQuietly(writer);
+            if (tmp != null && tmp.exists() && !tmp.delete()) {
+                LOGGER.logWarn("failed to delete the temporary file. path = [" + tmp + "]");
+            }
+        }
+    }
+
+    /**
+     * ファイルをアトミックに移動する。
+     *
+     * @param src 移動元
+     * @param dest 移動先
+     * @throws IOException 入出力例外
+     */
+    static void moveAtomically(File src, File dest) throws IOException {
+        try {
+            Files.move(src.toPath(), dest.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(src.toPath(), dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * WARベースパスとクラスパスからハッシュ値を算出する。
+     * <pre>
+     * クラスパスは、Surefireのマニフェストのみを含むJARを展開したうえで、
+     * エントリの内容（サイズ・最終更新日時）から算出する（{@link ClasspathFingerprint#current()}）。
+     * このため、フォークごとに異なる一時JARでクラスパスが指定されても同じ値となり、
+     * クラスパス上のクラスが変更された場合は異なる値となる。
+     * クラスパスのハッシュ値はJVMごとにキャッシュされるため、デプロイのたびに走査しない。
+     * </pre>
+     *
+     * @param warBasePaths WARベースパス（実パス）
+     * @return ハッシュ値の16進文字列
+     */
+    static String hash(List<String> warBasePaths) {
+        MessageDigest digest = newDigest();
+        for (String path : warBasePaths) {
+            digest.update(path.getBytes(UTF_8));
+            digest.update((byte) 0);
+        }
+        digest.update(ClasspathFingerprint.current().getBytes(UTF_8));
+        digest.update((byte) 0);
+        digest.update(Jetty.VERSION.getBytes(UTF_8));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * SHA-256の{@link MessageDigest}を生成する。
+     *
+     * @return {@link MessageDigest}
+     */
+    static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * バイト配列を16進文字列に変換する。
+     *
+     * @param bytes バイト配列
+     * @return 16進文字列
+     */
+    static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 例外発生なしでクローズする。
+     *
+     * @param closeable クローズ対象
+     */
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            if (closeable != null) {
+                closeable.close();
+            }
+        } catch (Exception ignored) {  // SUPPRESS CHECKSTYLE
+            // NOP
+        }
+    }
+}
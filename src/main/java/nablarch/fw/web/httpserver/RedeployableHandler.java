@@ -0,0 +1,152 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Request;
+import org.eclipse.jetty.server.handler.HandlerWrapper;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * サーバを停止せずに、配下のハンドラ（Webアプリケーションコンテキスト）を差し替えるハンドラ。
+ *
+ * ハンドラごとに処理中のリクエスト数を数え、差し替え後は旧ハンドラの処理中リクエストが
+ * 完了するのを待機してから旧ハンドラを停止する。
+ * 非同期サーブレットのリクエストは、ハンドラから制御が戻った時点で完了したものとみなす。
+ */
+class RedeployableHandler extends HandlerWrapper {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(RedeployableHandler.class);
+
+    /** リクエストを処理中のハンドラ */
+    private volatile Generation current = new Generation(null);
+
+    @Override
+    public void setHandler(Handler handler) {
+        super.setHandler(handler);
+        current = new Generation(handler);
+    }
+
+    @Override
+    public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response)
+            throws IOException, ServletException {
+        Generation generation = enter();
+        try {
+            if (generation.handler == null) {
+                return;
+            }
+            generation.handler.handle(target, baseRequest, request, response);
+        } finally {
+            generation.exit();
+        }
+    }
+
+    /**
+     * 処理中のハンドラを取得し、処理中のリクエスト数を加算する。
+     * <pre>
+     * 加算する間に差し替えられた場合は、差し替え後のハンドラで再度試行する。
+     * </pre>
+     *
+     * @return 処理中のハンドラ
+     */
+    private Generation enter() {
+        while (true) {
+            Generation generation = current;
+            generation.active.incrementAndGet();
+            if (generation == current) {
+                return generation;
+            }
+            generation.exit();
+        }
+    }
+
+    /**
+     * ハンドラを差し替える。
+     * <pre>
+     * 新しいハンドラは起動済みであること。
+     * 差し替え後は、旧ハンドラの処理中リクエストが完了するまで最大で指定時間待機し、旧ハンドラを停止する。
+     * 旧ハンドラの停止に失敗した場合は、WARNレベルでログ出力する。
+     * </pre>
+     *
+     * @param next 新しいハンドラ
+     * @param drainTimeout 処理中リクエストの完了を待機する時間（ミリ秒）
+     * @return 処理中リクエストがすべて完了した場合、真
+     */
+    boolean swap(Handler next, long drainTimeout) {
+        Generation previous = current;
+        // 旧ハンドラはドレイン後に停止するため、差し替え時にコンテナから停止させない。
+        unmanage(previous.handler);
+        setHandler(next);
+        boolean drained = previous.await(drainTimeout);
+        try {
+            previous.handler.stop();
+        } catch (Exception e) {
+            LOGGER.logWarn("failed to stop the previous context.", e);
+        }
+        return drained;
+    }
+
+    /**
+     * ハンドラと、そのハンドラで処理中のリクエスト数。
+     */
+    private static class Generation {
+
+        /** ハンドラ */
+        private final Handler handler;
+
+        /** 処理中のリクエスト数 */
+        private final AtomicInteger active = new AtomicInteger();
+
+        /**
+         * コンストラクタ。
+         *
+         * @param handler ハンドラ
+         */
+        Generation(Handler handler) {
+            this.handler = handler;
+        }
+
+        /**
+         * リクエストの処理完了を記録する。
+         */
+        void exit() {
+            if (active.decrementAndGet() == 0) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+        }
+
+        /**
+         * 処理中のリクエストが完了するまで待機する。
+         *
+         * @param timeout 待機時間（ミリ秒）
+         * @return 処理中リクエストがすべて完了した場合、真
+         */
+        synchronized boolean await(long timeout) {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (active.get() > 0) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                try {
+                    wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.util.BufferUtil;
+
+import nablarch.fw.web.HttpRequest;
+
+/**
+ * {@link HttpRequest}を、{@link ByteBufferPool}から取得したバッファにHTTPメッセージとして書き込むクラス。
+ *
+ * リクエストライン・ヘッダ・ボディを、電文全体の文字列や中間のバイト配列を経由せずに
+ * 指定された文字コードでバッファへ直接エンコードする。
+ * 書き込みに使用したバッファは、送信完了後に{@link #release(ByteBuffer)}でプールに返却すること。
+ */
+class RequestSerializer {
+
+    /** 改行コード */
+    private static final String CRLF = "\r\n";
+
+    /** パラメータをボディとして送信する場合のContent-Type */
+    private static final String FORM_CONTENT_TYPE = "application/x-www-form-urlencoded";
+
+    /** 電文のエンコードに使用する文字コード */
+    private final Charset charset;
+
+    /** バッファの取得元 */
+    private final ByteBufferPool bufferPool;
+
+    /** ダイレクトバッファを使用するか否か */
+    private final boolean direct;
+
+    /**
+     * コンストラクタ。
+     * <pre>
+     * ヒープバッファを使用する。
+     * </pre>
+     *
+     * @param charset 電文のエンコードに使用する文字コード
+     * @param bufferPool バッファの取得元
+     */
+    RequestSerializer(Charset charset, ByteBufferPool bufferPool) {
+        this(charset, bufferPool, false);
+    }
+
+    /**
+     * コンストラクタ。
+     *
+     * @param charset 電文のエンコードに使用する文字コード
+     * @param bufferPool バッファの取得元
+     * @param direct ダイレクトバッファを使用する場合、真
+     */
+    RequestSerializer(Charset charset, ByteBufferPool bufferPool, boolean direct) {
+        this.charset = charset;
+        this.bufferPool = bufferPool;
+        this.direct = direct;
+    }
+
+    /**
+     * HTTPリクエストをバッファに書き込む。
+     * <pre>
+     * リクエストライン・ヘッダ・ボディを、電文全体の文字列を組み立てずに順にバッファへエンコードする。
+     * パラメータは、GET・HEADの場合はクエリ文字列、それ以外の場合はフォーム形式のボディとして書き込む。
+     * クッキーは1つの"Cookie"ヘッダにまとめて書き込む。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @return 電文を書き込んだバッファ（読み出しモード）
+     */
+    ByteBuffer serialize(HttpRequest req) {
+        return serialize(req, null);
+    }
+
+    /**
+     * HTTPリクエストに、保持しているクッキーを付与してバッファに書き込む。
+     * <pre>
+     * リクエストのクッキーと"Cookie"ヘッダをまとめた値に{@link CookieJar}のクッキーを付与し、
+     * 1つの"Cookie"ヘッダとして書き込む。それ以外は{@link #serialize(HttpRequest)}と同じである。
+     * </pre>
+     *
+     * @param req HTTPリクエスト
+     * @param cookieJar リクエストに付与するクッキー（付与しない場合はnull）
+     * @return 電文を書き込んだバッファ（読み出しモード）
+     */
+    ByteBuffer serialize(HttpRequest req, CookieJar cookieJar) {
+        String method = req.getMethod();
+        String uri = req.getRequestUri();
+        List<String> params = encodeParams(req.getParamMap());
+        // URLエンコードした文字列はASCIIのみのため、ASCII互換の文字コードでは文字数がそのままバイト数になる
+        int contentLength = params.isEmpty() ? 0 : params.size() - 1;
+        for (String param : params) {
+            contentLength += param.length();
+        }
+        boolean paramsInBody = !params.isEmpty() && !"GET".equals(method) && !"HEAD".equals(method);
+        if (!params.isEmpty()) {
+            int query = uri.indexOf('?');
+            uri = query < 0 ? uri : uri.substring(0, query);
+        }
+
+        MessageWriter writer = new MessageWriter(uri.length() + contentLength);
+        try {
+            writer.append(method).append(" ").append(uri);
+            if (!params.isEmpty() && !paramsInBody) {
+                writer.append("?").appendParams(params);
+            }
+            String version = req.getHttpVersion();
+            writer.append(" ").append(version == null ? HttpVersion.HTTP_1_1.asString() : version).append(CRLF);
+
+            String cookie = null;
+            boolean hasContentType = false;
+            for (Map.Entry<String, String> header : req.getHeaderMap().entrySet()) {
+                if (HttpHeader.CONTENT_LENGTH.is(header.getKey())) {
+                    continue;
+                }
+                if (HttpHeader.COOKIE.is(header.getKey())) {
+                    cookie = header.getValue();
+                    continue;
+                }
+                hasContentType |= HttpHeader.CONTENT_TYPE.is(header.getKey());
+                writer.appendHeader(header.getKey(), header.getValue());
+            }
+            cookie = joinCookie(cookie, req.getCookie());
+            if (cookieJar != null) {
+                cookie = cookieJar.applyTo(cookie);
+            }
+            if (cookie != null) {
+                writer.appendHeader(HttpHeader.COOKIE.asString(), cookie);
+            }
+            if (paramsInBody) {
+                if (!hasContentType) {
+                    writer.appendHeader(HttpHeader.CONTENT_TYPE.asString(), FORM_CONTENT_TYPE);
+                }
+                writer.appendHeader(HttpHeader.CONTENT_LENGTH.asString(), String.valueOf(contentLength));
+            }
+            writer.append(CRLF);
+            if (paramsInBody) {
+                writer.appendParams(params);
+            }
+            return writer.finish();
+        } catch (RuntimeException e) {
+            writer.discard();
+            throw e;
+        }
+    }
+
+    /**
+     * 文字列をバッファにエンコードする。
+     * <pre>
+     * 文字コードの平均バイト数から見積もった容量のバッファを取得し、
+     * 容量が不足した場合は、容量を倍にしたバッファに書き込み済みの内容を移して続きをエンコードする。
+     * </pre>
+     *
+     * @param message エンコードする文字列
+     * @return エンコード結果を格納したバッファ（読み出しモード）
+     */
+    ByteBuffer encode(CharSequence message) {
+        MessageWriter writer = new MessageWriter(message.length());
+        try {
+            return writer.append(message).finish();
+        } catch (RuntimeException e) {
+            writer.discard();
+            throw e;
+        }
+    }
+
+    /**
+     * サーバに読み込み済みのバッファをプールに返却する。
+     * <pre>
+     * {@link org.eclipse.jetty.server.LocalConnector}はバッファを複製せずに参照のまま入力キューに登録し、
+     * 読み込んだ分だけ読み出し位置を進める。
+     * 未読み込みのデータが残っているバッファは、入力キューから参照されている可能性があるため返却しない。
+     * （返却しなかったバッファはガベージコレクションで回収される。）
+     * </pre>
+     *
+     * @param buffer {@link #serialize(HttpRequest)}が返却したバッファ
+     * @return プールに返却した場合、真
+     */
+    boolean release(ByteBuffer buffer) {
+        if (buffer.hasRemaining()) {
+            return false;
+        }
+        bufferPool.release(buffer);
+        return true;
+    }
+
+    /**
+     * 明示的に指定された"Cookie"ヘッダの値と、リクエストのクッキーを連結する。
+     *
+     * @param explicit "Cookie"ヘッダの値（指定されていない場合はnull）
+     * @param cookie リクエストのクッキー
+     * @return 連結した値（クッキーが存在しない場合はnull）
+     */
+    private static String joinCookie(String explicit, Map<String, String> cookie) {
+        if (cookie == null || cookie.isEmpty()) {
+            return explicit;
+        }
+        StringBuilder sb = new StringBuilder();
+        if (explicit != null) {
+            sb.append(explicit);
+        }
+        for (Map.Entry<String, String> entry : cookie.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append("; ");
+            }
+            sb.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * パラメータを"名前=値"の形式でURLエンコードする。
+     *
+     * @param paramMap パラメータ
+     * @return URLエンコードした"名前=値"のリスト
+     */
+    private List<String> encodeParams(Map<String, String[]> paramMap) {
+        List<String> result = new ArrayList<String>();
+        try {
+            for (Map.Entry<String, String[]> param : paramMap.entrySet()) {
+                String name = URLEncoder.encode(param.getKey(), charset.name());
+                String[] values = param.getValue();
+                if (values == null || values.length == 0) {
+                    values = new String[] {""};
+                }
+                for (String value : values) {
+                    result.add(name + '=' + URLEncoder.encode(value == null ? "" : value, charset.name()));
+                }
+            }
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException("failed to encode http request parameter. charset = [" + charset + "]", e);
+        }
+        return result;
+    }
+
+    /**
+     * エンコードエラーを実行時例外として送出する。
+     *
+     * @param result エンコード結果
+     */
+    private void throwCodingException(CoderResult result) {
+        try {
+            result.throwException();
+        } catch (CharacterCodingException e) {
+            throw new IllegalStateException("failed to encode http request. charset = [" + charset + "]", e);
+        }
+    }
+
+    /**
+     * {@link ByteBufferPool}から取得したバッファに、文字列を順にエンコードして書き込むクラス。
+     * <pre>
+     * 容量が不足した場合は、容量を倍にしたバッファを取得し、書き込み済みの内容を移してから続きを書き込む。
+     * </pre>
+     */
+    private final class MessageWriter {
+
+        /** エンコーダ */
+        private final CharsetEncoder encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        /** 書き込み先のバッファ（書き込みモード） */
+        private ByteBuffer buffer;
+
+        /**
+         * コンストラクタ。
+         *
+         * @param estimatedChars 書き込む文字数の見積もり
+         */
+        MessageWriter(int estimatedChars) {
+            int capacity = Math.max(256, (int) Math.ceil(estimatedChars * encoder.averageBytesPerChar()));
+            buffer = bufferPool.acquire(capacity, direct);
+            BufferUtil.clearToFill(buffer);
+        }
+
+        /**
+         * 文字列をエンコードして書き込む。
+         *
+         * @param text 文字列
+         * @return 本インスタンス
+         */
+        MessageWriter append(CharSequence text) {
+            CharBuffer in = CharBuffer.wrap(text);
+            CoderResult result = encoder.encode(in, buffer, true);
+            while (result.isOverflow()) {
+                grow();
+                result = encoder.encode(in, buffer, true);
+            }
+            if (result.isUnderflow()) {
+                result = encoder.flush(buffer);
+                while (result.isOverflow()) {
+                    grow();
+                    result = encoder.flush(buffer);
+                }
+            }
+            if (!result.isUnderflow()) {
+                throwCodingException(result);
+            }
+            encoder.reset();
+            return this;
+        }
+
+        /**
+         * ヘッダを"名前: 値"の形式で書き込む。
+         *
+         * @param name ヘッダ名
+         * @param value ヘッダの値
+         * @return 本インスタンス
+         */
+        MessageWriter appendHeader(String name, String value) {
+            return append(name).append(": ").append(value == null ? "" : value).append(CRLF);
+        }
+
+        /**
+         * URLエンコードしたパラメータを"&amp;"で連結して書き込む。
+         *
+         * @param params URLエンコードした"名前=値"のリスト
+         * @return 本インスタンス
+         */
+        MessageWriter appendParams(List<String> params) {
+            for (int i = 0; i < params.size(); i++) {
+                if (i > 0) {
+                    append("&");
+                }
+                append(params.get(i));
+            }
+            return this;
+        }
+
+        /**
+         * 書き込みを終了し、バッファを読み出しモードに切り替えて返却する。
+         *
+         * @return 電文を書き込んだバッファ（読み出しモード）
+         */
+        ByteBuffer finish() {
+            BufferUtil.flipToFlush(buffer, 0);
+            return buffer;
+        }
+
+        /**
+         * 書き込みに失敗したバッファをプールに返却する。
+         */
+        void discard() {
+            bufferPool.release(buffer);
+        }
+
+        /**
+         * 容量を倍にしたバッファを取得し、書き込み済みの内容を移す。
+         */
+        private void grow() {
+            ByteBuffer larger = bufferPool.acquire(buffer.capacity() * 2, direct);
+            BufferUtil.clearToFill(larger);
+            buffer.flip();
+            larger.put(buffer);
+            bufferPool.release(buffer);
+            buffer = larger;
+        }
+    }
+}
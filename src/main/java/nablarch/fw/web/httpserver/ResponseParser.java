@@ -0,0 +1,232 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Locale;
+import java.util.Set;
+
+import org.eclipse.jetty.util.BufferUtil;
+
+import nablarch.fw.web.HttpResponse;
+
+/**
+ * ローカルコネクタが返却した応答電文を{@link HttpResponse}に変換するクラス。
+ *
+ * ボディが閾値以下の場合は、電文全体を{@link HttpResponse#parse(byte[])}で解析する。
+ * 閾値を超える場合は、ヘッダ部のみを解析し、ボディ（チャンク形式の場合は復号後の内容）を
+ * バッファから一時ファイルへ直接書き出して、{@link HttpResponse}のボディストリームとする。
+ */
+class ResponseParser {
+
+    /** ヘッダ部の文字コード */
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /** ヘッダ部の終端 */
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+
+    /** 一時ファイルに書き出すボディサイズの閾値（バイト） */
+    private final long spillThreshold;
+
+    /** 一時ファイルの出力先ディレクトリ */
+    private final File spillDirectory;
+
+    /** 作成した一時ファイルを登録する集合（サーバの停止時に削除される） */
+    private final Set<File> spillFiles;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param spillThreshold 一時ファイルに書き出すボディサイズの閾値（バイト）
+     * @param spillDirectory 一時ファイルの出力先ディレクトリ
+     * @param spillFiles 作成した一時ファイルを登録する集合（スレッドセーフであること）
+     */
+    ResponseParser(long spillThreshold, File spillDirectory, Set<File> spillFiles) {
+        this.spillThreshold = spillThreshold;
+        this.spillDirectory = spillDirectory;
+        this.spillFiles = spillFiles;
+    }
+
+    /**
+     * 応答電文を解析する。
+     *
+     * @param raw 応答電文（読み出しモード）
+     * @return HTTPレスポンス
+     * @throws IOException 一時ファイルへの書き出しに失敗した場合
+     */
+    HttpResponse parse(ByteBuffer raw) throws IOException {
+        int headerEnd = indexOf(raw, HEADER_END, raw.position());
+        if (headerEnd < 0 || raw.limit() - headerEnd - HEADER_END.length <= spillThreshold) {
+            return HttpResponse.parse(BufferUtil.toArray(raw));
+        }
+
+        String head = toString(raw, raw.position(), headerEnd);
+        ByteBuffer body = raw.duplicate();
+        body.position(headerEnd + HEADER_END.length);
+
+        StringBuilder header = new StringBuilder();
+        boolean chunked = false;
+        long contentLength = -1;
+        for (String line : head.split("\r\n")) {
+            int colon = line.indexOf(':');
+            String name = colon < 0 ? "" : line.substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+            if ("transfer-encoding".equals(name)) {
+                chunked = line.substring(colon + 1).toLowerCase(Locale.ENGLISH).contains("chunked");
+                continue;
+            }
+            if ("content-length".equals(name)) {
+                contentLength = Long.parseLong(line.substring(colon + 1).trim());
+                continue;
+            }
+            header.append(line).append("\r\n");
+        }
+        if (!chunked && contentLength >= 0 && contentLength < body.remaining()) {
+            body.limit(body.position() + (int) contentLength);
+        }
+
+        File file = createSpillFile();
+        long length;
+        try {
+            length = chunked ? writeChunked(body, file) : write(body, file);
+        } catch (IOException e) {
+            file.delete();
+            throw e;
+        } catch (RuntimeException e) {
+            file.delete();
+            throw e;
+        }
+
+        header.append("Content-Length: 0\r\n\r\n");
+        HttpResponse res = HttpResponse.parse(header.toString().getBytes(ISO_8859_1));
+        res.setHeader("Content-Length", String.valueOf(length));
+        res.setBodyStream(new SpilledBodyInputStream(file));
+        return res;
+    }
+
+    /**
+     * 一時ファイルに書き出すボディサイズの閾値を取得する。
+     *
+     * @return 閾値（バイト）
+     */
+    long getSpillThreshold() {
+        return spillThreshold;
+    }
+
+    /**
+     * レスポンスボディを書き出す一時ファイルを作成する。
+     * <pre>
+     * ボディのストリームがクローズされなかった場合もサーバの停止時に削除できるよう、
+     * 作成した一時ファイルを登録する。
+     * </pre>
+     *
+     * @return 一時ファイル
+     * @throws IOException 作成に失敗した場合
+     */
+    File createSpillFile() throws IOException {
+        File file = File.createTempFile("nablarch-jetty9-response", ".tmp", spillDirectory);
+        spillFiles.add(file);
+        return file;
+    }
+
+    /**
+     * ボディをそのまま一時ファイルに書き出す。
+     *
+     * @param body ボディ
+     * @param file 一時ファイル
+     * @return 書き出したバイト数
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private static long write(ByteBuffer body, File file) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = out.getChannel();
+            long length = body.remaining();
+            while (body.hasRemaining()) {
+                channel.write(body);
+            }
+            return length;
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * チャンク形式のボディを復号しながら一時ファイルに書き出す。
+     *
+     * @param body チャンク形式のボディ
+     * @param file 一時ファイル
+     * @return 書き出したバイト数
+     * @throws IOException 書き出しに失敗した場合
+     */
+    private static long writeChunked(ByteBuffer body, File file) throws IOException {
+        RandomAccessFile out = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = out.getChannel();
+            long length = 0;
+            byte[] crlf = {'\r', '\n'};
+            while (body.hasRemaining()) {
+                int lineEnd = indexOf(body, crlf, body.position());
+                if (lineEnd < 0) {
+                    throw new IOException("invalid chunked body. chunk size line is not terminated.");
+                }
+                String sizeLine = toString(body, body.position(), lineEnd);
+                int extension = sizeLine.indexOf(';');
+                int size = Integer.parseInt((extension < 0 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+                if (size == 0) {
+                    break;
+                }
+                ByteBuffer chunk = body.duplicate();
+                chunk.position(lineEnd + crlf.length);
+                chunk.limit(lineEnd + crlf.length + size);
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+                length += size;
+                body.position(Math.min(body.limit(), chunk.limit() + crlf.length));
+            }
+            return length;
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * バッファ内でバイト列が最初に出現する位置を返す。
+     *
+     * @param buffer バッファ
+     * @param target 検索するバイト列
+     * @param from 検索開始位置
+     * @return 出現位置（出現しない場合は-1）
+     */
+    private static int indexOf(ByteBuffer buffer, byte[] target, int from) {
+        int last = buffer.limit() - target.length;
+        outer:
+        for (int i = from; i <= last; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (buffer.get(i + j) != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    /**
+     * バッファの指定範囲を文字列に変換する。
+     *
+     * @param buffer バッファ
+     * @param from 開始位置
+     * @param to 終了位置（この位置は含まない）
+     * @return 文字列
+     */
+    private static String toString(ByteBuffer buffer, int from, int to) {
+        ByteBuffer range = buffer.duplicate();
+        range.position(from);
+        range.limit(to);
+        return ISO_8859_1.decode(range).toString();
+    }
+}
@@ -0,0 +1,495 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.util.BufferUtil;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.ExecutionContext;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+
+/**
+ * テストを実行するJVMとは別のJVMで、{@link HttpServerJetty9}をテストモードで常駐させるデーモン。
+ *
+ * Surefireのフォークごとにサーバを起動・デプロイせず、常駐したサーバを複数のテストJVMで共有するために使用する。
+ * デーモンはループバックアドレスで待ち受け、テストJVMから受信したHTTPリクエストの電文と
+ * 実行コンテキストの値を処理し、応答電文と処理後の実行コンテキストの値を返却する。
+ *
+ * 起動したデーモンの接続情報（ポート番号、接続用のトークン、クラスパスのハッシュ値）は、
+ * 状態ディレクトリのプロパティファイルに出力する。
+ * POSIXファイルシステムでは、トークンを他のユーザに読み取られないよう、
+ * 状態ディレクトリとその配下のファイルは所有者のみがアクセスできるパーミッションで作成する。
+ * テストJVMは、クラスパスのハッシュ値が一致しない場合（クラスやリソースが変更された場合）、
+ * デーモンを停止して起動しなおす。
+ * 一定時間リクエストがない場合、デーモンは自動的に終了する。
+ *
+ * 通常は{@link HttpServerJetty9#setDaemonServerProvider(String)}を設定することで、
+ * テストJVMから自動的に起動・接続されるため、直接使用する必要はない。
+ */
+@Published(tag = "architect")
+public final class ServerDaemon {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(ServerDaemon.class);
+
+    /** 接続情報を出力するファイル名 */
+    static final String STATE_FILE = "daemon.properties";
+
+    /** デーモンの起動を排他制御するためのファイル名 */
+    static final String LOCK_FILE = "daemon.lock";
+
+    /** デーモンの標準出力・標準エラー出力を出力するファイル名 */
+    static final String LOG_FILE = "daemon.log";
+
+    /** 接続情報のキー：ポート番号 */
+    static final String PORT = "port";
+
+    /** 接続情報のキー：接続用のトークン */
+    static final String TOKEN = "token";
+
+    /** 接続情報のキー：クラスパスのハッシュ値 */
+    static final String CLASSPATH_HASH = "classpathHash";
+
+    /** 接続情報のキー：サーバを構成するクラス名 */
+    static final String PROVIDER = "provider";
+
+    /** 文字コード */
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    /** 状態ディレクトリのパーミッション（所有者のみ読み書き・実行可能） */
+    private static final Set<PosixFilePermission> OWNER_ONLY_DIRECTORY = PosixFilePermissions.fromString("rwx------");
+
+    /** 状態ディレクトリ配下のファイルのパーミッション（所有者のみ読み書き可能） */
+    private static final Set<PosixFilePermission> OWNER_ONLY_FILE = PosixFilePermissions.fromString("rw-------");
+
+    /** アイドル状態を確認する間隔（ミリ秒） */
+    private static final int IDLE_CHECK_INTERVAL = 1000;
+
+    /** スレッド名の連番 */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** 常駐させるサーバ */
+    private final HttpServerJetty9 server;
+
+    /** 受信した実行コンテキストをサーバのハンドラキューに橋渡しするハンドラ */
+    private final DaemonContextHandler contextHandler;
+
+    /** 待ち受けソケット */
+    private final ServerSocket serverSocket;
+
+    /** 接続用のトークン */
+    private final String token = UUID.randomUUID().toString();
+
+    /** リクエストがない場合に終了するまでの時間（ミリ秒） */
+    private final long idleTimeout;
+
+    /** 接続中のクライアント数 */
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /** 最後にリクエストを処理した時刻（{@link System#currentTimeMillis()}） */
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    /** 待ち受け中か否か */
+    private volatile boolean running = true;
+
+    /**
+     * コンストラクタ。
+     * <pre>
+     * ループバックアドレスの空きポートで待ち受けを開始する。
+     * </pre>
+     *
+     * @param server 起動済みのサーバ
+     * @param contextHandler サーバのハンドラキューに設定した{@link DaemonContextHandler}
+     * @param idleTimeout リクエストがない場合に終了するまでの時間（ミリ秒）
+     * @throws IOException 待ち受けを開始できない場合
+     */
+    ServerDaemon(HttpServerJetty9 server, DaemonContextHandler contextHandler, long idleTimeout) throws IOException {
+        this.server = server;
+        this.contextHandler = contextHandler;
+        this.idleTimeout = idleTimeout;
+        serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        serverSocket.setSoTimeout(IDLE_CHECK_INTERVAL);
+    }
+
+    /**
+     * デーモンを起動する。
+     * <pre>
+     * 引数は以下の順に指定する。
+     *   1. {@link DaemonServerProvider}の実装クラス名
+     *   2. 状態ディレクトリのパス
+     *   3. クラスパスのハッシュ値
+     *   4. リクエストがない場合に終了するまでの時間（ミリ秒）
+     * </pre>
+     *
+     * @param args 引数
+     * @throws Exception 起動に失敗した場合
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 4) {
+            throw new IllegalArgumentException(
+                    "usage: ServerDaemon <provider class> <state directory> <classpath hash> <idle timeout>");
+        }
+        DaemonServerProvider provider = (DaemonServerProvider) Class.forName(args[0]).getDeclaredConstructor().newInstance();
+        HttpServerJetty9 server = provider.createServer();
+        server.setLazyStartEnabled(false);
+        server.setDaemonServerProvider(null);
+        DaemonContextHandler contextHandler = installContextHandler(server);
+        server.startLocal();
+
+        ServerDaemon daemon = new ServerDaemon(server, contextHandler, Long.parseLong(args[3]));
+        File stateDirectory = new File(args[1]);
+        daemon.publish(stateDirectory, args[2], args[0]);
+        try {
+            daemon.run();
+        } finally {
+            daemon.unpublish(stateDirectory);
+            server.stop();
+        }
+        System.exit(0);
+    }
+
+    /**
+     * サーバのハンドラキューに{@link DaemonContextHandler}を設定する。
+     * <pre>
+     * {@link HttpRequestTestSupportHandler}は、テストJVMの実行コンテキストを参照できないため、
+     * {@link DaemonContextHandler}に置き換える。含まれない場合は、ハンドラキューの先頭に追加する。
+     * </pre>
+     *
+     * @param server サーバ
+     * @return 設定したハンドラ
+     */
+    static DaemonContextHandler installContextHandler(HttpServerJetty9 server) {
+        DaemonContextHandler contextHandler = new DaemonContextHandler();
+        int index = 0;
+        for (int i = server.getHandlerQueue().size() - 1; i >= 0; i--) {
+            if (server.getHandlerQueue().get(i) instanceof HttpRequestTestSupportHandler) {
+                server.getHandlerQueue().remove(i);
+                index = i;
+            }
+        }
+        server.getHandlerQueue().add(index, contextHandler);
+        return contextHandler;
+    }
+
+    /**
+     * 状態ディレクトリに出力されたデーモンを停止する。
+     * <pre>
+     * ビルドの終了時等に、常駐しているデーモンを停止する場合に使用する。
+     * デーモンが起動していない場合は何もしない。
+     * </pre>
+     *
+     * @param stateDirectory 状態ディレクトリのパス
+     */
+    public static void stop(String stateDirectory) {
+        Properties state = readState(new File(stateDirectory));
+        if (state == null) {
+            return;
+        }
+        try {
+            DaemonClient client = DaemonClient.open(state);
+            try {
+                client.shutdown();
+            } finally {
+                client.close();
+            }
+        } catch (IOException e) {
+            // 既に停止している
+            LOGGER.logDebug("daemon is not running. state directory = [" + stateDirectory + "]");
+        }
+    }
+
+    /**
+     * 状態ディレクトリから接続情報を読み込む。
+     *
+     * @param stateDirectory 状態ディレクトリ
+     * @return 接続情報（存在しない場合はnull）
+     */
+    static Properties readState(File stateDirectory) {
+        File file = new File(stateDirectory, STATE_FILE);
+        if (!file.isFile()) {
+            return null;
+        }
+        Properties state = new Properties();
+        try {
+            InputStream in = new FileInputStream(file);
+            try {
+                state.load(in);
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            return null;
+        }
+        return state;
+    }
+
+    /**
+     * 状態ディレクトリを作成する。
+     * <pre>
+     * POSIXファイルシステムでは、所有者のみがアクセスできるパーミッションで作成する。
+     * 既に存在する場合も、パーミッションを所有者のみに変更する。
+     * 他のユーザが作成したディレクトリの場合は、パーミッションを変更できないため例外を送出する。
+     * </pre>
+     *
+     * @param stateDirectory 状態ディレクトリ
+     * @throws IOException 作成またはパーミッションの変更に失敗した場合
+     */
+    static void createStateDirectory(File stateDirectory) throws IOException {
+        Path path = stateDirectory.toPath();
+        if (!isPosix()) {
+            Files.createDirectories(path);
+            return;
+        }
+        if (!Files.isDirectory(path)) {
+            Files.createDirectories(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY_DIRECTORY));
+        }
+        Files.setPosixFilePermissions(path, OWNER_ONLY_DIRECTORY);
+    }
+
+    /**
+     * 状態ディレクトリ配下のファイルを、所有者のみがアクセスできるパーミッションで作成する。
+     * <pre>
+     * 既に存在する場合は、パーミッションを所有者のみに変更する。
+     * POSIXファイルシステムでない場合は何もしない。
+     * </pre>
+     *
+     * @param file ファイル
+     * @return 引数のファイル
+     * @throws IOException 作成またはパーミッションの変更に失敗した場合
+     */
+    static File createOwnerOnlyFile(File file) throws IOException {
+        if (!isPosix()) {
+            return file;
+        }
+        try {
+            Files.createFile(file.toPath(), PosixFilePermissions.asFileAttribute(OWNER_ONLY_FILE));
+        } catch (FileAlreadyExistsException e) {
+            Files.setPosixFilePermissions(file.toPath(), OWNER_ONLY_FILE);
+        }
+        return file;
+    }
+
+    /**
+     * デフォルトのファイルシステムがPOSIXのパーミッションをサポートするか否かを判定する。
+     *
+     * @return サポートする場合、真
+     */
+    private static boolean isPosix() {
+        return FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * 接続情報を状態ディレクトリに出力する。
+     * <pre>
+     * 読み込み途中のファイルを参照されないよう、一時ファイルに出力してからリネームする。
+     * 一時ファイルは、トークンを書き込む前に所有者のみがアクセスできるパーミッションで作成する。
+     * </pre>
+     *
+     * @param stateDirectory 状態ディレクトリ
+     * @param classpathHash クラスパスのハッシュ値
+     * @param provider サーバを構成するクラス名
+     * @throws IOException 出力に失敗した場合
+     */
+    void publish(File stateDirectory, String classpathHash, String provider) throws IOException {
+        createStateDirectory(stateDirectory);
+        Properties state = new Properties();
+        state.setProperty(PORT, String.valueOf(serverSocket.getLocalPort()));
+        state.setProperty(TOKEN, token);
+        state.setProperty(CLASSPATH_HASH, classpathHash);
+        state.setProperty(PROVIDER, provider);
+        File tmp = createOwnerOnlyFile(new File(stateDirectory, STATE_FILE + "." + UUID.randomUUID()));
+        OutputStream out = new FileOutputStream(tmp);
+        try {
+            state.store(out, "nablarch server daemon");
+        } finally {
+            out.close();
+        }
+        Files.move(tmp.toPath(), new File(stateDirectory, STATE_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        LOGGER.logInfo("server daemon started. port = [" + serverSocket.getLocalPort() + "]");
+    }
+
+    /**
+     * 状態ディレクトリの接続情報を削除する。
+     * <pre>
+     * 他のデーモンが接続情報を上書きしている場合は削除しない。
+     * </pre>
+     *
+     * @param stateDirectory 状態ディレクトリ
+     */
+    void unpublish(File stateDirectory) {
+        Properties state = readState(stateDirectory);
+        if (state != null && token.equals(state.getProperty(TOKEN))) {
+            new File(stateDirectory, STATE_FILE).delete();
+        }
+    }
+
+    /**
+     * 接続を受け付ける。
+     * <pre>
+     * 停止要求を受信するか、接続中のクライアントがない状態で
+     * アイドルタイムアウトを超えるまで、接続ごとにスレッドを生成して処理する。
+     * </pre>
+     *
+     * @throws IOException 待ち受けに失敗した場合
+     */
+    void run() throws IOException {
+        try {
+            while (running) {
+                final Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    if (connections.get() == 0 && System.currentTimeMillis() - lastAccess > idleTimeout) {
+                        LOGGER.logInfo("server daemon is idle. shutting down. idle timeout = [" + idleTimeout + "ms]");
+                        running = false;
+                    }
+                    continue;
+                }
+                connections.incrementAndGet();
+                Thread worker = new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            serve(socket);
+                        } finally {
+                            connections.decrementAndGet();
+                            lastAccess = System.currentTimeMillis();
+                        }
+                    }
+                }, "nablarch-server-daemon-" + THREAD_COUNT.incrementAndGet());
+                worker.setDaemon(true);
+                worker.start();
+            }
+        } finally {
+            serverSocket.close();
+        }
+    }
+
+    /**
+     * 1つの接続で受信した要求を、切断されるまで順に処理する。
+     * <pre>
+     * 最初に受信したトークンが一致しない場合は切断する。
+     * </pre>
+     *
+     * @param socket 接続
+     */
+    private void serve(Socket socket) {
+        try {
+            socket.setTcpNoDelay(true);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            if (!token.equals(in.readUTF())) {
+                LOGGER.logWarn("rejected a connection with an invalid token. remote = ["
+                        + socket.getRemoteSocketAddress() + "]");
+                return;
+            }
+            while (running) {
+                byte operation;
+                try {
+                    operation = in.readByte();
+                } catch (EOFException e) {
+                    return;
+                }
+                lastAccess = System.currentTimeMillis();
+                switch (operation) {
+                case DaemonProtocol.HANDLE:
+                    handle(in, out);
+                    break;
+                case DaemonProtocol.PING:
+                    out.writeByte(DaemonProtocol.OK);
+                    break;
+                case DaemonProtocol.SHUTDOWN:
+                    out.writeByte(DaemonProtocol.OK);
+                    out.flush();
+                    LOGGER.logInfo("server daemon received a shutdown request.");
+                    running = false;
+                    return;
+                default:
+                    throw new IOException("unknown operation. operation = [" + operation + "]");
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            LOGGER.logWarn("connection closed unexpectedly.", e);
+        } finally {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // 切断済み
+            }
+        }
+    }
+
+    /**
+     * リクエストの処理要求を処理する。
+     * <pre>
+     * 受信した実行コンテキストの値を{@link DaemonContextHandler}経由でサーバ側の実行コンテキストに引き継いでリクエストを処理し、
+     * 応答電文と、サーバ側での処理結果を反映した実行コンテキストの値を返却する。
+     * 処理に失敗した場合は、例外のスタックトレースを返却する。
+     * </pre>
+     *
+     * @param in 入力元
+     * @param out 出力先
+     * @throws IOException 通信に失敗した場合
+     */
+    private void handle(DataInputStream in, DataOutputStream out) throws IOException {
+        byte[] rawRequest = DaemonProtocol.readBytes(in);
+        String requestLine = in.readUTF();
+        ExecutionContext context = new ExecutionContext();
+        DaemonProtocol.readContext(in, context);
+        ByteBuffer response;
+        String contextId = contextHandler.register(context);
+        try {
+            response = server.dispatchRaw(DaemonContextHandler.withContextId(rawRequest, contextId),
+                    requestLine, context);
+            if (response == null) {
+                throw new IllegalStateException("no response was returned. request line = [" + requestLine + "]");
+            }
+        } catch (Exception e) {
+            StringWriter trace = new StringWriter();
+            e.printStackTrace(new PrintWriter(trace));
+            out.writeByte(DaemonProtocol.ERROR);
+            DaemonProtocol.writeBytes(out, trace.toString().getBytes(UTF_8));
+            return;
+        } finally {
+            contextHandler.unregister(contextId);
+        }
+        out.writeByte(DaemonProtocol.OK);
+        DaemonProtocol.writeBytes(out, BufferUtil.toArray(response));
+        DaemonProtocol.writeContext(out, context);
+    }
+}
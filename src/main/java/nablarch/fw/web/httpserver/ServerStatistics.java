@@ -0,0 +1,127 @@
+package nablarch.fw.web.httpserver;
+
+import org.eclipse.jetty.server.handler.StatisticsHandler;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * 組み込みサーバが処理したリクエストの統計情報。
+ *
+ * 取得時点の{@link StatisticsHandler}の値を保持する。
+ * 統計情報はサーバの起動（再起動を含む）時にリセットされる。
+ *
+ * @see HttpServerJetty9#getServerStatistics()
+ */
+@Published(tag = "architect")
+public class ServerStatistics {
+
+    /** 処理したリクエスト数 */
+    private final int requests;
+
+    /** 処理中のリクエスト数 */
+    private final int requestsActive;
+
+    /** 同時に処理したリクエストの最大数 */
+    private final int requestsActiveMax;
+
+    /** リクエストの最大処理時間（ミリ秒） */
+    private final long requestTimeMax;
+
+    /** リクエストの平均処理時間（ミリ秒） */
+    private final double requestTimeMean;
+
+    /** ステータスコードが5xxのレスポンス数 */
+    private final int responses5xx;
+
+    /** レスポンスボディの合計バイト数 */
+    private final long responsesBytesTotal;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param handler 統計情報を収集した{@link StatisticsHandler}
+     */
+    ServerStatistics(StatisticsHandler handler) {
+        this.requests = handler.getRequests();
+        this.requestsActive = handler.getRequestsActive();
+        this.requestsActiveMax = handler.getRequestsActiveMax();
+        this.requestTimeMax = handler.getRequestTimeMax();
+        this.requestTimeMean = handler.getRequestTimeMean();
+        this.responses5xx = handler.getResponses5xx();
+        this.responsesBytesTotal = handler.getResponsesBytesTotal();
+    }
+
+    /**
+     * 処理したリクエスト数を取得する。
+     *
+     * @return リクエスト数
+     */
+    public int getRequests() {
+        return requests;
+    }
+
+    /**
+     * 取得時点で処理中のリクエスト数を取得する。
+     *
+     * @return リクエスト数
+     */
+    public int getRequestsActive() {
+        return requestsActive;
+    }
+
+    /**
+     * 同時に処理したリクエストの最大数を取得する。
+     *
+     * @return リクエスト数
+     */
+    public int getRequestsActiveMax() {
+        return requestsActiveMax;
+    }
+
+    /**
+     * リクエストの最大処理時間を取得する。
+     *
+     * @return 最大処理時間（ミリ秒）
+     */
+    public long getRequestTimeMax() {
+        return requestTimeMax;
+    }
+
+    /**
+     * リクエストの平均処理時間を取得する。
+     *
+     * @return 平均処理時間（ミリ秒）
+     */
+    public double getRequestTimeMean() {
+        return requestTimeMean;
+    }
+
+    /**
+     * ステータスコードが5xxのレスポンス数を取得する。
+     *
+     * @return レスポンス数
+     */
+    public int getResponses5xx() {
+        return responses5xx;
+    }
+
+    /**
+     * レスポンスボディの合計バイト数を取得する。
+     *
+     * @return 合計バイト数
+     */
+    public long getResponsesBytesTotal() {
+        return responsesBytesTotal;
+    }
+
+    @Override
+    public String toString() {
+        return "server statistics. requests = [" + requests
+                + "] active = [" + requestsActive
+                + "] active max = [" + requestsActiveMax
+                + "] time max = [" + requestTimeMax
+                + "ms] time mean = [" + requestTimeMean
+                + "ms] 5xx = [" + responses5xx
+                + "] bytes = [" + responsesBytesTotal + "]";
+    }
+}
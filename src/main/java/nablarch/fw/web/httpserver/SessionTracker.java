@@ -0,0 +1,53 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.servlet.http.HttpSession;
+import javax.servlet.http.HttpSessionEvent;
+import javax.servlet.http.HttpSessionListener;
+
+/**
+ * 生存中の{@link HttpSession}を追跡する{@link HttpSessionListener}実装クラス。
+ *
+ * プールされた内蔵サーバを別の貸し出し先に引き渡す際、
+ * 前の貸し出し先で生成されたセッションを破棄するために使用する。
+ */
+class SessionTracker implements HttpSessionListener {
+
+    /** 生存中のセッション */
+    private final Set<HttpSession> sessions =
+            ConcurrentHashMap.<HttpSession, Boolean>newKeySet();
+
+    @Override
+    public void sessionCreated(HttpSessionEvent se) {
+        sessions.add(se.getSession());
+    }
+
+    @Override
+    public void sessionDestroyed(HttpSessionEvent se) {
+        sessions.remove(se.getSession());
+    }
+
+    /**
+     * 生存中のすべてのセッションを無効化する。
+     *
+     * @return 無効化したセッションの数
+     */
+    int invalidateAll() {
+        List<HttpSession> targets = new ArrayList<HttpSession>(sessions);
+        int count = 0;
+        for (HttpSession session : targets) {
+            sessions.remove(session);
+            try {
+                session.invalidate();
+                count++;
+            } catch (IllegalStateException alreadyInvalidated) {
+                // 既に無効化されているセッションは対象外とする。
+            }
+        }
+        return count;
+    }
+}
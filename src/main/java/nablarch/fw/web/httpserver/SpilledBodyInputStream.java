@@ -0,0 +1,140 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+
+/**
+ * 一時ファイルに書き出されたレスポンスボディを読み込む{@link InputStream}実装クラス。
+ *
+ * ボディをヒープに展開せずにファイルから直接読み込む。
+ * {@link #reset()}によって何度でも読み直せるため、HTTPメッセージのダンプ出力後も
+ * テストコードからボディを先頭から参照できる。
+ * 一時ファイルは{@link #close()}の呼び出し時に削除する。
+ */
+class SpilledBodyInputStream extends InputStream {
+
+    /** 一時ファイル */
+    private final File file;
+
+    /** 一時ファイルの読み込み（未オープンまたはクローズ済みの場合はnull） */
+    private RandomAccessFile in;
+
+    /** マーク位置 */
+    private long mark = 0;
+
+    /** クローズ時に一時ファイルを削除するか否か */
+    private boolean deleteOnClose = true;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param file 一時ファイル
+     */
+    SpilledBodyInputStream(File file) {
+        this.file = file;
+    }
+
+    /**
+     * 一時ファイルを取得する。
+     *
+     * @return 一時ファイル
+     */
+    File getFile() {
+        return file;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return open().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        return open().read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        RandomAccessFile raf = open();
+        long position = raf.getFilePointer();
+        long skipped = Math.max(0, Math.min(n, raf.length() - position));
+        raf.seek(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        RandomAccessFile raf = open();
+        return (int) Math.min(Integer.MAX_VALUE, raf.length() - raf.getFilePointer());
+    }
+
+    @Override
+    public boolean markSupported() {
+        return true;
+    }
+
+    @Override
+    public synchronized void mark(int readlimit) {
+        try {
+            mark = in == null ? 0 : in.getFilePointer();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * マーク位置（マークしていない場合は先頭）に読み込み位置を戻す。
+     * 一時ファイルを削除せずにクローズした場合は、一時ファイルを開きなおす。
+     */
+    @Override
+    public synchronized void reset() throws IOException {
+        open().seek(mark);
+    }
+
+    /**
+     * 一時ファイルの読み込みを閉じ、一時ファイルを削除する。
+     * <pre>
+     * {@link #setDeleteOnClose(boolean)}で削除を抑止している場合は、一時ファイルを削除しない。
+     * </pre>
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            if (in != null) {
+                in.close();
+                in = null;
+            }
+        } finally {
+            if (deleteOnClose && file.exists() && !file.delete()) {
+                throw new IOException("failed to delete the temporary file. file = [" + file + "]");
+            }
+        }
+    }
+
+    /**
+     * クローズ時に一時ファイルを削除するか否かを設定する。
+     * <pre>
+     * HTTPメッセージのダンプ出力など、ボディを読み終えた後に再度参照する処理の間は削除を抑止する。
+     * </pre>
+     *
+     * @param deleteOnClose 削除する場合、真
+     */
+    synchronized void setDeleteOnClose(boolean deleteOnClose) {
+        this.deleteOnClose = deleteOnClose;
+    }
+
+    /**
+     * 一時ファイルを開く。
+     *
+     * @return 一時ファイルの読み込み
+     * @throws IOException 一時ファイルを開けない場合
+     */
+    private RandomAccessFile open() throws IOException {
+        if (in == null) {
+            in = new RandomAccessFile(file, "r");
+        }
+        return in;
+    }
+}
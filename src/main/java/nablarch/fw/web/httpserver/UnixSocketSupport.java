@@ -0,0 +1,96 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.server.ConnectionFactory;
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.unixsocket.UnixSocketConnector;
+
+/**
+ * UNIXドメインソケットで待ち受けるコネクタを生成するクラス。
+ *
+ * UNIXドメインソケットの実装（jetty-unixsocket）はオプショナルな依存関係のため、
+ * UNIXドメインソケットが有効な場合のみ本クラスを経由してロードする。
+ */
+final class UnixSocketSupport {
+
+    /** UNIXドメインソケットのコネクタのクラス名 */
+    private static final String CONNECTOR_CLASS_NAME = "org.eclipse.jetty.unixsocket.UnixSocketConnector";
+
+    /**
+     * プライベートコンストラクタ。
+     */
+    private UnixSocketSupport() {
+    }
+
+    /**
+     * UNIXドメインソケットで待ち受けるコネクタを生成する。
+     * <pre>
+     * 前回の起動時のソケットファイルが残っている場合は、待ち受けを開始できるよう削除する。
+     * </pre>
+     *
+     * @param server サーバ
+     * @param bufferPool バッファプール
+     * @param socketPath ソケットファイルのパス
+     * @param factories コネクションファクトリ
+     * @return コネクタ
+     * @throws IllegalStateException jetty-unixsocketがクラスパス上に存在しない場合
+     */
+    static Connector create(Server server, ByteBufferPool bufferPool, String socketPath,
+            ConnectionFactory... factories) {
+        assertAvailable();
+        File socketFile = new File(socketPath);
+        if (socketFile.exists() && !socketFile.delete()) {
+            throw new IllegalStateException("failed to delete stale unix socket file. path = [" + socketPath + "]");
+        }
+        return Factory.create(server, bufferPool, socketFile.getAbsolutePath(), factories);
+    }
+
+    /**
+     * jetty-unixsocketがクラスパス上に存在することを確認する。
+     *
+     * @throws IllegalStateException jetty-unixsocketがクラスパス上に存在しない場合
+     */
+    private static void assertAvailable() {
+        try {
+            Class.forName(CONNECTOR_CLASS_NAME, false, UnixSocketSupport.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new IllegalStateException(
+                    "unix domain socket requires org.eclipse.jetty:jetty-unixsocket in the classpath.", e);
+        }
+    }
+
+    /**
+     * UNIXドメインソケットのコネクタを生成するクラス。
+     * <pre>
+     * jetty-unixsocketのクラスへの参照をこのクラスに閉じ込め、
+     * クラスパス上に存在しない場合に{@link UnixSocketSupport}のロードが失敗しないようにする。
+     * </pre>
+     */
+    private static final class Factory {
+
+        /**
+         * プライベートコンストラクタ。
+         */
+        private Factory() {
+        }
+
+        /**
+         * UNIXドメインソケットのコネクタを生成する。
+         *
+         * @param server サーバ
+         * @param bufferPool バッファプール
+         * @param socketPath ソケットファイルの絶対パス
+         * @param factories コネクションファクトリ
+         * @return コネクタ
+         */
+        static Connector create(Server server, ByteBufferPool bufferPool, String socketPath,
+                ConnectionFactory... factories) {
+            UnixSocketConnector connector = new UnixSocketConnector(server, null, null, bufferPool, -1, factories);
+            connector.setUnixSocket(socketPath);
+            return connector;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package nablarch.fw.web.httpserver;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+
+/**
+ * WARのベースディレクトリ配下のファイルの変更を監視し、変更を検知した場合に再デプロイを実行するクラス。
+ *
+ * 保存時の連続した変更で再デプロイが繰り返されないよう、
+ * 変更が指定時間発生しなくなってから再デプロイを1回実行する。
+ * サブディレクトリも監視対象とし、新たに作成されたディレクトリは検知した時点で監視対象に加える。
+ */
+class WarChangeWatcher {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(WarChangeWatcher.class);
+
+    /** スレッド名の連番 */
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+
+    /** 監視サービス */
+    private final WatchService watchService;
+
+    /** 変更が発生しなくなってから再デプロイするまでの時間（ミリ秒） */
+    private final long quietPeriod;
+
+    /** 変更を検知した場合に実行する処理 */
+    private final Runnable redeploy;
+
+    /** 監視スレッド */
+    private final Thread watcher;
+
+    /**
+     * コンストラクタ。
+     * <pre>
+     * 指定されたディレクトリのうち、存在するものを監視対象とし、監視スレッドを開始する。
+     * </pre>
+     *
+     * @param directories 監視対象のディレクトリ
+     * @param quietPeriod 変更が発生しなくなってから再デプロイするまでの時間（ミリ秒）
+     * @param redeploy 変更を検知した場合に実行する処理
+     */
+    WarChangeWatcher(List<File> directories, long quietPeriod, Runnable redeploy) {
+        this.quietPeriod = quietPeriod;
+        this.redeploy = redeploy;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (File directory : directories) {
+                if (directory.isDirectory()) {
+                    registerAll(directory.toPath());
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("failed to watch war base directories. directories = " + directories, e);
+        }
+        watcher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                watch();
+            }
+        }, "nablarch-war-watcher-" + THREAD_COUNT.incrementAndGet());
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * 監視を終了する。
+     */
+    void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            LOGGER.logWarn("failed to close the watch service.", e);
+        }
+        watcher.interrupt();
+    }
+
+    /**
+     * 変更を監視する。
+     * <pre>
+     * 変更を検知した後、変更が発生しなくなるまで待機してから再デプロイを実行する。
+     * </pre>
+     */
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                handleEvents(key);
+                while ((key = watchService.poll(quietPeriod, TimeUnit.MILLISECONDS)) != null) {
+                    handleEvents(key);
+                }
+                try {
+                    redeploy.run();
+                } catch (RuntimeException e) {
+                    LOGGER.logWarn("failed to redeploy the web application.", e);
+                }
+            }
+        } catch (InterruptedException e) {
+            // 監視の終了
+        } catch (ClosedWatchServiceException e) {
+            // 監視の終了
+        }
+    }
+
+    /**
+     * 検知したイベントを処理する。
+     * <pre>
+     * 作成されたディレクトリを監視対象に加える。
+     * </pre>
+     *
+     * @param key 監視キー
+     */
+    private void handleEvents(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() != StandardWatchEventKinds.ENTRY_CREATE) {
+                continue;
+            }
+            Path created = dir.resolve((Path) event.context());
+            if (Files.isDirectory(created)) {
+                try {
+                    registerAll(created);
+                } catch (IOException e) {
+                    LOGGER.logWarn("failed to watch the directory. directory = [" + created + "]", e);
+                }
+            }
+        }
+        key.reset();
+    }
+
+    /**
+     * ディレクトリとそのサブディレクトリを監視対象に加える。
+     *
+     * @param root ディレクトリ
+     * @throws IOException 監視対象に加えられなかった場合
+     */
+    private void registerAll(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package nablarch.fw.web.httpserver.load;
+
+import java.util.concurrent.TimeUnit;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * レイテンシの分布を記録するヒストグラム。
+ *
+ * 値の範囲を2のべき乗ごとに区切り、各区間を等幅のバケットに分割して記録する。
+ * 記録した値の相対誤差は2%未満となり、記録件数に関わらず使用するメモリは一定である。
+ * このクラスはスレッドセーフではない。ワーカスレッドごとに生成し、{@link #add(LatencyHistogram)}で集計すること。
+ */
+@Published(tag = "architect")
+public class LatencyHistogram {
+
+    /** 1区間あたりのバケット数 */
+    private static final int SUB_BUCKET_COUNT = 128;
+
+    /** 1区間あたりのバケット数の2進桁数 */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /** 区間の数（ナノ秒で2^63まで表現できる数） */
+    private static final int BUCKET_COUNT = 64 - SUB_BUCKET_BITS + 1;
+
+    /** バケットごとの記録件数 */
+    private final long[] counts = new long[BUCKET_COUNT * SUB_BUCKET_COUNT];
+
+    /** 記録件数 */
+    private long totalCount = 0;
+
+    /** 記録した値の合計（ナノ秒） */
+    private long totalNanos = 0;
+
+    /** 記録した値の最小値（ナノ秒） */
+    private long minNanos = Long.MAX_VALUE;
+
+    /** 記録した値の最大値（ナノ秒） */
+    private long maxNanos = 0;
+
+    /**
+     * レイテンシを記録する。
+     *
+     * @param nanos レイテンシ（ナノ秒）
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[indexOf(value)]++;
+        totalCount++;
+        totalNanos += value;
+        minNanos = Math.min(minNanos, value);
+        maxNanos = Math.max(maxNanos, value);
+    }
+
+    /**
+     * 他のヒストグラムの記録を加算する。
+     *
+     * @param other 加算するヒストグラム
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        totalNanos += other.totalNanos;
+        minNanos = Math.min(minNanos, other.minNanos);
+        maxNanos = Math.max(maxNanos, other.maxNanos);
+    }
+
+    /**
+     * 記録件数を取得する。
+     *
+     * @return 記録件数
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 指定されたパーセンタイルの値を取得する。
+     *
+     * @param percentile パーセンタイル（0～100）
+     * @return パーセンタイル値（ナノ秒、記録がない場合は0）
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double p = Math.min(100.0, Math.max(0.0, percentile));
+        long rank = Math.max(1, (long) Math.ceil(p / 100.0 * totalCount));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(maxNanos, highestValueOf(i));
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * 平均値を取得する。
+     *
+     * @return 平均値（ナノ秒、記録がない場合は0）
+     */
+    public long getMeanNanos() {
+        return totalCount == 0 ? 0 : totalNanos / totalCount;
+    }
+
+    /**
+     * 最小値を取得する。
+     *
+     * @return 最小値（ナノ秒、記録がない場合は0）
+     */
+    public long getMinNanos() {
+        return totalCount == 0 ? 0 : minNanos;
+    }
+
+    /**
+     * 最大値を取得する。
+     *
+     * @return 最大値（ナノ秒）
+     */
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * 指定されたパーセンタイルの値をマイクロ秒で取得する。
+     *
+     * @param percentile パーセンタイル（0～100）
+     * @return パーセンタイル値（マイクロ秒）
+     */
+    public long getMicrosAtPercentile(double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(getValueAtPercentile(percentile));
+    }
+
+    /**
+     * 値を記録するバケットの位置を返す。
+     *
+     * @param value 値
+     * @return バケットの位置
+     */
+    private static int indexOf(long value) {
+        int bucket = Math.max(0, 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+        int subBucket = (int) (value >>> bucket) & (SUB_BUCKET_COUNT - 1);
+        if (bucket > 0) {
+            // 2区間目以降は、先頭ビットが常に立つため上半分のみを使用する
+            subBucket |= SUB_BUCKET_COUNT >> 1;
+        }
+        return bucket * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * バケットに記録される値の上限を返す。
+     *
+     * @param index バケットの位置
+     * @return 上限値
+     */
+    private static long highestValueOf(int index) {
+        int bucket = index / SUB_BUCKET_COUNT;
+        long subBucket = index % SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+}
@@ -0,0 +1,181 @@
+package nablarch.fw.web.httpserver.load;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Locale;
+
+import nablarch.core.util.annotation.Published;
+
+/**
+ * {@link LoadRunner}による負荷試験の結果。
+ */
+@Published(tag = "architect")
+public class LoadReport {
+
+    /** 出力するパーセンタイル */
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+    /** ワーカスレッド数 */
+    private final int threads;
+
+    /** 送信したリクエスト数 */
+    private final long requestCount;
+
+    /** エラーとなったリクエスト数 */
+    private final long errorCount;
+
+    /** 計測期間（ナノ秒） */
+    private final long elapsedNanos;
+
+    /** レイテンシの分布 */
+    private final LatencyHistogram histogram;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param threads ワーカスレッド数
+     * @param requestCount 送信したリクエスト数
+     * @param errorCount エラーとなったリクエスト数
+     * @param elapsedNanos 計測期間（ナノ秒）
+     * @param histogram レイテンシの分布
+     */
+    LoadReport(int threads, long requestCount, long errorCount, long elapsedNanos, LatencyHistogram histogram) {
+        this.threads = threads;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.elapsedNanos = elapsedNanos;
+        this.histogram = histogram;
+    }
+
+    /**
+     * 送信したリクエスト数を取得する。
+     *
+     * @return リクエスト数
+     */
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * エラーとなったリクエスト数を取得する。
+     *
+     * @return エラー数
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * エラー率を取得する。
+     *
+     * @return エラー率（0～1）
+     */
+    public double getErrorRate() {
+        return requestCount == 0 ? 0.0 : (double) errorCount / requestCount;
+    }
+
+    /**
+     * 計測期間を取得する。
+     *
+     * @return 計測期間（ミリ秒）
+     */
+    public long getElapsedMillis() {
+        return elapsedNanos / 1000000L;
+    }
+
+    /**
+     * スループットを取得する。
+     *
+     * @return 1秒あたりのリクエスト数
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : requestCount * 1000000000.0 / elapsedNanos;
+    }
+
+    /**
+     * レイテンシの分布を取得する。
+     *
+     * @return レイテンシの分布
+     */
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * 結果をCSV形式（ヘッダ行と値の行）に変換する。
+     * <pre>
+     * レイテンシはマイクロ秒で出力する。
+     * </pre>
+     *
+     * @return CSV形式の結果
+     */
+    public String toCsv() {
+        StringBuilder header = new StringBuilder("threads,requests,errors,error_rate,elapsed_ms,throughput_rps,mean_us");
+        StringBuilder values = new StringBuilder()
+                .append(threads).append(',')
+                .append(requestCount).append(',')
+                .append(errorCount).append(',')
+                .append(String.format(Locale.ENGLISH, "%.6f", getErrorRate())).append(',')
+                .append(getElapsedMillis()).append(',')
+                .append(String.format(Locale.ENGLISH, "%.2f", getThroughput())).append(',')
+                .append(histogram.getMeanNanos() / 1000L);
+        for (double percentile : PERCENTILES) {
+            header.append(",p").append(label(percentile)).append("_us");
+            values.append(',').append(histogram.getMicrosAtPercentile(percentile));
+        }
+        header.append(",max_us");
+        values.append(',').append(histogram.getMaxNanos() / 1000L);
+        return header.append("\n").append(values).append("\n").toString();
+    }
+
+    /**
+     * 結果をCSV形式でファイルに出力する。
+     *
+     * @param file 出力先ファイル
+     * @throws IOException 出力に失敗した場合
+     */
+    public void writeCsv(File file) throws IOException {
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write(toCsv());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 結果を読みやすいテキスト形式で返す。
+     *
+     * @return テキスト形式の結果
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ENGLISH, "load test finished. threads = [%d] elapsed = [%dms]%n",
+                threads, getElapsedMillis()));
+        sb.append(String.format(Locale.ENGLISH, "\trequests   : %d%n", requestCount));
+        sb.append(String.format(Locale.ENGLISH, "\terrors     : %d (%.3f%%)%n", errorCount, getErrorRate() * 100));
+        sb.append(String.format(Locale.ENGLISH, "\tthroughput : %.2f req/s%n", getThroughput()));
+        sb.append(String.format(Locale.ENGLISH, "\tlatency    : mean %.3fms%n", histogram.getMeanNanos() / 1000000.0));
+        for (double percentile : PERCENTILES) {
+            sb.append(String.format(Locale.ENGLISH, "\t  p%-6s  : %.3fms%n",
+                    label(percentile), histogram.getValueAtPercentile(percentile) / 1000000.0));
+        }
+        sb.append(String.format(Locale.ENGLISH, "\t  max      : %.3fms", histogram.getMaxNanos() / 1000000.0));
+        return sb.toString();
+    }
+
+    /**
+     * パーセンタイルの表示名を返す。
+     *
+     * @param percentile パーセンタイル
+     * @return 表示名（例："50"、"99.9"）
+     */
+    private static String label(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+}
@@ -0,0 +1,186 @@
+package nablarch.fw.web.httpserver.load;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import nablarch.core.log.Logger;
+import nablarch.core.log.LoggerManager;
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.HttpRequest;
+
+/**
+ * 複数のワーカスレッドから{@link LoadTarget}にリクエストを送信し、スループットとレイテンシを計測するクラス。
+ *
+ * リクエストのテンプレートを先頭から順に繰り返し送信する。
+ * 計測は、指定されたリクエスト数を送信し終えるか、指定された時間が経過するまで行う。
+ * 送信時に例外が発生したリクエストと、ステータスコードが500以上のリクエストをエラーとして数える。
+ * <pre>
+ * 使用例：
+ *   HttpServerJetty9 server = new HttpServerJetty9();
+ *   server.setWarBasePath("classpath://...").setHandlerQueue(handlers).startLocal();
+ *   LoadReport report = new LoadRunner(new LocalLoadTarget(server), requests)
+ *           .setThreads(8)
+ *           .setDuration(30000)
+ *           .run();
+ *   System.out.println(report);
+ * </pre>
+ */
+@Published(tag = "architect")
+public class LoadRunner {
+
+    /** ロガー */
+    private static final Logger LOGGER = LoggerManager.get(LoadRunner.class);
+
+    /** リクエストの送信先 */
+    private final LoadTarget target;
+
+    /** リクエストのテンプレート */
+    private final List<HttpRequest> requests;
+
+    /** ワーカスレッド数 */
+    private int threads = 1;
+
+    /** 計測時間（ミリ秒、0の場合は時間で打ち切らない） */
+    private long duration = 0;
+
+    /** 送信するリクエスト数（0の場合は件数で打ち切らない） */
+    private long requestCount = 0;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param target リクエストの送信先
+     * @param requests リクエストのテンプレート
+     */
+    public LoadRunner(LoadTarget target, List<? extends HttpRequest> requests) {
+        if (requests.isEmpty()) {
+            throw new IllegalArgumentException("requests must not be empty.");
+        }
+        this.target = target;
+        this.requests = new ArrayList<HttpRequest>(requests);
+    }
+
+    /**
+     * ワーカスレッド数を設定する。
+     * <pre>
+     * デフォルトは1。
+     * </pre>
+     *
+     * @param threads ワーカスレッド数
+     * @return このオブジェクト自体
+     */
+    public LoadRunner setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be greater than 0. value = [" + threads + "]");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    /**
+     * 計測時間を設定する。
+     *
+     * @param duration 計測時間（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public LoadRunner setDuration(long duration) {
+        this.duration = duration;
+        return this;
+    }
+
+    /**
+     * 送信するリクエスト数を設定する。
+     *
+     * @param requestCount リクエスト数
+     * @return このオブジェクト自体
+     */
+    public LoadRunner setRequestCount(long requestCount) {
+        this.requestCount = requestCount;
+        return this;
+    }
+
+    /**
+     * 負荷をかけ、結果を返す。
+     *
+     * @return 負荷試験の結果
+     * @throws IllegalStateException 計測時間とリクエスト数のいずれも設定されていない場合
+     */
+    public LoadReport run() {
+        if (duration <= 0 && requestCount <= 0) {
+            throw new IllegalStateException("either duration or requestCount must be set.");
+        }
+        final AtomicLong issued = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicBoolean errorLogged = new AtomicBoolean();
+        final long start = System.nanoTime();
+        final long deadline = duration > 0 ? start + TimeUnit.MILLISECONDS.toNanos(duration) : Long.MAX_VALUE;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "load-runner-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        List<Future<LatencyHistogram>> workers = new ArrayList<Future<LatencyHistogram>>();
+        for (int i = 0; i < threads; i++) {
+            workers.add(executor.submit(new Callable<LatencyHistogram>() {
+                @Override
+                public LatencyHistogram call() {
+                    LatencyHistogram histogram = new LatencyHistogram();
+                    while (System.nanoTime() < deadline) {
+                        long n = issued.getAndIncrement();
+                        if (requestCount > 0 && n >= requestCount) {
+                            break;
+                        }
+                        HttpRequest req = requests.get((int) (n % requests.size()));
+                        long begin = System.nanoTime();
+                        try {
+                            if (target.send(req) >= 500) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            if (errorLogged.compareAndSet(false, true)) {
+                                LOGGER.logWarn("request failed during load test. "
+                                        + "subsequent failures are counted without logging.", e);
+                            }
+                        }
+                        histogram.record(System.nanoTime() - begin);
+                    }
+                    return histogram;
+                }
+            }));
+        }
+        executor.shutdown();
+
+        LatencyHistogram total = new LatencyHistogram();
+        try {
+            for (Future<LatencyHistogram> worker : workers) {
+                total.add(worker.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+            throw new IllegalStateException("interrupted while running the load test.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("load test worker failed.", e.getCause());
+        }
+        LoadReport report = new LoadReport(threads, total.getTotalCount(), errors.get(),
+                System.nanoTime() - start, total);
+        LOGGER.logInfo(report.toString());
+        return report;
+    }
+}
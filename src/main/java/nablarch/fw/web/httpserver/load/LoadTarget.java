@@ -0,0 +1,22 @@
+package nablarch.fw.web.httpserver.load;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.HttpRequest;
+
+/**
+ * {@link LoadRunner}がリクエストを送信する対象。
+ *
+ * 実装クラスは、複数のワーカスレッドから並行して呼び出されることを前提とすること。
+ */
+@Published(tag = "architect")
+public interface LoadTarget {
+
+    /**
+     * リクエストを送信し、レスポンスの受信を待機する。
+     *
+     * @param req HTTPリクエスト
+     * @return レスポンスのステータスコード
+     * @throws Exception 送信または受信に失敗した場合
+     */
+    int send(HttpRequest req) throws Exception;
+}
@@ -0,0 +1,30 @@
+package nablarch.fw.web.httpserver.load;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.httpserver.HttpServerJetty9;
+
+/**
+ * {@link HttpServerJetty9#startLocal()}で起動したサーバに、ローカルコネクタ経由でリクエストを送信する{@link LoadTarget}。
+ */
+@Published(tag = "architect")
+public class LocalLoadTarget implements LoadTarget {
+
+    /** リクエストの送信先 */
+    private final HttpServerJetty9 server;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param server {@link HttpServerJetty9#startLocal()}で起動したサーバ
+     */
+    public LocalLoadTarget(HttpServerJetty9 server) {
+        this.server = server;
+    }
+
+    @Override
+    public int send(HttpRequest req) {
+        return server.handle(req, new ExecutionContext()).getStatusCode();
+    }
+}
@@ -0,0 +1,128 @@
+package nablarch.fw.web.httpserver.load;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.Charset;
+
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.httpserver.HttpServerJetty9;
+
+/**
+ * {@link HttpServerJetty9#start()}で起動したサーバに、TCP接続でリクエストを送信する{@link LoadTarget}。
+ *
+ * リクエストごとに接続を確立し、"Connection: close"を付与して送信する。
+ * レスポンスは接続が切断されるまで読み捨てる。
+ */
+@Published(tag = "architect")
+public class SocketLoadTarget implements LoadTarget {
+
+    /** リクエストの文字コード */
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** 改行 */
+    private static final String CRLF = "\r\n";
+
+    /** 接続先のホスト */
+    private final String host;
+
+    /** 接続先のポート番号 */
+    private final int port;
+
+    /** 接続と読み込みのタイムアウト（ミリ秒） */
+    private int timeout = 30000;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param host 接続先のホスト
+     * @param port 接続先のポート番号
+     */
+    public SocketLoadTarget(String host, int port) {
+        this.host = host;
+        this.port = port;
+    }
+
+    /**
+     * 接続と読み込みのタイムアウトを設定する。
+     * <pre>
+     * デフォルトは30秒。
+     * </pre>
+     *
+     * @param timeout タイムアウト（ミリ秒）
+     * @return このオブジェクト自体
+     */
+    public SocketLoadTarget setTimeout(int timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    @Override
+    public int send(HttpRequest req) throws IOException {
+        byte[] message = toMessage(req, host).getBytes(UTF8);
+        Socket socket = new Socket();
+        try {
+            socket.setSoTimeout(timeout);
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), timeout);
+            OutputStream out = socket.getOutputStream();
+            out.write(message);
+            out.flush();
+            return readStatus(new BufferedInputStream(socket.getInputStream()));
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * HTTPリクエストを、接続を切断するリクエスト電文に変換する。
+     *
+     * @param req HTTPリクエスト
+     * @param host Hostヘッダが無い場合に付与するホスト
+     * @return リクエスト電文
+     */
+    static String toMessage(HttpRequest req, String host) {
+        String message = req.toString();
+        int lineEnd = message.indexOf(CRLF);
+        if (lineEnd < 0) {
+            return message + CRLF + "Host: " + host + CRLF + "Connection: close" + CRLF + CRLF;
+        }
+        String reqHost = req.getHost();
+        StringBuilder sb = new StringBuilder(message.length() + 64);
+        sb.append(message, 0, lineEnd + CRLF.length());
+        if (reqHost == null || reqHost.isEmpty()) {
+            sb.append("Host: ").append(host).append(CRLF);
+        }
+        sb.append("Connection: close").append(CRLF);
+        sb.append(message, lineEnd + CRLF.length(), message.length());
+        return sb.toString();
+    }
+
+    /**
+     * レスポンスのステータスコードを読み込み、残りを読み捨てる。
+     *
+     * @param in レスポンスの入力ストリーム
+     * @return ステータスコード
+     * @throws IOException ステータスラインが不正な場合
+     */
+    static int readStatus(InputStream in) throws IOException {
+        StringBuilder statusLine = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            statusLine.append((char) b);
+        }
+        byte[] buf = new byte[8192];
+        while (in.read(buf) != -1) {
+            // 接続が切断されるまで読み捨てる
+        }
+        String[] tokens = statusLine.toString().trim().split(" ");
+        if (tokens.length < 2 || !tokens[0].startsWith("HTTP/")) {
+            throw new IOException("invalid status line. status line = [" + statusLine + "]");
+        }
+        return Integer.parseInt(tokens[1]);
+    }
+}
@@ -0,0 +1,55 @@
+package nablarch.fw.web.httpserver.load;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+
+import jnr.unixsocket.UnixSocketAddress;
+import jnr.unixsocket.UnixSocketChannel;
+import nablarch.core.util.annotation.Published;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.httpserver.HttpServerJetty9;
+
+/**
+ * {@link HttpServerJetty9#setUnixSocketPath(String)}で待ち受けるUNIXドメインソケットに、
+ * リクエストを送信する{@link LoadTarget}。
+ *
+ * 同一ホスト上の負荷ドライバからTCPループバックを経由せずに送信するため、
+ * 小さなリクエストでの1件あたりのレイテンシを削減できる。
+ * {@link SocketLoadTarget}と同様に、リクエストごとに接続を確立し、"Connection: close"を付与して送信する。
+ * 使用するには、org.eclipse.jetty:jetty-unixsocketを依存関係に追加すること。
+ */
+@Published(tag = "architect")
+public class UnixSocketLoadTarget implements LoadTarget {
+
+    /** Hostヘッダが無い場合に付与するホスト */
+    private static final String HOST = "localhost";
+
+    /** 接続先のソケットファイル */
+    private final File socketFile;
+
+    /**
+     * コンストラクタ。
+     *
+     * @param socketPath 接続先のソケットファイルのパス
+     */
+    public UnixSocketLoadTarget(String socketPath) {
+        this.socketFile = new File(socketPath);
+    }
+
+    @Override
+    public int send(HttpRequest req) throws IOException {
+        byte[] message = SocketLoadTarget.toMessage(req, HOST).getBytes(SocketLoadTarget.UTF8);
+        UnixSocketChannel channel = UnixSocketChannel.open(new UnixSocketAddress(socketFile));
+        try {
+            OutputStream out = Channels.newOutputStream(channel);
+            out.write(message);
+            out.flush();
+            return SocketLoadTarget.readStatus(new BufferedInputStream(Channels.newInputStream(channel)));
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * HTTPダンプの非同期出力のテスト。
+ */
+public class AsyncDumpWriterTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 非同期に出力したダンプが、フラッシュ後にすべて出力されていること。
+     */
+    @Test
+    public void testAsyncDump() {
+        File dumpDir = new File("tmp/async_dump");
+        dumpDir.mkdirs();
+        HttpServerJetty9 server = servers.createSampleApp()
+                .setHttpDumpAsync(true)
+                .setHttpDumpQueueCapacity(2);
+        server.addHandler("/page", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200)
+                              .setContentType("text/html;charset=UTF-8")
+                              .write("<html><body>page</body></html>");
+                  }
+              })
+              .setHttpDumpEnabled(true)
+              .startLocal();
+
+        for (int i = 0; i < 10; i++) {
+            File dumpFile = new File(dumpDir, "page" + i + ".html");
+            dumpFile.delete();
+            HttpResponse res = server.handle(new MockHttpRequest("GET /page HTTP/1.1"), new ExecutionContext(),
+                    dumpFile.getPath());
+            assertThat(res.getStatusCode(), is(200));
+        }
+        server.flushHttpDump();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(new File(dumpDir, "page" + i + ".html").exists(), is(true));
+        }
+        HttpDumpStatistics statistics = server.getHttpDumpStatistics();
+        assertThat(statistics.getWrittenCount(), is(10L));
+        assertThat(statistics.getQueueDepth(), is(0));
+        assertThat(statistics.getMaxQueueDepth() <= 2, is(true));
+    }
+
+    /**
+     * 出力処理で発生した例外が、フラッシュ時に送出されること。
+     */
+    @Test
+    public void testFailure() {
+        AsyncDumpWriter writer = new AsyncDumpWriter(1);
+        writer.submit(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("dump failed");
+            }
+        });
+        try {
+            writer.flush();
+            fail();
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("dump failed"));
+        }
+        writer.close();
+        assertThat(writer.getStatistics().getWrittenCount(), is(1L));
+    }
+
+    /**
+     * サーバに設定された出力先とリクエスト単位の出力先が混在しても、それぞれの出力先に出力されること。
+     */
+    @Test
+    public void testMixedDumpPaths() throws Exception {
+        File dumpDir = new File("tmp/async_dump_mixed");
+        dumpDir.mkdirs();
+        File configured = new File(dumpDir, "configured.html");
+        configured.delete();
+        HttpServerJetty9 server = servers.createSampleApp()
+                .setHttpDumpAsync(true);
+        server.addHandler("/echo", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200)
+                              .setContentType("text/html;charset=UTF-8")
+                              .write("<html><body>" + req.getParam("value")[0] + "</body></html>");
+                  }
+              })
+              .setHttpDumpEnabled(true)
+              .setHttpDumpFilePath(configured.getPath());
+        server.startLocal();
+
+        for (int i = 0; i < 6; i++) {
+            MockHttpRequest req = new MockHttpRequest("GET /echo HTTP/1.1");
+            req.setParam("value", "value" + i);
+            if (i % 2 == 0) {
+                File perRequest = new File(dumpDir, "request" + i + ".html");
+                perRequest.delete();
+                server.handle(req, new ExecutionContext(), perRequest.getPath());
+            } else {
+                server.handle(req, new ExecutionContext());
+            }
+        }
+        server.flushHttpDump();
+
+        for (int i = 0; i < 6; i += 2) {
+            assertThat(read(new File(dumpDir, "request" + i + ".html")), containsString("value" + i));
+        }
+        assertThat(read(configured), containsString("value5"));
+        assertThat(server.getHttpDumpStatistics().getWrittenCount(), is(6L));
+    }
+
+    /**
+     * 出力処理がなくなったライタスレッドは終了し、再度の登録で起動すること。
+     */
+    @Test
+    public void testWriterStopsWhenIdle() throws Exception {
+        AsyncDumpWriter writer = new AsyncDumpWriter(1);
+        assertThat(writer.isWriterAlive(), is(false));
+        writer.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        writer.flush();
+
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (writer.isWriterAlive() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100L);
+        }
+        assertThat(writer.isWriterAlive(), is(false));
+
+        writer.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        });
+        writer.flush();
+        assertThat(writer.getStatistics().getWrittenCount(), is(2L));
+        writer.close();
+    }
+
+    /**
+     * 割り込みにより出力の完了を待機できなかった場合、クローズ時にライタスレッドへ割り込まず、
+     * 残りの出力処理が出力されること。
+     */
+    @Test
+    public void testCloseDoesNotInterruptPendingWrite() throws Exception {
+        AsyncDumpWriter writer = new AsyncDumpWriter(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicBoolean interrupted = new AtomicBoolean();
+        writer.submit(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            }
+        });
+
+        Thread.currentThread().interrupt();
+        writer.close();
+        assertThat(Thread.interrupted(), is(true));
+
+        release.countDown();
+        writer.flush();
+        assertThat(interrupted.get(), is(false));
+        assertThat(writer.getStatistics().getWrittenCount(), is(1L));
+        writer.close();
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+    }
+}
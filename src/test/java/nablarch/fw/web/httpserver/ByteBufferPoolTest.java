@@ -0,0 +1,84 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}のバッファプール設定のテスト。
+ */
+public class ByteBufferPoolTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 繰り返しリクエストを処理すると、プールされたバッファが再利用されること。
+     */
+    @Test
+    public void testArrayPool() {
+        HttpServerJetty9 server = servers.create()
+                .setByteBufferPoolMaxCapacity(128 * 1024)
+                .setDirectBuffersEnabled(true)
+                .startLocal();
+        assertThat(server.getConnectors()[0].getByteBufferPool(), instanceOf(CountingArrayByteBufferPool.class));
+        assertReused(server);
+    }
+
+    /**
+     * "mapped"を指定した場合、{@link org.eclipse.jetty.io.MappedByteBufferPool}が使用されること。
+     */
+    @Test
+    public void testMappedPool() {
+        HttpServerJetty9 server = servers.create()
+                .setByteBufferPoolType("mapped")
+                .startLocal();
+        assertThat(server.getConnectors()[0].getByteBufferPool(), instanceOf(CountingMappedByteBufferPool.class));
+        assertReused(server);
+    }
+
+    /**
+     * 未知のバッファプールの種類は設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownType() {
+        new HttpServerJetty9().setByteBufferPoolType("unknown");
+    }
+
+    /**
+     * サーバの起動前は統計情報を取得できないこと。
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testStatisticsBeforeStart() {
+        new HttpServerJetty9().getByteBufferPoolStatistics();
+    }
+
+    /**
+     * 繰り返しリクエストを処理し、プールされたバッファが再利用されることを確認する。
+     *
+     * @param server サーバ
+     */
+    private void assertReused(HttpServerJetty9 server) {
+        for (int i = 0; i < 20; i++) {
+            HttpResponse res = server.handle(new MockHttpRequest("GET /hello HTTP/1.1"), new ExecutionContext());
+            assertThat(res.getStatusCode(), is(200));
+        }
+        ByteBufferPoolStatistics stats = server.getByteBufferPoolStatistics();
+        assertThat(stats.getAcquireCount() >= 20, is(true));
+        assertThat(stats.getAllocationCount() < stats.getAcquireCount(), is(true));
+        assertThat(stats.getHitRate() > 0.0, is(true));
+        assertThat(stats.getRetainedHeapMemory() + stats.getRetainedDirectMemory() > 0, is(true));
+    }
+}
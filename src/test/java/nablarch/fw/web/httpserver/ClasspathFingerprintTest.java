@@ -0,0 +1,82 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * {@link ClasspathFingerprint}のテスト。
+ */
+public class ClasspathFingerprintTest {
+
+    /** クラスパスのエントリとして使用するディレクトリ */
+    private final File classesDir = new File("tmp/fingerprint/classes");
+
+    @Before
+    public void setUp() {
+        delete(classesDir);
+        classesDir.mkdirs();
+    }
+
+    @After
+    public void tearDown() {
+        delete(classesDir);
+    }
+
+    /**
+     * ディレクトリの最終更新日時が変わらない間はキャッシュした値を返し、
+     * 変わった場合は配下のファイルを含めて再計算すること。
+     */
+    @Test
+    public void testCacheKeyedOnDirectoryModified() throws Exception {
+        List<File> entries = Collections.singletonList(classesDir.getAbsoluteFile());
+        write(new File(classesDir, "A.class"), 1);
+        classesDir.setLastModified(1000000L);
+        String first = ClasspathFingerprint.of(entries);
+
+        // ディレクトリの最終更新日時が同じ場合は、配下のファイルを走査しない
+        write(new File(classesDir, "A.class"), 2);
+        classesDir.setLastModified(1000000L);
+        assertThat(ClasspathFingerprint.of(entries), is(first));
+
+        classesDir.setLastModified(2000000L);
+        assertThat(ClasspathFingerprint.of(entries), is(not(first)));
+    }
+
+    /**
+     * 現在のJVMのクラスパスから算出した値が、繰り返し取得しても変わらないこと。
+     */
+    @Test
+    public void testCurrent() {
+        assertThat(ClasspathFingerprint.current(), is(ClasspathFingerprint.current()));
+        assertThat(ClasspathFingerprint.currentEntries().isEmpty(), is(false));
+    }
+
+    private static void write(File file, int size) throws Exception {
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(new byte[size]);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
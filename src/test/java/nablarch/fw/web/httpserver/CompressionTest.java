@@ -0,0 +1,192 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.handler.ResourceMapping;
+
+/**
+ * {@link HttpServerJetty9}のレスポンス圧縮のテスト。
+ */
+public class CompressionTest {
+
+    /** WARのベースディレクトリ */
+    private File warBase;
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /** 待ち受けるポート番号 */
+    private int port;
+
+    /**
+     * WARのベースディレクトリを準備する。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Before
+    public void setUp() throws Exception {
+        warBase = new File("tmp/compression_war/");
+        warBase.mkdirs();
+        port = TestPorts.findFreePort();
+    }
+
+    /**
+     * サーバを停止する。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * 最小サイズ以上のHTMLがgzip圧縮されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testGzip() throws Exception {
+        char[] chars = new char[4096];
+        Arrays.fill(chars, 'a');
+        final String html = "<html><body>" + new String(chars) + "</body></html>";
+        server = new HttpServerJetty9();
+        server.setWarBasePath("file://" + warBase.getPath())
+              .setPort(port)
+              .addHandler("/page", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).setContentType("text/html;charset=UTF-8").write(html);
+                  }
+              })
+              .addHandler("/small", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).setContentType("text/html;charset=UTF-8").write("small");
+                  }
+              });
+        server.setGzipEnabled(true)
+              .setGzipMinSize(1024)
+              .setGzipMimeTypes("text/html, text/css")
+              .setGzipCompressionLevel(1)
+              .start();
+
+        HttpURLConnection con = open("/page");
+        assertThat(con.getResponseCode(), is(200));
+        assertThat(con.getHeaderField("Content-Encoding"), is("gzip"));
+        assertThat(new String(readAll(new GZIPInputStream(con.getInputStream())), "UTF-8"), is(html));
+
+        con = open("/small");
+        assertThat(con.getResponseCode(), is(200));
+        assertThat(con.getHeaderField("Content-Encoding"), nullValue());
+        assertThat(new String(readAll(con.getInputStream()), "UTF-8"), is("small"));
+    }
+
+    /**
+     * 圧縮済みの静的ファイルが存在する場合、そのまま返却されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testPrecompressed() throws Exception {
+        byte[] css = "body { color: black; }".getBytes("UTF-8");
+        write(new File(warBase, "style.css"), css);
+        ByteArrayOutputStream gz = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(gz);
+        out.write(css);
+        out.close();
+        write(new File(warBase, "style.css.gz"), gz.toByteArray());
+
+        server = new HttpServerJetty9();
+        server.setWarBasePath("file://" + warBase.getPath())
+              .setPort(port)
+              .addHandler("//*.css", new ResourceMapping("/", "servlet:///"));
+        server.setPrecompressedEnabled(true)
+              .start();
+
+        HttpURLConnection con = open("/style.css");
+        assertThat(con.getResponseCode(), is(200));
+        assertThat(con.getHeaderField("Content-Encoding"), is("gzip"));
+        assertThat(readAll(con.getInputStream()), is(gz.toByteArray()));
+    }
+
+    /**
+     * 範囲外の圧縮レベルは設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCompressionLevel() {
+        new HttpServerJetty9().setGzipCompressionLevel(10);
+    }
+
+    /**
+     * gzipを受け付けるリクエストを送信する。
+     *
+     * @param path リクエストパス
+     * @return 接続
+     * @throws IOException 送信に失敗した場合
+     */
+    private HttpURLConnection open(String path) throws IOException {
+        HttpURLConnection con = (HttpURLConnection) new URL("http://127.0.0.1:" + port + path).openConnection();
+        con.setRequestProperty("Accept-Encoding", "gzip");
+        return con;
+    }
+
+    /**
+     * ストリームをすべて読み込む。
+     *
+     * @param in 入力ストリーム
+     * @return 読み込んだバイト列
+     * @throws IOException 読み込みに失敗した場合
+     */
+    private static byte[] readAll(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buf = new byte[4096];
+            int n;
+            while ((n = in.read(buf)) != -1) {
+                out.write(buf, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * ファイルに書き込む。
+     *
+     * @param file ファイル
+     * @param content 内容
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void write(File file, byte[] content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+}
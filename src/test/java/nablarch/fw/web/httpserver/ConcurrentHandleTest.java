@@ -0,0 +1,147 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+
+/**
+ * 1つのサーバに対して{@link HttpServerJetty9#handle(HttpRequest, ExecutionContext)}を並行して呼び出すテスト。
+ */
+public class ConcurrentHandleTest {
+
+    /** スレッド数 */
+    private static final int THREADS = 8;
+
+    /** スレッドごとのリクエスト数 */
+    private static final int REQUESTS = 20;
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 並行して呼び出した場合でも、リクエストごとに正しいレスポンスとダンプが得られ、
+     * リクエストスコープとセッションスコープがリクエストごとに引き継がれること。
+     */
+    @Test
+    public void testConcurrentHandle() throws Exception {
+        final File dumpDir = new File("tmp/concurrent_dump");
+        dumpDir.mkdirs();
+        final HttpServerJetty9 server = servers.createSampleApp();
+        server.addHandler(new HttpRequestTestSupportHandler())
+              .addHandler("/echo", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      String value = req.getParam("value")[0];
+                      String sessionValue = ctx.getSessionScopedVar("sessionValue");
+                      ctx.setRequestScopedVar("echoed", value);
+                      ctx.setSessionScopedVar("sessionValue", sessionValue + "-changed");
+                      return new HttpResponse(200)
+                              .setContentType("text/html;charset=UTF-8")
+                              .write("<html><body>" + value + " " + sessionValue + "</body></html>");
+                  }
+              })
+              .setHttpDumpEnabled(true)
+              .startLocal();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<Void>> results = new ArrayList<Future<Void>>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            results.add(executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    for (int i = 0; i < REQUESTS; i++) {
+                        String value = "value-" + thread + "-" + i;
+                        MockHttpRequest req = new MockHttpRequest("GET /echo HTTP/1.1");
+                        req.setParam("value", value);
+                        ExecutionContext ctx = new ExecutionContext();
+                        ctx.setSessionScopedVar("sessionValue", "session-" + value);
+                        File dumpFile = new File(dumpDir, value + ".html");
+                        HttpResponse res = server.handle(req, ctx, dumpFile.getPath());
+                        assertThat(res.getStatusCode(), is(200));
+                        assertThat(res.getBodyString(), containsString(value + " session-" + value));
+                        assertThat(read(dumpFile), containsString(value));
+                        assertThat(ctx.<String>getRequestScopedVar("echoed"), is(value));
+                        assertThat(ctx.<String>getSessionScopedVar("sessionValue"), is("session-" + value + "-changed"));
+                    }
+                    return null;
+                }
+            }));
+        }
+        try {
+            for (Future<Void> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(server.getCompletionTimeoutCount(), is(0L));
+    }
+
+    /**
+     * 出力先を指定したリクエストの後に出力先を指定せずに呼び出した場合、
+     * サーバに設定された出力先にダンプが出力されること。
+     */
+    @Test
+    public void testDumpPathRestoredAfterPerRequestPath() throws Exception {
+        File dumpDir = new File("tmp/concurrent_dump");
+        dumpDir.mkdirs();
+        File configured = new File(dumpDir, "configured.html");
+        File perRequest = new File(dumpDir, "per-request.html");
+        configured.delete();
+        perRequest.delete();
+        HttpServerJetty9 server = servers.createSampleApp();
+        server.addHandler("/echo", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200)
+                              .setContentType("text/html;charset=UTF-8")
+                              .write("<html><body>" + req.getParam("value")[0] + "</body></html>");
+                  }
+              })
+              .setHttpDumpEnabled(true)
+              .setHttpDumpFilePath(configured.getPath());
+        server.startLocal();
+
+        MockHttpRequest first = new MockHttpRequest("GET /echo HTTP/1.1");
+        first.setParam("value", "first");
+        server.handle(first, new ExecutionContext(), perRequest.getPath());
+
+        MockHttpRequest second = new MockHttpRequest("GET /echo HTTP/1.1");
+        second.setParam("value", "second");
+        server.handle(second, new ExecutionContext());
+
+        assertThat(read(perRequest), containsString("first"));
+        assertThat(read(perRequest), not(containsString("second")));
+        assertThat(read(configured), containsString("second"));
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), Charset.forName("UTF-8"));
+    }
+}
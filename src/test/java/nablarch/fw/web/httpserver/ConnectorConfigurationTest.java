@@ -0,0 +1,99 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.LocalConnector;
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}のコネクタ設定のテスト。
+ */
+public class ConnectorConfigurationTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 設定がコネクタに反映され、出力バッファより大きなレスポンスが返却されること。
+     */
+    @Test
+    public void testLocalConnector() {
+        assertConfiguration(false);
+    }
+
+    /**
+     * HTTPパーサを経由しない場合も、設定がコネクタに反映され、出力バッファより大きなレスポンスが返却されること。
+     */
+    @Test
+    public void testLocalConnectorWithDirectDispatch() {
+        assertConfiguration(true);
+    }
+
+    /**
+     * 負のアイドルタイムアウトは設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeIdleTimeout() {
+        new HttpServerJetty9().setIdleTimeout(-1L);
+    }
+
+    /**
+     * セレクタ数に0は設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroSelectors() {
+        new HttpServerJetty9().setSelectors(0);
+    }
+
+    /**
+     * 設定がコネクタに反映され、出力バッファより大きなレスポンスが返却されることを確認する。
+     *
+     * @param directDispatch HTTPパーサを経由せずにリクエストを処理する場合、真
+     */
+    private void assertConfiguration(boolean directDispatch) {
+        char[] chars = new char[2 * 1024 * 1024];
+        Arrays.fill(chars, 'a');
+        final String body = new String(chars);
+
+        HttpServerJetty9 server = servers.createSampleApp();
+        server.addHandler("/large", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).write(body);
+                  }
+              });
+        server.setOutputBufferSize(1024)
+              .setRequestHeaderSize(16 * 1024)
+              .setResponseHeaderSize(16 * 1024)
+              .setIdleTimeout(60000L)
+              .setDirectDispatchEnabled(directDispatch)
+              .startLocal();
+
+        LocalConnector connector = (LocalConnector) server.getConnectors()[0];
+        HttpConfiguration config = connector.getConnectionFactory(HttpConnectionFactory.class).getHttpConfiguration();
+        assertThat(config.getOutputBufferSize(), is(1024));
+        assertThat(config.getRequestHeaderSize(), is(16 * 1024));
+        assertThat(config.getResponseHeaderSize(), is(16 * 1024));
+        assertThat(connector.getIdleTimeout(), is(60000L));
+
+        HttpResponse res = server.handle(new MockHttpRequest("GET /large HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString().length(), is(body.length()));
+    }
+}
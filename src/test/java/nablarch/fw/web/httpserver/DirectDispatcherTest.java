@@ -0,0 +1,218 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.util.Callback;
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link DirectDispatcher}のテスト。
+ */
+public class DirectDispatcherTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * ローカルコネクタ経由と同じレスポンスが返却されること。
+     */
+    @Test
+    public void testDispatch() {
+        startServer();
+
+        MockHttpRequest req = new MockHttpRequest("POST /app/greeting HTTP/1.1");
+        req.setParam("name", "Nablarch");
+        HttpResponse res = server.handle(req, new ExecutionContext());
+        assertThat(res.getStatusCode(), is(201));
+        assertThat(res.getBodyString(), containsString("Hello Nablarch"));
+
+        res = server.handle(new MockHttpRequest("GET /app/redirect HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(302));
+        assertThat(res.getLocation(), is("http://127.0.0.1/app/greeting"));
+    }
+
+    /**
+     * リクエストボディのパラメータ（マルチバイト文字、複数値を含む）がサーバに渡されること。
+     */
+    @Test
+    public void testRequestBody() {
+        startServer();
+
+        MockHttpRequest req = new MockHttpRequest("POST /app/echo HTTP/1.1");
+        req.setParam("value", "あいう", "a&b=c");
+        HttpResponse res = server.handle(req, new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString(), is("あいう,a&b=c"));
+
+        req = new MockHttpRequest("GET /app/echo HTTP/1.1");
+        req.setParam("value", "クエリ");
+        res = server.handle(req, new ExecutionContext());
+        assertThat(res.getBodyString(), is("クエリ"));
+    }
+
+    /**
+     * HEADリクエストの場合、ボディを含まないレスポンスが返却されること。
+     */
+    @Test
+    public void testHead() {
+        startServer();
+
+        HttpResponse res = server.handle(new MockHttpRequest("HEAD /app/echo?value=head HTTP/1.1"),
+                new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString(), is(""));
+    }
+
+    /**
+     * レスポンスが中断された場合、中断理由を原因とする例外が送出されること。
+     */
+    @Test
+    public void testAborted() throws Exception {
+        DirectDispatcher.CapturingTransport transport = createTransport();
+        IOException cause = new IOException("aborted");
+        transport.abort(cause);
+        try {
+            transport.awaitResponse(1000L, null);
+            fail("IllegalStateException must be thrown.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("response was aborted."));
+            assertThat(e.getCause(), is(sameInstance((Throwable) cause)));
+        }
+    }
+
+    /**
+     * レスポンスが待機時間内に完了しない場合、例外が送出されること。
+     */
+    @Test
+    public void testTimeout() throws Exception {
+        DirectDispatcher.CapturingTransport transport = createTransport();
+        transport.send(new MetaData.Response(HttpVersion.HTTP_1_1, 200, new HttpFields()), false,
+                ByteBuffer.wrap("partial".getBytes("UTF-8")), false, Callback.NOOP);
+        try {
+            transport.awaitResponse(100L, null);
+            fail("IllegalStateException must be thrown.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("response did not complete within the timeout. timeout = [100ms]"));
+        }
+    }
+
+    /**
+     * コミットされずに完了した場合、例外が送出されること。
+     */
+    @Test
+    public void testCompletedWithoutCommit() throws Exception {
+        DirectDispatcher.CapturingTransport transport = createTransport();
+        transport.onCompleted();
+        try {
+            transport.awaitResponse(1000L, null);
+            fail("IllegalStateException must be thrown.");
+        } catch (IllegalStateException e) {
+            assertThat(e.getMessage(), is("response was completed without being committed."));
+        }
+    }
+
+    /**
+     * 複数の"Set-Cookie"ヘッダがすべてクッキーに反映されること。
+     */
+    @Test
+    public void testMultipleSetCookie() throws Exception {
+        DirectDispatcher.CapturingTransport transport = createTransport();
+        HttpFields fields = new HttpFields();
+        fields.add(HttpHeader.SET_COOKIE, "first=1; Path=/");
+        fields.add(HttpHeader.SET_COOKIE, "second=2; Path=/");
+        fields.add(HttpHeader.CONTENT_TYPE, "text/plain;charset=UTF-8");
+        transport.send(new MetaData.Response(HttpVersion.HTTP_1_1, 200, fields), false,
+                ByteBuffer.wrap("body".getBytes("UTF-8")), true, Callback.NOOP);
+        transport.onCompleted();
+
+        CookieJar cookieJar = new CookieJar();
+        HttpResponse res = transport.awaitResponse(1000L, cookieJar);
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString(), is("body"));
+        assertThat(cookieJar.getCookies().get("first"), is("1"));
+        assertThat(cookieJar.getCookies().get("second"), is("2"));
+        assertThat(cookieJar.applyTo("explicit=0; other=9"), is("explicit=0; other=9; first=1; second=2"));
+    }
+
+    /**
+     * レスポンスボディが閾値を超える場合、一時ファイルに書き出されること。
+     */
+    @Test
+    public void testSpilledBody() throws Exception {
+        startServer();
+        server.setResponseSpillThreshold(3);
+
+        HttpResponse res = server.handle(new MockHttpRequest("GET /app/echo?value=spilled HTTP/1.1"),
+                new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyStream(), instanceOf(SpilledBodyInputStream.class));
+        SpilledBodyInputStream body = (SpilledBodyInputStream) res.getBodyStream();
+        assertThat(body.getFile().length(), is(7L));
+        assertThat(res.getHeader("Content-Length"), is("7"));
+        body.close();
+        assertThat(body.getFile().exists(), is(false));
+    }
+
+    private static DirectDispatcher.CapturingTransport createTransport() {
+        return new DirectDispatcher.CapturingTransport(
+                new ResponseParser(Long.MAX_VALUE, new File(System.getProperty("java.io.tmpdir")),
+                        new HashSet<File>()));
+    }
+
+    private void startServer() {
+        server = servers.createSampleApp().setDirectDispatchEnabled(true);
+        server.setServletContextPath("/app")
+              .addHandler("/greeting", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      ctx.setRequestScopedVar("greeting", "Hello " + req.getParam("name")[0]);
+                      return new HttpResponse(201).setContentPath("servlet:///jsp/index.jsp");
+                  }
+              })
+              .addHandler("/redirect", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse("redirect:///greeting");
+                  }
+              })
+              .addHandler("/echo", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      StringBuilder sb = new StringBuilder();
+                      for (String value : req.getParam("value")) {
+                          sb.append(sb.length() == 0 ? "" : ",").append(value);
+                      }
+                      return new HttpResponse(200)
+                              .setContentType("text/plain;charset=UTF-8")
+                              .write(sb.toString());
+                  }
+              })
+              .startLocal();
+    }
+}
@@ -0,0 +1,81 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9#handleAll(List, ExecutionContext)}のテスト。
+ */
+public class HandleAllTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * リクエストが順に処理され、セッションのクッキーが引き継がれること。
+     */
+    @Test
+    public void testHandleAll() {
+        assertCounting(servers.createSampleApp());
+    }
+
+    /**
+     * HTTPパーサを経由しない場合でも、セッションのクッキーが引き継がれること。
+     */
+    @Test
+    public void testHandleAllWithDirectDispatch() {
+        assertCounting(servers.createSampleApp().setDirectDispatchEnabled(true));
+    }
+
+    /**
+     * 完了の待機時間に0を指定した場合でも、応答を待機して処理されること。
+     */
+    @Test
+    public void testHandleAllWithoutCompletionTimeout() {
+        assertCounting(servers.createSampleApp().setCompletionTimeout(0L));
+    }
+
+    private void assertCounting(HttpServerJetty9 server) {
+        server.addHandler("/count", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      Integer count = ctx.getSessionScopedVar("count");
+                      count = count == null ? 1 : count + 1;
+                      ctx.setSessionScopedVar("count", count);
+                      return new HttpResponse(200).write(String.valueOf(count));
+                  }
+              })
+              .startLocal();
+
+        List<HttpRequest> requests = new ArrayList<HttpRequest>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(new MockHttpRequest("GET /count HTTP/1.1"));
+        }
+        List<HandleResult> results = server.handleAll(requests, new ExecutionContext());
+
+        assertThat(results.size(), is(5));
+        for (int i = 0; i < results.size(); i++) {
+            HandleResult result = results.get(i);
+            assertThat(result.getRequest(), is(requests.get(i)));
+            assertThat(result.getResponse().getStatusCode(), is(200));
+            assertThat(result.getResponse().getBodyString(), is(String.valueOf(i + 1)));
+            assertThat(result.getElapsedNanos() > 0, is(true));
+        }
+    }
+}
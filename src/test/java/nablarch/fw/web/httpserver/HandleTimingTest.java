@@ -0,0 +1,85 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.httpserver.HandleTiming.Phase;
+
+/**
+ * {@link HandleTimingListener}による処理時間の通知のテスト。
+ */
+public class HandleTimingTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * リクエストごとに処理時間が通知され、パスごとに集計されること。
+     */
+    @Test
+    public void testListener() {
+        final List<HandleTiming> timings = Collections.synchronizedList(new ArrayList<HandleTiming>());
+        PathTimingAggregator aggregator = new PathTimingAggregator();
+        HttpServerJetty9 server = servers.create();
+        server.addTimingListener(new HandleTimingListener() {
+                  public void onHandled(HandleTiming timing) {
+                      timings.add(timing);
+                  }
+              })
+              .addTimingListener(aggregator)
+              .startLocal();
+
+        for (int i = 0; i < 3; i++) {
+            server.handle(new MockHttpRequest("GET /hello?count=" + i + " HTTP/1.1"), new ExecutionContext());
+        }
+
+        assertThat(timings.size(), is(3));
+        HandleTiming timing = timings.get(0);
+        assertThat(timing.getMethod(), is("GET"));
+        assertThat(timing.getPath(), is("/hello"));
+        assertThat(timing.getStatusCode(), is(200));
+        assertThat(timing.getNanos(Phase.APPLICATION) > 0, is(true));
+        long sum = 0L;
+        for (Phase phase : Phase.values()) {
+            sum += timing.getNanos(phase);
+        }
+        assertThat(timing.getTotalNanos(), is(sum));
+        assertThat(aggregator.toString(), containsString("GET /hello"));
+
+        server.stop();
+        assertThat(aggregator.toString(), containsString("GET /hello"));
+    }
+
+    /**
+     * リスナで例外が発生しても、レスポンスが返却されること。
+     */
+    @Test
+    public void testListenerFailure() {
+        HttpServerJetty9 server = servers.create();
+        server.addTimingListener(new HandleTimingListener() {
+                  public void onHandled(HandleTiming timing) {
+                      throw new IllegalStateException("listener failure");
+                  }
+              })
+              .startLocal();
+
+        HttpResponse res = server.handle(new MockHttpRequest("GET /hello HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+    }
+}
@@ -0,0 +1,71 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.eclipse.jetty.client.HttpClient;
+import org.eclipse.jetty.client.api.ContentResponse;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.client.http.HttpClientTransportOverHTTP2;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * {@link HttpServerJetty9}のHTTP/2 cleartext（h2c）対応のテスト。
+ */
+public class Http2CleartextTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    /** HTTP/2クライアント */
+    private HttpClient client;
+
+    /**
+     * クライアントとサーバを停止する。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @After
+    public void tearDown() throws Exception {
+        if (client != null) {
+            client.stop();
+        }
+        servers.stopAll();
+    }
+
+    /**
+     * HTTP/2クライアントから1接続で複数のリクエストを送信できること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testHttp2Client() throws Exception {
+        int port = TestPorts.findFreePort();
+        HttpServerJetty9 server = servers.create();
+        server.setPort(port);
+        server.setHttp2CleartextEnabled(true)
+              .setHttp2MaxConcurrentStreams(32)
+              .setHttp2InitialStreamRecvWindow(1024 * 1024)
+              .setHttp2InitialSessionRecvWindow(8 * 1024 * 1024)
+              .start();
+
+        client = new HttpClient(new HttpClientTransportOverHTTP2(new HTTP2Client()), null);
+        client.start();
+        for (int i = 0; i < 5; i++) {
+            ContentResponse res = client.GET("http://127.0.0.1:" + port + "/hello");
+            assertThat(res.getStatus(), is(200));
+            assertThat(res.getVersion(), is(HttpVersion.HTTP_2));
+            assertThat(res.getContentAsString(), is("hello"));
+        }
+    }
+
+    /**
+     * 0以下の最大同時ストリーム数は設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxConcurrentStreams() {
+        new HttpServerJetty9().setHttp2MaxConcurrentStreams(0);
+    }
+}
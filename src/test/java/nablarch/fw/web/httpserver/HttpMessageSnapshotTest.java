@@ -0,0 +1,54 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpMessageSnapshot}のテスト。
+ */
+public class HttpMessageSnapshotTest {
+
+    /**
+     * 複製後に元のリクエストを変更しても、複製に影響しないこと。
+     */
+    @Test
+    public void testRequestSnapshot() {
+        MockHttpRequest req = new MockHttpRequest("GET /index.html HTTP/1.1");
+        req.setHost("127.0.0.1");
+        req.setParam("name", "before");
+
+        HttpRequest snapshot = HttpMessageSnapshot.of(req);
+        req.setParam("name", "after");
+        req.setParam("added", "value");
+
+        assertThat(snapshot.getMethod(), is("GET"));
+        assertThat(snapshot.getRequestUri(), is("/index.html"));
+        assertThat(snapshot.getParamMap().get("name")[0], is("before"));
+        assertThat(snapshot.getParamMap().get("added"), is(nullValue()));
+        assertThat(snapshot.getHeaderMap().get("Host"), is("127.0.0.1"));
+    }
+
+    /**
+     * レスポンスのボディが複製され、元のレスポンスのボディも先頭から読めること。
+     */
+    @Test
+    public void testResponseSnapshot() {
+        HttpResponse res = new HttpResponse(200).write("hello");
+        res.setContentType("text/plain");
+        assertThat(HttpMessageSnapshot.isCopyable(res), is(true));
+
+        HttpResponse snapshot = HttpMessageSnapshot.of(res);
+
+        assertThat(snapshot.getStatusCode(), is(200));
+        assertThat(snapshot.getContentType(), is("text/plain"));
+        assertThat(snapshot.getBodyString(), is("hello"));
+        assertThat(res.getBodyString(), is("hello"));
+    }
+}
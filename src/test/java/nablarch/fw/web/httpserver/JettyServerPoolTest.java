@@ -0,0 +1,290 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.ResourceLocator;
+
+/**
+ * {@link JettyServerPool}のテスト。
+ */
+public class JettyServerPoolTest {
+
+    /** 起動したサーバ */
+    private final List<HttpServerJetty9> servers = new ArrayList<HttpServerJetty9>();
+
+    @Before
+    public void setUp() {
+        JettyServerPool.getInstance().clear();
+    }
+
+    @After
+    public void tearDown() {
+        for (HttpServerJetty9 server : servers) {
+            server.stop();
+        }
+        JettyServerPool.getInstance().clear();
+    }
+
+    /** デプロイ内容が一致する場合、返却された起動済みのサーバが再利用されること。 */
+    @Test
+    public void testLeaseSameDeployment() {
+        JettyServerPool pool = JettyServerPool.getInstance();
+        long hit = pool.getHitCount();
+        long miss = pool.getMissCount();
+
+        HttpServerJetty9 first = start(createServer("first"));
+        assertThat(pool.getMissCount(), is(miss + 1));
+        assertThat(first.handle(new MockHttpRequest("GET /test/ HTTP/1.1"), new ExecutionContext())
+                        .getBodyString().trim(), is("first"));
+        first.stop();
+
+        // 2つ目のサーバは返却済みのサーバを借り受け、自身のハンドラキューで処理すること
+        HttpServerJetty9 second = start(createServer("second"));
+        assertThat(pool.getHitCount(), is(hit + 1));
+        assertThat(pool.getPooledServerCount(), is(1));
+        assertThat(second.handle(new MockHttpRequest("GET /test/ HTTP/1.1"), new ExecutionContext())
+                        .getBodyString().trim(), is("second"));
+    }
+
+    /** デプロイ内容が一致するサーバが貸し出し中の場合、別のサーバが生成され、それぞれのハンドラキューで処理されること。 */
+    @Test
+    public void testLeaseWhileLeased() {
+        JettyServerPool pool = JettyServerPool.getInstance();
+        long hit = pool.getHitCount();
+        long miss = pool.getMissCount();
+
+        HttpServerJetty9 first = start(createServer("first"));
+        HttpServerJetty9 second = start(createServer("second"));
+        assertThat(pool.getHitCount(), is(hit));
+        assertThat(pool.getMissCount(), is(miss + 2));
+        assertThat(pool.getPooledServerCount(), is(2));
+        assertThat(first.handle(new MockHttpRequest("GET /test/ HTTP/1.1"), new ExecutionContext())
+                        .getBodyString().trim(), is("first"));
+        assertThat(second.handle(new MockHttpRequest("GET /test/ HTTP/1.1"), new ExecutionContext())
+                        .getBodyString().trim(), is("second"));
+
+        // 返却されたサーバのみ再利用されること
+        first.stop();
+        HttpServerJetty9 third = start(createServer("third"));
+        assertThat(pool.getHitCount(), is(hit + 1));
+        assertThat(pool.getPooledServerCount(), is(2));
+        assertThat(third.handle(new MockHttpRequest("GET /test/ HTTP/1.1"), new ExecutionContext())
+                        .getBodyString().trim(), is("third"));
+        assertThat(second.handle(new MockHttpRequest("GET /test/ HTTP/1.1"), new ExecutionContext())
+                        .getBodyString().trim(), is("second"));
+    }
+
+    /** デプロイ内容が異なる場合、別のサーバが生成されること。 */
+    @Test
+    public void testLeaseDifferentDeployment() {
+        JettyServerPool pool = JettyServerPool.getInstance();
+        long miss = pool.getMissCount();
+
+        start(createServer("first"));
+        HttpServerJetty9 second = createServer("second");
+        second.setServletContextPath("/app");
+        start(second);
+
+        assertThat(pool.getMissCount(), is(miss + 2));
+        assertThat(pool.getPooledServerCount(), is(2));
+    }
+
+    /** サーバの設定が異なる場合、返却済みのサーバを借り受けずに別のサーバが生成されること。 */
+    @Test
+    public void testLeaseDifferentSettings() {
+        JettyServerPool pool = JettyServerPool.getInstance();
+        long hit = pool.getHitCount();
+        long miss = pool.getMissCount();
+
+        start(createServer("first")).stop();
+        HttpServerJetty9 second = createServer("second");
+        second.setOutputBufferSize(8192);
+        start(second);
+
+        assertThat(pool.getHitCount(), is(hit));
+        assertThat(pool.getMissCount(), is(miss + 2));
+        assertThat(pool.getPooledServerCount(), is(2));
+    }
+
+    /** 圧縮済みの静的ファイルの配信の設定が異なる場合、返却済みのサーバを借り受けずに別のサーバが生成されること。 */
+    @Test
+    public void testLeaseDifferentPrecompressed() {
+        JettyServerPool pool = JettyServerPool.getInstance();
+        long hit = pool.getHitCount();
+        long miss = pool.getMissCount();
+
+        HttpServerJetty9 first = createServer("first");
+        first.setPrecompressedEnabled(true);
+        start(first).stop();
+        HttpServerJetty9 second = createServer("second");
+        second.setPrecompressedEnabled(false);
+        start(second);
+
+        assertThat(pool.getHitCount(), is(hit));
+        assertThat(pool.getMissCount(), is(miss + 2));
+        assertThat(pool.getPooledServerCount(), is(2));
+
+        // 設定が一致する場合は、返却済みのサーバを借り受けること
+        second.stop();
+        HttpServerJetty9 third = createServer("third");
+        third.setPrecompressedEnabled(true);
+        start(third);
+        assertThat(pool.getHitCount(), is(hit + 1));
+        assertThat(pool.getPooledServerCount(), is(2));
+    }
+
+    /** 異なるデプロイ内容のサーバの生成が、互いの生成を待機せずに並行して行われること。 */
+    @Test
+    public void testCreateConcurrently() throws Exception {
+        final CountDownLatch bothCreating = new CountDownLatch(2);
+        final List<Boolean> results = Collections.synchronizedList(new ArrayList<Boolean>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (final String contextPath : new String[] {"/a", "/b"}) {
+            final DeploymentKey key = new DeploymentKey(contextPath,
+                    Collections.<ResourceLocator>emptyList(), null, CountingFilter.class, "");
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    JettyServerPool.getInstance().lease(key, new JettyServerPool.ServerCreator() {
+                        @Override
+                        public PooledServer create() {
+                            bothCreating.countDown();
+                            try {
+                                results.add(bothCreating.await(10, TimeUnit.SECONDS));
+                            } catch (InterruptedException e) {
+                                results.add(false);
+                            }
+                            return new PooledServer(new Server(), null, null, null, null);
+                        }
+                    });
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join(20000L);
+        }
+        assertThat(results, is(Arrays.asList(true, true)));
+    }
+
+    /** 返却されたサーバの貸し出し時にリセットフックが起動され、{@link JettyServerPool#clear()}で削除されること。 */
+    @Test
+    public void testResetHook() {
+        final AtomicInteger count = new AtomicInteger();
+        JettyServerPool.getInstance().addResetHook(new PooledServerResetHook() {
+            @Override
+            public void reset(WebAppContext webApp) {
+                count.incrementAndGet();
+            }
+        });
+
+        start(createServer("first")).stop();
+        assertThat(count.get(), is(0));
+        start(createServer("second")).stop();
+        assertThat(count.get(), is(1));
+
+        JettyServerPool.getInstance().clear();
+        start(createServer("third")).stop();
+        start(createServer("fourth")).stop();
+        assertThat(count.get(), is(1));
+    }
+
+    /** 委譲先を差し替えた場合、差し替えられたフィルタが破棄されること。 */
+    @Test
+    public void testReplacedFrontControllerDestroyed() throws Exception {
+        final AtomicInteger destroyed = new AtomicInteger();
+        DelegatingFilter filter = new DelegatingFilter();
+        filter.init(new FilterConfig() {
+            public String getFilterName() {
+                return "test";
+            }
+
+            public ServletContext getServletContext() {
+                return null;
+            }
+
+            public String getInitParameter(String name) {
+                return null;
+            }
+
+            public Enumeration<String> getInitParameterNames() {
+                return Collections.enumeration(Collections.<String>emptyList());
+            }
+        });
+        filter.setDelegate(new CountingFilter(destroyed));
+        filter.setDelegate(new CountingFilter(destroyed));
+        assertThat(destroyed.get(), is(1));
+        filter.destroy();
+        assertThat(destroyed.get(), is(2));
+    }
+
+    private HttpServerJetty9 start(HttpServerJetty9 server) {
+        server.startLocal();
+        servers.add(server);
+        return server;
+    }
+
+    private HttpServerJetty9 createServer(final String message) {
+        HttpServerJetty9 server = new HttpServerJetty9().setServerPoolEnabled(true);
+        server.addHandler("/test/", new HttpRequestHandler() {
+            public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                return new HttpResponse(200).write(message);
+            }
+        });
+        return server;
+    }
+
+    /**
+     * 破棄された回数を計数するフィルタ。
+     */
+    private static class CountingFilter implements Filter {
+
+        private final AtomicInteger destroyed;
+
+        CountingFilter(AtomicInteger destroyed) {
+            this.destroyed = destroyed;
+        }
+
+        @Override
+        public void init(FilterConfig filterConfig) {
+        }
+
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) {
+        }
+
+        @Override
+        public void destroy() {
+            destroyed.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.handler.ResourceMapping;
+
+/**
+ * {@link JspClassCache}のテスト。
+ */
+public class JspClassCacheTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /** キャッシュディレクトリ */
+    private final File cacheDir = new File("tmp/jsp_cache");
+
+    @Before
+    public void setUp() {
+        delete(cacheDir);
+    }
+
+    /**
+     * コンパイル済みのJSPクラスがサーバの停止時にキャッシュに保存され、次回起動時に復元されること。
+     */
+    @Test
+    public void testStoreAndRestore() {
+        HttpServerJetty9 first = startServer();
+        assertThat(first.getJspClassCacheHitCount(), is(0L));
+        assertThat(first.getJspClassCacheMissCount() > 0, is(true));
+
+        HttpResponse res = first.handle(new MockHttpRequest("GET /jsp/index.jsp HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        // リクエストの処理中はキャッシュに保存しない
+        assertThat(cacheDir.list() == null || cacheDir.list().length == 0, is(true));
+        first.stop();
+        assertThat(cacheDir.list().length, is(1));
+
+        HttpServerJetty9 second = startServer();
+        assertThat(second.getJspClassCacheHitCount(), is(1L));
+
+        res = second.handle(new MockHttpRequest("GET /jsp/index.jsp HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString(), containsString("Greeting Service"));
+    }
+
+    /**
+     * キャッシュが無効な場合、ヒット数とミス数は0であること。
+     */
+    @Test
+    public void testDisabled() {
+        HttpServerJetty9 server = servers.createSampleApp();
+        server.startLocal();
+        assertThat(server.getJspClassCacheHitCount(), is(0L));
+        assertThat(server.getJspClassCacheMissCount(), is(0L));
+    }
+
+    private HttpServerJetty9 startServer() {
+        HttpServerJetty9 server = servers.createSampleApp()
+                .setJspClassCacheEnabled(true)
+                .setJspClassCacheDirectory(cacheDir.getPath());
+        server.addHandler("//*.jsp", new ResourceMapping("/", "servlet:///"));
+        server.startLocal();
+        return server;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,128 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.handler.ResourceMapping;
+
+/**
+ * JSPのウォームアップのテスト。
+ */
+public class JspWarmupTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * WARベースパス上のすべてのJSPがコンパイルされること。
+     */
+    @Test
+    public void testWarmup() {
+        HttpServerJetty9 server = servers.createSampleApp()
+                .setJspWarmupEnabled(true)
+                .setJspWarmupThreads(2);
+        server.addHandler("//*.jsp", new ResourceMapping("/", "servlet:///"));
+        server.startLocal();
+
+        JspWarmupReport report = server.awaitWarmup();
+        assertThat(report.getFailedPaths().isEmpty(), is(true));
+        assertThat(report.getCompileTimes().containsKey("/jsp/index.jsp"), is(true));
+        assertThat(report.getCompileTimes().containsKey("/ja/jsp/index.jsp"), is(true));
+        assertThat(report.getCompileTimes().containsKey("/jsp/included.jsp"), is(true));
+        assertThat(server.awaitWarmup(), is(report));
+
+        HttpResponse res = server.handle(new MockHttpRequest("GET /jsp/index.jsp HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+    }
+
+    /**
+     * /WEB-INF/配下のJSPはウォームアップされ、静的インクルードされるJSPはウォームアップの対象外となること。
+     */
+    @Test
+    public void testWebInfAndFragments() {
+        HttpServerJetty9 server = createForwardingServer();
+        server.startLocal();
+
+        JspWarmupReport report = server.awaitWarmup();
+        assertThat(report.getFailedPaths().isEmpty(), is(true));
+        assertThat(report.getCompileTimes().containsKey("/WEB-INF/jsp/forwarded.jsp"), is(true));
+        assertThat(report.getCompileTimes().containsKey("/jsp/title.jsp"), is(false));
+
+        HttpResponse res = server.handle(new MockHttpRequest("GET /forward HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString().contains("Forwarded"), is(true));
+    }
+
+    /**
+     * ウォームアップした/WEB-INF/配下のJSPが、コンパイル済みJSPクラスのキャッシュに保存されること。
+     */
+    @Test
+    public void testWebInfJspCached() {
+        File cacheDir = new File("tmp/jsp_warmup_cache");
+        delete(cacheDir);
+
+        HttpServerJetty9 first = createForwardingServer()
+                .setJspClassCacheEnabled(true)
+                .setJspClassCacheDirectory(cacheDir.getPath());
+        first.startLocal();
+        JspWarmupReport report = first.awaitWarmup();
+        assertThat(report.getFailedPaths().isEmpty(), is(true));
+        assertThat(report.getCompileTimes().containsKey("/WEB-INF/jsp/forwarded.jsp"), is(true));
+        first.stop();
+
+        HttpServerJetty9 second = servers.createSampleApp()
+                .setJspClassCacheEnabled(true)
+                .setJspClassCacheDirectory(cacheDir.getPath());
+        second.startLocal();
+        // ウォームアップしたすべてのJSP（/WEB-INF/配下を含む）がキャッシュから復元される
+        assertThat(second.getJspClassCacheMissCount(), is(0L));
+        assertThat(second.getJspClassCacheHitCount(), is((long) report.getCompileTimes().size()));
+    }
+
+    /**
+     * ウォームアップが無効な場合、結果を待機できないこと。
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testDisabled() {
+        HttpServerJetty9 server = servers.createSampleApp();
+        server.startLocal();
+        server.awaitWarmup();
+    }
+
+    private HttpServerJetty9 createForwardingServer() {
+        HttpServerJetty9 server = servers.createSampleApp()
+                .setJspWarmupEnabled(true);
+        server.addHandler("//*.jsp", new ResourceMapping("/", "servlet:///"))
+              .addHandler("/forward", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).setContentPath("servlet:///WEB-INF/jsp/forwarded.jsp");
+                  }
+              });
+        return server;
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
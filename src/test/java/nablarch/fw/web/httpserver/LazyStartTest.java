@@ -0,0 +1,121 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}の遅延起動のテスト。
+ */
+public class LazyStartTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /**
+     * サーバを停止する。
+     */
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 最初のリクエストの処理時にサーバが起動されること。
+     */
+    @Test
+    public void testStartOnFirstHandle() {
+        server = createServer();
+        server.startLocal();
+        assertThat(server.isRunning(), is(false));
+        assertThat(server.getLocalStartCount(), is(0));
+
+        HttpResponse res = server.handle(new MockHttpRequest("GET /ok HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(server.isRunning(), is(true));
+        assertThat(server.getLocalStartCount(), is(1));
+    }
+
+    /**
+     * 複数のスレッドから同時にリクエストを処理しても、サーバは1回だけ起動されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testConcurrentFirstHandle() throws Exception {
+        server = createServer();
+        server.startLocal();
+
+        int threads = 8;
+        final CountDownLatch ready = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        ready.countDown();
+                        ready.await(10, TimeUnit.SECONDS);
+                        return server.handle(new MockHttpRequest("GET /ok HTTP/1.1"), new ExecutionContext())
+                                     .getStatusCode();
+                    }
+                }));
+            }
+            for (Future<Integer> result : results) {
+                assertThat(result.get(30, TimeUnit.SECONDS), is(200));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(server.getLocalStartCount(), is(1));
+        assertThat(server.getServerStatistics().getRequests(), is(threads));
+    }
+
+    /**
+     * リクエストを処理せずに停止した場合、サーバは起動されないこと。
+     */
+    @Test
+    public void testStopWithoutHandle() {
+        server = createServer();
+        server.startLocal();
+        server.stop();
+        assertThat(server.isRunning(), is(false));
+        assertThat(server.getLocalStartCount(), is(0));
+    }
+
+    /**
+     * テスト用のサーバを生成する。
+     *
+     * @return サーバ
+     */
+    private HttpServerJetty9 createServer() {
+        HttpServerJetty9 created = servers.createSampleApp().setLazyStartEnabled(true);
+        created.addHandler("/ok", new HttpRequestHandler() {
+                   public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                       return new HttpResponse(200).write("ok");
+                   }
+               });
+        return created;
+    }
+}
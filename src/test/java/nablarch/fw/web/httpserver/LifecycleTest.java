@@ -0,0 +1,220 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}の停止・再起動と統計情報のテスト。
+ */
+public class LifecycleTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /**
+     * サーバを停止する。
+     */
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 停止したサーバを再起動し、同じポートでリクエストを処理できること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testStopAndRestart() throws Exception {
+        int port = TestPorts.findFreePort();
+        server = createServer();
+        server.setPort(port);
+        server.start();
+        assertThat(server.isRunning(), is(true));
+        assertThat(get(port), is(200));
+
+        server.stop();
+        assertThat(server.isRunning(), is(false));
+        try {
+            get(port);
+            fail("停止したサーバに接続できてはいけない。");
+        } catch (IOException e) {
+            // OK
+        }
+
+        server.restart();
+        assertThat(server.isRunning(), is(true));
+        assertThat(get(port), is(200));
+        assertThat(server.getServerStatistics().getRequests(), is(1));
+    }
+
+    /**
+     * 仮想スレッドで処理するサーバを再起動し、リクエストを処理できること。
+     * <pre>
+     * 停止時にシャットダウンした{@link java.util.concurrent.ExecutorService}を、再起動後に使用しないこと。
+     * 仮想スレッドをサポートしないJDKでは実行しない。
+     * </pre>
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testRestartWithVirtualThreads() throws Exception {
+        int port = TestPorts.findFreePort();
+        server = createServer();
+        server.setVirtualThreadsEnabled(true);
+        server.setPort(port);
+        server.start();
+        Assume.assumeThat(server.getThreadPool(), instanceOf(ExecutorBackedThreadPool.class));
+        assertThat(get(port), is(200));
+
+        server.restart();
+        assertThat(server.isRunning(), is(true));
+        assertThat(get(port), is(200));
+    }
+
+    /**
+     * {@link java.util.concurrent.Executor}に委譲するサーバを再起動した場合、
+     * {@link HttpServerJetty9#join()}が再び停止まで待機すること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testJoinAfterRestartWithExecutor() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            int port = TestPorts.findFreePort();
+            server = createServer();
+            server.setExecutor(executor);
+            server.setPort(port);
+            server.start();
+            server.restart();
+            assertThat(get(port), is(200));
+
+            Thread joiner = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    server.join();
+                }
+            });
+            joiner.start();
+            joiner.join(500L);
+            assertThat(joiner.isAlive(), is(true));
+
+            server.stop();
+            joiner.join(10000L);
+            assertThat(joiner.isAlive(), is(false));
+        } finally {
+            server.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 処理したリクエストの統計情報が取得できること。
+     */
+    @Test
+    public void testStatistics() {
+        server = createServer();
+        server.startLocal();
+        server.handle(new MockHttpRequest("GET /ok HTTP/1.1"), new ExecutionContext());
+        server.handle(new MockHttpRequest("GET /ok HTTP/1.1"), new ExecutionContext());
+        server.handle(new MockHttpRequest("GET /error HTTP/1.1"), new ExecutionContext());
+
+        ServerStatistics statistics = server.getServerStatistics();
+        assertThat(statistics.getRequests(), is(3));
+        assertThat(statistics.getRequestsActive(), is(0));
+        assertThat(statistics.getResponses5xx(), is(1));
+        assertThat(statistics.getResponsesBytesTotal() >= 4L, is(true));
+    }
+
+    /**
+     * 起動前の再起動・統計情報の取得は例外となること。
+     */
+    @Test
+    public void testNotStarted() {
+        HttpServerJetty9 notStarted = createServer();
+        assertThat(notStarted.isRunning(), is(false));
+        notStarted.stop();
+        try {
+            notStarted.restart();
+            fail("IllegalStateExceptionが発生すること。");
+        } catch (IllegalStateException e) {
+            // OK
+        }
+        try {
+            notStarted.getServerStatistics();
+            fail("IllegalStateExceptionが発生すること。");
+        } catch (IllegalStateException e) {
+            // OK
+        }
+    }
+
+    /**
+     * 停止時の待機時間に負数を指定した場合、例外となること。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeStopTimeout() {
+        new HttpServerJetty9().setStopTimeout(-1L);
+    }
+
+    /**
+     * テスト用のサーバを生成する。
+     *
+     * @return サーバ
+     */
+    private HttpServerJetty9 createServer() {
+        HttpServerJetty9 created = servers.createSampleApp();
+        created.addHandler("/ok", new HttpRequestHandler() {
+                   public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                       return new HttpResponse(200).write("ok");
+                   }
+               })
+               .addHandler("/error", new HttpRequestHandler() {
+                   public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                       return new HttpResponse(500);
+                   }
+               });
+        created.setStopTimeout(1000L);
+        return created;
+    }
+
+    /**
+     * GETリクエストを送信し、ステータスコードを返す。
+     *
+     * @param port ポート番号
+     * @return ステータスコード
+     * @throws Exception 予期しない例外
+     */
+    private static int get(int port) throws Exception {
+        HttpURLConnection con = (HttpURLConnection) new URL("http://localhost:" + port + "/ok").openConnection();
+        try {
+            InputStream in = con.getInputStream();
+            in.close();
+            return con.getResponseCode();
+        } finally {
+            con.disconnect();
+        }
+    }
+}
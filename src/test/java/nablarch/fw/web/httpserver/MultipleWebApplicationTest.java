@@ -0,0 +1,99 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}に複数のWebアプリケーションをデプロイするテスト。
+ */
+public class MultipleWebApplicationTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /**
+     * サーバを停止する。
+     */
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * コンテキストパスで各Webアプリケーションにリクエストが振り分けられること。
+     */
+    @Test
+    public void testRouting() {
+        server = createApplication("/", "main");
+        server.addWebApplication(createApplication("/admin", "admin"))
+              .addWebApplication(createApplication("/portal", "portal"))
+              .startLocal();
+
+        assertThat(get("/whoami"), is("main"));
+        assertThat(get("/admin/whoami"), is("admin"));
+        assertThat(get("/portal/whoami"), is("portal"));
+        assertThat(server.getServerStatistics().getRequests(), is(3));
+    }
+
+    /**
+     * 重複するコンテキストパスのWebアプリケーションは追加できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testDuplicateContextPath() {
+        createApplication("/", "main")
+                .addWebApplication(createApplication("/admin", "admin"))
+                .addWebApplication(createApplication("/admin", "other"));
+    }
+
+    /**
+     * 起動後はWebアプリケーションを追加できないこと。
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testAddAfterStart() {
+        server = createApplication("/", "main");
+        server.startLocal();
+        server.addWebApplication(createApplication("/admin", "admin"));
+    }
+
+    /**
+     * 自身の名前を返すWebアプリケーションの設定を生成する。
+     *
+     * @param contextPath コンテキストパス
+     * @param name 名前
+     * @return Webアプリケーションの設定
+     */
+    private HttpServerJetty9 createApplication(String contextPath, final String name) {
+        HttpServerJetty9 application = servers.createSampleApp();
+        application.setServletContextPath(contextPath)
+                   .addHandler("/whoami", new HttpRequestHandler() {
+                       public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                           return new HttpResponse(200).write(name);
+                       }
+                   });
+        return application;
+    }
+
+    /**
+     * GETリクエストを処理し、レスポンスボディを返す。
+     *
+     * @param uri リクエストURI
+     * @return レスポンスボディ
+     */
+    private String get(String uri) {
+        HttpResponse res = server.handle(new MockHttpRequest("GET " + uri + " HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        return res.getBodyString();
+    }
+}
@@ -0,0 +1,103 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.HttpServer;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.ResourceLocator;
+import nablarch.fw.web.handler.ResourceMapping;
+
+/**
+ * {@link QuickStartConfiguration}のテスト。
+ */
+public class QuickStartConfigurationTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /** 記述子の格納ディレクトリ */
+    private final File quickStartDir = new File("tmp/quickstart");
+
+    @Before
+    public void setUp() {
+        delete(quickStartDir);
+    }
+
+    /**
+     * 初回起動時に記述子が生成され、2回目以降は記述子を使用してJSPが処理できること。
+     */
+    @Test
+    public void testGenerateAndReplay() {
+        HttpResponse first = startServer().handle(
+                new MockHttpRequest("GET /jsp/index.jsp HTTP/1.1"), new ExecutionContext());
+        assertThat(first.getStatusCode(), is(200));
+
+        QuickStartDescriptor descriptor = new QuickStartDescriptor(quickStartDir, Collections.singletonList(
+                ResourceLocator.valueOf("classpath://nablarch/fw/web/sample/app/").getRealPath()));
+        assertThat(descriptor.exists(), is(true));
+        assertThat(descriptor.read().isEmpty(), is(false));
+
+        HttpResponse second = startServer().handle(
+                new MockHttpRequest("GET /jsp/index.jsp HTTP/1.1"), new ExecutionContext());
+        assertThat(second.getStatusCode(), is(200));
+    }
+
+    /**
+     * 記述子の格納先のハッシュ値が、クラスパス文字列ではなくクラスパスの内容から算出されること。
+     */
+    @Test
+    public void testHashFromClasspathContents() {
+        String warBasePath = ResourceLocator.valueOf("classpath://nablarch/fw/web/sample/app/").getRealPath();
+        String hash = QuickStartDescriptor.hash(Collections.singletonList(warBasePath));
+        assertThat(QuickStartDescriptor.hash(Collections.singletonList(warBasePath)), is(hash));
+
+        String classPath = System.getProperty("java.class.path");
+        StringBuilder expanded = new StringBuilder();
+        for (File entry : ClasspathFingerprint.currentEntries()) {
+            if (expanded.length() > 0) {
+                expanded.append(File.pathSeparatorChar);
+            }
+            expanded.append(entry.getPath());
+        }
+        System.setProperty("java.class.path", expanded.toString());
+        try {
+            // マニフェストのみを含むJARを展開したクラスパスと同じ値となること
+            assertThat(QuickStartDescriptor.hash(Collections.singletonList(warBasePath)), is(hash));
+        } finally {
+            System.setProperty("java.class.path", classPath);
+        }
+    }
+
+    private HttpServer startServer() {
+        return servers.createSampleApp()
+                .setQuickStartEnabled(true)
+                .setQuickStartDirectory(quickStartDir.getPath())
+                .addHandler("//*.jsp", new ResourceMapping("/", "servlet:///"))
+                .startLocal();
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,217 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}の再デプロイのテスト。
+ */
+public class RedeployTest {
+
+    /** WARのベースディレクトリ */
+    private File warBase;
+
+    /** テスト対象のサーバ */
+    private HttpServerJetty9 server;
+
+    /**
+     * WARのベースディレクトリを準備する。
+     */
+    @Before
+    public void setUp() {
+        warBase = new File("tmp/redeploy_war/");
+        warBase.mkdirs();
+    }
+
+    /**
+     * サーバを停止する。
+     */
+    @After
+    public void tearDown() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * サーバを停止せずにWebアプリケーションコンテキストが差し替えられること。
+     */
+    @Test
+    public void testRedeploy() {
+        server = createServer(null);
+        server.startLocal();
+        WebAppContext before = getWebAppContext();
+        assertThat(get("/ok"), is(200));
+
+        server.redeploy();
+
+        WebAppContext after = getWebAppContext();
+        assertThat(after, not(sameInstance(before)));
+        assertThat(before.isStopped(), is(true));
+        assertThat(after.isStarted(), is(true));
+        assertThat(get("/ok"), is(200));
+        assertThat(server.getServerStatistics().getRequests(), is(2));
+    }
+
+    /**
+     * 旧コンテキストの処理中リクエストの完了を待機してから、旧コンテキストが停止されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testDrain() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        server = createServer(new HttpRequestHandler() {
+            public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                entered.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return new HttpResponse(200).write("slow");
+            }
+        });
+        server.setStopTimeout(10000L);
+        server.startLocal();
+        WebAppContext before = getWebAppContext();
+
+        final AtomicReference<Integer> slowStatus = new AtomicReference<Integer>();
+        Thread slow = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                slowStatus.set(get("/slow"));
+            }
+        });
+        slow.start();
+        assertThat(entered.await(10, TimeUnit.SECONDS), is(true));
+
+        Thread redeploy = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                server.redeploy();
+            }
+        });
+        redeploy.start();
+        redeploy.join(500L);
+        // 処理中のリクエストが完了するまで旧コンテキストは停止されない。
+        assertThat(redeploy.isAlive(), is(true));
+        assertThat(before.isStopped(), is(false));
+
+        release.countDown();
+        slow.join(10000L);
+        redeploy.join(10000L);
+        assertThat(slowStatus.get(), is(200));
+        assertThat(before.isStopped(), is(true));
+        assertThat(get("/ok"), is(200));
+    }
+
+    /**
+     * WARのベースディレクトリ配下の変更を検知して再デプロイされること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testWatch() throws Exception {
+        server = createServer(null);
+        server.setPort(TestPorts.findFreePort());
+        server.setRedeployWatchEnabled(true)
+              .setRedeployQuietPeriod(100L)
+              .start();
+        WebAppContext before = getWebAppContext();
+
+        write(new File(warBase, "changed.txt"), "changed");
+
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (getWebAppContext() == before && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100L);
+        }
+        assertThat(getWebAppContext(), not(sameInstance(before)));
+    }
+
+    /**
+     * 起動前の再デプロイは例外となること。
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testNotStarted() {
+        createServer(null).redeploy();
+    }
+
+    /**
+     * テスト用のサーバを生成する。
+     *
+     * @param slowHandler /slow を処理するハンドラ（不要な場合はnull）
+     * @return サーバ
+     */
+    private HttpServerJetty9 createServer(HttpRequestHandler slowHandler) {
+        HttpServerJetty9 created = new HttpServerJetty9();
+        created.setWarBasePath("file://" + warBase.getPath())
+               .addHandler("/ok", new HttpRequestHandler() {
+                   public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                       return new HttpResponse(200).write("ok");
+                   }
+               });
+        if (slowHandler != null) {
+            created.addHandler("/slow", slowHandler);
+        }
+        return created;
+    }
+
+    /**
+     * GETリクエストを処理し、ステータスコードを返す。
+     *
+     * @param path リクエストパス
+     * @return ステータスコード
+     */
+    private int get(String path) {
+        return server.handle(new MockHttpRequest("GET " + path + " HTTP/1.1"), new ExecutionContext())
+                     .getStatusCode();
+    }
+
+    /**
+     * 処理中のWebアプリケーションコンテキストを取得する。
+     *
+     * @return Webアプリケーションコンテキスト
+     */
+    private WebAppContext getWebAppContext() {
+        return server.getConnectors()[0].getServer().getChildHandlerByClass(WebAppContext.class);
+    }
+
+    /**
+     * ファイルに書き込む。
+     *
+     * @param file ファイル
+     * @param content 内容
+     * @throws IOException 書き込みに失敗した場合
+     */
+    private static void write(File file, String content) throws IOException {
+        OutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content.getBytes("UTF-8"));
+        } finally {
+            out.close();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+
+/**
+ * {@link HttpServerJetty9#handle(HttpRequest, ExecutionContext)}の完了待機のテスト。
+ */
+public class RequestCompletionTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 完了を通知するハンドラが存在しない場合、応答の返却と同時に完了すること。
+     */
+    @Test
+    public void testCompleteOnResponse() {
+        HttpServerJetty9 server = servers.create().startLocal();
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < 3; i++) {
+            HttpResponse res = server.handle(new MockHttpRequest("GET /hello HTTP/1.1"), new ExecutionContext());
+            assertThat(res.getStatusCode(), is(200));
+        }
+        assertThat(System.currentTimeMillis() - start < server.getCompletionTimeout(), is(true));
+        assertThat(server.getCompletionTimeoutCount(), is(0L));
+    }
+
+    /**
+     * ハンドラキューが完了を通知しないまま待機時間を超えた場合、
+     * タイムアウト件数を加算したうえで、応答を返却すること。
+     */
+    @Test
+    public void testCompletionTimeout() {
+        HttpServerJetty9 server = servers.createSampleApp().setCompletionTimeout(100L);
+        server.addHandler(new HttpRequestTestSupportHandler() {
+                  @Override
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      // 完了を通知しない
+                      return ctx.handleNext(req);
+                  }
+              })
+              .addHandler("/hello", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).write("hello");
+                  }
+              })
+              .startLocal();
+
+        long start = System.currentTimeMillis();
+        HttpResponse res = server.handle(new MockHttpRequest("GET /hello HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(System.currentTimeMillis() - start >= 100L, is(true));
+        assertThat(server.getCompletionTimeoutCount(), is(1L));
+
+        server.handle(new MockHttpRequest("GET /hello HTTP/1.1"), new ExecutionContext());
+        assertThat(server.getCompletionTimeoutCount(), is(2L));
+    }
+
+    /**
+     * 負の待機時間は設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeout() {
+        new HttpServerJetty9().setCompletionTimeout(-1L);
+    }
+}
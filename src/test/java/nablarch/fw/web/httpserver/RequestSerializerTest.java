@@ -0,0 +1,129 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.util.BufferUtil;
+import org.junit.Test;
+
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link RequestSerializer}のテスト。
+ */
+public class RequestSerializerTest {
+
+    /** UTF-8 */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * GETの場合、パラメータがクエリ文字列としてリクエストラインに書き込まれること。
+     */
+    @Test
+    public void testSerialize() {
+        MockHttpRequest req = new MockHttpRequest("GET /index.html HTTP/1.1");
+        req.setHost("127.0.0.1");
+        req.setParam("name", "value");
+        RequestSerializer serializer = new RequestSerializer(UTF8, new ArrayByteBufferPool());
+
+        ByteBuffer buffer = serializer.serialize(req);
+        String message = BufferUtil.toString(buffer, UTF8);
+        assertThat(message.startsWith("GET /index.html?name=value HTTP/1.1\r\n"), is(true));
+        assertThat(message.contains("Host: 127.0.0.1\r\n"), is(true));
+        assertThat(message.endsWith("\r\n\r\n"), is(true));
+        serializer.release(buffer);
+    }
+
+    /**
+     * POSTの場合、パラメータがフォーム形式のボディとして書き込まれ、
+     * ボディのバイト数がContent-Lengthに設定されること。
+     */
+    @Test
+    public void testSerializeParamsInBody() {
+        MockHttpRequest req = new MockHttpRequest("POST /action HTTP/1.1");
+        req.setHost("127.0.0.1");
+        req.setParam("name", "あ");
+        RequestSerializer serializer = new RequestSerializer(UTF8, new ArrayByteBufferPool());
+
+        ByteBuffer buffer = serializer.serialize(req);
+        String message = BufferUtil.toString(buffer, UTF8);
+        assertThat(message.startsWith("POST /action HTTP/1.1\r\n"), is(true));
+        assertThat(message.contains("Content-Type: application/x-www-form-urlencoded\r\n"), is(true));
+        assertThat(message.endsWith("\r\n\r\nname=%E3%81%82"), is(true));
+        assertThat(message.contains("Content-Length: " + "name=%E3%81%82".length() + "\r\n"), is(true));
+        serializer.release(buffer);
+    }
+
+    /**
+     * {@link CookieJar}が保持しているクッキーが、1つの"Cookie"ヘッダとして書き込まれること。
+     */
+    @Test
+    public void testSerializeWithCookieJar() {
+        MockHttpRequest req = new MockHttpRequest("GET /index.html HTTP/1.1");
+        req.setHost("127.0.0.1");
+        CookieJar cookieJar = new CookieJar();
+        cookieJar.updateFrom("JSESSIONID=abc; Path=/");
+        RequestSerializer serializer = new RequestSerializer(UTF8, new ArrayByteBufferPool());
+
+        ByteBuffer buffer = serializer.serialize(req, cookieJar);
+        String message = BufferUtil.toString(buffer, UTF8);
+        assertThat(message.contains("Cookie: JSESSIONID=abc\r\n"), is(true));
+        assertThat(message.indexOf("Cookie:"), is(message.lastIndexOf("Cookie:")));
+        serializer.release(buffer);
+    }
+
+    /**
+     * 見積もった容量を超える数のパラメータでも、すべて書き込まれること。
+     */
+    @Test
+    public void testSerializeLargeRequest() {
+        MockHttpRequest req = new MockHttpRequest("POST /action HTTP/1.1");
+        req.setHost("127.0.0.1");
+        for (int i = 0; i < 500; i++) {
+            req.setParam("p" + i, "v" + i);
+        }
+        RequestSerializer serializer = new RequestSerializer(UTF8, new ArrayByteBufferPool());
+
+        ByteBuffer buffer = serializer.serialize(req);
+        String message = BufferUtil.toString(buffer, UTF8);
+        String content = message.substring(message.indexOf("\r\n\r\n") + 4);
+        assertThat(content.split("&").length, is(500));
+        assertThat(message.contains("Content-Length: " + content.length() + "\r\n"), is(true));
+        serializer.release(buffer);
+    }
+
+    /**
+     * 見積もった容量を超える場合でも、指定した文字コードでエンコードされること。
+     */
+    @Test
+    public void testEncodeLargeMessage() {
+        StringBuilder message = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            message.append("あいうえお");
+        }
+        RequestSerializer serializer = new RequestSerializer(UTF8, new ArrayByteBufferPool());
+
+        ByteBuffer buffer = serializer.encode(message);
+        assertThat(buffer.remaining(), is(message.toString().getBytes(UTF8).length));
+        assertThat(BufferUtil.toString(buffer, UTF8), is(message.toString()));
+        serializer.release(buffer);
+    }
+
+    /**
+     * 読み込み済みのバッファのみプールに返却されること。
+     */
+    @Test
+    public void testReleaseOnlyConsumedBuffer() {
+        RequestSerializer serializer = new RequestSerializer(UTF8, new ArrayByteBufferPool());
+
+        ByteBuffer buffer = serializer.encode("GET / HTTP/1.1\r\n\r\n");
+        assertThat(serializer.release(buffer), is(false));
+
+        buffer.position(buffer.limit());
+        assertThat(serializer.release(buffer), is(true));
+    }
+}
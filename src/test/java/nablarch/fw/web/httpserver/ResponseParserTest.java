@@ -0,0 +1,167 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link ResponseParser}のテスト。
+ */
+public class ResponseParserTest {
+
+    /** 電文の文字コード */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /** 一時ファイルの出力先 */
+    private final File tmpDir = new File(System.getProperty("java.io.tmpdir"));
+
+    /** 作成された一時ファイル */
+    private final Set<File> spillFiles = new HashSet<File>();
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * ボディが閾値以下の場合、ヒープ上で解析されること。
+     */
+    @Test
+    public void testSmallBody() throws Exception {
+        ResponseParser parser = new ResponseParser(1024, tmpDir, spillFiles);
+        HttpResponse res = parser.parse(toBuffer(
+                "HTTP/1.1 200 OK\r\nContent-Type: text/plain\r\nContent-Length: 5\r\n\r\nhello"));
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString(), is("hello"));
+    }
+
+    /**
+     * ボディが閾値を超える場合、一時ファイルに書き出され、何度でも読み直せること。
+     */
+    @Test
+    public void testSpilledBody() throws Exception {
+        String body = repeat("0123456789", 100);
+        ResponseParser parser = new ResponseParser(10, tmpDir, spillFiles);
+        HttpResponse res = parser.parse(toBuffer(
+                "HTTP/1.1 200 OK\r\nContent-Type: text/csv\r\nContent-Length: " + body.length() + "\r\n\r\n" + body));
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getContentType(), is("text/csv"));
+        assertThat(res.getHeader("Content-Length"), is(String.valueOf(body.length())));
+        assertThat(res.getBodyStream(), instanceOf(SpilledBodyInputStream.class));
+        assertThat(spillFiles.contains(((SpilledBodyInputStream) res.getBodyStream()).getFile()), is(true));
+        assertThat(read(res.getBodyStream()), is(body));
+
+        res.getBodyStream().reset();
+        assertThat(read(res.getBodyStream()), is(body));
+    }
+
+    /**
+     * 一時ファイルがストリームのクローズ時に削除されること。
+     * 削除を抑止している間は、クローズ後も先頭から読み直せること。
+     */
+    @Test
+    public void testSpilledBodyDeletedOnClose() throws Exception {
+        String body = repeat("0123456789", 100);
+        ResponseParser parser = new ResponseParser(10, tmpDir, spillFiles);
+        HttpResponse res = parser.parse(toBuffer(
+                "HTTP/1.1 200 OK\r\nContent-Length: " + body.length() + "\r\n\r\n" + body));
+        SpilledBodyInputStream in = (SpilledBodyInputStream) res.getBodyStream();
+        File file = in.getFile();
+
+        in.setDeleteOnClose(false);
+        assertThat(read(in), is(body));
+        in.close();
+        assertThat(file.exists(), is(true));
+        in.reset();
+        assertThat(read(in), is(body));
+
+        in.setDeleteOnClose(true);
+        in.close();
+        assertThat(file.exists(), is(false));
+    }
+
+    /**
+     * ストリームをクローズしなかった一時ファイルが、サーバの停止時に削除されること。
+     */
+    @Test
+    public void testSpillFilesDeletedOnStop() throws Exception {
+        HttpServerJetty9 server = servers.createSampleApp().setResponseSpillThreshold(3);
+        server.addHandler("/large", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200)
+                              .setContentType("text/plain;charset=UTF-8")
+                              .write("spilled body");
+                  }
+              });
+        server.startLocal();
+        HttpResponse res = server.handle(new MockHttpRequest("GET /large HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getBodyStream(), instanceOf(SpilledBodyInputStream.class));
+        File file = ((SpilledBodyInputStream) res.getBodyStream()).getFile();
+        assertThat(read(res.getBodyStream()), is("spilled body"));
+        assertThat(file.exists(), is(true));
+
+        server.stop();
+        assertThat(file.exists(), is(false));
+    }
+
+    /**
+     * チャンク形式のボディが復号されて一時ファイルに書き出されること。
+     */
+    @Test
+    public void testChunkedBody() throws Exception {
+        String chunk = repeat("abcdefghij", 10);
+        ResponseParser parser = new ResponseParser(10, tmpDir, spillFiles);
+        HttpResponse res = parser.parse(toBuffer(
+                "HTTP/1.1 200 OK\r\nTransfer-Encoding: chunked\r\n\r\n"
+                        + "64\r\n" + chunk + "\r\n"
+                        + "64;ext=1\r\n" + chunk + "\r\n"
+                        + "0\r\n\r\n"));
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getHeader("Transfer-Encoding") == null, is(true));
+        assertThat(res.getHeader("Content-Length"), is("200"));
+        assertThat(read(res.getBodyStream()), is(chunk + chunk));
+    }
+
+    private static ByteBuffer toBuffer(String message) {
+        return ByteBuffer.wrap(message.getBytes(UTF8));
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buf = new byte[64];
+        int n;
+        while ((n = in.read(buf)) != -1) {
+            out.write(buf, 0, n);
+        }
+        return new String(out.toByteArray(), UTF8);
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,344 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.startsWith;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Point;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.test.core.http.HttpRequestTestSupportHandler;
+
+/**
+ * {@link ServerDaemon}のテスト。
+ */
+public class ServerDaemonTest {
+
+    /** テストで使用する、デーモンに接続するサーバ */
+    private final TestServers servers = new TestServers();
+
+    /** 状態ディレクトリ */
+    private File stateDirectory;
+
+    /**
+     * 状態ディレクトリを準備する。
+     */
+    @Before
+    public void setUp() {
+        stateDirectory = new File("tmp/daemon_" + UUID.randomUUID());
+    }
+
+    /**
+     * デーモンに接続するサーバと、デーモンを停止する。
+     */
+    @After
+    public void tearDown() {
+        servers.stopAll();
+        ServerDaemon.stop(stateDirectory.getPath());
+    }
+
+    /**
+     * 別のJVMで起動したデーモンでリクエストが処理され、同じ状態ディレクトリを指定したサーバでデーモンが共有されること。
+     */
+    @Test
+    public void testHandleOnDaemon() {
+        HttpServerJetty9 first = createClient();
+        first.startLocal();
+        HttpResponse res = first.handle(new MockHttpRequest("GET /jvm HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        String daemonJvm = res.getBodyString();
+        assertThat(daemonJvm, not(ManagementFactory.getRuntimeMXBean().getName()));
+        first.stop();
+
+        HttpServerJetty9 second = createClient();
+        second.startLocal();
+        assertThat(second.isRunning(), is(true));
+        res = second.handle(new MockHttpRequest("GET /jvm HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getBodyString(), is(daemonJvm));
+    }
+
+    /**
+     * デーモンのハンドラキューで変更・削除した実行コンテキストの値が、呼び出し元の実行コンテキストに反映され、
+     * ハンドラの完了を待機せずに応答が返却されること。
+     */
+    @Test
+    public void testContextCopyBackOnDaemon() {
+        HttpServerJetty9 server = createClient(ContextServerProvider.class);
+        server.startLocal();
+
+        ExecutionContext ctx = new ExecutionContext();
+        ctx.setRequestScopedVar("input", "request");
+        ctx.setRequestScopedVar("removeTarget", "request");
+        ctx.setSessionScopedVar("user", "user01");
+        ctx.setSessionScopedVar("sessionRemoveTarget", "session");
+        long start = System.currentTimeMillis();
+        HttpResponse res = server.handle(new MockHttpRequest("GET /context HTTP/1.1"), ctx);
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(System.currentTimeMillis() - start < ContextServerProvider.COMPLETION_TIMEOUT / 2, is(true));
+        assertThat(res.getBodyString(), not(ManagementFactory.getRuntimeMXBean().getName()));
+        assertThat((String) ctx.getRequestScopedVar("output"), is("request-changed"));
+        assertThat(ctx.getRequestScopedVar("removeTarget"), nullValue());
+        assertThat((String) ctx.getSessionScopedVar("user"), is("user01-changed"));
+        assertThat(ctx.getSessionScopedVar("sessionRemoveTarget"), nullValue());
+
+        res = server.handle(new MockHttpRequest("GET /invalidate HTTP/1.1"), ctx);
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(ctx.getSessionScopedVar("user"), nullValue());
+        assertThat(ctx.getSessionScopeMap().isEmpty(), is(true));
+    }
+
+    /**
+     * デーモンに接続している場合も、複数のリクエストが順に処理され、セッションが引き継がれること。
+     */
+    @Test
+    public void testHandleAllOnDaemon() {
+        HttpServerJetty9 server = createClient(CountingServerProvider.class);
+        server.startLocal();
+
+        List<HttpRequest> requests = new ArrayList<HttpRequest>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(new MockHttpRequest("GET /count HTTP/1.1"));
+        }
+        List<HandleResult> results = server.handleAll(requests, new ExecutionContext());
+
+        assertThat(results.size(), is(3));
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i).getRequest(), is(requests.get(i)));
+            assertThat(results.get(i).getResponse().getStatusCode(), is(200));
+            assertThat(results.get(i).getResponse().getBodyString(), is(String.valueOf(i + 1)));
+        }
+    }
+
+    /**
+     * 実行コンテキストの値のうち、直列化できるものが送受信されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testContextTransfer() throws Exception {
+        ExecutionContext source = new ExecutionContext();
+        source.setRequestScopedVar("name", "nablarch");
+        source.setRequestScopedVar("notSerializable", new Object());
+        source.setSessionScopedVar("user", "user01");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        DaemonProtocol.writeContext(out, source);
+        out.flush();
+
+        ExecutionContext copied = new ExecutionContext();
+        Object local = new Object();
+        copied.setRequestScopedVar("removed", "removed");
+        copied.setRequestScopedVar("local", local);
+        copied.setSessionScopedVar("removedSession", "removed");
+        DaemonProtocol.readContext(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), copied);
+        assertThat((String) copied.getRequestScopedVar("name"), is("nablarch"));
+        assertThat(copied.getRequestScopedVar("notSerializable"), nullValue());
+        assertThat((String) copied.getSessionScopedVar("user"), is("user01"));
+        // 送信元にない値は削除され、直列化できない値は保持される
+        assertThat(copied.getRequestScopedVar("removed"), nullValue());
+        assertThat(copied.getRequestScopedVar("local"), is(local));
+        assertThat(copied.getSessionScopedVar("removedSession"), nullValue());
+    }
+
+    /**
+     * 状態ディレクトリと接続情報のファイルが、所有者のみアクセスできるパーミッションで作成されること。
+     */
+    @Test
+    public void testStateDirectoryIsOwnerOnly() throws Exception {
+        Assume.assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        HttpServerJetty9 server = createClient();
+        server.startLocal();
+
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(stateDirectory.toPath())),
+                is("rwx------"));
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(
+                new File(stateDirectory, ServerDaemon.STATE_FILE).toPath())), is("rw-------"));
+        assertThat(PosixFilePermissions.toString(Files.getPosixFilePermissions(
+                new File(stateDirectory, ServerDaemon.LOCK_FILE).toPath())), is("rw-------"));
+    }
+
+    /**
+     * 復元を許可されていないクラスの値は受信側に設定されず、
+     * システムプロパティで許可したクラスは復元されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testContextTransferRejectsDisallowedClass() throws Exception {
+        ExecutionContext source = new ExecutionContext();
+        source.setRequestScopedVar("name", "nablarch");
+        source.setRequestScopedVar("point", new Point(1, 2));
+        source.setRequestScopedVar("points", new Point[] {new Point(3, 4)});
+
+        ExecutionContext copied = transfer(source);
+        assertThat((String) copied.getRequestScopedVar("name"), is("nablarch"));
+        assertThat(copied.getRequestScopedVar("point"), nullValue());
+        assertThat(copied.getRequestScopedVar("points"), nullValue());
+
+        System.setProperty(DaemonProtocol.ALLOWED_CLASSES_PROPERTY, "java.awt.Point");
+        try {
+            copied = transfer(source);
+            assertThat((Point) copied.getRequestScopedVar("point"), is(new Point(1, 2)));
+            assertThat(((Point[]) copied.getRequestScopedVar("points"))[0], is(new Point(3, 4)));
+        } finally {
+            System.clearProperty(DaemonProtocol.ALLOWED_CLASSES_PROPERTY);
+        }
+    }
+
+    /**
+     * デーモンの起動オプションに、アプリケーションが設定したシステムプロパティが引き継がれ、
+     * JVMが設定するシステムプロパティは引き継がれないこと。
+     */
+    @Test
+    public void testJvmArgumentsForwardSystemProperties() {
+        System.setProperty("nablarch.test.daemonProperty", "forwarded");
+        try {
+            List<String> arguments = DaemonClient.jvmArguments();
+            assertThat(arguments.contains("-Dnablarch.test.daemonProperty=forwarded"), is(true));
+            assertThat(arguments.contains("-Djava.home=" + System.getProperty("java.home")), is(false));
+            for (String argument : arguments) {
+                assertThat(argument, not(startsWith("-agentlib:jdwp")));
+            }
+        } finally {
+            System.clearProperty("nablarch.test.daemonProperty");
+        }
+    }
+
+    /**
+     * 実行コンテキストの値を送受信する。
+     *
+     * @param source 送信元の実行コンテキスト
+     * @return 受信した実行コンテキスト
+     * @throws Exception 予期しない例外
+     */
+    private static ExecutionContext transfer(ExecutionContext source) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        DaemonProtocol.writeContext(out, source);
+        out.flush();
+        ExecutionContext copied = new ExecutionContext();
+        DaemonProtocol.readContext(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), copied);
+        return copied;
+    }
+
+    /**
+     * デーモンに接続するサーバを生成する。
+     *
+     * @return サーバ
+     */
+    private HttpServerJetty9 createClient() {
+        return createClient(JvmNameServerProvider.class);
+    }
+
+    /**
+     * デーモンに接続するサーバを生成する。
+     *
+     * @param provider デーモンのサーバを構成するクラス
+     * @return サーバ
+     */
+    private HttpServerJetty9 createClient(Class<? extends DaemonServerProvider> provider) {
+        return servers.add(new HttpServerJetty9())
+                .setDaemonServerProvider(provider.getName())
+                .setDaemonStateDirectory(stateDirectory.getPath())
+                .setDaemonIdleTimeout(60000L);
+    }
+
+    /**
+     * デーモンのJVM名を返すサーバを構成するクラス。
+     */
+    public static class JvmNameServerProvider implements DaemonServerProvider {
+
+        @Override
+        public HttpServerJetty9 createServer() {
+            HttpServerJetty9 server = new HttpServerJetty9();
+            server.setWarBasePath("classpath://nablarch/fw/web/sample/app/")
+                  .addHandler("/jvm", new HttpRequestHandler() {
+                      public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                          return new HttpResponse(200).write(ManagementFactory.getRuntimeMXBean().getName());
+                      }
+                  });
+            return server;
+        }
+    }
+
+    /**
+     * セッションに保持した件数を返すサーバを構成するクラス。
+     */
+    public static class CountingServerProvider implements DaemonServerProvider {
+
+        @Override
+        public HttpServerJetty9 createServer() {
+            HttpServerJetty9 server = new HttpServerJetty9();
+            server.setWarBasePath("classpath://nablarch/fw/web/sample/app/")
+                  .addHandler("/count", new HttpRequestHandler() {
+                      public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                          Integer count = ctx.getSessionScopedVar("count");
+                          count = count == null ? 1 : count + 1;
+                          ctx.setSessionScopedVar("count", count);
+                          return new HttpResponse(200).write(String.valueOf(count));
+                      }
+                  });
+            return server;
+        }
+    }
+
+    /**
+     * 実行コンテキストの値を変更・削除するサーバを構成するクラス。
+     * <pre>
+     * 通常のリクエスト単体テストと同様に、ハンドラキューに{@link HttpRequestTestSupportHandler}を含める。
+     * </pre>
+     */
+    public static class ContextServerProvider implements DaemonServerProvider {
+
+        /** ハンドラの完了を待機する時間（ミリ秒） */
+        static final long COMPLETION_TIMEOUT = 30000L;
+
+        @Override
+        public HttpServerJetty9 createServer() {
+            HttpServerJetty9 server = new HttpServerJetty9();
+            server.setCompletionTimeout(COMPLETION_TIMEOUT)
+                  .setWarBasePath("classpath://nablarch/fw/web/sample/app/")
+                  .addHandler(new HttpRequestTestSupportHandler())
+                  .addHandler("/context", new HttpRequestHandler() {
+                      public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                          ctx.setRequestScopedVar("output", ctx.getRequestScopedVar("input") + "-changed");
+                          ctx.getRequestScopeMap().remove("removeTarget");
+                          ctx.setSessionScopedVar("user", ctx.getSessionScopedVar("user") + "-changed");
+                          ctx.getSessionScopeMap().remove("sessionRemoveTarget");
+                          return new HttpResponse(200).write(ManagementFactory.getRuntimeMXBean().getName());
+                      }
+                  })
+                  .addHandler("/invalidate", new HttpRequestHandler() {
+                      public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                          ctx.invalidateSession();
+                          return new HttpResponse(200);
+                      }
+                  });
+            return server;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package nablarch.fw.web.httpserver;
+
+import java.net.ServerSocket;
+
+/**
+ * テストで使用するポート番号に関するユーティリティ。
+ */
+public final class TestPorts {
+
+    /** インスタンス化しない。 */
+    private TestPorts() {
+    }
+
+    /**
+     * 空いているポート番号を取得する。
+     *
+     * @return ポート番号
+     * @throws Exception 取得に失敗した場合
+     */
+    public static int findFreePort() throws Exception {
+        ServerSocket socket = new ServerSocket(0);
+        try {
+            return socket.getLocalPort();
+        } finally {
+            socket.close();
+        }
+    }
+}
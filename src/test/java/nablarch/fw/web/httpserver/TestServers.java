@@ -0,0 +1,71 @@
+package nablarch.fw.web.httpserver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+
+/**
+ * テストで使用するサーバを生成し、テストの終了時にまとめて停止するためのユーティリティ。
+ */
+public final class TestServers {
+
+    /** 生成したサーバ */
+    private final List<HttpServerJetty9> servers = new ArrayList<HttpServerJetty9>();
+
+    /**
+     * サンプルアプリケーションをデプロイし、/hello で "hello" を返却するサーバを生成する。
+     * <pre>
+     * 生成したサーバは起動しない。
+     * </pre>
+     *
+     * @return サーバ
+     */
+    public HttpServerJetty9 create() {
+        HttpServerJetty9 server = createSampleApp();
+        server.addHandler("/hello", new HttpRequestHandler() {
+            public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                return new HttpResponse(200).write("hello");
+            }
+        });
+        return server;
+    }
+
+    /**
+     * サンプルアプリケーションをデプロイするサーバを、ハンドラを追加せずに生成する。
+     * <pre>
+     * 生成したサーバは起動しない。
+     * </pre>
+     *
+     * @return サーバ
+     */
+    public HttpServerJetty9 createSampleApp() {
+        HttpServerJetty9 server = add(new HttpServerJetty9());
+        server.setWarBasePath("classpath://nablarch/fw/web/sample/app/");
+        return server;
+    }
+
+    /**
+     * テストで生成したサーバを、停止の対象に追加する。
+     *
+     * @param server サーバ
+     * @return 引数のサーバ
+     */
+    public HttpServerJetty9 add(HttpServerJetty9 server) {
+        servers.add(server);
+        return server;
+    }
+
+    /**
+     * 生成したサーバをすべて停止する。
+     */
+    public void stopAll() {
+        for (HttpServerJetty9 server : servers) {
+            server.stop();
+        }
+        servers.clear();
+    }
+}
@@ -0,0 +1,110 @@
+package nablarch.fw.web.httpserver;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+
+/**
+ * {@link HttpServerJetty9}のスレッドプール設定のテスト。
+ */
+public class ThreadPoolTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * スレッド数等の設定が{@link QueuedThreadPool}に反映されること。
+     */
+    @Test
+    public void testQueuedThreadPool() {
+        HttpServerJetty9 server = servers.create()
+                .setMinThreads(2)
+                .setMaxThreads(16)
+                .setThreadIdleTimeout(30000)
+                .setReservedThreads(0)
+                .startLocal();
+
+        assertThat(server.getThreadPool(), instanceOf(QueuedThreadPool.class));
+        QueuedThreadPool pool = (QueuedThreadPool) server.getThreadPool();
+        assertThat(pool.getMinThreads(), is(2));
+        assertThat(pool.getMaxThreads(), is(16));
+        assertThat(pool.getIdleTimeout(), is(30000));
+        assertThat(pool.getReservedThreads(), is(0));
+        assertHello(server);
+    }
+
+    /**
+     * 設定した{@link java.util.concurrent.Executor}でリクエストが処理されること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testExecutor() throws Exception {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        HttpServerJetty9 server = servers.create().setExecutor(executor);
+        try {
+            server.startLocal();
+
+            assertThat(server.getThreadPool(), instanceOf(ExecutorBackedThreadPool.class));
+            assertHello(server);
+        } finally {
+            // Jettyが使用中のExecutorは、サーバを停止してから停止する
+            server.stop();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 仮想スレッドを有効にした場合、JDKのサポート有無に関わらずリクエストが処理されること。
+     */
+    @Test
+    public void testVirtualThreads() {
+        HttpServerJetty9 server = servers.create()
+                .setVirtualThreadsEnabled(true)
+                .startLocal();
+        assertHello(server);
+    }
+
+    /**
+     * 0以下の最大スレッド数は設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxThreads() {
+        new HttpServerJetty9().setMaxThreads(0);
+    }
+
+    /**
+     * 負の予約スレッド数は設定できないこと。
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeReservedThreads() {
+        new HttpServerJetty9().setReservedThreads(-1);
+    }
+
+    /**
+     * リクエストが処理されることを確認する。
+     *
+     * @param server サーバ
+     */
+    private void assertHello(HttpServerJetty9 server) {
+        HttpResponse res = server.handle(new MockHttpRequest("GET /hello HTTP/1.1"), new ExecutionContext());
+        assertThat(res.getStatusCode(), is(200));
+        assertThat(res.getBodyString(), is("hello"));
+    }
+}
@@ -0,0 +1,86 @@
+package nablarch.fw.web.httpserver.load;
+
+import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.httpserver.HttpServerJetty9;
+import nablarch.fw.web.httpserver.TestServers;
+
+/**
+ * {@link LoadRunner}のテスト。
+ */
+public class LoadRunnerTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * 指定したリクエスト数を送信し、エラーが集計されること。
+     */
+    @Test
+    public void testRequestCount() {
+        HttpServerJetty9 server = servers.createSampleApp();
+        server.addHandler("/ok", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).write("ok");
+                  }
+              })
+              .addHandler("/ng", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(503);
+                  }
+              })
+              .startLocal();
+
+        List<HttpRequest> requests = Arrays.<HttpRequest>asList(
+                new MockHttpRequest("GET /ok HTTP/1.1"),
+                new MockHttpRequest("GET /ok HTTP/1.1"),
+                new MockHttpRequest("GET /ok HTTP/1.1"),
+                new MockHttpRequest("GET /ng HTTP/1.1"));
+        LoadReport report = new LoadRunner(new LocalLoadTarget(server), requests)
+                .setThreads(4)
+                .setRequestCount(100)
+                .run();
+
+        assertThat(report.getRequestCount(), is(100L));
+        assertThat(report.getErrorCount(), is(25L));
+        assertThat(report.getErrorRate(), is(0.25));
+        assertThat(report.getThroughput() > 0, is(true));
+        assertThat(report.toCsv(), containsString("threads,requests,errors,error_rate"));
+        assertThat(report.toString(), containsString("p99.9"));
+    }
+
+    /**
+     * パーセンタイル値が記録した値の2%以内の誤差で求められること。
+     */
+    @Test
+    public void testHistogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertThat(histogram.getTotalCount(), is(1000L));
+        assertThat(histogram.getMinNanos(), is(1000L));
+        assertThat(histogram.getMaxNanos(), is(1000000L));
+        assertThat(Math.abs(histogram.getValueAtPercentile(50) - 500000L) <= 10000L, is(true));
+        assertThat(Math.abs(histogram.getValueAtPercentile(99) - 990000L) <= 19800L, is(true));
+        assertThat(histogram.getValueAtPercentile(100), is(1000000L));
+    }
+}
@@ -0,0 +1,65 @@
+package nablarch.fw.web.httpserver.load;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Test;
+
+import nablarch.fw.ExecutionContext;
+import nablarch.fw.web.HttpRequest;
+import nablarch.fw.web.HttpRequestHandler;
+import nablarch.fw.web.HttpResponse;
+import nablarch.fw.web.MockHttpRequest;
+import nablarch.fw.web.httpserver.HttpServerJetty9;
+import nablarch.fw.web.httpserver.TestPorts;
+import nablarch.fw.web.httpserver.TestServers;
+
+/**
+ * {@link UnixSocketLoadTarget}のテスト。
+ */
+public class UnixSocketLoadTargetTest {
+
+    /** テストで使用するサーバ */
+    private final TestServers servers = new TestServers();
+
+    @After
+    public void tearDown() {
+        servers.stopAll();
+    }
+
+    /**
+     * UNIXドメインソケット経由でリクエストを送信できること。
+     *
+     * @throws Exception 予期しない例外
+     */
+    @Test
+    public void testSend() throws Exception {
+        Assume.assumeTrue(File.separatorChar == '/');
+
+        File socketFile = File.createTempFile("nablarch-jetty9", ".sock");
+        int port = TestPorts.findFreePort();
+        HttpServerJetty9 server = servers.createSampleApp();
+        server.setPort(port)
+              .addHandler("/ok", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(200).write("ok");
+                  }
+              })
+              .addHandler("/ng", new HttpRequestHandler() {
+                  public HttpResponse handle(HttpRequest req, ExecutionContext ctx) {
+                      return new HttpResponse(503);
+                  }
+              });
+        server.setUnixSocketPath(socketFile.getPath())
+              .start();
+
+        UnixSocketLoadTarget target = new UnixSocketLoadTarget(socketFile.getPath());
+        assertThat(target.send(new MockHttpRequest("GET /ok HTTP/1.1")), is(200));
+        assertThat(target.send(new MockHttpRequest("GET /ng HTTP/1.1")), is(503));
+        assertThat(new SocketLoadTarget("127.0.0.1", port).send(new MockHttpRequest("GET /ok HTTP/1.1")), is(200));
+    }
+}
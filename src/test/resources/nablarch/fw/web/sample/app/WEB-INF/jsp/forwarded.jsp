@@ -0,0 +1,8 @@
+<html>
+  <head>
+    <title>Forwarded</title>
+  </head>
+  <body>
+    <%= request.getAttribute("greeting") %>
+  </body>
+</html>
@@ -0,0 +1,9 @@
+<% String title = "Included"; %>
+<html>
+  <head>
+    <%@ include file="title.jsp" %>
+  </head>
+  <body>
+    <%= request.getAttribute("greeting") %>
+  </body>
+</html>
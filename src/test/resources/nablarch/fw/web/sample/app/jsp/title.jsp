@@ -0,0 +1 @@
+<title><%= title %></title>